@@ -0,0 +1,74 @@
+package org.example.nlp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per question of resolving periods over a corpus of phrasings, each
+ * padded with filler words to a target length. Time should grow with the
+ * length of the question and nothing else; the only allocation is the
+ * returned resolution.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemporalParserBenchmark {
+
+    private static final String[] CORPUS = {
+            "why did my pay drop",
+            "what were my deductions in march",
+            "show me my sept 2024 payslip",
+            "how has my net pay changed over the past six months",
+            "what was my bonus 3 months ago",
+            "compare q1 2025 with q4 2024",
+            "my tax between january and april",
+            "overtime since february compared to last year",
+            "what happened in may",
+            "did my healthcare go up this year",
+    };
+
+    private static final YearMonth NOW = YearMonth.of(2025, 6);
+
+    // Filler words added to each question
+    @Param({"0", "40"})
+    int padding;
+
+    private final TemporalParser parser = new TemporalParser();
+    private String[] questions;
+
+    @Setup
+    public void setUp() {
+        String filler = "please tell me about my payroll ".repeat(padding / 6 + 1);
+        String prefix = String.join(" ", Arrays.copyOf(filler.split(" "), padding));
+        questions = new String[CORPUS.length];
+        for (int i = 0; i < CORPUS.length; i++) {
+            questions[i] = padding == 0 ? CORPUS[i] : prefix + " " + CORPUS[i];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void parseCorpus(Blackhole blackhole) {
+        for (String question : questions) {
+            blackhole.consume(parser.parse(question, NOW));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One employee's payroll for a month and the month before, read as whole
+ * rows and through each projection, against H2 in memory over the tables
+ * of scripts/schema.sql. There is no network, so the difference is the
+ * cost of executing, materializing and mapping the extra columns; -prof gc
+ * shows the bytes each read allocates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayrollProjectionBenchmark {
+
+    private static final List<YearMonth> MONTHS = List.of(YearMonth.of(2025, 4), YearMonth.of(2025, 3));
+
+    private SingleConnectionDataSource database;
+    private PayrollRepository repository;
+
+    @Setup
+    public void setUp() throws Exception {
+        // One connection throughout, as a pool would hand out, so connecting is not measured
+        database = new SingleConnectionDataSource("jdbc:h2:mem:projections;MODE=MySQL;DATABASE_TO_LOWER=TRUE", true);
+        try (Statement statement = database.getConnection().createStatement()) {
+            String script = new ClassPathResource("scripts/schema.sql").getContentAsString(StandardCharsets.UTF_8)
+                    .replace("\r\n", "\n");
+            for (String ddl : script.substring(0, script.indexOf("DELIMITER")).split(";")) {
+                ddl = ddl.replaceAll("(?m)^\\s*--.*$", "").trim();
+                if (ddl.startsWith("CREATE TABLE")) {
+                    statement.execute(ddl);
+                }
+            }
+            for (String line : script.substring(script.indexOf("DELIMITER")).split("\n")) {
+                if (line.trim().matches("CREATE (UNIQUE )?INDEX .* ON payroll_transactions.*")) {
+                    statement.execute(line.trim().replaceAll(";$", ""));
+                }
+            }
+            statement.execute("INSERT INTO payroll_transactions (employee_id, pay_period_start, pay_period_end, " +
+                    "gross_pay, net_pay, base_salary, bonus, overtime, tax_withheld, total_deductions, currency, load_date) " +
+                    "SELECT CONCAT('emp', LPAD(e.\"X\", 4, '0')), DATEADD(MONTH, m.\"X\", DATE '2024-01-01'), " +
+                    "DATEADD(DAY, -1, DATEADD(MONTH, m.\"X\" + 1, DATE '2024-01-01')), 6250.00, 4480.35, 5800.00, " +
+                    "250.00, 200.00, 1312.50, 457.15, 'USD', " +
+                    "DATEADD(MINUTE, e.\"X\" * 24 + m.\"X\", TIMESTAMP '2025-01-01 00:00:00') " +
+                    "FROM SYSTEM_RANGE(1, 500) e, SYSTEM_RANGE(0, 23) m");
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        repository = new PayrollRepository(jdbcTemplate, new EmployeeMonthViewRepository(jdbcTemplate, false));
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.destroy();
+    }
+
+    @Benchmark
+    public Map<YearMonth, ?> wholeRows() {
+        return repository.findPayrollByEmployeeIdAndMonths("emp0042", MONTHS);
+    }
+
+    @Benchmark
+    public Map<YearMonth, ?> netPay() {
+        return repository.findByEmployeeIdAndMonths("emp0042", MONTHS, PayrollProjection.NET_PAY);
+    }
+
+    @Benchmark
+    public Map<YearMonth, ?> tax() {
+        return repository.findByEmployeeIdAndMonths("emp0042", MONTHS, PayrollProjection.TAX);
+    }
+
+    @Benchmark
+    public Map<YearMonth, ?> components() {
+        return repository.findByEmployeeIdAndMonths("emp0042", MONTHS, PayrollProjection.COMPONENTS);
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.DeductionBreakdown;
+import org.example.model.Money;
+import org.example.model.PayrollTransaction;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Workforce-wide aggregates over a store of 1,000,008 employee-months:
+ * 83,334 employees with payroll in each month of 2024 and three deductions
+ * per employee-month. The store is loaded in setup from generated rows
+ * through the same refresh it runs against the database; its size is
+ * printed once loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ColumnarScanBenchmark {
+
+    private static final int EMPLOYEES = 83_334;
+    private static final YearMonth FIRST = YearMonth.of(2024, 1);
+    private static final YearMonth LAST = YearMonth.of(2024, 12);
+    private static final String[] TYPES = {"healthcare", "401k", "dental"};
+    private static final Money BUCKET = Money.ofCents(5_000);
+
+    private ColumnarPayrollStore store;
+
+    @Setup
+    public void setUp() {
+        PayrollRepository payroll = new PayrollRepository(null, null) {
+            @Override
+            public long findMaxId() {
+                return 0;
+            }
+
+            @Override
+            public void streamLoadedSince(LocalDateTime since, int fetchSize, Consumer<PayrollTransaction> consumer) {
+                // One row object reused throughout; the store copies the values out
+                PayrollTransaction row = new PayrollTransaction();
+                row.setLoadDate(LocalDateTime.of(2025, 1, 2, 0, 0));
+                for (YearMonth month = FIRST; !month.isAfter(LAST); month = month.plusMonths(1)) {
+                    row.setPayPeriodStart(month.atDay(1));
+                    row.setPayPeriodEnd(month.atEndOfMonth());
+                    for (int e = 0; e < EMPLOYEES; e++) {
+                        long net = 300_000 + (e * 7_919L + month.getMonthValue() * 104_729L) % 200_000;
+                        row.setEmployeeId("emp" + e);
+                        row.setNetPay(Money.ofCents(net));
+                        row.setGrossPay(Money.ofCents(net * 4 / 3));
+                        row.setBaseSalary(Money.ofCents(net));
+                        row.setBonus(Money.ofCents(e % 10 == 0 ? 50_000 : 0));
+                        row.setOvertime(Money.ofCents(e % 7 * 1_000));
+                        row.setTaxWithheld(Money.ofCents(net / 4));
+                        row.setTotalDeductions(Money.ofCents(net / 12));
+                        consumer.accept(row);
+                    }
+                }
+            }
+        };
+        DeductionRepository deductions = new DeductionRepository(null, null) {
+            @Override
+            public long findMaxId() {
+                return 0;
+            }
+
+            @Override
+            public Stream<DeductionBreakdown> streamByMonthsOrderedByEmployee(Collection<YearMonth> months, int fetchSize) {
+                DeductionBreakdown row = new DeductionBreakdown();
+                row.setEmployerMatch(Money.ZERO);
+                return months.stream().flatMap(month -> IntStream.range(0, EMPLOYEES * TYPES.length).mapToObj(i -> {
+                    row.setEmployeeId("emp" + i / TYPES.length);
+                    row.setPayPeriodEnd(month.atEndOfMonth());
+                    row.setDeductionType(TYPES[i % TYPES.length]);
+                    row.setAmount(Money.ofCents(10_000 + i % 997));
+                    return row;
+                }));
+            }
+        };
+        store = new ColumnarPayrollStore(payroll, deductions, new SimpleMeterRegistry(), true, 5_000, 3_600_000);
+        store.refresh();
+        System.out.println(store.getStats());
+    }
+
+    @Benchmark
+    public Object payChangeDistribution() {
+        return store.payChangeDistribution(LAST, LAST.minusMonths(1), BUCKET);
+    }
+
+    @Benchmark
+    public Object deductionTotalsForAYear() {
+        return store.deductionTotals("healthcare", FIRST, LAST);
+    }
+
+    @Benchmark
+    public void netPaySummaryForEveryMonth(Blackhole blackhole) {
+        for (YearMonth month = FIRST; !month.isAfter(LAST); month = month.plusMonths(1)) {
+            blackhole.consume(store.summarize(month, TrendMetric.NET_PAY));
+        }
+    }
+}
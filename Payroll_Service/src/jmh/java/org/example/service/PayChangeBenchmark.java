@@ -0,0 +1,175 @@
+package org.example.service;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.Money;
+import org.example.model.PayChange;
+import org.example.model.PayrollTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The pay-change path of one answer: the deltas between two months of
+ * payroll, the per-type deduction deltas, and the over-a-dollar checks that
+ * pick the reasons. {@code bigDecimal} is the code as it was before Money,
+ * BigDecimal fields and a threshold parsed for every check; {@code money}
+ * is {@link PayrollService#computePayChange} and the checks the answer
+ * makes now. Rows are built in setup, so mapping from JDBC is not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayChangeBenchmark {
+
+    private static final YearMonth CURRENT = YearMonth.of(2025, 4);
+    private static final YearMonth PREVIOUS = YearMonth.of(2025, 3);
+    private static final Money REASON_THRESHOLD = Money.ofCents(100);
+    private static final String[] TYPES = {"healthcare", "401k", "dental", "vision", "life insurance"};
+
+    // A month of payroll as the model held it: net, base, bonus, overtime, tax and total deductions
+    private record LegacyPayroll(BigDecimal[] components) {
+    }
+
+    private record LegacyDeduction(String type, BigDecimal amount) {
+    }
+
+    private LegacyPayroll legacyCurrent;
+    private LegacyPayroll legacyPrevious;
+    private List<LegacyDeduction> legacyCurrentDeductions;
+    private List<LegacyDeduction> legacyPreviousDeductions;
+
+    private PayrollTransaction current;
+    private PayrollTransaction previous;
+    private List<DeductionBreakdown> currentDeductions;
+    private List<DeductionBreakdown> previousDeductions;
+
+    @Setup
+    public void setUp() {
+        long[] currentCents = {345_000, 500_000, 0, 12_500, 96_500, 58_500};
+        long[] previousCents = {370_000, 500_000, 20_000, 0, 100_000, 50_000};
+        legacyCurrent = legacy(currentCents);
+        legacyPrevious = legacy(previousCents);
+        current = payroll(CURRENT, currentCents);
+        previous = payroll(PREVIOUS, previousCents);
+
+        legacyCurrentDeductions = new ArrayList<>();
+        legacyPreviousDeductions = new ArrayList<>();
+        currentDeductions = new ArrayList<>();
+        previousDeductions = new ArrayList<>();
+        for (int i = 0; i < TYPES.length; i++) {
+            long currentAmount = 10_000 + i * 2_500L + (i % 2 == 0 ? 1_750 : 0);
+            long previousAmount = 10_000 + i * 2_500L;
+            legacyCurrentDeductions.add(new LegacyDeduction(TYPES[i], BigDecimal.valueOf(currentAmount, 2)));
+            legacyPreviousDeductions.add(new LegacyDeduction(TYPES[i], BigDecimal.valueOf(previousAmount, 2)));
+            currentDeductions.add(deduction(CURRENT, TYPES[i], currentAmount));
+            previousDeductions.add(deduction(PREVIOUS, TYPES[i], previousAmount));
+        }
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        BigDecimal[] changes = new BigDecimal[6];
+        for (int i = 0; i < changes.length; i++) {
+            changes[i] = legacyCurrent.components()[i].subtract(legacyPrevious.components()[i]);
+        }
+
+        Map<String, BigDecimal> currentDeductionMap = legacyDeductionsByType(legacyCurrentDeductions);
+        Map<String, BigDecimal> previousDeductionMap = legacyDeductionsByType(legacyPreviousDeductions);
+        Map<String, BigDecimal> deductionChanges = new HashMap<>();
+        Set<String> allDeductionTypes = new HashSet<>();
+        allDeductionTypes.addAll(currentDeductionMap.keySet());
+        allDeductionTypes.addAll(previousDeductionMap.keySet());
+        for (String deductionType : allDeductionTypes) {
+            BigDecimal currentAmount = currentDeductionMap.getOrDefault(deductionType, BigDecimal.ZERO);
+            BigDecimal previousAmount = previousDeductionMap.getOrDefault(deductionType, BigDecimal.ZERO);
+            BigDecimal change = currentAmount.subtract(previousAmount);
+            if (change.compareTo(BigDecimal.ZERO) != 0) {
+                deductionChanges.put(deductionType, change);
+            }
+        }
+
+        // Base pay, bonus, overtime and tax, then each deduction
+        for (int i = 1; i <= 4; i++) {
+            blackhole.consume(changes[i].abs().compareTo(new BigDecimal("1.00")) > 0);
+        }
+        for (Map.Entry<String, BigDecimal> entry : deductionChanges.entrySet()) {
+            blackhole.consume(entry.getValue().abs().compareTo(new BigDecimal("1.00")) > 0);
+        }
+        blackhole.consume(changes);
+        blackhole.consume(deductionChanges);
+    }
+
+    @Benchmark
+    public void money(Blackhole blackhole) {
+        PayChange payChange = PayrollService.computePayChange(CURRENT, PREVIOUS, current, previous,
+                currentDeductions, previousDeductions);
+
+        blackhole.consume(payChange.getBasePayChange().exceeds(REASON_THRESHOLD));
+        blackhole.consume(payChange.getBonusChange().exceeds(REASON_THRESHOLD));
+        blackhole.consume(payChange.getOvertimeChange().exceeds(REASON_THRESHOLD));
+        blackhole.consume(payChange.getTaxChange().exceeds(REASON_THRESHOLD));
+        for (Map.Entry<String, Money> entry : payChange.getDeductionChanges().entrySet()) {
+            blackhole.consume(entry.getValue().exceeds(REASON_THRESHOLD));
+        }
+        blackhole.consume(payChange);
+    }
+
+    private static Map<String, BigDecimal> legacyDeductionsByType(List<LegacyDeduction> deductions) {
+        Map<String, BigDecimal> deductionMap = new HashMap<>();
+        for (LegacyDeduction deduction : deductions) {
+            deductionMap.put(deduction.type(), deduction.amount());
+        }
+        return deductionMap;
+    }
+
+    private static LegacyPayroll legacy(long[] cents) {
+        BigDecimal[] components = new BigDecimal[cents.length];
+        for (int i = 0; i < cents.length; i++) {
+            components[i] = BigDecimal.valueOf(cents[i], 2);
+        }
+        return new LegacyPayroll(components);
+    }
+
+    private static PayrollTransaction payroll(YearMonth month, long[] cents) {
+        PayrollTransaction payroll = new PayrollTransaction();
+        payroll.setEmployeeId("emp001");
+        payroll.setPayPeriodEnd(month.atEndOfMonth());
+        payroll.setNetPay(Money.ofCents(cents[0]));
+        payroll.setBaseSalary(Money.ofCents(cents[1]));
+        payroll.setBonus(Money.ofCents(cents[2]));
+        payroll.setOvertime(Money.ofCents(cents[3]));
+        payroll.setTaxWithheld(Money.ofCents(cents[4]));
+        payroll.setTotalDeductions(Money.ofCents(cents[5]));
+        return payroll;
+    }
+
+    private static DeductionBreakdown deduction(YearMonth month, String type, long cents) {
+        DeductionBreakdown deduction = new DeductionBreakdown();
+        deduction.setEmployeeId("emp001");
+        deduction.setPayPeriodEnd(month.atEndOfMonth());
+        deduction.setDeductionType(type);
+        deduction.setAmount(Money.ofCents(cents));
+        return deduction;
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.model.PayChangeReason;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranking the reasons of one pay-change answer: the string-parsing
+ * comparator PayChangeReason used to need, a sort on the typed magnitudes,
+ * and the top-three selection the narrative uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReasonRankingBenchmark {
+
+    // Base pay, bonus, overtime and tax plus a few deductions
+    @Param({"6", "12"})
+    int reasonCount;
+
+    private static final Comparator<String> LEGACY_DELTA_ORDER = (d1, d2) -> {
+        BigDecimal val1 = new BigDecimal(d1.replace("$", "").replace("+", ""));
+        BigDecimal val2 = new BigDecimal(d2.replace("$", "").replace("+", ""));
+        return val2.abs().compareTo(val1.abs());
+    };
+
+    private static final Comparator<PayChangeReason> BY_MAGNITUDE_DESC =
+            Comparator.comparing(PayChangeReason::getMagnitude).reversed();
+
+    private List<String> deltas;
+    private List<PayChangeReason> reasons;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        deltas = new ArrayList<>(reasonCount);
+        reasons = new ArrayList<>(reasonCount);
+        for (int i = 0; i < reasonCount; i++) {
+            Money change = Money.ofCents(random.nextInt(400_000) - 200_000);
+            PayChangeReason reason = PayChangeReason.change("Deduction", "Type " + i, change,
+                    PayChangeReason.Direction.of(change));
+            reasons.add(reason);
+            deltas.add(reason.getDelta());
+        }
+    }
+
+    @Benchmark
+    public List<String> legacyStringSort() {
+        List<String> ranked = new ArrayList<>(deltas);
+        ranked.sort(LEGACY_DELTA_ORDER);
+        return ranked;
+    }
+
+    @Benchmark
+    public List<PayChangeReason> typedSort() {
+        List<PayChangeReason> ranked = new ArrayList<>(reasons);
+        ranked.sort(BY_MAGNITUDE_DESC);
+        return ranked;
+    }
+
+    @Benchmark
+    public List<PayChangeReason> typedTopThree() {
+        List<PayChangeReason> ranked = new ArrayList<>(reasons);
+        ExplanationService.moveLargestToFront(ranked, 3);
+        return ranked;
+    }
+}
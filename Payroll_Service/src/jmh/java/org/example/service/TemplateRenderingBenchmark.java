@@ -0,0 +1,80 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.util.TextTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.service.ExplanationTemplates.DEDUCTION_ITEM;
+import static org.example.service.ExplanationTemplates.NEW_DEDUCTIONS_IN;
+import static org.example.service.ExplanationTemplates.OVERTIME_INCREASED;
+
+/**
+ * Explanation sentences built the way the handlers used to build them
+ * (concatenation, {@code +=} in a loop and a trailing {@code replaceAll})
+ * against the compiled templates. Each pair produces the same text; run with
+ * {@code -prof gc} to compare bytes per sentence.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateRenderingBenchmark {
+
+    private record Item(String type, BigDecimal amount, Money money) {
+    }
+
+    private final YearMonth month = YearMonth.of(2025, 3);
+    private final BigDecimal overtime = new BigDecimal("312.50");
+    private final Money overtimeMoney = Money.ofCents(31_250);
+    private final List<Item> deductions = List.of(
+            new Item("healthcare", new BigDecimal("210.00"), Money.ofCents(21_000)),
+            new Item("retirement", new BigDecimal("450.25"), Money.ofCents(45_025)),
+            new Item("dental", new BigDecimal("32.10"), Money.ofCents(3_210)),
+            new Item("union", new BigDecimal("18.00"), Money.ofCents(1_800)));
+
+    @Benchmark
+    public String legacyOvertimeSentence() {
+        return "Your overtime pay increased by $" + overtime + " in " + month.getMonth().toString().toLowerCase() + ".";
+    }
+
+    @Benchmark
+    public String templateOvertimeSentence() {
+        return OVERTIME_INCREASED.render(overtimeMoney, month);
+    }
+
+    @Benchmark
+    public String legacyDeductionList() {
+        String explanation = "New deductions in " + month.getMonth().toString().toLowerCase() + ": ";
+        for (Item deduction : deductions) {
+            explanation += deduction.type() + " ($" + deduction.amount() + "), ";
+        }
+        return explanation.replaceAll(", $", ".");
+    }
+
+    @Benchmark
+    public String templateDeductionList() {
+        StringBuilder text = NEW_DEDUCTIONS_IN.appendTo(TextTemplate.buffer(), month);
+        for (int i = 0; i < deductions.size(); i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            DEDUCTION_ITEM.appendTo(text, deductions.get(i).type(), deductions.get(i).money());
+        }
+        return text.append('.').toString();
+    }
+}
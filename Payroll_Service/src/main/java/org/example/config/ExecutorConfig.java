@@ -0,0 +1,35 @@
+package org.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService explanationExecutor(@Value("${explanation.batch.parallelism:0}") int parallelism) {
+        return fixedPool("explanation-worker-", parallelism);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ingestionExecutor(@Value("${payroll.ingest.parallelism:0}") int parallelism) {
+        return fixedPool("ingest-worker-", parallelism);
+    }
+
+    private static ExecutorService fixedPool(String threadPrefix, int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, threadPrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+}
@@ -1,23 +1,44 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.constraints.NotBlank;
+import org.example.ingest.IngestFormat;
+import org.example.ingest.IngestionReport;
+import org.example.ingest.IngestionService;
 import org.example.model.ExplanationResponse;
+import org.example.model.Money;
 import org.example.model.Payslip;
 import org.example.model.QueryRequest;
+import org.example.service.ColumnarPayrollStore;
 import org.example.service.ExplanationService;
+import org.example.service.PayChangeSink;
 import org.example.service.PayrollService;
+import org.example.service.TrendMetric;
+import org.example.service.WorkforcePayChangeService;
 import org.example.util.PayslipPdfGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.YearMonth;
 import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
 
 @Validated
 @RestController
@@ -27,12 +48,27 @@ public class PayrollQueryController {
 
     private final ExplanationService explanationService;
     private final PayrollService payrollService;
+    private final WorkforcePayChangeService workforcePayChangeService;
+    private final IngestionService ingestionService;
+    private final ColumnarPayrollStore columnarStore;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
 
     @Autowired
     public PayrollQueryController(ExplanationService explanationService,
-                                   PayrollService payrollService)  {
+                                   PayrollService payrollService,
+                                   WorkforcePayChangeService workforcePayChangeService,
+                                   IngestionService ingestionService,
+                                   ColumnarPayrollStore columnarStore,
+                                   ObjectMapper objectMapper,
+                                   @Value("${explanation.batch.max-size:1000}") int maxBatchSize)  {
         this.explanationService = explanationService;
         this.payrollService = payrollService;
+        this.workforcePayChangeService = workforcePayChangeService;
+        this.ingestionService = ingestionService;
+        this.columnarStore = columnarStore;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @PostMapping("/query")
@@ -40,10 +76,164 @@ public class PayrollQueryController {
         String employeeId = request.getEmployeeId();
         String question = request.getQuestion();
 
-        ExplanationResponse explanation = explanationService.generateExplanation(employeeId, question);
+        ExplanationResponse explanation = explanationService.generateExplanation(employeeId, question, request.getConversationId());
         return ResponseEntity.ok(explanation);
     }
 
+    @PostMapping("/query/batch")
+    public ResponseEntity<List<ExplanationResponse>> explainPayChanges(@RequestBody List<QueryRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            logger.warn("Rejecting batch of {} questions (limit {})", requests.size(), maxBatchSize);
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<ExplanationResponse> explanations = explanationService.generateExplanations(requests);
+        return ResponseEntity.ok(explanations);
+    }
+
+    /**
+     * Streams the pay change of every employee between two months, as JSON
+     * lines (the default) or CSV. The previous month defaults to the month
+     * before {@code currentMonth}.
+     */
+    @GetMapping("/pay-changes")
+    public ResponseEntity<StreamingResponseBody> exportPayChanges(
+            @RequestParam("currentMonth") @NotBlank String currentMonthStr,
+            @RequestParam(value = "previousMonth", required = false) String previousMonthStr,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        YearMonth currentMonth;
+        YearMonth previousMonth;
+        try {
+            currentMonth = YearMonth.parse(currentMonthStr);
+            previousMonth = previousMonthStr == null ? currentMonth.minusMonths(1) : YearMonth.parse(previousMonthStr);
+        } catch (DateTimeParseException e) {
+            logger.error("Invalid month format: {} / {}", currentMonthStr, previousMonthStr, e);
+            return ResponseEntity.badRequest().build();
+        }
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (currentMonth.equals(previousMonth)) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Exporting pay changes {} vs {} as {}", currentMonth, previousMonth, format);
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 1 << 16);
+            PayChangeSink sink = csv ? PayChangeSink.csv(writer) : PayChangeSink.jsonLines(writer, objectMapper);
+            workforcePayChangeService.analyzePayChanges(currentMonth, previousMonth, sink);
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON);
+        headers.setContentDispositionFormData("attachment",
+                String.format("pay_changes_%s_%s.%s", currentMonth, previousMonth, csv ? "csv" : "ndjson"));
+        return new ResponseEntity<>(body, headers, org.springframework.http.HttpStatus.OK);
+    }
+
+    /**
+     * Loads a payroll export, CSV with a header row or JSON lines (the
+     * default), upserting on employee and pay period end. Invalid rows are
+     * skipped and reported; the rest are loaded.
+     */
+    @PostMapping("/ingest/payroll")
+    public ResponseEntity<IngestionReport> ingestPayroll(
+            InputStream body, @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        return ingest("payroll", body, format);
+    }
+
+    /**
+     * Loads a deduction export, upserting on employee, pay period end and
+     * deduction type.
+     */
+    @PostMapping("/ingest/deductions")
+    public ResponseEntity<IngestionReport> ingestDeductions(
+            InputStream body, @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        return ingest("deductions", body, format);
+    }
+
+    private ResponseEntity<IngestionReport> ingest(String table, InputStream body, String format) {
+        IngestFormat ingestFormat;
+        try {
+            ingestFormat = IngestFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Ingesting {} as {}", table, ingestFormat);
+        try {
+            IngestionReport report = table.equals("payroll")
+                    ? ingestionService.ingestPayroll(body, ingestFormat)
+                    : ingestionService.ingestDeductions(body, ingestFormat);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            logger.error("Rejected {} upload: {}", table, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            logger.error("Error reading {} upload", table, e);
+            return ResponseEntity.status(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Workforce-wide net pay movement between two months from the columnar
+     * store, with drops bucketed in steps of {@code bucket} dollars. The
+     * previous month defaults to the month before {@code currentMonth}.
+     */
+    @GetMapping("/analytics/pay-change-distribution")
+    public ResponseEntity<ColumnarPayrollStore.PayChangeDistribution> payChangeDistribution(
+            @RequestParam("currentMonth") @NotBlank String currentMonthStr,
+            @RequestParam(value = "previousMonth", required = false) String previousMonthStr,
+            @RequestParam(value = "bucket", defaultValue = "100") BigDecimal bucket) {
+        return analytics(() -> {
+            YearMonth currentMonth = YearMonth.parse(currentMonthStr);
+            YearMonth previousMonth = previousMonthStr == null ? currentMonth.minusMonths(1) : YearMonth.parse(previousMonthStr);
+            return columnarStore.payChangeDistribution(currentMonth, previousMonth, Money.of(bucket));
+        });
+    }
+
+    /**
+     * Monthly totals of one deduction type across all employees.
+     */
+    @GetMapping("/analytics/deduction-totals")
+    public ResponseEntity<List<ColumnarPayrollStore.MonthlyDeductionTotal>> deductionTotals(
+            @RequestParam("type") @NotBlank String deductionType,
+            @RequestParam("fromMonth") @NotBlank String fromMonthStr,
+            @RequestParam("toMonth") @NotBlank String toMonthStr) {
+        return analytics(() -> columnarStore.deductionTotals(deductionType,
+                YearMonth.parse(fromMonthStr), YearMonth.parse(toMonthStr)));
+    }
+
+    /**
+     * Total, range and mean of one payroll component (gross, net, tax,
+     * bonus, overtime) across all employees in a month.
+     */
+    @GetMapping("/analytics/summary")
+    public ResponseEntity<ColumnarPayrollStore.ComponentSummary> componentSummary(
+            @RequestParam("month") @NotBlank String monthStr,
+            @RequestParam(value = "metric", defaultValue = "NET_PAY") String metric) {
+        return analytics(() -> columnarStore.summarize(YearMonth.parse(monthStr),
+                TrendMetric.valueOf(metric.toUpperCase(Locale.ROOT))));
+    }
+
+    @GetMapping("/analytics/store")
+    public ResponseEntity<ColumnarPayrollStore.StoreStats> columnarStoreStats() {
+        return ResponseEntity.ok(columnarStore.getStats());
+    }
+
+    // Bad months, metrics or amounts are 400; a disabled or still-loading store is 503
+    private <T> ResponseEntity<T> analytics(Supplier<T> query) {
+        try {
+            return ResponseEntity.ok(query.get());
+        } catch (DateTimeParseException | IllegalArgumentException | ArithmeticException e) {
+            logger.error("Rejected analytics request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            logger.warn("Analytics unavailable: {}", e.getMessage());
+            return ResponseEntity.status(org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     @GetMapping("/payslip")
     public ResponseEntity<byte[]> generatePayslip(
             @RequestParam("employeeId") @NotBlank String employeeId,
@@ -0,0 +1,196 @@
+package org.example.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * RFC 4180 CSV: comma separated, double-quoted fields may hold commas, quotes
+ * (doubled) and line breaks, and records end with LF or CRLF. Blank lines are
+ * skipped. A header missing a required column fails the whole load.
+ */
+final class CsvRecordReader implements RecordReader {
+
+    private final Reader reader;
+    private final char[] buffer = new char[1 << 16];
+    private int position;
+    private int limit;
+    private long line = 1;
+
+    // Schema index of each CSV column, -1 for columns that are not read
+    private final int[] targets;
+    private final int columnCount;
+    private final StringBuilder field = new StringBuilder();
+
+    CsvRecordReader(Reader reader, List<String> columns, Set<String> required) throws IOException {
+        this.reader = reader;
+        this.columnCount = columns.size();
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input has no header row");
+        }
+        targets = new int[header.size()];
+        boolean[] present = new boolean[columnCount];
+        for (int i = 0; i < header.size(); i++) {
+            targets[i] = columns.indexOf(header.get(i).trim().toLowerCase(Locale.ROOT));
+            if (targets[i] >= 0) {
+                present[targets[i]] = true;
+            }
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (!present[i] && required.contains(columns.get(i))) {
+                throw new IllegalArgumentException("CSV header has no " + columns.get(i) + " column");
+            }
+        }
+    }
+
+    @Override
+    public RawRecord next() throws IOException {
+        while (true) {
+            long start = line;
+            List<String> values;
+            try {
+                values = readRecord();
+            } catch (IllegalArgumentException e) {
+                return malformed(start, e.getMessage());
+            }
+            if (values == null) {
+                return null;
+            }
+            if (values.size() == 1 && values.get(0).isEmpty()) {
+                continue;
+            }
+            String[] fields = new String[columnCount];
+            for (int i = 0; i < values.size() && i < targets.length; i++) {
+                if (targets[i] >= 0) {
+                    fields[targets[i]] = values.get(i);
+                }
+            }
+            return new Fields(start, fields);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * The next record's raw values, or null at the end of the input.
+     */
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean afterQuote = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IllegalArgumentException("unterminated quoted field");
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+                afterQuote = false;
+            } else if (c == '\n' || c < 0) {
+                if (c == '\n') {
+                    line++;
+                }
+                int end = field.length();
+                if (!afterQuote && end > 0 && field.charAt(end - 1) == '\r') {
+                    field.setLength(end - 1);
+                }
+                values.add(field.toString());
+                return values;
+            } else if (c == '"' && field.length() == 0 && !afterQuote) {
+                quoted = true;
+            } else if (afterQuote && c != '\r') {
+                throw skipRest("unexpected character after closing quote");
+            } else if (!afterQuote) {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Skips to the end of the current line so the next record starts clean.
+     */
+    private IllegalArgumentException skipRest(String message) throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c != '\n');
+        if (c == '\n') {
+            line++;
+        }
+        return new IllegalArgumentException(message);
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        limit = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private static RawRecord malformed(long line, String reason) {
+        return new RawRecord() {
+            @Override
+            public long line() {
+                return line;
+            }
+
+            @Override
+            public String[] fields() {
+                throw new IllegalArgumentException(reason);
+            }
+        };
+    }
+
+    private record Fields(long line, String[] values) implements RawRecord {
+
+        @Override
+        public String[] fields() {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.ingest;
+
+import org.example.model.DeductionBreakdown;
+import org.example.util.StringDictionary;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+final class DeductionRowParser extends RowParser<DeductionBreakdown> {
+
+    private static final List<String> COLUMNS = List.of("employee_id", "pay_period_end", "deduction_type",
+            "amount", "employer_match", "category");
+
+    private static final Set<String> REQUIRED = Set.of("employee_id", "pay_period_end", "deduction_type", "amount");
+
+    @Override
+    List<String> columns() {
+        return COLUMNS;
+    }
+
+    @Override
+    Set<String> requiredColumns() {
+        return REQUIRED;
+    }
+
+    @Override
+    DeductionBreakdown parse(String[] fields, LocalDateTime loadDate) {
+        DeductionBreakdown deduction = new DeductionBreakdown();
+        deduction.setEmployeeId(text(fields, 0, 50));
+        deduction.setPayPeriodEnd(date(fields, 1));
+        // Stored as spelled; the key's case-insensitive collation upserts types differing only in case onto one row
+        deduction.setDeductionType(StringDictionary.DEDUCTION_TYPES.canonical(text(fields, 2, 100)));
+        deduction.setAmount(amount(fields, 3, false));
+        deduction.setEmployerMatch(amount(fields, 4, false));
+        deduction.setCategory(text(fields, 5, 50));
+        return deduction;
+    }
+
+    @Override
+    String employeeId(DeductionBreakdown row) {
+        return row.getEmployeeId();
+    }
+
+    @Override
+    LocalDate payPeriodEnd(DeductionBreakdown row) {
+        return row.getPayPeriodEnd();
+    }
+}
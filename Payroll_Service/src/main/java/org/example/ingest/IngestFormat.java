@@ -0,0 +1,26 @@
+package org.example.ingest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Export formats the ingestion pipeline reads. CSV needs a header row naming
+ * the columns; NDJSON carries one JSON object per line. Either way columns
+ * are matched by name, case-insensitively, and unknown ones are ignored.
+ */
+public enum IngestFormat {
+    CSV,
+    NDJSON;
+
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    RecordReader open(InputStream in, RowParser<?> parser) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_CHARS);
+        return this == CSV
+                ? new CsvRecordReader(reader, parser.columns(), parser.requiredColumns())
+                : new NdjsonRecordReader(reader, parser.columns());
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.ingest;
+
+import java.util.List;
+
+/**
+ * Outcome of one ingestion run. Only the first rejections are listed; the
+ * count covers all of them. Employees are counted per chunk: exact for an
+ * export grouped by employee, and otherwise an employee whose rows are
+ * spread across chunks counts once for each.
+ */
+public record IngestionReport(String table, long rows, long accepted, long rejected, long employees,
+                              long elapsedMillis, long rowsPerSecond, List<Rejection> rejections) {
+
+    public record Rejection(long line, String reason) {
+    }
+}
@@ -0,0 +1,210 @@
+package org.example.ingest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.model.DeductionBreakdown;
+import org.example.model.PayrollTransaction;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.example.service.PayrollChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Loads payroll exports into payroll_transactions and deduction_breakdown.
+ * The calling thread streams records off the input in chunks and hands each
+ * chunk to the ingestion pool for validation; validated chunks are written
+ * back in input order as one upsert batch and one transaction each. At most
+ * two chunks per worker are in flight, which bounds the heap a load needs
+ * whatever its size. Every row of a run shares one load_date. After each
+ * chunk is committed the {@link PayrollChangeListener}s hear which employees
+ * and months it touched.
+ */
+@Service
+public class IngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionService.class);
+
+    private final PayrollRepository payrollRepository;
+    private final DeductionRepository deductionRepository;
+    private final ExecutorService ingestionExecutor;
+    private final List<PayrollChangeListener> listeners;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final int maxReportedRejections;
+
+    @Autowired
+    public IngestionService(PayrollRepository payrollRepository, DeductionRepository deductionRepository,
+                            @Qualifier("ingestionExecutor") ExecutorService ingestionExecutor,
+                            List<PayrollChangeListener> listeners, MeterRegistry meterRegistry,
+                            @Value("${payroll.ingest.chunk-size:5000}") int chunkSize,
+                            @Value("${payroll.ingest.parallelism:0}") int parallelism,
+                            @Value("${payroll.ingest.max-reported-rejections:100}") int maxReportedRejections) {
+        this.payrollRepository = payrollRepository;
+        this.deductionRepository = deductionRepository;
+        this.ingestionExecutor = ingestionExecutor;
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.maxInFlight = 2 * (parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    public IngestionReport ingestPayroll(InputStream in, IngestFormat format) throws IOException {
+        return ingest("payroll_transactions", in, format, new PayrollRowParser(),
+                payrollRepository::upsertAll, PayrollChangeListener::payrollChanged);
+    }
+
+    public IngestionReport ingestDeductions(InputStream in, IngestFormat format) throws IOException {
+        return ingest("deduction_breakdown", in, format, new DeductionRowParser(),
+                deductionRepository::upsertAll, PayrollChangeListener::deductionsChanged);
+    }
+
+    private <T> IngestionReport ingest(String table, InputStream in, IngestFormat format, RowParser<T> parser,
+                                       Consumer<List<T>> writer,
+                                       BiConsumer<PayrollChangeListener, Map<String, Set<YearMonth>>> notify)
+            throws IOException {
+        long started = System.nanoTime();
+        LocalDateTime loadDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Run run = new Run();
+        Deque<Future<Chunk<T>>> inFlight = new ArrayDeque<>();
+
+        try (RecordReader reader = format.open(in, parser)) {
+            List<RecordReader.RawRecord> records = new ArrayList<>(chunkSize);
+            RecordReader.RawRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+                if (records.size() == chunkSize) {
+                    inFlight.add(submit(records, parser, loadDate));
+                    records = new ArrayList<>(chunkSize);
+                    if (inFlight.size() >= maxInFlight) {
+                        write(await(inFlight.removeFirst()), run, parser, writer, notify);
+                    }
+                }
+            }
+            if (!records.isEmpty()) {
+                inFlight.add(submit(records, parser, loadDate));
+            }
+            while (!inFlight.isEmpty()) {
+                write(await(inFlight.removeFirst()), run, parser, writer, notify);
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        long rows = run.accepted + run.rejected;
+        long rowsPerSecond = rows * 1000 / Math.max(elapsedMillis, 1);
+        meterRegistry.counter("payroll.ingest.rows", "table", table, "result", "accepted").increment(run.accepted);
+        meterRegistry.counter("payroll.ingest.rows", "table", table, "result", "rejected").increment(run.rejected);
+        logger.info("Ingested {} rows into {} ({} accepted, {} rejected, {} employees) in {} ms, {} rows/s",
+                rows, table, run.accepted, run.rejected, run.employees, elapsedMillis, rowsPerSecond);
+        return new IngestionReport(table, rows, run.accepted, run.rejected, run.employees,
+                elapsedMillis, rowsPerSecond, run.rejections);
+    }
+
+    private <T> Future<Chunk<T>> submit(List<RecordReader.RawRecord> records, RowParser<T> parser,
+                                        LocalDateTime loadDate) {
+        return ingestionExecutor.submit(() -> {
+            Chunk<T> chunk = new Chunk<>(records.size());
+            for (RecordReader.RawRecord record : records) {
+                try {
+                    chunk.rows.add(parser.parse(record.fields(), loadDate));
+                } catch (IllegalArgumentException e) {
+                    chunk.rejected++;
+                    if (chunk.rejections.size() < maxReportedRejections) {
+                        chunk.rejections.add(new IngestionReport.Rejection(record.line(), e.getMessage()));
+                    }
+                }
+            }
+            return chunk;
+        });
+    }
+
+    private <T> Chunk<T> await(Future<Chunk<T>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating ingested rows", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause()
+                    : new IllegalStateException("Failed to validate ingested rows", e.getCause());
+        }
+    }
+
+    private <T> void write(Chunk<T> chunk, Run run, RowParser<T> parser, Consumer<List<T>> writer,
+                           BiConsumer<PayrollChangeListener, Map<String, Set<YearMonth>>> notify) {
+        run.rejected += chunk.rejected;
+        for (IngestionReport.Rejection rejection : chunk.rejections) {
+            if (run.rejections.size() < maxReportedRejections) {
+                run.rejections.add(rejection);
+            }
+        }
+        if (chunk.rows.isEmpty()) {
+            return;
+        }
+
+        writer.accept(chunk.rows);
+        run.accepted += chunk.rows.size();
+
+        Map<String, Set<YearMonth>> changed = new LinkedHashMap<>();
+        for (T row : chunk.rows) {
+            String employeeId = parser.employeeId(row);
+            changed.computeIfAbsent(employeeId, id -> new TreeSet<>()).add(YearMonth.from(parser.payPeriodEnd(row)));
+        }
+        // Distinct per chunk, so that no set grows with the file; an employee carried over from the last chunk counts once
+        run.employees += changed.size() - (changed.containsKey(run.lastEmployeeId) ? 1 : 0);
+        run.lastEmployeeId = parser.employeeId(chunk.rows.get(chunk.rows.size() - 1));
+        for (PayrollChangeListener listener : listeners) {
+            try {
+                notify.accept(listener, changed);
+            } catch (RuntimeException e) {
+                logger.warn("{} failed to refresh {} changed employees; its scheduled refresh will catch up",
+                        listener.getClass().getSimpleName(), changed.size(), e);
+            }
+        }
+    }
+
+    private static final class Chunk<T> {
+        final List<T> rows;
+        final List<IngestionReport.Rejection> rejections = new ArrayList<>();
+        int rejected;
+
+        Chunk(int capacity) {
+            rows = new ArrayList<>(capacity);
+        }
+    }
+
+    private static final class Run {
+        final List<IngestionReport.Rejection> rejections = new ArrayList<>();
+        long accepted;
+        long rejected;
+        long employees;
+        String lastEmployeeId;
+    }
+}
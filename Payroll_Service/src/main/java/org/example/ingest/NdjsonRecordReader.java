@@ -0,0 +1,99 @@
+package org.example.ingest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Newline-delimited JSON, one object per line. The reader only splits lines;
+ * each line is parsed on the validation worker that receives it, so a
+ * malformed line rejects that record and not the rest of the input.
+ */
+final class NdjsonRecordReader implements RecordReader {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final int columnCount;
+    private long line;
+
+    NdjsonRecordReader(BufferedReader reader, List<String> columns) {
+        this.reader = reader;
+        this.columnCount = columns.size();
+        for (int i = 0; i < columns.size(); i++) {
+            indexes.put(columns.get(i), i);
+        }
+    }
+
+    @Override
+    public RawRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+        return new Line(line, text);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private final class Line implements RawRecord {
+
+        private final long line;
+        private final String text;
+
+        Line(long line, String text) {
+            this.line = line;
+            this.text = text;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        @Override
+        public String[] fields() {
+            String[] fields = new String[columnCount];
+            try (JsonParser parser = JSON.createParser(text)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("not a JSON object");
+                }
+                JsonToken token;
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                    Integer index = indexes.get(parser.currentName().toLowerCase(Locale.ROOT));
+                    JsonToken value = parser.nextToken();
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                    } else if (index != null && value != JsonToken.VALUE_NULL) {
+                        fields[index] = parser.getText();
+                    }
+                }
+                if (token != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                    throw new IllegalArgumentException("more than one JSON value on the line");
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage(), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.ingest;
+
+import org.example.model.PayrollTransaction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+final class PayrollRowParser extends RowParser<PayrollTransaction> {
+
+    private static final List<String> COLUMNS = List.of("employee_id", "pay_period_start", "pay_period_end",
+            "gross_pay", "net_pay", "base_salary", "bonus", "overtime", "tax_withheld", "total_deductions", "currency");
+
+    private static final Set<String> REQUIRED = Set.of("employee_id", "pay_period_start", "pay_period_end",
+            "gross_pay", "net_pay", "base_salary", "tax_withheld", "total_deductions");
+
+    @Override
+    List<String> columns() {
+        return COLUMNS;
+    }
+
+    @Override
+    Set<String> requiredColumns() {
+        return REQUIRED;
+    }
+
+    @Override
+    PayrollTransaction parse(String[] fields, LocalDateTime loadDate) {
+        PayrollTransaction payroll = new PayrollTransaction();
+        payroll.setEmployeeId(text(fields, 0, 50));
+        payroll.setPayPeriodStart(date(fields, 1));
+        payroll.setPayPeriodEnd(date(fields, 2));
+        if (payroll.getPayPeriodStart().isAfter(payroll.getPayPeriodEnd())) {
+            throw new IllegalArgumentException("pay_period_start is after pay_period_end");
+        }
+        payroll.setGrossPay(amount(fields, 3, false));
+        payroll.setNetPay(amount(fields, 4, true));
+        payroll.setBaseSalary(amount(fields, 5, false));
+        payroll.setBonus(amount(fields, 6, false));
+        payroll.setOvertime(amount(fields, 7, false));
+        payroll.setTaxWithheld(amount(fields, 8, false));
+        payroll.setTotalDeductions(amount(fields, 9, false));
+        String currency = text(fields, 10, 10);
+        payroll.setCurrency(currency == null ? "USD" : currency);
+        payroll.setLoadDate(loadDate);
+        return payroll;
+    }
+
+    @Override
+    String employeeId(PayrollTransaction row) {
+        return row.getEmployeeId();
+    }
+
+    @Override
+    LocalDate payPeriodEnd(PayrollTransaction row) {
+        return row.getPayPeriodEnd();
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads an export one record at a time, so only the records in flight are
+ * ever held in memory.
+ */
+interface RecordReader extends Closeable {
+
+    /**
+     * The next record, or null at the end of the input.
+     */
+    RawRecord next() throws IOException;
+
+    /**
+     * One record as read, before validation. Splitting it into fields may be
+     * left to {@link #fields()}, which runs on a validation worker.
+     */
+    interface RawRecord {
+
+        long line();
+
+        /**
+         * The record's values in the order of the requested columns, null
+         * where a column is absent.
+         *
+         * @throws IllegalArgumentException when the record is malformed
+         */
+        String[] fields();
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.ingest;
+
+import org.example.model.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns one record's fields into a row, or rejects it with an
+ * IllegalArgumentException saying why. Checks mirror the table definitions,
+ * so a row that passes will not be refused by the database. Stateless, and
+ * shared by every validation worker.
+ */
+abstract class RowParser<T> {
+
+    // DECIMAL(10,2)
+    private static final Money MAX_AMOUNT = Money.ofCents(9_999_999_999L);
+
+    abstract List<String> columns();
+
+    abstract Set<String> requiredColumns();
+
+    abstract T parse(String[] fields, LocalDateTime loadDate);
+
+    abstract String employeeId(T row);
+
+    abstract LocalDate payPeriodEnd(T row);
+
+    String text(String[] fields, int index, int maxLength) {
+        String value = fields[index] == null ? null : fields[index].trim();
+        if (value == null || value.isEmpty()) {
+            if (requiredColumns().contains(columns().get(index))) {
+                throw new IllegalArgumentException(columns().get(index) + " is required");
+            }
+            return null;
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(columns().get(index) + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    LocalDate date(String[] fields, int index) {
+        String value = text(fields, index, 10);
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(columns().get(index) + " is not an ISO date: " + value);
+        }
+    }
+
+    /**
+     * A DECIMAL(10,2) amount, zero when an optional column is empty.
+     */
+    Money amount(String[] fields, int index, boolean allowNegative) {
+        String value = text(fields, index, 32);
+        if (value == null) {
+            return Money.ZERO;
+        }
+        Money amount;
+        try {
+            amount = Money.parse(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(columns().get(index) + " is not a number: " + value);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(columns().get(index) + " is not a whole number of cents: " + value);
+        }
+        if (amount.exceeds(MAX_AMOUNT)) {
+            throw new IllegalArgumentException(columns().get(index) + " is out of range: " + value);
+        }
+        if (!allowNegative && amount.signum() < 0) {
+            throw new IllegalArgumentException(columns().get(index) + " is negative: " + value);
+        }
+        return amount;
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record ComponentView(LocalDate payPeriodEnd, LocalDateTime loadDate,
+                            Money baseSalary, Money bonus, Money overtime) implements PayrollView {
+}
@@ -2,7 +2,6 @@ package org.example.model;
 
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Data
@@ -10,8 +9,8 @@ public class DeductionBreakdown {
     private String employeeId;
     private LocalDate payPeriodEnd;
     private String deductionType;
-    private BigDecimal amount;
-    private BigDecimal employerMatch;
+    private Money amount;
+    private Money employerMatch;
     private String category;
 }
 
@@ -0,0 +1,22 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeMonth {
+    private String employeeId;
+    private YearMonth month;
+    // Latest pay period ending in the month; null when the month only has deductions
+    private PayrollTransaction payroll;
+    private List<DeductionBreakdown> deductions;
+    // Every pay period from January through this month
+    private Money yearToDateGrossPay;
+    private Money yearToDateNetPay;
+}
@@ -1,16 +1,22 @@
 package org.example.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 @Data
 public class ExplanationResponse {
     private String explanation;
     private String payPeriod;
-    private BigDecimal netChange;
+    private Money netChange;
     private List<PayChangeReason> reasons;
     private String language;
+    // Misspelled words the question was corrected for, if any
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<Correction> corrections;
+    // Why a batch question could not be answered; the other questions of the batch still are
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
 }
 
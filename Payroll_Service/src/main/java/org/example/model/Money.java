@@ -0,0 +1,153 @@
+package org.example.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * An exact amount of money in whole cents. Arithmetic stays in {@code long}
+ * and throws ArithmeticException on overflow rather than wrapping. Amounts
+ * become BigDecimal only at the edges: JDBC columns, JSON and the payslip
+ * PDF. {@link #toString()} gives the plain two-decimal form, e.g.
+ * {@code -12.50}.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * The amount of a decimal with at most two decimal places, or null for
+     * null, as read from a nullable column.
+     *
+     * @throws ArithmeticException when it has fractions of a cent or does not fit
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return amount == null ? null : ofCents(amount.movePointRight(2).longValueExact());
+    }
+
+    /**
+     * Parses a plain decimal such as {@code 5200}, {@code -12.5} or
+     * {@code 300.00}, falling back to BigDecimal for anything else.
+     *
+     * @throws NumberFormatException when it is not a number
+     * @throws ArithmeticException   when it has fractions of a cent or does not fit
+     */
+    public static Money parse(String text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        while (i < length && digits < 16 && isDigit(text.charAt(i))) {
+            units = units * 10 + (text.charAt(i++) - '0');
+            digits++;
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            while (i < length && fractionDigits < 2 && isDigit(text.charAt(i))) {
+                fraction = fraction * 10 + (text.charAt(i++) - '0');
+                fractionDigits++;
+            }
+            while (i < length && text.charAt(i) == '0') {
+                i++;
+            }
+        }
+        if (i < length || digits + fractionDigits == 0) {
+            return of(new BigDecimal(text));
+        }
+        long cents = units * 100 + (fractionDigits == 1 ? fraction * 10 : fraction);
+        return ofCents(negative ? -cents : cents);
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return other.cents == 0 ? this : ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return other.cents == 0 ? this : ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    public Money abs() {
+        return cents >= 0 ? this : negate();
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    /**
+     * True when this amount is further from zero, either way, than the
+     * threshold.
+     */
+    public boolean exceeds(Money threshold) {
+        return cents > threshold.cents || cents < -threshold.cents;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(16)).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder out) {
+        long units = cents / 100;
+        int fraction = (int) Math.abs(cents % 100);
+        if (cents < 0 && units == 0) {
+            out.append('-');
+        }
+        return out.append(units).append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record NetPayView(LocalDate payPeriodEnd, LocalDateTime loadDate, Money netPay) implements PayrollView {
+}
@@ -2,7 +2,6 @@ package org.example.model;
 
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.Map;
@@ -11,13 +10,13 @@ import java.util.Map;
 public class PayChange {
     private YearMonth currentMonth;
     private YearMonth previousMonth;
-    private BigDecimal netPayChange;
-    private BigDecimal basePayChange;
-    private BigDecimal bonusChange;
-    private BigDecimal overtimeChange;
-    private BigDecimal taxChange;
-    private BigDecimal totalDeductionsChange;
-    private Map<String, BigDecimal> deductionChanges = new HashMap<>();
+    private Money netPayChange;
+    private Money basePayChange;
+    private Money bonusChange;
+    private Money overtimeChange;
+    private Money taxChange;
+    private Money totalDeductionsChange;
+    private Map<String, Money> deductionChanges = new HashMap<>();
 
     public PayChange(YearMonth currentMonth, YearMonth previousMonth) {
         this.currentMonth = currentMonth;
@@ -1,17 +1,61 @@
 package org.example.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.Data;
 
+
 @Data
+@JsonPropertyOrder({"type", "label", "delta"})
 public class PayChangeReason {
-    private String type;
-    private String label;
-    private String delta;
 
-    public PayChangeReason(String type, String label, String delta) {
+    public enum Direction {
+        INCREASE,
+        DECREASE,
+        NONE;
+
+        public static Direction of(Money change) {
+            int signum = change.signum();
+            return signum > 0 ? INCREASE : signum < 0 ? DECREASE : NONE;
+        }
+    }
+
+    private final String type;
+    private final String label;
+
+    // Signed effect on net pay for changes, or the plain amount for listings
+    @JsonIgnore
+    private final Money amount;
+
+    // Which way the underlying component moved; null for plain amounts
+    @JsonIgnore
+    private final Direction direction;
+
+    @JsonIgnore
+    private final Money magnitude;
+
+    private PayChangeReason(String type, String label, Money amount, Direction direction) {
         this.type = type;
         this.label = label;
-        this.delta = delta;
+        this.amount = amount;
+        this.direction = direction;
+        this.magnitude = amount.abs();
+    }
+
+    public static PayChangeReason amount(String type, String label, Money amount) {
+        return new PayChangeReason(type, label, amount, null);
     }
-}
 
+    public static PayChangeReason change(String type, String label, Money netPayEffect, Direction direction) {
+        return new PayChangeReason(type, label, netPayEffect, direction);
+    }
+
+    @JsonProperty("delta")
+    public String getDelta() {
+        if (direction == null) {
+            return "$" + amount;
+        }
+        return (amount.signum() < 0 ? "-$" : "+$") + magnitude;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayChangeSummary {
+    private String employeeId;
+    private YearMonth month;
+    // Against the month before
+    private PayChange payChange;
+    // Latest load_date of the two payroll rows the change was computed from
+    private LocalDateTime sourceLoadDate;
+}
@@ -0,0 +1,35 @@
+package org.example.model;
+
+import lombok.Data;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PayTrend {
+    private String employeeId;
+    private String metric;
+    private YearMonth fromMonth;
+    private YearMonth toMonth;
+    // One point per month that has data, oldest first
+    private List<Point> points = new ArrayList<>();
+    private Point minimum;
+    private Point maximum;
+    private Money cumulativeChange = Money.ZERO;
+
+    public PayTrend(String employeeId, String metric, YearMonth fromMonth, YearMonth toMonth) {
+        this.employeeId = employeeId;
+        this.metric = metric;
+        this.fromMonth = fromMonth;
+        this.toMonth = toMonth;
+    }
+
+    @Data
+    public static class Point {
+        private final YearMonth month;
+        private final Money value;
+        // Change from the previous point; null for the first one
+        private final Money delta;
+    }
+}
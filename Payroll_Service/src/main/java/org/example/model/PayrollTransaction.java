@@ -3,7 +3,6 @@ package org.example.model;
 
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -12,13 +11,13 @@ public class PayrollTransaction {
     private String employeeId;
     private LocalDate payPeriodStart;
     private LocalDate payPeriodEnd;
-    private BigDecimal grossPay;
-    private BigDecimal netPay;
-    private BigDecimal baseSalary;
-    private BigDecimal bonus;
-    private BigDecimal overtime;
-    private BigDecimal taxWithheld;
-    private BigDecimal totalDeductions;
+    private Money grossPay;
+    private Money netPay;
+    private Money baseSalary;
+    private Money bonus;
+    private Money overtime;
+    private Money taxWithheld;
+    private Money totalDeductions;
     private String currency;
     private LocalDateTime loadDate;
 
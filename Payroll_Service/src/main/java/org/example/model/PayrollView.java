@@ -0,0 +1,17 @@
+package org.example.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A few columns of one payroll_transactions row, read instead of the whole
+ * row when a question needs only them. Every view carries the pay period end,
+ * to place the row in its month, and the load date, which versions cached
+ * answers.
+ */
+public interface PayrollView {
+
+    LocalDate payPeriodEnd();
+
+    LocalDateTime loadDate();
+}
@@ -3,7 +3,6 @@ package org.example.model;
 
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -12,15 +11,15 @@ public class Payslip {
     private String employeeId;
     private LocalDate payPeriodStart;
     private LocalDate payPeriodEnd;
-    private BigDecimal baseSalary;
-    private BigDecimal bonus;
-    private BigDecimal overtime;
-    private BigDecimal grossPay;
-    private BigDecimal taxWithheld;
-    private BigDecimal totalDeductions;
+    private Money baseSalary;
+    private Money bonus;
+    private Money overtime;
+    private Money grossPay;
+    private Money taxWithheld;
+    private Money totalDeductions;
     private List<DeductionBreakdown> deductions;
-    private BigDecimal netPay;
+    private Money netPay;
     private String currency;
-    private BigDecimal yearToDateGrossPay;
-    private BigDecimal yearToDateNetPay;
+    private Money yearToDateGrossPay;
+    private Money yearToDateNetPay;
 }
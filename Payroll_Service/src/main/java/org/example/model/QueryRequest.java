@@ -6,4 +6,6 @@ import lombok.Data;
 public class QueryRequest {
     private String employeeId;
     private String question;
+    // Optional; links follow-up questions to the previous turn
+    private String conversationId;
 }
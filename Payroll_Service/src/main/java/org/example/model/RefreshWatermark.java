@@ -0,0 +1,20 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshWatermark {
+    // The derived table whose refresh has read this far
+    private String name;
+    // Highest payroll_transactions and deduction_breakdown ids already read
+    private long payrollId;
+    private long deductionId;
+    // Latest payroll load_date already read
+    private LocalDateTime loadDate;
+}
@@ -0,0 +1,7 @@
+package org.example.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record TaxView(LocalDate payPeriodEnd, LocalDateTime loadDate, Money taxWithheld) implements PayrollView {
+}
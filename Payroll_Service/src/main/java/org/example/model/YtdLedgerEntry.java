@@ -0,0 +1,22 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class YtdLedgerEntry {
+    private String employeeId;
+    private YearMonth month;
+    // Every pay period from January through this month
+    private Money yearToDateGrossPay;
+    private Money yearToDateNetPay;
+    // Latest load_date and number of the payroll rows the totals include
+    private LocalDateTime sourceLoadDate;
+    private int sourceRows;
+}
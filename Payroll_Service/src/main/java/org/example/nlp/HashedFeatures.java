@@ -0,0 +1,62 @@
+package org.example.nlp;
+
+/**
+ * Feature hashing shared by the offline trainer and the runtime classifier.
+ * Words are runs of ASCII letters, case-folded, with apostrophes dropped
+ * ("didn't" is "didnt"); digits and everything else separate words. Each word
+ * and each pair of adjacent words is hashed with FNV-1a into one of
+ * {@link #DIMENSIONS} buckets without building any strings.
+ */
+final class HashedFeatures {
+
+    static final int DIMENSIONS = 1 << 12;
+
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private HashedFeatures() {
+    }
+
+    /**
+     * Writes the bucket of every unigram and bigram in {@code text} into
+     * {@code out}, repeats included, and returns how many were written.
+     * Features past the end of {@code out} are dropped.
+     */
+    static int extract(CharSequence text, int[] out) {
+        int count = 0;
+        int hash = FNV_OFFSET;
+        int length = 0;
+        int previous = 0;
+        boolean hasPrevious = false;
+        int n = text == null ? 0 : text.length();
+        for (int i = 0; i <= n && count < out.length; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c >= 'a' && c <= 'z') {
+                hash = (hash ^ c) * FNV_PRIME;
+                length++;
+                continue;
+            }
+            if (c == '\'' && length > 0) {
+                continue;
+            }
+            if (length > 0) {
+                out[count++] = bucket(hash);
+                if (hasPrevious && count < out.length) {
+                    out[count++] = bucket(((previous ^ 0x9e3779b9) * FNV_PRIME) ^ hash);
+                }
+                previous = hash;
+                hasPrevious = true;
+            }
+            hash = FNV_OFFSET;
+            length = 0;
+        }
+        return count;
+    }
+
+    private static int bucket(int hash) {
+        return (hash ^ (hash >>> 16)) & (DIMENSIONS - 1);
+    }
+}
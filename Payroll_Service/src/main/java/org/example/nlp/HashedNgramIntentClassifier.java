@@ -0,0 +1,180 @@
+package org.example.nlp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Scores questions against the TF-IDF centroids written by
+ * {@link IntentModelTrainer}. The model file is memory-mapped and its
+ * weights are read straight from the mapping; a question's features, term
+ * counts and class scores live in per-thread primitive arrays, so
+ * classifying allocates nothing.
+ * <p>
+ * Features are sparse (a question hits a few dozen of the buckets), so
+ * scoring walks only those features, each reading one contiguous run of
+ * class weights. When no model is present the classifier answers null and
+ * the keyword rules decide alone.
+ */
+@Component
+public class HashedNgramIntentClassifier implements IntentClassifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedNgramIntentClassifier.class);
+
+    private static final int MAX_FEATURES = 256;
+
+    private final float minScore;
+    private final float minMargin;
+
+    private Intent[] classes;
+    private FloatBuffer idf;
+    private FloatBuffer weights;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(classes.length));
+
+    @Autowired
+    public HashedNgramIntentClassifier(ResourceLoader resourceLoader,
+                                       @Value("${explanation.classifier.model:classpath:nlp/intent-model.bin}") String modelLocation,
+                                       @Value("${explanation.classifier.min-score:0.2}") float minScore,
+                                       @Value("${explanation.classifier.min-margin:0.05}") float minMargin) {
+        this.minScore = minScore;
+        this.minMargin = minMargin;
+
+        Resource resource = resourceLoader.getResource(modelLocation);
+        if (!resource.exists()) {
+            logger.warn("No intent model at {}; questions are classified by keyword rules only", modelLocation);
+            return;
+        }
+        try {
+            load(map(resource));
+            logger.info("Mapped intent model {} with {} intents", modelLocation, classes.length);
+        } catch (IOException | RuntimeException e) {
+            classes = null;
+            logger.warn("Could not load intent model {}; questions are classified by keyword rules only", modelLocation, e);
+        }
+    }
+
+    public boolean isAvailable() {
+        return classes != null;
+    }
+
+    @Override
+    public Intent classify(CharSequence question) {
+        if (classes == null) {
+            return null;
+        }
+        Scratch s = scratch.get();
+        int count = HashedFeatures.extract(question, s.features);
+        if (count == 0) {
+            return null;
+        }
+
+        int classCount = classes.length;
+        float[] scores = s.scores;
+        float[] termCounts = s.termCounts;
+        for (int c = 0; c < classCount; c++) {
+            scores[c] = 0f;
+        }
+        for (int i = 0; i < count; i++) {
+            termCounts[s.features[i]] += 1f;
+        }
+
+        double norm = 0;
+        for (int i = 0; i < count; i++) {
+            int feature = s.features[i];
+            float tf = termCounts[feature];
+            if (tf == 0f) {
+                // Repeated feature, already scored
+                continue;
+            }
+            termCounts[feature] = 0f;
+            float weight = (float) (1 + Math.log(tf)) * idf.get(feature);
+            norm += weight * weight;
+            int base = feature * classCount;
+            for (int c = 0; c < classCount; c++) {
+                scores[c] += weight * weights.get(base + c);
+            }
+        }
+
+        int best = 0;
+        float second = Float.NEGATIVE_INFINITY;
+        for (int c = 1; c < classCount; c++) {
+            if (scores[c] > scores[best]) {
+                second = scores[best];
+                best = c;
+            } else if (scores[c] > second) {
+                second = scores[c];
+            }
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        float bestScore = scores[best] * scale;
+        float margin = classCount > 1 ? bestScore - second * scale : bestScore;
+        return bestScore >= minScore && margin >= minMargin ? classes[best] : null;
+    }
+
+    private void load(ByteBuffer buffer) {
+        if (buffer.getInt() != IntentModelTrainer.MAGIC) {
+            throw new IllegalStateException("Not an intent model file");
+        }
+        int dimensions = buffer.getInt();
+        if (dimensions != HashedFeatures.DIMENSIONS) {
+            throw new IllegalStateException("Model has " + dimensions + " dimensions, expected " + HashedFeatures.DIMENSIONS);
+        }
+        Intent[] loaded = new Intent[buffer.getInt()];
+        for (int c = 0; c < loaded.length; c++) {
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            loaded[c] = Intent.valueOf(new String(name, StandardCharsets.UTF_8));
+        }
+        FloatBuffer floats = buffer.slice().asFloatBuffer();
+        idf = floats.slice(0, dimensions);
+        weights = floats.slice(dimensions, dimensions * loaded.length);
+        classes = loaded;
+    }
+
+    /**
+     * Maps the model file. A model packed inside a jar can't be mapped in place,
+     * so it is copied to a temporary file first.
+     */
+    private static MappedByteBuffer map(Resource resource) throws IOException {
+        Path path;
+        if (resource.isFile()) {
+            path = resource.getFile().toPath();
+        } else {
+            path = Files.createTempFile("intent-model", ".bin");
+            path.toFile().deleteOnExit();
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static final class Scratch {
+        final int[] features = new int[MAX_FEATURES];
+        final float[] termCounts = new float[HashedFeatures.DIMENSIONS];
+        final float[] scores;
+
+        Scratch(int classCount) {
+            this.scores = new float[classCount];
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.nlp;
+
+import java.util.List;
+
+/**
+ * Question intents and the keywords that signal them. Declaration order is the
+ * priority used when a question matches more than one intent.
+ */
+public enum Intent {
+    PAY_DROP("pay drop", "why did my pay"),
+    TREND("trend", "how has", "over the last", "over the past", "over time", "month over month", "month to month", "compare my"),
+    NEW_DEDUCTIONS("new deductions"),
+    DEDUCTIONS("deductions"),
+    BONUS("bonus"),
+    TAX("tax"),
+    OVERTIME("overtime"),
+    NET_PAY("net pay"),
+    HEALTH_INSURANCE("health insurance", "healthcare"),
+    GENERIC;
+
+    private final List<String> keywords;
+
+    Intent(String... keywords) {
+        this.keywords = List.of(keywords);
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+}
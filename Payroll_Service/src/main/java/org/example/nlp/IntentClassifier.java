@@ -0,0 +1,14 @@
+package org.example.nlp;
+
+/**
+ * Statistical intent classification for questions the keyword rules can't
+ * place. Implementations must be thread-safe.
+ */
+public interface IntentClassifier {
+
+    /**
+     * Most likely intent for the question, or null when the classifier is not
+     * confident or has no model loaded.
+     */
+    Intent classify(CharSequence question);
+}
@@ -0,0 +1,154 @@
+package org.example.nlp;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline build step that trains the intent model from a labeled corpus and
+ * writes it in the binary format {@link HashedNgramIntentClassifier} maps.
+ * <p>
+ * The corpus has one {@code INTENT<tab>question} line per example; blank lines
+ * and lines starting with {@code #} are skipped. Every question is reduced to
+ * the canonical form {@link QuestionParser} classifies, then becomes a TF-IDF
+ * vector over hashed unigrams and bigrams, normalized to unit length, and
+ * each intent is represented by the normalized mean of its examples.
+ * <p>
+ * File layout, big-endian: magic, dimensions, class count, the class names
+ * (modified UTF-8), the IDF weights, then the class weights feature-major
+ * ({@code dimensions * classes} floats) so scoring a feature reads one run.
+ * <p>
+ * Usage: {@code IntentModelTrainer <corpus.tsv> <model.bin>}
+ */
+public final class IntentModelTrainer {
+
+    static final int MAGIC = 0x49434d31;
+
+    private IntentModelTrainer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: IntentModelTrainer <corpus.tsv> <model.bin>");
+        }
+        Path corpus = Paths.get(args[0]);
+        Path model = Paths.get(args[1]);
+
+        List<Intent> labels = new ArrayList<>();
+        List<int[]> documents = new ArrayList<>();
+        int[] scratch = new int[256];
+        QuestionNormalizer normalizer = QuestionNormalizer.forIntents();
+        try (BufferedReader reader = Files.newBufferedReader(corpus, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new IllegalArgumentException(corpus + ":" + lineNumber + ": expected INTENT<tab>question");
+                }
+                labels.add(Intent.valueOf(line.substring(0, tab).trim()));
+                int count = HashedFeatures.extract(normalizer.canonicalize(line.substring(tab + 1)), scratch);
+                int[] features = new int[count];
+                System.arraycopy(scratch, 0, features, 0, count);
+                documents.add(features);
+            }
+        }
+
+        int dimensions = HashedFeatures.DIMENSIONS;
+        float[] idf = inverseDocumentFrequencies(documents, dimensions);
+
+        Map<Intent, float[]> centroids = new EnumMap<>(Intent.class);
+        float[] vector = new float[dimensions];
+        for (int d = 0; d < documents.size(); d++) {
+            Arrays.fill(vector, 0f);
+            for (int feature : documents.get(d)) {
+                vector[feature] += 1f;
+            }
+            double norm = 0;
+            for (int f = 0; f < dimensions; f++) {
+                if (vector[f] > 0) {
+                    vector[f] = (float) (1 + Math.log(vector[f])) * idf[f];
+                    norm += vector[f] * vector[f];
+                }
+            }
+            float[] centroid = centroids.computeIfAbsent(labels.get(d), intent -> new float[dimensions]);
+            float scale = norm == 0 ? 0f : (float) (1 / Math.sqrt(norm));
+            for (int f = 0; f < dimensions; f++) {
+                centroid[f] += vector[f] * scale;
+            }
+        }
+        for (float[] centroid : centroids.values()) {
+            normalize(centroid);
+        }
+
+        List<Intent> classes = new ArrayList<>(centroids.keySet());
+        Files.createDirectories(model.toAbsolutePath().getParent());
+        try (OutputStream file = Files.newOutputStream(model);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(dimensions);
+            out.writeInt(classes.size());
+            for (Intent intent : classes) {
+                out.writeUTF(intent.name());
+            }
+            for (float weight : idf) {
+                out.writeFloat(weight);
+            }
+            for (int f = 0; f < dimensions; f++) {
+                for (Intent intent : classes) {
+                    out.writeFloat(centroids.get(intent)[f]);
+                }
+            }
+        }
+        System.out.println("Trained intent model on " + documents.size() + " questions, "
+                + classes.size() + " intents, " + Files.size(model) + " bytes: " + model);
+    }
+
+    private static float[] inverseDocumentFrequencies(List<int[]> documents, int dimensions) {
+        int[] documentFrequency = new int[dimensions];
+        int[] lastSeen = new int[dimensions];
+        Arrays.fill(lastSeen, -1);
+        for (int d = 0; d < documents.size(); d++) {
+            for (int feature : documents.get(d)) {
+                if (lastSeen[feature] != d) {
+                    lastSeen[feature] = d;
+                    documentFrequency[feature]++;
+                }
+            }
+        }
+        float[] idf = new float[dimensions];
+        for (int f = 0; f < dimensions; f++) {
+            idf[f] = (float) (Math.log((documents.size() + 1.0) / (documentFrequency[f] + 1.0)) + 1.0);
+        }
+        return idf;
+    }
+
+    private static void normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+    }
+}
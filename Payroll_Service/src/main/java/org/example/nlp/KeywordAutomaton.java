@@ -0,0 +1,200 @@
+package org.example.nlp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick keyword automaton compiled into a dense transition table.
+ * Matching is case-insensitive and scans the input once without copying it.
+ * Keywords are restricted to ASCII; any other character resets the automaton.
+ */
+public final class KeywordAutomaton<T> {
+
+    private static final int ASCII = 128;
+
+    private final int[] charClass;
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final int[][] outputs;
+    private final String[] keywords;
+    private final Object[] values;
+
+    private KeywordAutomaton(int[] charClass, int alphabetSize, int[] transitions, int[][] outputs,
+                             String[] keywords, Object[] values) {
+        this.charClass = charClass;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.keywords = keywords;
+        this.values = values;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns every keyword occurrence in {@code text}, ordered by end position.
+     * Overlapping occurrences are all reported.
+     */
+    public List<Match<T>> scan(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return Collections.emptyList();
+        }
+        List<Match<T>> matches = null;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = transitions[state * alphabetSize + classOf(text.charAt(i))];
+            int[] emitted = outputs[state];
+            if (emitted.length == 0) {
+                continue;
+            }
+            if (matches == null) {
+                matches = new ArrayList<>(4);
+            }
+            for (int keywordIndex : emitted) {
+                int end = i + 1;
+                matches.add(new Match<>(value(keywordIndex), keywords[keywordIndex], end - keywords[keywordIndex].length(), end));
+            }
+        }
+        return matches == null ? Collections.emptyList() : matches;
+    }
+
+    public int stateCount() {
+        return outputs.length;
+    }
+
+    private int classOf(char c) {
+        if (c < ASCII) {
+            return charClass[c];
+        }
+        char lower = Character.toLowerCase(c);
+        return lower < ASCII ? charClass[lower] : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T value(int keywordIndex) {
+        return (T) values[keywordIndex];
+    }
+
+    public record Match<T>(T value, String keyword, int start, int end) {
+    }
+
+    public static final class Builder<T> {
+        private final List<String> keywords = new ArrayList<>();
+        private final List<T> values = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder<T> add(String keyword, T value) {
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keyword must not be empty");
+            }
+            for (int i = 0; i < keyword.length(); i++) {
+                if (keyword.charAt(i) >= ASCII) {
+                    throw new IllegalArgumentException("Keyword must be ASCII: " + keyword);
+                }
+            }
+            keywords.add(keyword.toLowerCase());
+            values.add(value);
+            return this;
+        }
+
+        public KeywordAutomaton<T> build() {
+            // Class 0 is reserved for characters that appear in no keyword
+            int[] charClass = new int[ASCII];
+            int alphabetSize = 1;
+            for (String keyword : keywords) {
+                for (int i = 0; i < keyword.length(); i++) {
+                    char c = keyword.charAt(i);
+                    if (charClass[c] == 0) {
+                        charClass[c] = alphabetSize++;
+                    }
+                }
+            }
+            for (char c = 'A'; c <= 'Z'; c++) {
+                charClass[c] = charClass[Character.toLowerCase(c)];
+            }
+
+            // Build the trie
+            List<int[]> trie = new ArrayList<>();
+            List<List<Integer>> ownOutputs = new ArrayList<>();
+            trie.add(newRow(alphabetSize));
+            ownOutputs.add(new ArrayList<>());
+            for (int k = 0; k < keywords.size(); k++) {
+                String keyword = keywords.get(k);
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    int cls = charClass[keyword.charAt(i)];
+                    if (trie.get(state)[cls] < 0) {
+                        trie.get(state)[cls] = trie.size();
+                        trie.add(newRow(alphabetSize));
+                        ownOutputs.add(new ArrayList<>());
+                    }
+                    state = trie.get(state)[cls];
+                }
+                ownOutputs.get(state).add(k);
+            }
+
+            // Breadth-first pass computes failure links and folds them into a full DFA
+            int stateCount = trie.size();
+            int[] transitions = new int[stateCount * alphabetSize];
+            int[] fail = new int[stateCount];
+            int[][] outputs = new int[stateCount][];
+            Deque<Integer> queue = new ArrayDeque<>();
+
+            outputs[0] = toArray(ownOutputs.get(0));
+            for (int cls = 0; cls < alphabetSize; cls++) {
+                int child = trie.get(0)[cls];
+                if (child < 0 || cls == 0) {
+                    transitions[cls] = 0;
+                } else {
+                    transitions[cls] = child;
+                    fail[child] = 0;
+                    queue.add(child);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                List<Integer> merged = new ArrayList<>(ownOutputs.get(state));
+                for (int inherited : outputs[fail[state]]) {
+                    merged.add(inherited);
+                }
+                outputs[state] = toArray(merged);
+
+                for (int cls = 0; cls < alphabetSize; cls++) {
+                    int child = trie.get(state)[cls];
+                    if (child < 0 || cls == 0) {
+                        transitions[state * alphabetSize + cls] = transitions[fail[state] * alphabetSize + cls];
+                    } else {
+                        transitions[state * alphabetSize + cls] = child;
+                        fail[child] = transitions[fail[state] * alphabetSize + cls];
+                        queue.add(child);
+                    }
+                }
+            }
+
+            return new KeywordAutomaton<>(charClass, alphabetSize, transitions, outputs,
+                    keywords.toArray(new String[0]), values.toArray());
+        }
+
+        private static int[] newRow(int alphabetSize) {
+            int[] row = new int[alphabetSize];
+            Arrays.fill(row, -1);
+            return row;
+        }
+
+        private static int[] toArray(List<Integer> list) {
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = list.get(i);
+            }
+            return array;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.nlp;
+
+import org.example.nlp.KeywordAutomaton.Match;
+import org.example.nlp.SpellingCorrector.Correction;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of parsing a question: every intent keyword that matched, with its
+ * position in the spelling-corrected text, the periods the question is about,
+ * and the corrections made.
+ */
+public class ParsedQuestion {
+    private final List<Match<Intent>> intentMatches;
+    private final PeriodResolution period;
+    private final List<Correction> corrections;
+    private final Intent classifiedIntent;
+
+    public ParsedQuestion(List<Match<Intent>> intentMatches, PeriodResolution period, List<Correction> corrections,
+                          Intent classifiedIntent) {
+        this.intentMatches = intentMatches;
+        this.period = period;
+        this.corrections = corrections;
+        // GENERIC is the classifier's way of saying the question names no topic
+        this.classifiedIntent = classifiedIntent == Intent.GENERIC ? null : classifiedIntent;
+    }
+
+    public List<Match<Intent>> getIntentMatches() {
+        return intentMatches;
+    }
+
+    public PeriodResolution getPeriod() {
+        return period;
+    }
+
+    public List<Correction> getCorrections() {
+        return corrections;
+    }
+
+    /**
+     * The statistical classifier's confident answer, or null when it is not
+     * confident or found no topic.
+     */
+    public Intent getClassifiedIntent() {
+        return classifiedIntent;
+    }
+
+    /**
+     * Every distinct intent the question asks about, in priority order, or just
+     * GENERIC. A match lying inside a longer one ("deductions" within
+     * "new deductions") is not counted separately.
+     * <p>
+     * An exact keyword match always wins. The classifier's intent is only used
+     * when no keyword matched, for paraphrases the keyword rules can't place.
+     */
+    public Set<Intent> getIntents() {
+        EnumSet<Intent> intents = EnumSet.noneOf(Intent.class);
+        for (Match<Intent> match : intentMatches) {
+            if (!isInsideLongerMatch(match)) {
+                intents.add(match.value());
+            }
+        }
+        if (intents.isEmpty()) {
+            intents.add(classifiedIntent != null ? classifiedIntent : Intent.GENERIC);
+        }
+        return intents;
+    }
+
+    /**
+     * Whether the question names a topic at all, by keyword or classifier.
+     */
+    public boolean hasIntent() {
+        return !intentMatches.isEmpty() || classifiedIntent != null;
+    }
+
+    public Intent getPrimaryIntent() {
+        return getIntents().iterator().next();
+    }
+
+    /**
+     * Highest-priority intent other than the primary one, or GENERIC. A TREND
+     * question uses it to pick what to follow ("how has my overtime changed").
+     */
+    public Intent getSecondaryIntent() {
+        Intent primary = getPrimaryIntent();
+        Intent best = Intent.GENERIC;
+        for (Match<Intent> match : intentMatches) {
+            if (match.value() != primary && match.value().ordinal() < best.ordinal()) {
+                best = match.value();
+            }
+        }
+        return best;
+    }
+
+    private boolean isInsideLongerMatch(Match<Intent> match) {
+        for (Match<Intent> other : intentMatches) {
+            if (other.start() <= match.start() && other.end() >= match.end()
+                    && other.end() - other.start() > match.end() - match.start()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.nlp;
+
+import java.time.YearMonth;
+
+/**
+ * The period a question is about and the period it should be compared with.
+ * Handlers that work on single months use the last month of each.
+ *
+ * @param explicit whether the question named any period; false means the defaults of the current and previous month
+ */
+public record PeriodResolution(TimePeriod target, TimePeriod comparison, boolean explicit) {
+
+    public YearMonth targetMonth() {
+        return target.end();
+    }
+
+    public YearMonth comparisonMonth() {
+        return comparison.end();
+    }
+}
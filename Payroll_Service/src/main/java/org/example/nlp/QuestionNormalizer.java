@@ -0,0 +1,117 @@
+package org.example.nlp;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reduces a question to its canonical form: the case-folded runs of ASCII
+ * letters and digits, with apostrophes dropped and filler stopwords
+ * skipped, separated by single spaces. Punctuation and whitespace runs only
+ * separate words, so "Why is my net-pay low??" and "why my net pay low"
+ * have the same canonical form.
+ * <p>
+ * {@link QuestionParser} parses the canonical form rather than the raw
+ * question, and keys its cache on {@link #canonicalHash}, a 64-bit hash of
+ * the same words computed in one pass without building strings. Two
+ * questions that share a cache entry therefore always parse the same.
+ */
+final class QuestionNormalizer {
+
+    // Filler words dropped from the canonical form; any that is also a keyword word is kept
+    private static final Set<String> STOPWORDS = Set.of("the", "an", "please", "kindly", "can", "could", "would",
+            "you", "tell", "me", "hey", "hi", "hello", "just", "really", "exactly", "actually", "i", "know", "want",
+            "is", "was", "are", "were", "so", "um");
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] stopwords;
+
+    QuestionNormalizer(Collection<String> stopwords) {
+        this.stopwords = stopwords.stream().mapToLong(QuestionNormalizer::wordHash).sorted().distinct().toArray();
+    }
+
+    /**
+     * The normalizer the parser and the intent model trainer share: the
+     * stopwords less every word of an intent keyword.
+     */
+    static QuestionNormalizer forIntents() {
+        Set<String> stopwords = new HashSet<>(STOPWORDS);
+        for (Intent intent : Intent.values()) {
+            for (String keyword : intent.getKeywords()) {
+                for (String word : keyword.split(" ")) {
+                    stopwords.remove(word);
+                }
+            }
+        }
+        return new QuestionNormalizer(stopwords);
+    }
+
+    long canonicalHash(CharSequence question) {
+        return scan(question, null);
+    }
+
+    String canonicalize(CharSequence question) {
+        StringBuilder canonical = new StringBuilder(question == null ? 0 : question.length());
+        scan(question, canonical);
+        return canonical.toString();
+    }
+
+    // Hashes the canonical words and, when out is given, writes them to it
+    private long scan(CharSequence question, StringBuilder out) {
+        long hash = FNV_OFFSET;
+        long word = FNV_OFFSET;
+        boolean inWord = false;
+        int wordStart = 0;
+        int n = question == null ? 0 : question.length();
+        for (int i = 0; i <= n; i++) {
+            char c = i < n ? question.charAt(i) : ' ';
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                if (!inWord && out != null) {
+                    if (out.length() > 0) {
+                        out.append(' ');
+                    }
+                    wordStart = out.length();
+                }
+                word = (word ^ c) * FNV_PRIME;
+                inWord = true;
+                if (out != null) {
+                    out.append(c);
+                }
+                continue;
+            }
+            if (c == '\'' && inWord) {
+                continue;
+            }
+            if (inWord) {
+                if (Arrays.binarySearch(stopwords, word) < 0) {
+                    hash = mix(hash, word);
+                } else if (out != null) {
+                    out.setLength(wordStart > 0 ? wordStart - 1 : 0);
+                }
+                inWord = false;
+                word = FNV_OFFSET;
+            }
+        }
+        return hash;
+    }
+
+    private static long wordHash(String word) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < word.length(); i++) {
+            hash = (hash ^ Character.toLowerCase(word.charAt(i))) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= FNV_PRIME;
+        return hash ^ (hash >>> 29);
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.nlp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.nlp.KeywordAutomaton.Match;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class QuestionParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionParser.class);
+
+    // Keyword words that carry no topic of their own and are never corrected towards
+    private static final Set<String> NOT_CORRECTED = Set.of("over", "last", "past", "time", "month");
+
+    // Correctly spelled words that are not keyword words
+    private static final String KNOWN_WORDS = "/nlp/known-words.txt";
+
+    private final KeywordAutomaton<Intent> automaton;
+    private final SpellingCorrector spellingCorrector;
+    private final TemporalParser temporalParser;
+    private final IntentClassifier intentClassifier;
+    private final QuestionNormalizer normalizer;
+
+    // Canonical question hash, salted with the current month, to its parse
+    private final Cache<Long, ParsedQuestion> parsedQuestions;
+
+    @Autowired
+    public QuestionParser(TemporalParser temporalParser, IntentClassifier intentClassifier, MeterRegistry meterRegistry,
+                          @Value("${explanation.question-cache.max-size:10000}") long cacheSize) {
+        this.temporalParser = temporalParser;
+        this.intentClassifier = intentClassifier;
+        KeywordAutomaton.Builder<Intent> builder = KeywordAutomaton.builder();
+        Set<String> vocabulary = new LinkedHashSet<>();
+        for (Intent intent : Intent.values()) {
+            for (String keyword : intent.getKeywords()) {
+                builder.add(keyword, intent);
+                for (String word : keyword.split(" ")) {
+                    if (!NOT_CORRECTED.contains(word)) {
+                        vocabulary.add(word);
+                    }
+                }
+            }
+        }
+        this.automaton = builder.build();
+        this.spellingCorrector = new SpellingCorrector(vocabulary, readWords(KNOWN_WORDS), automaton);
+        this.normalizer = QuestionNormalizer.forIntents();
+        logger.info("Compiled question keyword automaton with {} states and spelling index with {} entries",
+                automaton.stateCount(), spellingCorrector.indexSize());
+
+        // Caffeine's W-TinyLFU admission keeps one-off questions from evicting frequent phrasings
+        this.parsedQuestions = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, parsedQuestions, "questions");
+    }
+
+    /**
+     * Parses the canonical form of a question, or returns the parse of an
+     * earlier question with the same canonical form in the same month. A hit
+     * skips spelling correction, keyword matching, classification and period
+     * resolution. Every stage sees only the canonical form, so a question
+     * parses the same whether or not it was answered from the cache.
+     */
+    public ParsedQuestion parse(String question, YearMonth now) {
+        long key = normalizer.canonicalHash(question) * 31 + now.getYear() * 12L + now.getMonthValue();
+        ParsedQuestion parsed = parsedQuestions.getIfPresent(key);
+        if (parsed == null) {
+            parsed = parseUncached(normalizer.canonicalize(question), now);
+            parsedQuestions.put(key, parsed);
+        }
+        return parsed;
+    }
+
+    public CacheStats cacheStats() {
+        return parsedQuestions.stats();
+    }
+
+    private static List<String> readWords(String resource) {
+        InputStream in = QuestionParser.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalStateException("Missing word list " + resource);
+        }
+        List<String> words = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    words.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read word list " + resource, e);
+        }
+        return words;
+    }
+
+    private ParsedQuestion parseUncached(String canonical, YearMonth now) {
+        SpellingCorrector.Result corrected = spellingCorrector.correct(canonical);
+        if (!corrected.corrections().isEmpty()) {
+            logger.info("Corrected question spelling: {}", corrected.corrections());
+        }
+        List<Match<Intent>> intents = automaton.scan(corrected.text());
+        Intent classified = intentClassifier.classify(corrected.text());
+        return new ParsedQuestion(intents, temporalParser.parse(canonical, now), corrected.corrections(), classified);
+    }
+}
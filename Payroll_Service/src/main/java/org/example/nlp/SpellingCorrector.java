@@ -0,0 +1,266 @@
+package org.example.nlp;
+
+import org.example.nlp.KeywordAutomaton.Match;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SymSpell-style corrector for a small vocabulary. Every word is indexed
+ * under all strings reachable from it by deleting up to two characters, so a
+ * misspelled token is looked up by generating its own deletes and checking
+ * only the words that share one, instead of comparing it with every word.
+ * Candidates are confirmed with the optimal string alignment distance, which
+ * counts a transposition ("dedcutions") as one edit.
+ * <p>
+ * Tokens shorter than four letters are left alone, and tokens of up to five
+ * letters are corrected by at most one edit, to keep short everyday words
+ * from being pulled onto the vocabulary. A token that is a vocabulary or
+ * known word, or an inflection of one ("deduction", "drops", "compared"), is
+ * spelled correctly and never changed. A correction is only kept when the
+ * corrected text has a keyword match covering it, so a word is never
+ * rewritten unless that makes the question name a topic.
+ */
+public final class SpellingCorrector {
+
+    private static final int MAX_DISTANCE = 2;
+    private static final int MIN_TOKEN_LENGTH = 4;
+    private static final int SHORT_TOKEN_LENGTH = 5;
+    private static final String[] SUFFIXES = {"ing", "es", "ed", "er", "ly", "s", "d", "y"};
+
+    private final Set<String> words;
+    private final Set<String> knownWords;
+    private final KeywordAutomaton<?> keywords;
+    private final Map<String, List<String>> deletes = new HashMap<>();
+
+    /**
+     * @param vocabulary the words misspellings are corrected to
+     * @param knownWords other correctly spelled words, left as they are
+     * @param keywords   the keywords a correction must complete
+     */
+    public SpellingCorrector(Collection<String> vocabulary, Collection<String> knownWords, KeywordAutomaton<?> keywords) {
+        this.keywords = keywords;
+        this.knownWords = new HashSet<>();
+        for (String word : knownWords) {
+            this.knownWords.add(word.toLowerCase());
+        }
+        this.words = new HashSet<>();
+        for (String word : vocabulary) {
+            String lower = word.toLowerCase();
+            if (words.add(lower)) {
+                for (String delete : deletes(lower, MAX_DISTANCE)) {
+                    deletes.computeIfAbsent(delete, d -> new ArrayList<>(1)).add(lower);
+                }
+            }
+        }
+    }
+
+    public int indexSize() {
+        return deletes.size();
+    }
+
+    /**
+     * Returns {@code text} with misspelled vocabulary words replaced, and the
+     * corrections made. The original string is returned untouched when there
+     * is nothing to correct.
+     */
+    public Result correct(String text) {
+        if (text == null) {
+            return new Result(null, Collections.emptyList());
+        }
+        List<Correction> candidates = candidates(text);
+        if (candidates.isEmpty()) {
+            return new Result(text, Collections.emptyList());
+        }
+        // Judge every candidate against the fully corrected text, so words corrected together
+        // ("helth insurence") can complete one keyword between them
+        int[] starts = new int[candidates.size()];
+        String corrected = apply(text, candidates, starts);
+        List<Correction> kept = new ArrayList<>(candidates.size());
+        List<? extends Match<?>> matches = keywords.scan(corrected);
+        for (int c = 0; c < candidates.size(); c++) {
+            int end = starts[c] + candidates.get(c).corrected().length();
+            for (Match<?> match : matches) {
+                if (match.start() <= starts[c] && match.end() >= end) {
+                    kept.add(candidates.get(c));
+                    break;
+                }
+            }
+        }
+        if (kept.isEmpty()) {
+            return new Result(text, Collections.emptyList());
+        }
+        if (kept.size() < candidates.size()) {
+            corrected = apply(text, kept, new int[kept.size()]);
+        }
+        return new Result(corrected, kept);
+    }
+
+    private List<Correction> candidates(String text) {
+        List<Correction> candidates = null;
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            if (!isLetter(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < n && isLetter(text.charAt(i))) {
+                i++;
+            }
+            if (i - start < MIN_TOKEN_LENGTH) {
+                continue;
+            }
+            String token = text.substring(start, i).toLowerCase();
+            String replacement = lookup(token);
+            if (replacement == null) {
+                continue;
+            }
+            if (candidates == null) {
+                candidates = new ArrayList<>(2);
+            }
+            candidates.add(new Correction(text.substring(start, i), replacement, start));
+        }
+        return candidates == null ? Collections.emptyList() : candidates;
+    }
+
+    // The text with the corrections made, recording where each replacement starts in it
+    private static String apply(String text, List<Correction> corrections, int[] starts) {
+        StringBuilder corrected = new StringBuilder(text.length() + 8);
+        int copied = 0;
+        for (int c = 0; c < corrections.size(); c++) {
+            Correction correction = corrections.get(c);
+            corrected.append(text, copied, correction.start());
+            starts[c] = corrected.length();
+            corrected.append(correction.corrected());
+            copied = correction.start() + correction.original().length();
+        }
+        return corrected.append(text, copied, text.length()).toString();
+    }
+
+    /**
+     * Closest vocabulary word to a lower-case token, or null when the token is
+     * spelled correctly or nothing is close enough. Ties go to the word that
+     * sorts first.
+     */
+    String lookup(String token) {
+        if (isKnown(token)) {
+            return null;
+        }
+        int maxDistance = token.length() <= SHORT_TOKEN_LENGTH ? 1 : MAX_DISTANCE;
+        String best = null;
+        int bestDistance = maxDistance + 1;
+        for (String delete : deletes(token, maxDistance)) {
+            List<String> candidates = deletes.get(delete);
+            if (candidates == null) {
+                continue;
+            }
+            for (String candidate : candidates) {
+                if (Math.abs(candidate.length() - token.length()) > maxDistance) {
+                    continue;
+                }
+                int distance = distance(token, candidate, bestDistance);
+                if (distance < bestDistance || (distance == bestDistance && best != null && candidate.compareTo(best) < 0)) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return bestDistance <= maxDistance ? best : null;
+    }
+
+    /**
+     * Whether the token is a vocabulary or known word, or one with a common
+     * suffix added ("drops", "compared", "dropping") or removed ("deduction").
+     */
+    private boolean isKnown(String token) {
+        if (isWord(token) || isWord(token + "s")) {
+            return true;
+        }
+        for (String suffix : SUFFIXES) {
+            if (token.length() > suffix.length() + 2 && token.endsWith(suffix)) {
+                String stem = token.substring(0, token.length() - suffix.length());
+                if (isWord(stem) || isWord(stem + "e")
+                        || (stem.charAt(stem.length() - 1) == stem.charAt(stem.length() - 2)
+                        && isWord(stem.substring(0, stem.length() - 1)))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isWord(String word) {
+        return words.contains(word) || knownWords.contains(word);
+    }
+
+    private static Set<String> deletes(String word, int maxDistance) {
+        Set<String> result = new HashSet<>();
+        result.add(word);
+        List<String> frontier = List.of(word);
+        for (int d = 0; d < maxDistance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length(); i++) {
+                    String delete = current.substring(0, i) + current.substring(i + 1);
+                    if (result.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    /**
+     * Optimal string alignment distance, giving up once every entry in a row
+     * exceeds {@code limit}.
+     */
+    private static int distance(String a, String b, int limit) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    public record Correction(String original, String corrected, int start) {
+    }
+
+    public record Result(String text, List<Correction> corrections) {
+    }
+}
@@ -0,0 +1,545 @@
+package org.example.nlp;
+
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * Recognises the time expressions in a question and resolves them into a
+ * target and a comparison period.
+ * <p>
+ * The question is tokenized in one pass: each run of letters and digits walks
+ * a static trie of known words, so no substrings are created and there is no
+ * backtracking. Tokens are kept in per-thread primitive arrays and a small
+ * recursive-descent pass over them recognises:
+ * <ul>
+ *     <li>month names and abbreviations, optionally followed by a year ("march", "sept 2024")</li>
+ *     <li>years ("2024") and quarters ("q1 2025", "second quarter", "this quarter")</li>
+ *     <li>relative months, quarters and years ("last month", "3 months ago", "past 6 months", "this year")</li>
+ *     <li>ranges ("between january and march", "from jan to apr 2025", "since february")</li>
+ *     <li>an explicit comparison ("compared to last year", "vs march")</li>
+ * </ul>
+ * A month without a year is its most recent occurrence up to the current
+ * month. Adding words only grows the trie; the cost per question stays
+ * proportional to its length.
+ */
+@Component
+public class TemporalParser {
+
+    private static final int INITIAL_TOKENS = 64;
+
+    // Token kinds
+    private static final int OTHER = 0;
+    private static final int MONTH = 1;
+    private static final int NUMBER = 2;
+    private static final int YEAR = 3;
+    private static final int LAST = 4;
+    private static final int THIS = 5;
+    private static final int UNIT_MONTH = 6;
+    private static final int UNIT_QUARTER = 7;
+    private static final int UNIT_YEAR = 8;
+    private static final int AGO = 9;
+    private static final int QUARTER = 10;
+    private static final int ORDINAL = 11;
+    private static final int RANGE_OPEN = 12;
+    private static final int AND = 13;
+    private static final int TO = 14;
+    private static final int SINCE = 15;
+    private static final int PREP = 16;
+    private static final int COMPARE = 17;
+
+    // "may" is a month only where the grammar expects one
+    private static final int AMBIGUOUS = 0x10;
+
+    // Expression kinds, which decide the default comparison period
+    private static final int SPAN = 0;
+    private static final int WHOLE_YEAR = 1;
+    private static final int RANGE = 2;
+
+    private static final int ALPHABET = 36;
+    private static final int[] TRIE;
+    private static final int[] TERMINAL;
+
+    static {
+        String[][] words = {
+                {"january", "jan"}, {"february", "feb"}, {"march", "mar"}, {"april", "apr"}, {},
+                {"june", "jun"}, {"july", "jul"}, {"august", "aug"}, {"september", "sep", "sept"},
+                {"october", "oct"}, {"november", "nov"}, {"december", "dec"}
+        };
+        String[] numbers = {"a", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine", "ten",
+                "eleven", "twelve"};
+
+        WordTable table = new WordTable();
+        for (int month = 0; month < words.length; month++) {
+            for (String word : words[month]) {
+                table.add(word, MONTH, month + 1);
+            }
+        }
+        table.add("may", MONTH, 5 | AMBIGUOUS);
+        for (int n = 0; n < numbers.length; n++) {
+            table.add(numbers[n], NUMBER, Math.max(n, 1));
+        }
+        table.add(new String[]{"last", "previous", "past", "prior", "preceding"}, LAST, 0);
+        table.add(new String[]{"this", "current"}, THIS, 0);
+        table.add(new String[]{"month", "months", "mo"}, UNIT_MONTH, 0);
+        table.add(new String[]{"quarter", "quarters", "qtr"}, UNIT_QUARTER, 0);
+        table.add(new String[]{"year", "years", "yr"}, UNIT_YEAR, 0);
+        table.add("ago", AGO, 0);
+        String[][] ordinals = {{"q1", "first", "1st"}, {"q2", "second", "2nd"}, {"q3", "third", "3rd"},
+                {"q4", "fourth", "4th"}};
+        for (int q = 0; q < ordinals.length; q++) {
+            table.add(ordinals[q][0], QUARTER, q + 1);
+            table.add(ordinals[q][1], ORDINAL, q + 1);
+            table.add(ordinals[q][2], ORDINAL, q + 1);
+        }
+        table.add(new String[]{"between", "from"}, RANGE_OPEN, 0);
+        table.add("and", AND, 0);
+        table.add(new String[]{"to", "through", "thru", "until", "till"}, TO, 0);
+        table.add("since", SINCE, 0);
+        table.add(new String[]{"in", "for", "of", "during", "on", "over", "with"}, PREP, 0);
+        table.add(new String[]{"compared", "compare", "vs", "versus", "than"}, COMPARE, 0);
+
+        TRIE = table.transitions();
+        TERMINAL = table.terminals();
+    }
+
+    private static final ThreadLocal<Scan> SCAN = ThreadLocal.withInitial(Scan::new);
+
+    public PeriodResolution parse(CharSequence question, YearMonth now) {
+        Scan scan = SCAN.get();
+        scan.tokenize(question);
+        return scan.resolve(now);
+    }
+
+    private static int classOf(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + c - '0';
+        }
+        return -1;
+    }
+
+    private static YearMonth toYearMonth(int index) {
+        return YearMonth.of(index / 12, index % 12 + 1);
+    }
+
+    /**
+     * Per-thread scratch state. Months are handled as indexes
+     * ({@code year * 12 + month - 1}) so resolution is plain integer arithmetic.
+     */
+    private static final class Scan {
+        // Grown when a question has more tokens, and kept for the thread's later questions
+        private int[] kinds = new int[INITIAL_TOKENS];
+        private int[] values = new int[INITIAL_TOKENS];
+        private int count;
+
+        private int now;
+
+        // Result of the last successful atom or expression
+        private int start;
+        private int end;
+        private int kind;
+        private int bareMonth;
+
+        void tokenize(CharSequence text) {
+            count = 0;
+            int state = 0;
+            int length = 0;
+            int number = 0;
+            boolean digits = true;
+            int n = text == null ? 0 : text.length();
+            for (int i = 0; i <= n; i++) {
+                int cls = i < n ? classOf(text.charAt(i)) : -1;
+                if (cls >= 0) {
+                    if (state >= 0) {
+                        int next = TRIE[state * ALPHABET + cls];
+                        state = next == 0 ? -1 : next;
+                    }
+                    if (cls >= 26) {
+                        number = number < 100_000 ? number * 10 + cls - 26 : number;
+                    } else {
+                        digits = false;
+                    }
+                    length++;
+                    continue;
+                }
+                if (length > 0) {
+                    if (digits) {
+                        emit(length == 4 && number >= 1900 && number <= 2100 ? YEAR : NUMBER, number);
+                    } else if (state > 0 && TERMINAL[state] != 0) {
+                        emit(TERMINAL[state] >>> 8, TERMINAL[state] & 0xFF);
+                    } else {
+                        emit(OTHER, 0);
+                    }
+                }
+                state = 0;
+                length = 0;
+                number = 0;
+                digits = true;
+            }
+        }
+
+        private void emit(int kind, int value) {
+            // Runs of unrelated words only matter as a separator
+            if (kind == OTHER && count > 0 && kinds[count - 1] == OTHER) {
+                return;
+            }
+            if (count == kinds.length) {
+                kinds = Arrays.copyOf(kinds, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            kinds[count] = kind;
+            values[count] = value;
+            count++;
+        }
+
+        PeriodResolution resolve(YearMonth current) {
+            now = current.getYear() * 12 + current.getMonthValue() - 1;
+            boolean haveTarget = false;
+            boolean haveComparison = false;
+            int targetStart = now;
+            int targetEnd = now;
+            int targetKind = SPAN;
+            int comparisonStart = 0;
+            int comparisonEnd = 0;
+
+            int i = 0;
+            while (i < count && !(haveTarget && haveComparison)) {
+                boolean comparison = false;
+                if (kinds[i] == COMPARE) {
+                    comparison = true;
+                    i++;
+                    while (i < count && (kinds[i] == TO || kinds[i] == PREP)) {
+                        i++;
+                    }
+                }
+                int next = expression(i);
+                if (next < 0) {
+                    i++;
+                    continue;
+                }
+                if (comparison && !haveComparison) {
+                    haveComparison = true;
+                    comparisonStart = start;
+                    comparisonEnd = end;
+                } else if (!comparison && !haveTarget) {
+                    haveTarget = true;
+                    targetStart = start;
+                    targetEnd = end;
+                    targetKind = kind;
+                }
+                i = next;
+            }
+
+            if (!haveComparison) {
+                if (targetKind == RANGE) {
+                    comparisonStart = targetStart;
+                    comparisonEnd = targetStart;
+                } else if (targetKind == WHOLE_YEAR) {
+                    comparisonStart = targetStart - 12;
+                    comparisonEnd = targetEnd - 12;
+                } else {
+                    comparisonStart = targetStart - (targetEnd - targetStart + 1);
+                    comparisonEnd = targetStart - 1;
+                }
+            }
+            return new PeriodResolution(
+                    new TimePeriod(toYearMonth(targetStart), toYearMonth(targetEnd)),
+                    new TimePeriod(toYearMonth(comparisonStart), toYearMonth(comparisonEnd)),
+                    haveTarget || haveComparison);
+        }
+
+        /**
+         * Parses a range or single atom at {@code i} into start/end/kind and
+         * returns the index after it, or -1 when no expression starts there.
+         */
+        private int expression(int i) {
+            if (i >= count) {
+                return -1;
+            }
+            if (kinds[i] == RANGE_OPEN) {
+                int afterStart = atom(i + 1, kinds[i]);
+                if (afterStart < 0 || afterStart >= count || (kinds[afterStart] != AND && kinds[afterStart] != TO)) {
+                    return afterStart < 0 ? -1 : finish(afterStart);
+                }
+                return range(afterStart);
+            }
+            if (kinds[i] == SINCE) {
+                int next = atom(i + 1, SINCE);
+                if (next < 0) {
+                    return -1;
+                }
+                end = now;
+                kind = RANGE;
+                return next;
+            }
+            int next = atom(i, i > 0 ? kinds[i - 1] : OTHER);
+            if (next < 0) {
+                return -1;
+            }
+            if (next < count && kinds[next] == TO) {
+                return range(next);
+            }
+            return finish(next);
+        }
+
+        private int range(int joiner) {
+            int fromStart = start;
+            int fromBareMonth = bareMonth;
+            int next = atom(joiner + 1, kinds[joiner]);
+            if (next < 0) {
+                // "from march to ..." with nothing usable after the joiner
+                start = fromStart;
+                end = fromStart;
+                bareMonth = fromBareMonth;
+                kind = SPAN;
+                return finish(joiner + 1);
+            }
+            int toStart = start;
+            int toEnd = end;
+            // A month without a year takes it from the other end of the range
+            if (fromBareMonth != 0 && bareMonth == 0) {
+                fromStart = before(fromBareMonth, toStart);
+            } else if (fromBareMonth == 0 && bareMonth != 0) {
+                toEnd = after(bareMonth, fromStart);
+            } else if (fromBareMonth != 0) {
+                fromStart = before(fromBareMonth, toStart);
+            }
+            start = Math.min(fromStart, toEnd);
+            end = Math.max(fromStart, toEnd);
+            kind = RANGE;
+            return finish(next);
+        }
+
+        private int finish(int next) {
+            if (start <= now && end > now) {
+                end = now;
+            }
+            return next;
+        }
+
+        /**
+         * Parses a single period at {@code i}. {@code previous} is the kind of
+         * the token before it, used to decide whether "may" is a month.
+         */
+        private int atom(int i, int previous) {
+            if (i >= count) {
+                return -1;
+            }
+            bareMonth = 0;
+            kind = SPAN;
+            int value = values[i];
+            switch (kinds[i]) {
+                case MONTH: {
+                    int month = value & 0xF;
+                    int j = yearAfter(i + 1);
+                    if (j > 0) {
+                        start = values[j - 1] * 12 + month - 1;
+                        end = start;
+                        return j;
+                    }
+                    if ((value & AMBIGUOUS) != 0 && previous != PREP && previous != RANGE_OPEN
+                            && previous != AND && previous != TO && previous != SINCE && previous != COMPARE) {
+                        return -1;
+                    }
+                    bareMonth = month;
+                    start = before(month, now);
+                    end = start;
+                    return i + 1;
+                }
+                case QUARTER:
+                    return quarter(value, i + 1);
+                case ORDINAL:
+                    if (i + 1 < count && kinds[i + 1] == UNIT_QUARTER) {
+                        return quarter(value, i + 2);
+                    }
+                    return -1;
+                case YEAR:
+                    start = value * 12;
+                    end = start + 11;
+                    kind = WHOLE_YEAR;
+                    return i + 1;
+                case NUMBER:
+                    if (i + 2 < count && kinds[i + 2] == AGO && value > 0) {
+                        return ago(value, kinds[i + 1], i + 3);
+                    }
+                    return -1;
+                case LAST:
+                    return last(i + 1);
+                case THIS:
+                    if (i + 1 >= count) {
+                        return -1;
+                    }
+                    switch (kinds[i + 1]) {
+                        case UNIT_MONTH:
+                            start = now;
+                            end = now;
+                            return i + 2;
+                        case UNIT_QUARTER:
+                            start = now - now % 3;
+                            end = now;
+                            return i + 2;
+                        case UNIT_YEAR:
+                            start = now - now % 12;
+                            end = now;
+                            kind = WHOLE_YEAR;
+                            return i + 2;
+                        default:
+                            return -1;
+                    }
+                default:
+                    return -1;
+            }
+        }
+
+        private int last(int i) {
+            if (i >= count) {
+                return -1;
+            }
+            switch (kinds[i]) {
+                case UNIT_MONTH:
+                    start = now - 1;
+                    end = start;
+                    return i + 1;
+                case UNIT_QUARTER:
+                    start = now - now % 3 - 3;
+                    end = start + 2;
+                    return i + 1;
+                case UNIT_YEAR:
+                    start = now - now % 12 - 12;
+                    end = start + 11;
+                    kind = WHOLE_YEAR;
+                    return i + 1;
+                case MONTH:
+                    // "last march" is the most recent March before this month
+                    start = before(values[i] & 0xF, now - 1);
+                    end = start;
+                    return i + 1;
+                case NUMBER:
+                    if (i + 1 >= count || values[i] <= 0) {
+                        return -1;
+                    }
+                    int months = unitMonths(kinds[i + 1]);
+                    if (months == 0) {
+                        return -1;
+                    }
+                    end = now;
+                    start = now - values[i] * months + 1;
+                    return i + 2;
+                default:
+                    return -1;
+            }
+        }
+
+        private int ago(int amount, int unit, int next) {
+            switch (unit) {
+                case UNIT_MONTH:
+                    start = now - amount;
+                    end = start;
+                    return next;
+                case UNIT_QUARTER:
+                    int month = now - amount * 3;
+                    start = month - month % 3;
+                    end = start + 2;
+                    return next;
+                case UNIT_YEAR:
+                    start = now - now % 12 - amount * 12;
+                    end = start + 11;
+                    kind = WHOLE_YEAR;
+                    return next;
+                default:
+                    return -1;
+            }
+        }
+
+        private int quarter(int q, int i) {
+            int j = yearAfter(i);
+            if (j > 0) {
+                start = values[j - 1] * 12 + (q - 1) * 3;
+                end = start + 2;
+                return j;
+            }
+            start = (now - now % 12) + (q - 1) * 3;
+            if (start > now) {
+                start -= 12;
+            }
+            end = start + 2;
+            return i;
+        }
+
+        /**
+         * Index after a year at {@code i}, allowing "of"/"in" before it, or -1.
+         */
+        private int yearAfter(int i) {
+            if (i < count && kinds[i] == YEAR) {
+                return i + 1;
+            }
+            if (i + 1 < count && kinds[i] == PREP && kinds[i + 1] == YEAR) {
+                return i + 2;
+            }
+            return -1;
+        }
+
+        private static int unitMonths(int unit) {
+            return unit == UNIT_MONTH ? 1 : unit == UNIT_QUARTER ? 3 : unit == UNIT_YEAR ? 12 : 0;
+        }
+
+        /** Latest occurrence of {@code month} at or before {@code anchor}. */
+        private static int before(int month, int anchor) {
+            int index = anchor - anchor % 12 + month - 1;
+            return index > anchor ? index - 12 : index;
+        }
+
+        /** Earliest occurrence of {@code month} at or after {@code anchor}. */
+        private static int after(int month, int anchor) {
+            int index = anchor - anchor % 12 + month - 1;
+            return index < anchor ? index + 12 : index;
+        }
+    }
+
+    /**
+     * Builds the word trie over a-z and 0-9. Terminal entries pack the token
+     * kind above the low byte and its value in the low byte.
+     */
+    private static final class WordTable {
+        private int[] transitions = new int[64 * ALPHABET];
+        private int[] terminals = new int[64];
+        private int states = 1;
+
+        void add(String[] words, int kind, int value) {
+            for (String word : words) {
+                add(word, kind, value);
+            }
+        }
+
+        void add(String word, int kind, int value) {
+            int state = 0;
+            for (int i = 0; i < word.length(); i++) {
+                int slot = state * ALPHABET + classOf(word.charAt(i));
+                if (transitions[slot] == 0) {
+                    if (states == terminals.length) {
+                        transitions = Arrays.copyOf(transitions, transitions.length * 2);
+                        terminals = Arrays.copyOf(terminals, terminals.length * 2);
+                    }
+                    transitions[slot] = states++;
+                }
+                state = transitions[slot];
+            }
+            terminals[state] = kind << 8 | value;
+        }
+
+        int[] transitions() {
+            return Arrays.copyOf(transitions, states * ALPHABET);
+        }
+
+        int[] terminals() {
+            return Arrays.copyOf(terminals, states);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.nlp;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * An inclusive range of months.
+ */
+public record TimePeriod(YearMonth start, YearMonth end) {
+
+    public static TimePeriod of(YearMonth month) {
+        return new TimePeriod(month, month);
+    }
+
+    public int length() {
+        return (int) ChronoUnit.MONTHS.between(start, end) + 1;
+    }
+
+    public TimePeriod minusMonths(long months) {
+        return new TimePeriod(start.minusMonths(months), end.minusMonths(months));
+    }
+
+    public boolean isSingleMonth() {
+        return start.equals(end);
+    }
+}
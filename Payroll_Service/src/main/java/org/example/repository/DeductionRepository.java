@@ -1,37 +1,75 @@
 package org.example.repository;
 
 import org.example.model.DeductionBreakdown;
+import org.example.model.EmployeeMonth;
+import org.example.util.StringDictionary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 public class DeductionRepository {
 
+    private static final String UPSERT_SQL = "INSERT INTO deduction_breakdown (employee_id, pay_period_end, " +
+            "deduction_type, amount, employer_match, category) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE amount = VALUES(amount), employer_match = VALUES(employer_match), " +
+            "category = VALUES(category)";
+
     private final JdbcTemplate jdbcTemplate;
+    private final EmployeeMonthViewRepository monthView;
 
     @Autowired
-    public DeductionRepository(JdbcTemplate jdbcTemplate) {
+    public DeductionRepository(JdbcTemplate jdbcTemplate, EmployeeMonthViewRepository monthView) {
         this.jdbcTemplate = jdbcTemplate;
+        this.monthView = monthView;
     }
 
-    private final RowMapper<DeductionBreakdown> deductionRowMapper = (rs, rowNum) -> {
+    private final RowMapper<DeductionBreakdown> deductionRowMapper = (rs, rowNum) -> deduction(rs);
+
+    static DeductionBreakdown deduction(ResultSet rs) throws SQLException {
         DeductionBreakdown deduction = new DeductionBreakdown();
-        deduction.setEmployeeId(rs.getString("employee_id"));
+        deduction.setEmployeeId(PayrollRepository.employeeId(rs));
         deduction.setPayPeriodEnd(rs.getDate("pay_period_end").toLocalDate());
-        deduction.setDeductionType(rs.getString("deduction_type"));
-        deduction.setAmount(rs.getBigDecimal("amount"));
-        deduction.setEmployerMatch(rs.getBigDecimal("employer_match"));
+        deduction.setDeductionType(StringDictionary.DEDUCTION_TYPES.canonical(rs.getString("deduction_type")));
+        deduction.setAmount(PayrollRepository.money(rs, "amount"));
+        deduction.setEmployerMatch(PayrollRepository.money(rs, "employer_match"));
         deduction.setCategory(rs.getString("category"));
         return deduction;
-    };
+    }
+
+    /**
+     * Inserts the rows, or replaces the row already loaded for the same
+     * employee, pay period end and deduction type, in one batch and one
+     * transaction.
+     */
+    @Transactional
+    public void upsertAll(List<DeductionBreakdown> deductions) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deductions, deductions.size(), (ps, deduction) -> {
+            ps.setString(1, deduction.getEmployeeId());
+            ps.setDate(2, java.sql.Date.valueOf(deduction.getPayPeriodEnd()));
+            ps.setString(3, deduction.getDeductionType());
+            ps.setBigDecimal(4, PayrollRepository.decimal(deduction.getAmount()));
+            ps.setBigDecimal(5, PayrollRepository.decimal(deduction.getEmployerMatch()));
+            ps.setString(6, deduction.getCategory());
+        });
+    }
 
     public List<DeductionBreakdown> findByEmployeeIdAndPayPeriod(String employeeId, LocalDate payPeriodEnd) {
         String sql = "SELECT * FROM deduction_breakdown " +
@@ -45,6 +83,11 @@ public class DeductionRepository {
     }
 
     public List<DeductionBreakdown> findByEmployeeIdAndMonth(String employeeId, YearMonth yearMonth) {
+        if (monthView.isServing()) {
+            EmployeeMonth row = monthView.findByEmployeeIdAndMonth(employeeId, yearMonth);
+            return row == null ? new ArrayList<>() : row.getDeductions();
+        }
+
         // Calculate the start and end of the month
         LocalDate startOfMonth = yearMonth.atDay(1);
         LocalDate endOfMonth = yearMonth.atEndOfMonth();
@@ -59,5 +102,155 @@ public class DeductionRepository {
                 deductionRowMapper
         );
     }
-}
 
+    public Map<YearMonth, List<DeductionBreakdown>> findByEmployeeIdAndMonths(String employeeId, Collection<YearMonth> months) {
+        Map<YearMonth, List<DeductionBreakdown>> deductionsByMonth = new HashMap<>();
+        if (months.isEmpty()) {
+            return deductionsByMonth;
+        }
+        if (monthView.isServing()) {
+            for (EmployeeMonth row : monthView.findByEmployeeIdAndMonths(employeeId, months).values()) {
+                if (!row.getDeductions().isEmpty()) {
+                    deductionsByMonth.put(row.getMonth(), row.getDeductions());
+                }
+            }
+            return deductionsByMonth;
+        }
+
+        List<Object> params = new ArrayList<>();
+        params.add(employeeId);
+        String sql = "SELECT * FROM deduction_breakdown " +
+                "WHERE employee_id = ? " +
+                "AND (" + PayrollRepository.monthRangePredicates(months, params) + ")";
+
+        jdbcTemplate.query(sql, rs -> {
+            DeductionBreakdown deduction = deductionRowMapper.mapRow(rs, 0);
+            deductionsByMonth.computeIfAbsent(YearMonth.from(deduction.getPayPeriodEnd()), m -> new ArrayList<>())
+                    .add(deduction);
+        }, params.toArray());
+
+        return deductionsByMonth;
+    }
+
+    /**
+     * Streams every deduction row for the employee between the two months,
+     * inclusive, oldest pay period first.
+     */
+    public void streamByEmployeeIdAndMonthRange(String employeeId, YearMonth fromMonth, YearMonth toMonth,
+                                                Consumer<DeductionBreakdown> consumer) {
+        String sql = "SELECT * FROM deduction_breakdown " +
+                "WHERE employee_id = ? " +
+                "AND pay_period_end BETWEEN ? AND ? " +
+                "ORDER BY pay_period_end";
+
+        jdbcTemplate.query(sql, rs -> {
+            consumer.accept(deductionRowMapper.mapRow(rs, 0));
+        }, employeeId, fromMonth.atDay(1), toMonth.atEndOfMonth());
+    }
+
+    /**
+     * Opens a cursor over every deduction row in the given months across all
+     * employees, ordered by the bytes of the employee id like
+     * {@link PayrollRepository#streamByMonthsOrderedByEmployee}. Rows are
+     * fetched {@code fetchSize} at a time as the stream is consumed; the caller
+     * must close the stream.
+     */
+    public Stream<DeductionBreakdown> streamByMonthsOrderedByEmployee(Collection<YearMonth> months, int fetchSize) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT * FROM deduction_breakdown " +
+                "WHERE " + PayrollRepository.monthRangePredicates(months, params) + " " +
+                "ORDER BY " + PayrollRepository.BINARY_EMPLOYEE_ID;
+
+        return jdbcTemplate.queryForStream(PayrollRepository.streaming(sql, fetchSize, params), deductionRowMapper);
+    }
+
+    /**
+     * Streams each distinct employee and pay period end with deductions,
+     * read from the unique key alone.
+     */
+    public void streamEmployeePeriods(int fetchSize, BiConsumer<String, LocalDate> consumer) {
+        String sql = "SELECT DISTINCT employee_id, pay_period_end FROM deduction_breakdown";
+
+        jdbcTemplate.query(PayrollRepository.streaming(sql, fetchSize, new ArrayList<>()), rs -> {
+            consumer.accept(rs.getString(1), rs.getDate(2).toLocalDate());
+        });
+    }
+
+    /**
+     * The employee and pay period end of each row with an id in
+     * (afterId, throughId], read by primary key range.
+     */
+    public void streamEmployeePeriods(long afterId, long throughId, int fetchSize, BiConsumer<String, LocalDate> consumer) {
+        List<Object> params = new ArrayList<>();
+        params.add(afterId);
+        params.add(throughId);
+        String sql = "SELECT employee_id, pay_period_end FROM deduction_breakdown WHERE id > ? AND id <= ?";
+
+        jdbcTemplate.query(PayrollRepository.streaming(sql, fetchSize, params), rs -> {
+            consumer.accept(rs.getString(1), rs.getDate(2).toLocalDate());
+        });
+    }
+
+    /**
+     * The highest row id, or 0 when the table is empty.
+     */
+    public long findMaxId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM deduction_breakdown", Long.class);
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * Streams every deduction row of the given employees with a pay period
+     * ending between the two dates, inclusive. Always reads the source table.
+     */
+    public void streamByEmployeeIdsAndPayPeriod(Collection<String> employeeIds, LocalDate startDate, LocalDate endDate,
+                                                Consumer<DeductionBreakdown> consumer) {
+        for (List<String> chunk : PayrollRepository.chunk(employeeIds)) {
+            List<Object> params = new ArrayList<>(chunk);
+            params.add(startDate);
+            params.add(endDate);
+            String sql = "SELECT * FROM deduction_breakdown " +
+                    "WHERE employee_id IN (" + PayrollRepository.placeholders(chunk.size()) + ") " +
+                    "AND pay_period_end BETWEEN ? AND ?";
+
+            jdbcTemplate.query(sql, rs -> {
+                consumer.accept(deductionRowMapper.mapRow(rs, 0));
+            }, params.toArray());
+        }
+    }
+
+    public Map<String, Map<YearMonth, List<DeductionBreakdown>>> findByEmployeeIdsAndMonths(Collection<String> employeeIds,
+                                                                                          Collection<YearMonth> months) {
+        Map<String, Map<YearMonth, List<DeductionBreakdown>>> deductionsByEmployee = new HashMap<>();
+        if (employeeIds.isEmpty() || months.isEmpty()) {
+            return deductionsByEmployee;
+        }
+        if (monthView.isServing()) {
+            for (Map<YearMonth, EmployeeMonth> rows : monthView.findByEmployeeIdsAndMonths(employeeIds, months).values()) {
+                for (EmployeeMonth row : rows.values()) {
+                    if (!row.getDeductions().isEmpty()) {
+                        deductionsByEmployee.computeIfAbsent(row.getEmployeeId(), id -> new HashMap<>())
+                                .put(row.getMonth(), row.getDeductions());
+                    }
+                }
+            }
+            return deductionsByEmployee;
+        }
+
+        for (List<String> chunk : PayrollRepository.chunk(employeeIds)) {
+            List<Object> params = new ArrayList<>(chunk);
+            String sql = "SELECT * FROM deduction_breakdown " +
+                    "WHERE employee_id IN (" + PayrollRepository.placeholders(chunk.size()) + ") " +
+                    "AND (" + PayrollRepository.monthRangePredicates(months, params) + ")";
+
+            jdbcTemplate.query(sql, rs -> {
+                DeductionBreakdown deduction = deductionRowMapper.mapRow(rs, 0);
+                deductionsByEmployee.computeIfAbsent(deduction.getEmployeeId(), id -> new HashMap<>())
+                        .computeIfAbsent(YearMonth.from(deduction.getPayPeriodEnd()), m -> new ArrayList<>())
+                        .add(deduction);
+            }, params.toArray());
+        }
+
+        return deductionsByEmployee;
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.repository;
+
+import org.example.model.EmployeeMonth;
+import org.example.model.PayrollTransaction;
+import org.example.util.DeductionRows;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * employee_month_view, one row per employee per month keyed by
+ * (employee_id, pay_month). When the read model is enabled and has been
+ * built, {@link PayrollRepository} and {@link DeductionRepository} serve
+ * their month reads from it with primary-key lookups instead of range scans
+ * over the source tables.
+ */
+@Repository
+public class EmployeeMonthViewRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO employee_month_view (employee_id, pay_month, pay_period_start, " +
+            "pay_period_end, gross_pay, net_pay, base_salary, bonus, overtime, tax_withheld, total_deductions, currency, " +
+            "load_date, deductions, ytd_gross_pay, ytd_net_pay) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_YEAR_SQL = "DELETE FROM employee_month_view " +
+            "WHERE employee_id = ? AND pay_month BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    // Set once the first refresh has caught the view up with the source tables
+    private volatile boolean ready;
+
+    @Autowired
+    public EmployeeMonthViewRepository(JdbcTemplate jdbcTemplate,
+                                       @Value("${payroll.read-model.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    private final RowMapper<EmployeeMonth> employeeMonthRowMapper = (rs, rowNum) -> {
+        String employeeId = PayrollRepository.employeeId(rs);
+        PayrollTransaction payroll = null;
+        if (rs.getDate("pay_period_end") != null) {
+            payroll = new PayrollTransaction();
+            payroll.setEmployeeId(employeeId);
+            payroll.setPayPeriodStart(rs.getDate("pay_period_start").toLocalDate());
+            payroll.setPayPeriodEnd(rs.getDate("pay_period_end").toLocalDate());
+            payroll.setGrossPay(PayrollRepository.money(rs, "gross_pay"));
+            payroll.setNetPay(PayrollRepository.money(rs, "net_pay"));
+            payroll.setBaseSalary(PayrollRepository.money(rs, "base_salary"));
+            payroll.setBonus(PayrollRepository.money(rs, "bonus"));
+            payroll.setOvertime(PayrollRepository.money(rs, "overtime"));
+            payroll.setTaxWithheld(PayrollRepository.money(rs, "tax_withheld"));
+            payroll.setTotalDeductions(PayrollRepository.money(rs, "total_deductions"));
+            payroll.setCurrency(rs.getString("currency"));
+            payroll.setLoadDate(rs.getTimestamp("load_date").toLocalDateTime());
+        }
+        return new EmployeeMonth(employeeId, YearMonth.from(rs.getDate("pay_month").toLocalDate()), payroll,
+                DeductionRows.decode(employeeId, rs.getString("deductions")),
+                PayrollRepository.money(rs, "ytd_gross_pay"), PayrollRepository.money(rs, "ytd_net_pay"));
+    };
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True when reads should be served from the view: it is enabled and has
+     * been caught up with the source tables at least once.
+     */
+    public boolean isServing() {
+        return enabled && ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public EmployeeMonth findByEmployeeIdAndMonth(String employeeId, YearMonth month) {
+        String sql = "SELECT * FROM employee_month_view WHERE employee_id = ? AND pay_month = ?";
+
+        List<EmployeeMonth> results = jdbcTemplate.query(sql, employeeMonthRowMapper, employeeId, month.atDay(1));
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    public Map<YearMonth, EmployeeMonth> findByEmployeeIdAndMonths(String employeeId, Collection<YearMonth> months) {
+        Map<YearMonth, EmployeeMonth> rowsByMonth = new HashMap<>();
+        if (months.isEmpty()) {
+            return rowsByMonth;
+        }
+
+        List<Object> params = new ArrayList<>(months.size() + 1);
+        params.add(employeeId);
+        String sql = "SELECT * FROM employee_month_view " +
+                "WHERE employee_id = ? AND pay_month IN (" + monthParams(months, params) + ")";
+
+        jdbcTemplate.query(sql, rs -> {
+            EmployeeMonth row = employeeMonthRowMapper.mapRow(rs, 0);
+            rowsByMonth.put(row.getMonth(), row);
+        }, params.toArray());
+        return rowsByMonth;
+    }
+
+    public Map<String, Map<YearMonth, EmployeeMonth>> findByEmployeeIdsAndMonths(Collection<String> employeeIds,
+                                                                                 Collection<YearMonth> months) {
+        Map<String, Map<YearMonth, EmployeeMonth>> rowsByEmployee = new HashMap<>();
+        if (employeeIds.isEmpty() || months.isEmpty()) {
+            return rowsByEmployee;
+        }
+
+        for (List<String> chunk : PayrollRepository.chunk(employeeIds)) {
+            List<Object> params = new ArrayList<>(chunk);
+            String sql = "SELECT * FROM employee_month_view " +
+                    "WHERE employee_id IN (" + PayrollRepository.placeholders(chunk.size()) + ") " +
+                    "AND pay_month IN (" + monthParams(months, params) + ")";
+
+            jdbcTemplate.query(sql, rs -> {
+                EmployeeMonth row = employeeMonthRowMapper.mapRow(rs, 0);
+                rowsByEmployee.computeIfAbsent(row.getEmployeeId(), id -> new HashMap<>()).put(row.getMonth(), row);
+            }, params.toArray());
+        }
+        return rowsByEmployee;
+    }
+
+    /**
+     * Latest row between the two months, inclusive, or null when there is none.
+     */
+    public EmployeeMonth findLatestInRange(String employeeId, YearMonth fromMonth, YearMonth toMonth) {
+        String sql = "SELECT * FROM employee_month_view " +
+                "WHERE employee_id = ? AND pay_month BETWEEN ? AND ? " +
+                "ORDER BY pay_month DESC LIMIT 1";
+
+        List<EmployeeMonth> results = jdbcTemplate.query(sql, employeeMonthRowMapper,
+                employeeId, fromMonth.atDay(1), toMonth.atDay(1));
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    public PayrollTransaction findLatestPayrollByEmployeeId(String employeeId) {
+        String sql = "SELECT * FROM employee_month_view " +
+                "WHERE employee_id = ? AND pay_period_end IS NOT NULL " +
+                "ORDER BY pay_month DESC LIMIT 1";
+
+        List<EmployeeMonth> results = jdbcTemplate.query(sql, employeeMonthRowMapper, employeeId);
+        return results.isEmpty() ? null : results.get(0).getPayroll();
+    }
+
+    public LocalDateTime findLatestLoadDate() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(load_date) FROM employee_month_view", Timestamp.class);
+        return latest == null ? null : latest.toLocalDateTime();
+    }
+
+    /**
+     * Replaces each employee's rows for whole calendar years, since a change to
+     * one month moves the year-to-date totals of every later month.
+     */
+    @Transactional
+    public void replaceYears(Map<String, ? extends Collection<Integer>> yearsByEmployee, List<EmployeeMonth> rows) {
+        List<Object[]> deletes = new ArrayList<>();
+        for (Map.Entry<String, ? extends Collection<Integer>> entry : yearsByEmployee.entrySet()) {
+            for (int year : entry.getValue()) {
+                deletes.add(new Object[]{entry.getKey(), YearMonth.of(year, 1).atDay(1), YearMonth.of(year, 12).atDay(1)});
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_YEAR_SQL, deletes);
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            PayrollTransaction payroll = row.getPayroll();
+            ps.setString(1, row.getEmployeeId());
+            ps.setDate(2, Date.valueOf(row.getMonth().atDay(1)));
+            if (payroll != null) {
+                ps.setDate(3, Date.valueOf(payroll.getPayPeriodStart()));
+                ps.setDate(4, Date.valueOf(payroll.getPayPeriodEnd()));
+                ps.setBigDecimal(5, PayrollRepository.decimal(payroll.getGrossPay()));
+                ps.setBigDecimal(6, PayrollRepository.decimal(payroll.getNetPay()));
+                ps.setBigDecimal(7, PayrollRepository.decimal(payroll.getBaseSalary()));
+                ps.setBigDecimal(8, PayrollRepository.decimal(payroll.getBonus()));
+                ps.setBigDecimal(9, PayrollRepository.decimal(payroll.getOvertime()));
+                ps.setBigDecimal(10, PayrollRepository.decimal(payroll.getTaxWithheld()));
+                ps.setBigDecimal(11, PayrollRepository.decimal(payroll.getTotalDeductions()));
+                ps.setString(12, payroll.getCurrency());
+                ps.setTimestamp(13, Timestamp.valueOf(payroll.getLoadDate()));
+            } else {
+                for (int column = 3; column <= 13; column++) {
+                    ps.setNull(column, Types.NULL);
+                }
+            }
+            ps.setString(14, DeductionRows.encode(row.getDeductions()));
+            ps.setBigDecimal(15, PayrollRepository.decimal(row.getYearToDateGrossPay()));
+            ps.setBigDecimal(16, PayrollRepository.decimal(row.getYearToDateNetPay()));
+        });
+    }
+
+    private static String monthParams(Collection<YearMonth> months, List<Object> params) {
+        for (YearMonth month : months) {
+            params.add(month.atDay(1));
+        }
+        return PayrollRepository.placeholders(months.size());
+    }
+}
@@ -8,7 +8,9 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public class ExplanationLogRepository {
@@ -20,12 +22,13 @@ public class ExplanationLogRepository {
         this.jdbcTemplate = jdbcTemplate;
     }
 
+    private static final String INSERT_SQL = "INSERT INTO explanation_logs (employee_id, intent, pay_period, explanation_text, generated_by, language, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
     @Transactional
     public void saveExplanationLog(ExplanationLog explanationLog) {
-        String sql = "INSERT INTO explanation_logs (employee_id, intent, pay_period, explanation_text, generated_by, language, timestamp) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?)";
         jdbcTemplate.update(
-                sql,
+                INSERT_SQL,
                 explanationLog.getEmployeeId(),
                 explanationLog.getIntent(),
                 explanationLog.getPayPeriod(),
@@ -35,4 +38,17 @@ public class ExplanationLogRepository {
                 explanationLog.getTimestamp() != null ? explanationLog.getTimestamp() : LocalDateTime.now()
         );
     }
+
+    @Transactional
+    public void saveExplanationLogs(List<ExplanationLog> explanationLogs) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, explanationLogs, explanationLogs.size(), (ps, explanationLog) -> {
+            ps.setString(1, explanationLog.getEmployeeId());
+            ps.setString(2, explanationLog.getIntent());
+            ps.setString(3, explanationLog.getPayPeriod());
+            ps.setString(4, explanationLog.getExplanationText());
+            ps.setString(5, explanationLog.getGeneratedBy());
+            ps.setString(6, explanationLog.getLanguage());
+            ps.setTimestamp(7, Timestamp.valueOf(explanationLog.getTimestamp() != null ? explanationLog.getTimestamp() : LocalDateTime.now()));
+        });
+    }
 }
@@ -0,0 +1,142 @@
+package org.example.repository;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.PayChange;
+import org.example.model.PayChangeSummary;
+import org.example.util.DeductionChanges;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class PayChangeSummaryRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO pay_change_summary (employee_id, pay_month, net_pay_change, " +
+            "base_pay_change, bonus_change, overtime_change, tax_change, total_deductions_change, deduction_changes, " +
+            "source_load_date, refreshed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE net_pay_change = VALUES(net_pay_change), base_pay_change = VALUES(base_pay_change), " +
+            "bonus_change = VALUES(bonus_change), overtime_change = VALUES(overtime_change), tax_change = VALUES(tax_change), " +
+            "total_deductions_change = VALUES(total_deductions_change), deduction_changes = VALUES(deduction_changes), " +
+            "source_load_date = VALUES(source_load_date), refreshed_at = CURRENT_TIMESTAMP";
+
+    private static final String DELETE_SQL = "DELETE FROM pay_change_summary WHERE employee_id = ? AND pay_month = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PayChangeSummaryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // The summary columns, then the employee's deductions for the month and the month before unless the summary is fresh
+    private static final String SUMMARY_WITH_DEDUCTIONS_SQL = "SELECT COALESCE(s.employee_id, d.employee_id) AS employee_id, " +
+            "s.pay_month, s.net_pay_change, s.base_pay_change, s.bonus_change, s.overtime_change, s.tax_change, " +
+            "s.total_deductions_change, s.deduction_changes, s.source_load_date, " +
+            "d.pay_period_end, d.deduction_type, d.amount, d.employer_match, d.category " +
+            "FROM (SELECT 1 AS one) k " +
+            "LEFT JOIN pay_change_summary s ON s.employee_id = ? AND s.pay_month = ? " +
+            "LEFT JOIN deduction_breakdown d ON d.employee_id = ? AND d.pay_period_end >= ? AND d.pay_period_end <= ? " +
+            "AND (s.source_load_date IS NULL OR s.source_load_date <> ?)";
+
+    private final RowMapper<PayChangeSummary> summaryRowMapper = (rs, rowNum) -> summary(rs);
+
+    private static PayChangeSummary summary(ResultSet rs) throws SQLException {
+        YearMonth month = YearMonth.from(rs.getDate("pay_month").toLocalDate());
+        PayChange payChange = new PayChange(month, month.minusMonths(1));
+        payChange.setNetPayChange(PayrollRepository.money(rs, "net_pay_change"));
+        payChange.setBasePayChange(PayrollRepository.money(rs, "base_pay_change"));
+        payChange.setBonusChange(PayrollRepository.money(rs, "bonus_change"));
+        payChange.setOvertimeChange(PayrollRepository.money(rs, "overtime_change"));
+        payChange.setTaxChange(PayrollRepository.money(rs, "tax_change"));
+        payChange.setTotalDeductionsChange(PayrollRepository.money(rs, "total_deductions_change"));
+        payChange.setDeductionChanges(DeductionChanges.decode(rs.getString("deduction_changes")));
+        return new PayChangeSummary(PayrollRepository.employeeId(rs), month, payChange,
+                rs.getTimestamp("source_load_date").toLocalDateTime());
+    }
+
+    public PayChangeSummary findByEmployeeIdAndMonth(String employeeId, YearMonth month) {
+        String sql = "SELECT * FROM pay_change_summary WHERE employee_id = ? AND pay_month = ?";
+
+        List<PayChangeSummary> results = jdbcTemplate.query(sql, summaryRowMapper, employeeId, month.atDay(1));
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    /**
+     * The employee's summary for the month and, in the same round trip, their
+     * deduction rows for the month and the month before unless the summary
+     * was built from payroll loaded at {@code sourceLoadDate}. A caller that
+     * has to compute the change live then already holds every row it needs.
+     */
+    public SummaryLookup findByEmployeeIdAndMonthWithDeductions(String employeeId, YearMonth month,
+                                                                LocalDateTime sourceLoadDate) {
+        PayChangeSummary[] summary = {null};
+        Map<YearMonth, List<DeductionBreakdown>> deductions = new HashMap<>();
+        jdbcTemplate.query(SUMMARY_WITH_DEDUCTIONS_SQL, rs -> {
+            if (summary[0] == null && rs.getDate("pay_month") != null) {
+                summary[0] = summary(rs);
+            }
+            if (rs.getDate("pay_period_end") != null) {
+                DeductionBreakdown deduction = DeductionRepository.deduction(rs);
+                deductions.computeIfAbsent(YearMonth.from(deduction.getPayPeriodEnd()), m -> new ArrayList<>())
+                        .add(deduction);
+            }
+        }, employeeId, month.atDay(1), employeeId, month.minusMonths(1).atDay(1), month.atEndOfMonth(),
+                Timestamp.valueOf(sourceLoadDate));
+
+        boolean fresh = summary[0] != null && sourceLoadDate.equals(summary[0].getSourceLoadDate());
+        return new SummaryLookup(summary[0], fresh ? null : deductions);
+    }
+
+    /**
+     * A summary, or null when there is none, and the deductions by month that
+     * were read with it, or null when the summary is fresh and none were read.
+     */
+    public record SummaryLookup(PayChangeSummary summary, Map<YearMonth, List<DeductionBreakdown>> deductions) {
+    }
+
+    public LocalDateTime findLatestSourceLoadDate() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(source_load_date) FROM pay_change_summary", Timestamp.class);
+        return latest == null ? null : latest.toLocalDateTime();
+    }
+
+    @Transactional
+    public void saveAll(List<PayChangeSummary> summaries) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, summaries, summaries.size(), (ps, summary) -> {
+            PayChange payChange = summary.getPayChange();
+            ps.setString(1, summary.getEmployeeId());
+            ps.setDate(2, Date.valueOf(summary.getMonth().atDay(1)));
+            ps.setBigDecimal(3, PayrollRepository.decimal(payChange.getNetPayChange()));
+            ps.setBigDecimal(4, PayrollRepository.decimal(payChange.getBasePayChange()));
+            ps.setBigDecimal(5, PayrollRepository.decimal(payChange.getBonusChange()));
+            ps.setBigDecimal(6, PayrollRepository.decimal(payChange.getOvertimeChange()));
+            ps.setBigDecimal(7, PayrollRepository.decimal(payChange.getTaxChange()));
+            ps.setBigDecimal(8, PayrollRepository.decimal(payChange.getTotalDeductionsChange()));
+            ps.setString(9, DeductionChanges.encode(payChange.getDeductionChanges()));
+            ps.setTimestamp(10, Timestamp.valueOf(summary.getSourceLoadDate()));
+        });
+    }
+
+    /**
+     * Removes summaries whose month or the month before no longer has payroll.
+     */
+    @Transactional
+    public void deleteAll(List<PayChangeSummary> summaries) {
+        jdbcTemplate.batchUpdate(DELETE_SQL, summaries, summaries.size(), (ps, summary) -> {
+            ps.setString(1, summary.getEmployeeId());
+            ps.setDate(2, Date.valueOf(summary.getMonth().atDay(1)));
+        });
+    }
+}
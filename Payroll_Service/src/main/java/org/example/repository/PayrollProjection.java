@@ -0,0 +1,64 @@
+package org.example.repository;
+
+import org.example.model.ComponentView;
+import org.example.model.Money;
+import org.example.model.NetPayView;
+import org.example.model.PayrollTransaction;
+import org.example.model.PayrollView;
+import org.example.model.TaxView;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * The columns of payroll_transactions one kind of question reads, and how to
+ * map them. Queries select pay_period_end and load_date first and then the
+ * projection's own columns, which the mapper reads by position. NET_PAY and
+ * TAX are covered by idx_payroll_employee_period, so MySQL answers them from
+ * the index alone.
+ */
+public final class PayrollProjection<V extends PayrollView> {
+
+    public static final PayrollProjection<NetPayView> NET_PAY = new PayrollProjection<>("net_pay",
+            (rs, rowNum) -> new NetPayView(rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDateTime.class),
+                    Money.of(rs.getBigDecimal(3))),
+            payroll -> new NetPayView(payroll.getPayPeriodEnd(), payroll.getLoadDate(), payroll.getNetPay()));
+
+    public static final PayrollProjection<TaxView> TAX = new PayrollProjection<>("tax_withheld",
+            (rs, rowNum) -> new TaxView(rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDateTime.class),
+                    Money.of(rs.getBigDecimal(3))),
+            payroll -> new TaxView(payroll.getPayPeriodEnd(), payroll.getLoadDate(), payroll.getTaxWithheld()));
+
+    public static final PayrollProjection<ComponentView> COMPONENTS = new PayrollProjection<>("base_salary, bonus, overtime",
+            (rs, rowNum) -> new ComponentView(rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDateTime.class),
+                    Money.of(rs.getBigDecimal(3)), Money.of(rs.getBigDecimal(4)), Money.of(rs.getBigDecimal(5))),
+            payroll -> new ComponentView(payroll.getPayPeriodEnd(), payroll.getLoadDate(),
+                    payroll.getBaseSalary(), payroll.getBonus(), payroll.getOvertime()));
+
+    private final String selectList;
+    private final RowMapper<V> rowMapper;
+    private final Function<PayrollTransaction, V> fromPayroll;
+
+    private PayrollProjection(String columns, RowMapper<V> rowMapper, Function<PayrollTransaction, V> fromPayroll) {
+        this.selectList = "pay_period_end, load_date, " + columns;
+        this.rowMapper = rowMapper;
+        this.fromPayroll = fromPayroll;
+    }
+
+    String selectList() {
+        return selectList;
+    }
+
+    RowMapper<V> rowMapper() {
+        return rowMapper;
+    }
+
+    /**
+     * The same view cut from a whole row that has already been read.
+     */
+    public V from(PayrollTransaction payroll) {
+        return payroll == null ? null : fromPayroll.apply(payroll);
+    }
+}
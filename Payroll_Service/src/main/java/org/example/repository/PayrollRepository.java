@@ -1,38 +1,73 @@
 package org.example.repository;
 
+import org.example.model.EmployeeMonth;
+import org.example.model.Money;
 import org.example.model.PayrollTransaction;
+import org.example.model.PayrollView;
+import org.example.util.StringDictionary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Repository
 public class PayrollRepository {
 
+    static final int IN_LIST_CHUNK_SIZE = 500;
+
+    // employee_id as utf8mb4 bytes, zero-padded to the 200 bytes VARCHAR(50) can hold
+    static final String BINARY_EMPLOYEE_ID = "CAST(employee_id AS BINARY(200))";
+
+    private static final String UPSERT_SQL = "INSERT INTO payroll_transactions (employee_id, pay_period_start, " +
+            "pay_period_end, gross_pay, net_pay, base_salary, bonus, overtime, tax_withheld, total_deductions, currency, " +
+            "load_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE pay_period_start = VALUES(pay_period_start), gross_pay = VALUES(gross_pay), " +
+            "net_pay = VALUES(net_pay), base_salary = VALUES(base_salary), bonus = VALUES(bonus), " +
+            "overtime = VALUES(overtime), tax_withheld = VALUES(tax_withheld), " +
+            "total_deductions = VALUES(total_deductions), currency = VALUES(currency), load_date = VALUES(load_date)";
+
     private final JdbcTemplate jdbcTemplate;
+    private final EmployeeMonthViewRepository monthView;
 
     @Autowired
-    public PayrollRepository(JdbcTemplate jdbcTemplate) {
+    public PayrollRepository(JdbcTemplate jdbcTemplate, EmployeeMonthViewRepository monthView) {
         this.jdbcTemplate = jdbcTemplate;
+        this.monthView = monthView;
     }
 
     private final RowMapper<PayrollTransaction> payrollRowMapper = (rs, rowNum) -> {
         PayrollTransaction transaction = new PayrollTransaction();
-        transaction.setEmployeeId(rs.getString("employee_id"));
+        transaction.setEmployeeId(employeeId(rs));
         transaction.setPayPeriodStart(rs.getDate("pay_period_start").toLocalDate());
         transaction.setPayPeriodEnd(rs.getDate("pay_period_end").toLocalDate());
-        transaction.setGrossPay(rs.getBigDecimal("gross_pay"));
-        transaction.setNetPay(rs.getBigDecimal("net_pay"));
-        transaction.setBaseSalary(rs.getBigDecimal("base_salary"));
-        transaction.setBonus(rs.getBigDecimal("bonus"));
-        transaction.setOvertime(rs.getBigDecimal("overtime"));
-        transaction.setTaxWithheld(rs.getBigDecimal("tax_withheld"));
-        transaction.setTotalDeductions(rs.getBigDecimal("total_deductions"));
+        transaction.setGrossPay(money(rs, "gross_pay"));
+        transaction.setNetPay(money(rs, "net_pay"));
+        transaction.setBaseSalary(money(rs, "base_salary"));
+        transaction.setBonus(money(rs, "bonus"));
+        transaction.setOvertime(money(rs, "overtime"));
+        transaction.setTaxWithheld(money(rs, "tax_withheld"));
+        transaction.setTotalDeductions(money(rs, "total_deductions"));
         transaction.setCurrency(rs.getString("currency"));
         transaction.setLoadDate(rs.getTimestamp("load_date").toLocalDateTime());
         return transaction;
@@ -52,6 +87,10 @@ public class PayrollRepository {
     }
 
     public PayrollTransaction findLatestPayrollByEmployeeId(String employeeId) {
+        if (monthView.isServing()) {
+            return monthView.findLatestPayrollByEmployeeId(employeeId);
+        }
+
         String sql = "SELECT * FROM payroll_transactions " +
                 "WHERE employee_id = ? " +
                 "ORDER BY pay_period_end DESC " +
@@ -67,6 +106,11 @@ public class PayrollRepository {
     }
 
     public PayrollTransaction findPayrollByEmployeeIdAndMonth(String employeeId, YearMonth yearMonth) {
+        if (monthView.isServing()) {
+            EmployeeMonth row = monthView.findByEmployeeIdAndMonth(employeeId, yearMonth);
+            return row == null ? null : row.getPayroll();
+        }
+
         LocalDate startOfMonth = yearMonth.atDay(1);
         LocalDate endOfMonth = yearMonth.atEndOfMonth();
 
@@ -85,7 +129,330 @@ public class PayrollRepository {
         return results.isEmpty() ? null : results.get(0);
     }
 
-    public BigDecimal[] getYearToDateEarnings(String employeeId, int year, YearMonth targetMonth) {
+    public Map<YearMonth, PayrollTransaction> findPayrollByEmployeeIdAndMonths(String employeeId, Collection<YearMonth> months) {
+        Map<YearMonth, PayrollTransaction> payrollByMonth = new HashMap<>();
+        if (months.isEmpty()) {
+            return payrollByMonth;
+        }
+        if (monthView.isServing()) {
+            for (EmployeeMonth row : monthView.findByEmployeeIdAndMonths(employeeId, months).values()) {
+                if (row.getPayroll() != null) {
+                    payrollByMonth.put(row.getMonth(), row.getPayroll());
+                }
+            }
+            return payrollByMonth;
+        }
+
+        List<Object> params = new ArrayList<>();
+        params.add(employeeId);
+        String sql = "SELECT * FROM payroll_transactions " +
+                "WHERE employee_id = ? " +
+                "AND (" + monthRangePredicates(months, params) + ") " +
+                "ORDER BY pay_period_end DESC";
+
+        // Rows arrive newest first, so the first row seen for a month is the one LIMIT 1 would pick
+        jdbcTemplate.query(sql, rs -> {
+            PayrollTransaction transaction = payrollRowMapper.mapRow(rs, 0);
+            payrollByMonth.putIfAbsent(YearMonth.from(transaction.getPayPeriodEnd()), transaction);
+        }, params.toArray());
+
+        return payrollByMonth;
+    }
+
+    /**
+     * Only the projection's columns of the latest pay period in each month,
+     * for questions that need a number or two rather than the whole row.
+     */
+    public <V extends PayrollView> Map<YearMonth, V> findByEmployeeIdAndMonths(String employeeId, Collection<YearMonth> months,
+                                                                              PayrollProjection<V> projection) {
+        Map<YearMonth, V> viewsByMonth = new HashMap<>();
+        if (months.isEmpty()) {
+            return viewsByMonth;
+        }
+        if (monthView.isServing()) {
+            for (EmployeeMonth row : monthView.findByEmployeeIdAndMonths(employeeId, months).values()) {
+                if (row.getPayroll() != null) {
+                    viewsByMonth.put(row.getMonth(), projection.from(row.getPayroll()));
+                }
+            }
+            return viewsByMonth;
+        }
+
+        List<Object> params = new ArrayList<>();
+        params.add(employeeId);
+        String sql = "SELECT " + projection.selectList() + " FROM payroll_transactions " +
+                "WHERE employee_id = ? " +
+                "AND (" + monthRangePredicates(months, params) + ") " +
+                "ORDER BY pay_period_end DESC";
+
+        RowMapper<V> rowMapper = projection.rowMapper();
+        jdbcTemplate.query(sql, rs -> {
+            V view = rowMapper.mapRow(rs, 0);
+            viewsByMonth.putIfAbsent(YearMonth.from(view.payPeriodEnd()), view);
+        }, params.toArray());
+
+        return viewsByMonth;
+    }
+
+    /**
+     * Streams every payroll row for the employee between the two months,
+     * inclusive, oldest pay period first.
+     */
+    public void streamByEmployeeIdAndMonthRange(String employeeId, YearMonth fromMonth, YearMonth toMonth,
+                                                Consumer<PayrollTransaction> consumer) {
+        String sql = "SELECT * FROM payroll_transactions " +
+                "WHERE employee_id = ? " +
+                "AND pay_period_end BETWEEN ? AND ? " +
+                "ORDER BY pay_period_end";
+
+        jdbcTemplate.query(sql, rs -> {
+            consumer.accept(payrollRowMapper.mapRow(rs, 0));
+        }, employeeId, fromMonth.atDay(1), toMonth.atEndOfMonth());
+    }
+
+    /**
+     * Streams every payroll row in the given months across all employees,
+     * ordered by the bytes of the employee id and then newest pay period first,
+     * fetching {@code fetchSize} rows per round trip instead of buffering the
+     * result. The byte order is the ids' code point order whatever the column
+     * collation, which would otherwise fold case and accents and sort
+     * {@code emp_1} and {@code emp1} differently from a merge join in Java.
+     */
+    public void streamByMonthsOrderedByEmployee(Collection<YearMonth> months, int fetchSize,
+                                                Consumer<PayrollTransaction> consumer) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT * FROM payroll_transactions " +
+                "WHERE " + monthRangePredicates(months, params) + " " +
+                "ORDER BY " + BINARY_EMPLOYEE_ID + ", pay_period_end DESC";
+
+        jdbcTemplate.query(streaming(sql, fetchSize, params), rs -> {
+            consumer.accept(payrollRowMapper.mapRow(rs, 0));
+        });
+    }
+
+    /**
+     * Streams the employee and pay period end of every payroll row, read
+     * from the (employee_id, pay_period_end) unique key alone.
+     */
+    public void streamEmployeePeriods(int fetchSize, BiConsumer<String, LocalDate> consumer) {
+        String sql = "SELECT employee_id, pay_period_end FROM payroll_transactions";
+
+        jdbcTemplate.query(streaming(sql, fetchSize, new ArrayList<>()), rs -> {
+            consumer.accept(rs.getString(1), rs.getDate(2).toLocalDate());
+        });
+    }
+
+    /**
+     * Like {@link #streamEmployeePeriods(int, BiConsumer)}, limited to the
+     * rows with an id in (afterId, throughId], read by primary key range.
+     */
+    public void streamEmployeePeriods(long afterId, long throughId, int fetchSize, BiConsumer<String, LocalDate> consumer) {
+        List<Object> params = new ArrayList<>();
+        params.add(afterId);
+        params.add(throughId);
+        String sql = "SELECT employee_id, pay_period_end FROM payroll_transactions WHERE id > ? AND id <= ?";
+
+        jdbcTemplate.query(streaming(sql, fetchSize, params), rs -> {
+            consumer.accept(rs.getString(1), rs.getDate(2).toLocalDate());
+        });
+    }
+
+    /**
+     * The highest row id, or 0 when the table is empty. Ids are
+     * auto-increment, so every row inserted later gets a higher one.
+     */
+    public long findMaxId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM payroll_transactions", Long.class);
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * Streams every payroll row loaded after {@code since}, ordered by employee.
+     */
+    public void streamLoadedSince(LocalDateTime since, int fetchSize, Consumer<PayrollTransaction> consumer) {
+        List<Object> params = new ArrayList<>();
+        params.add(since);
+        String sql = "SELECT * FROM payroll_transactions " +
+                "WHERE load_date > ? " +
+                "ORDER BY employee_id";
+
+        jdbcTemplate.query(streaming(sql, fetchSize, params), rs -> {
+            consumer.accept(payrollRowMapper.mapRow(rs, 0));
+        });
+    }
+
+    /**
+     * Streams every payroll row of the given employees with a pay period
+     * ending between the two dates, inclusive. Always reads the source table.
+     */
+    public void streamByEmployeeIdsAndPayPeriod(Collection<String> employeeIds, LocalDate startDate, LocalDate endDate,
+                                                Consumer<PayrollTransaction> consumer) {
+        for (List<String> chunk : chunk(employeeIds)) {
+            List<Object> params = new ArrayList<>(chunk);
+            params.add(startDate);
+            params.add(endDate);
+            String sql = "SELECT * FROM payroll_transactions " +
+                    "WHERE employee_id IN (" + placeholders(chunk.size()) + ") " +
+                    "AND pay_period_end BETWEEN ? AND ?";
+
+            jdbcTemplate.query(sql, rs -> {
+                consumer.accept(payrollRowMapper.mapRow(rs, 0));
+            }, params.toArray());
+        }
+    }
+
+    public Map<String, Map<YearMonth, PayrollTransaction>> findPayrollByEmployeeIdsAndMonths(Collection<String> employeeIds,
+                                                                                           Collection<YearMonth> months) {
+        Map<String, Map<YearMonth, PayrollTransaction>> payrollByEmployee = new HashMap<>();
+        if (employeeIds.isEmpty() || months.isEmpty()) {
+            return payrollByEmployee;
+        }
+        if (monthView.isServing()) {
+            for (Map<YearMonth, EmployeeMonth> rows : monthView.findByEmployeeIdsAndMonths(employeeIds, months).values()) {
+                for (EmployeeMonth row : rows.values()) {
+                    if (row.getPayroll() != null) {
+                        payrollByEmployee.computeIfAbsent(row.getEmployeeId(), id -> new HashMap<>())
+                                .put(row.getMonth(), row.getPayroll());
+                    }
+                }
+            }
+            return payrollByEmployee;
+        }
+
+        for (List<String> chunk : chunk(employeeIds)) {
+            List<Object> params = new ArrayList<>(chunk);
+            String sql = "SELECT * FROM payroll_transactions " +
+                    "WHERE employee_id IN (" + placeholders(chunk.size()) + ") " +
+                    "AND (" + monthRangePredicates(months, params) + ") " +
+                    "ORDER BY pay_period_end DESC";
+
+            jdbcTemplate.query(sql, rs -> {
+                PayrollTransaction transaction = payrollRowMapper.mapRow(rs, 0);
+                payrollByEmployee.computeIfAbsent(transaction.getEmployeeId(), id -> new HashMap<>())
+                        .putIfAbsent(YearMonth.from(transaction.getPayPeriodEnd()), transaction);
+            }, params.toArray());
+        }
+
+        return payrollByEmployee;
+    }
+
+    /**
+     * Inserts the rows, or replaces the row already loaded for the same
+     * employee and pay period end, in one batch and one transaction.
+     */
+    @Transactional
+    public void upsertAll(List<PayrollTransaction> transactions) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, transactions, transactions.size(), (ps, transaction) -> {
+            ps.setString(1, transaction.getEmployeeId());
+            ps.setDate(2, Date.valueOf(transaction.getPayPeriodStart()));
+            ps.setDate(3, Date.valueOf(transaction.getPayPeriodEnd()));
+            ps.setBigDecimal(4, decimal(transaction.getGrossPay()));
+            ps.setBigDecimal(5, decimal(transaction.getNetPay()));
+            ps.setBigDecimal(6, decimal(transaction.getBaseSalary()));
+            ps.setBigDecimal(7, decimal(transaction.getBonus()));
+            ps.setBigDecimal(8, decimal(transaction.getOvertime()));
+            ps.setBigDecimal(9, decimal(transaction.getTaxWithheld()));
+            ps.setBigDecimal(10, decimal(transaction.getTotalDeductions()));
+            ps.setString(11, transaction.getCurrency());
+            ps.setTimestamp(12, Timestamp.valueOf(transaction.getLoadDate()));
+        });
+    }
+
+    /**
+     * A DECIMAL(10,2) column as Money, null when the column is null.
+     */
+    static Money money(ResultSet rs, String column) throws SQLException {
+        return Money.of(rs.getBigDecimal(column));
+    }
+
+    /**
+     * The employee_id column as the shared dictionary instance, so the rows
+     * of one employee do not each hold a copy.
+     */
+    static String employeeId(ResultSet rs) throws SQLException {
+        return StringDictionary.EMPLOYEE_IDS.canonical(rs.getString("employee_id"));
+    }
+
+    static BigDecimal decimal(Money amount) {
+        return amount == null ? null : amount.toBigDecimal();
+    }
+
+    static List<List<String>> chunk(Collection<String> employeeIds) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>(Math.min(employeeIds.size(), IN_LIST_CHUNK_SIZE));
+        for (String employeeId : employeeIds) {
+            current.add(employeeId);
+            if (current.size() == IN_LIST_CHUNK_SIZE) {
+                chunks.add(current);
+                current = new ArrayList<>(IN_LIST_CHUNK_SIZE);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    static String placeholders(int count) {
+        StringBuilder placeholders = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i == 0 ? "?" : ",?");
+        }
+        return placeholders.toString();
+    }
+
+    /**
+     * Forward-only, read-only statement with a fetch size, which drivers need
+     * before they stream a large result rather than load it whole.
+     */
+    static PreparedStatementCreator streaming(String sql, int fetchSize, List<Object> params) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(params.toArray()).setValues(statement);
+            return statement;
+        };
+    }
+
+    /**
+     * One BETWEEN per month. Several months are also bounded by a single
+     * BETWEEN from the first to the last, which every optimizer can turn into
+     * an index range even when it can't do so for the OR of months.
+     */
+    static String monthRangePredicates(Collection<YearMonth> months, List<Object> params) {
+        StringBuilder predicates = new StringBuilder();
+        if (months.size() > 1) {
+            YearMonth first = Collections.min(months);
+            YearMonth last = Collections.max(months);
+            predicates.append("pay_period_end BETWEEN ? AND ? AND (");
+            params.add(first.atDay(1));
+            params.add(last.atEndOfMonth());
+        }
+        boolean firstMonth = true;
+        for (YearMonth month : months) {
+            if (!firstMonth) {
+                predicates.append(" OR ");
+            }
+            firstMonth = false;
+            predicates.append("pay_period_end BETWEEN ? AND ?");
+            params.add(month.atDay(1));
+            params.add(month.atEndOfMonth());
+        }
+        if (months.size() > 1) {
+            predicates.append(')');
+        }
+        return predicates.toString();
+    }
+
+    public Money[] getYearToDateEarnings(String employeeId, int year, YearMonth targetMonth) {
+        if (monthView.isServing() && year == targetMonth.getYear()) {
+            // The view carries running totals, so the latest row of the year so far has the answer
+            EmployeeMonth row = monthView.findLatestInRange(employeeId, YearMonth.of(year, 1), targetMonth);
+            return row == null
+                    ? new Money[] { Money.ZERO, Money.ZERO }
+                    : new Money[] { row.getYearToDateGrossPay(), row.getYearToDateNetPay() };
+        }
+
         LocalDate startOfYear = YearMonth.of(year, 1).atDay(1);
         LocalDate endOfMonth = targetMonth.atEndOfMonth();
 
@@ -99,12 +466,12 @@ public class PayrollRepository {
                 new Object[]{employeeId, startOfYear, endOfMonth},
                 rs -> {
                     if (rs.next()) {
-                        return new BigDecimal[] {
-                                rs.getBigDecimal("total_gross"),
-                                rs.getBigDecimal("total_net")
+                        return new Money[] {
+                                money(rs, "total_gross"),
+                                money(rs, "total_net")
                         };
                     }
-                    return new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO };
+                    return new Money[] { Money.ZERO, Money.ZERO };
                 }
         );
     }
@@ -0,0 +1,49 @@
+package org.example.repository;
+
+import org.example.model.RefreshWatermark;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * refresh_watermark, how far each derived table's scheduled refresh has
+ * read payroll_transactions and deduction_breakdown, so a restart resumes
+ * where the last refresh stopped.
+ */
+@Repository
+public class RefreshWatermarkRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO refresh_watermark (name, payroll_id, deduction_id, " +
+            "load_date, refreshed_at) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE payroll_id = VALUES(payroll_id), deduction_id = VALUES(deduction_id), " +
+            "load_date = VALUES(load_date), refreshed_at = CURRENT_TIMESTAMP";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public RefreshWatermarkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private final RowMapper<RefreshWatermark> watermarkRowMapper = (rs, rowNum) -> new RefreshWatermark(
+            rs.getString("name"),
+            rs.getLong("payroll_id"),
+            rs.getLong("deduction_id"),
+            rs.getTimestamp("load_date").toLocalDateTime());
+
+    public RefreshWatermark findByName(String name) {
+        String sql = "SELECT * FROM refresh_watermark WHERE name = ?";
+
+        List<RefreshWatermark> results = jdbcTemplate.query(sql, watermarkRowMapper, name);
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    public void save(RefreshWatermark watermark) {
+        jdbcTemplate.update(UPSERT_SQL, watermark.getName(), watermark.getPayrollId(), watermark.getDeductionId(),
+                Timestamp.valueOf(watermark.getLoadDate()));
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.repository;
+
+import org.example.model.YtdLedgerEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ytd_ledger, the running year-to-date gross and net pay of each employee
+ * at the end of every month that has payroll, keyed by
+ * (employee_id, pay_month).
+ */
+@Repository
+public class YtdLedgerRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO ytd_ledger (employee_id, pay_month, ytd_gross_pay, " +
+            "ytd_net_pay, source_load_date, source_rows) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_REST_OF_YEAR_SQL = "DELETE FROM ytd_ledger " +
+            "WHERE employee_id = ? AND pay_month BETWEEN ? AND ?";
+
+    // The entry, and the number and latest load_date of the employee's payroll rows from January through its month
+    private static final String ENTRY_WITH_SOURCE_SQL = "SELECT l.*, p.payroll_rows, p.latest_load_date " +
+            "FROM ytd_ledger l CROSS JOIN (SELECT COUNT(*) AS payroll_rows, MAX(load_date) AS latest_load_date " +
+            "FROM payroll_transactions WHERE employee_id = ? AND pay_period_end BETWEEN ? AND ?) p " +
+            "WHERE l.employee_id = ? AND l.pay_month = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public YtdLedgerRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private final RowMapper<YtdLedgerEntry> entryRowMapper = (rs, rowNum) -> new YtdLedgerEntry(
+            PayrollRepository.employeeId(rs),
+            YearMonth.from(rs.getDate("pay_month").toLocalDate()),
+            PayrollRepository.money(rs, "ytd_gross_pay"),
+            PayrollRepository.money(rs, "ytd_net_pay"),
+            rs.getTimestamp("source_load_date").toLocalDateTime(),
+            rs.getInt("source_rows"));
+
+    /**
+     * The employee's entry for the month, or null when there is none, and in
+     * the same round trip the number and latest load_date of their payroll
+     * rows from January through that month, the rows a fresh entry sums.
+     */
+    public LedgerLookup findByEmployeeIdAndMonthWithSource(String employeeId, YearMonth month) {
+        List<LedgerLookup> results = jdbcTemplate.query(ENTRY_WITH_SOURCE_SQL, (rs, rowNum) -> {
+            Timestamp latest = rs.getTimestamp("latest_load_date");
+            return new LedgerLookup(entryRowMapper.mapRow(rs, rowNum), rs.getInt("payroll_rows"),
+                    latest == null ? null : latest.toLocalDateTime());
+        }, employeeId, Year.of(month.getYear()).atDay(1), month.atEndOfMonth(), employeeId, month.atDay(1));
+        return results.isEmpty() ? new LedgerLookup(null, 0, null) : results.get(0);
+    }
+
+    /**
+     * An entry, or null when there is none, and the payroll rows it should
+     * have been built from: how many there are and the latest load_date among
+     * them, null when there are none. Both are unread when the entry is missing.
+     */
+    public record LedgerLookup(YtdLedgerEntry entry, int payrollRows, LocalDateTime latestLoadDate) {
+
+        /**
+         * Whether the entry sums exactly those rows as they are loaded now.
+         * A backfilled month adds a row; a reloaded one moves the latest
+         * load_date.
+         */
+        public boolean isFresh() {
+            return entry != null && entry.getSourceRows() == payrollRows
+                    && entry.getSourceLoadDate().equals(latestLoadDate);
+        }
+    }
+
+    /**
+     * Each employee's entries between the two months, inclusive, oldest first.
+     */
+    public Map<String, List<YtdLedgerEntry>> findByEmployeeIdsAndMonthRange(Collection<String> employeeIds,
+                                                                           YearMonth fromMonth, YearMonth toMonth) {
+        Map<String, List<YtdLedgerEntry>> entriesByEmployee = new HashMap<>();
+        if (employeeIds.isEmpty() || toMonth.isBefore(fromMonth)) {
+            return entriesByEmployee;
+        }
+
+        for (List<String> chunk : PayrollRepository.chunk(employeeIds)) {
+            List<Object> params = new ArrayList<>(chunk);
+            params.add(fromMonth.atDay(1));
+            params.add(toMonth.atDay(1));
+            String sql = "SELECT * FROM ytd_ledger " +
+                    "WHERE employee_id IN (" + PayrollRepository.placeholders(chunk.size()) + ") " +
+                    "AND pay_month BETWEEN ? AND ? " +
+                    "ORDER BY employee_id, pay_month";
+
+            jdbcTemplate.query(sql, rs -> {
+                YtdLedgerEntry entry = entryRowMapper.mapRow(rs, 0);
+                entriesByEmployee.computeIfAbsent(entry.getEmployeeId(), id -> new ArrayList<>()).add(entry);
+            }, params.toArray());
+        }
+        return entriesByEmployee;
+    }
+
+    public LocalDateTime findLatestSourceLoadDate() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(source_load_date) FROM ytd_ledger", Timestamp.class);
+        return latest == null ? null : latest.toLocalDateTime();
+    }
+
+    /**
+     * Replaces each employee's entries from each given month through the end
+     * of its year, the part of the year a change to that month moves.
+     */
+    @Transactional
+    public void replaceFrom(Map<String, ? extends Collection<YearMonth>> fromMonthsByEmployee, List<YtdLedgerEntry> entries) {
+        List<Object[]> deletes = new ArrayList<>();
+        for (Map.Entry<String, ? extends Collection<YearMonth>> employee : fromMonthsByEmployee.entrySet()) {
+            for (YearMonth fromMonth : employee.getValue()) {
+                deletes.add(new Object[]{employee.getKey(), fromMonth.atDay(1), YearMonth.of(fromMonth.getYear(), 12).atDay(1)});
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_REST_OF_YEAR_SQL, deletes);
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, entry.getEmployeeId());
+            ps.setDate(2, Date.valueOf(entry.getMonth().atDay(1)));
+            ps.setBigDecimal(3, PayrollRepository.decimal(entry.getYearToDateGrossPay()));
+            ps.setBigDecimal(4, PayrollRepository.decimal(entry.getYearToDateNetPay()));
+            ps.setTimestamp(5, Timestamp.valueOf(entry.getSourceLoadDate()));
+            ps.setInt(6, entry.getSourceRows());
+        });
+    }
+}
@@ -0,0 +1,389 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.model.DeductionBreakdown;
+import org.example.model.Money;
+import org.example.model.PayrollTransaction;
+import org.example.model.RefreshWatermark;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.example.util.StringDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-process columnar copy of payroll_transactions and
+ * deduction_breakdown for workforce-wide aggregates, which it answers by
+ * scanning primitive arrays on the common fork-join pool instead of
+ * querying the database.
+ * <p>
+ * Data is partitioned by month ({@link MonthPartition}), with employee ids
+ * and deduction types encoded as their {@link StringDictionary} ids. The first refresh loads
+ * every month in one pass. Later refreshes rebuild just the partitions of
+ * the months ingestion reported and of the rows {@link SourceChangeFeed}
+ * reads: payroll and deduction rows inserted since the last refresh,
+ * whatever their load_date, and payroll rows reloaded since. A rebuilt
+ * partition replaces the old one atomically, so a scan always sees whole
+ * months. A row loaded outside ingestion is in the store after the next
+ * refresh, or after the next rescan when its insert commits out of id
+ * order; until then the store lags the tables.
+ */
+@Service
+public class ColumnarPayrollStore implements PayrollChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarPayrollStore.class);
+
+    public record PayChangeDistribution(YearMonth currentMonth, YearMonth previousMonth, int employees,
+                                        int increased, int decreased, int unchanged, Money totalChange,
+                                        Money largestDrop, List<DropBucket> drops) {
+    }
+
+    /**
+     * Employees whose net pay fell by more than {@code over} and at most
+     * {@code upTo}.
+     */
+    public record DropBucket(Money over, Money upTo, int employees) {
+    }
+
+    public record MonthlyDeductionTotal(YearMonth month, int rows, Money amount, Money employerMatch) {
+    }
+
+    public record ComponentSummary(YearMonth month, String metric, int employees, Money total,
+                                   Money minimum, Money maximum, Money mean) {
+    }
+
+    public record StoreStats(boolean ready, int months, long payrollRows, long deductionRows,
+                             int employees, int deductionTypes, long approxBytes) {
+    }
+
+    private final PayrollRepository payrollRepository;
+    private final DeductionRepository deductionRepository;
+    private final SourceChangeFeed changes;
+    private final boolean enabled;
+    private final int fetchSize;
+
+    private final StringDictionary employeeIds = StringDictionary.EMPLOYEE_IDS;
+    private final StringDictionary deductionTypes = StringDictionary.DEDUCTION_TYPES;
+    private volatile NavigableMap<YearMonth, MonthPartition> partitions = Collections.emptyNavigableMap();
+    private volatile boolean ready;
+
+    // Months ingestion has written since the last refresh
+    private final Set<YearMonth> dirtyMonths = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ColumnarPayrollStore(PayrollRepository payrollRepository, DeductionRepository deductionRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${payroll.columnar.enabled:false}") boolean enabled,
+                                @Value("${payroll.bulk.fetch-size:5000}") int fetchSize,
+                                @Value("${payroll.columnar.rescan-interval-ms:3600000}") long rescanIntervalMs) {
+        this.payrollRepository = payrollRepository;
+        this.deductionRepository = deductionRepository;
+        // The store is rebuilt in full on start, so its position is kept in memory
+        this.changes = new SourceChangeFeed("columnar", payrollRepository, deductionRepository, null,
+                fetchSize, rescanIntervalMs);
+        this.enabled = enabled;
+        this.fetchSize = fetchSize;
+        Gauge.builder("payroll.columnar.bytes", this, ColumnarPayrollStore::approxBytes)
+                .description("Approximate bytes held by the columnar payroll store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${payroll.columnar.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            logger.warn("Columnar store refresh failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Rebuilds the month partitions touched since the last refresh, or every
+     * month on the first one.
+     *
+     * @return the number of month partitions rebuilt or dropped
+     */
+    public synchronized int refresh() {
+        long started = System.nanoTime();
+        Set<YearMonth> dirty = new TreeSet<>(dirtyMonths);
+        dirtyMonths.removeAll(dirty);
+
+        Set<YearMonth> months = new TreeSet<>();
+        Map<YearMonth, MonthPartition.Builder> builders = new HashMap<>();
+        RefreshWatermark firstLoad = null;
+        SourceChangeFeed.Changes changed = null;
+        try {
+            if (!changes.isStarted()) {
+                // First load: one pass over the table builds every month, and later refreshes go on from the ids read first
+                firstLoad = changes.maxIds();
+                LocalDateTime[] latest = {SourceChangeFeed.BEFORE_ANY_LOAD};
+                payrollRepository.streamLoadedSince(SourceChangeFeed.BEFORE_ANY_LOAD, fetchSize, payroll -> {
+                    addPayroll(builders, payroll);
+                    latest[0] = later(latest[0], payroll.getLoadDate());
+                });
+                firstLoad.setLoadDate(latest[0]);
+                months.addAll(builders.keySet());
+            } else {
+                changed = changes.read(() -> null);
+                for (Set<YearMonth> employeeMonths : changed.monthsByEmployee().values()) {
+                    months.addAll(employeeMonths);
+                }
+                months.addAll(dirty);
+                if (!months.isEmpty()) {
+                    payrollRepository.streamByMonthsOrderedByEmployee(months, fetchSize, payroll -> addPayroll(builders, payroll));
+                }
+            }
+            if (!months.isEmpty()) {
+                try (Stream<DeductionBreakdown> deductions = deductionRepository.streamByMonthsOrderedByEmployee(months, fetchSize)) {
+                    deductions.forEach(deduction -> builders
+                            .computeIfAbsent(YearMonth.from(deduction.getPayPeriodEnd()), MonthPartition.Builder::new)
+                            .addDeduction(employeeIds.id(deduction.getEmployeeId()),
+                                    deductionTypes.id(deduction.getDeductionType()), deduction));
+                }
+            }
+        } catch (RuntimeException e) {
+            dirtyMonths.addAll(dirty);
+            throw e;
+        }
+
+        if (!months.isEmpty()) {
+            NavigableMap<YearMonth, MonthPartition> next = new TreeMap<>(partitions);
+            for (YearMonth month : months) {
+                MonthPartition.Builder builder = builders.get(month);
+                if (builder == null) {
+                    next.remove(month);
+                } else {
+                    next.put(month, builder.build());
+                }
+            }
+            partitions = Collections.unmodifiableNavigableMap(next);
+            logger.info("Rebuilt {} months of the columnar store in {} ms; it now holds {} months, ~{} bytes",
+                    months.size(), (System.nanoTime() - started) / 1_000_000, next.size(), approxBytes());
+        }
+        if (firstLoad != null) {
+            changes.start(firstLoad);
+        } else {
+            changes.advance(changed);
+        }
+        ready = true;
+        return months.size();
+    }
+
+    @Override
+    public void payrollChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        if (!enabled) {
+            return;
+        }
+        for (Collection<YearMonth> months : monthsByEmployee.values()) {
+            dirtyMonths.addAll(months);
+        }
+    }
+
+    /**
+     * How net pay moved between two months for every employee with payroll
+     * in both, with the drops bucketed by {@code bucketWidth}.
+     */
+    public PayChangeDistribution payChangeDistribution(YearMonth currentMonth, YearMonth previousMonth, Money bucketWidth) {
+        if (bucketWidth.signum() <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        NavigableMap<YearMonth, MonthPartition> snapshot = readyPartitions();
+        MonthPartition current = snapshot.get(currentMonth);
+        MonthPartition previous = snapshot.get(previousMonth);
+        DropHistogram histogram = new DropHistogram(bucketWidth.cents());
+        if (current != null && previous != null) {
+            long[] currentNet = current.column(TrendMetric.NET_PAY);
+            long[] previousNet = previous.column(TrendMetric.NET_PAY);
+            histogram = IntStream.range(0, current.size()).parallel().collect(
+                    () -> new DropHistogram(bucketWidth.cents()),
+                    (h, i) -> {
+                        int j = previous.indexOf(current.employees[i]);
+                        if (j >= 0) {
+                            h.add(currentNet[i] - previousNet[j]);
+                        }
+                    },
+                    DropHistogram::merge);
+        }
+
+        List<DropBucket> drops = new ArrayList<>();
+        for (int b = 0; b < histogram.buckets.length; b++) {
+            if (histogram.buckets[b] > 0) {
+                drops.add(new DropBucket(Money.ofCents(b * histogram.width), Money.ofCents((b + 1) * histogram.width),
+                        histogram.buckets[b]));
+            }
+        }
+        return new PayChangeDistribution(currentMonth, previousMonth, histogram.employees, histogram.increased,
+                histogram.decreased, histogram.employees - histogram.increased - histogram.decreased,
+                Money.ofCents(histogram.total), Money.ofCents(histogram.largestDrop), drops);
+    }
+
+    /**
+     * Total of one deduction type in each month of the range that has data.
+     * Types match ignoring case and surrounding spaces.
+     */
+    public List<MonthlyDeductionTotal> deductionTotals(String deductionType, YearMonth fromMonth, YearMonth toMonth) {
+        NavigableMap<YearMonth, MonthPartition> snapshot = readyPartitions();
+        int type = deductionTypes.find(deductionType);
+        List<MonthlyDeductionTotal> totals = new ArrayList<>();
+        for (MonthPartition partition : snapshot.subMap(fromMonth, true, toMonth, true).values()) {
+            long[] sums = new long[3];
+            if (type >= 0) {
+                int[] types = partition.deductionTypes;
+                long[] amounts = partition.deductionAmounts;
+                long[] matches = partition.employerMatches;
+                sums = IntStream.range(0, partition.deductionCount()).parallel()
+                        .filter(i -> types[i] == type)
+                        .collect(() -> new long[3], (s, i) -> {
+                            s[0]++;
+                            s[1] = Math.addExact(s[1], amounts[i]);
+                            s[2] = Math.addExact(s[2], matches[i]);
+                        }, (a, b) -> {
+                            a[0] += b[0];
+                            a[1] = Math.addExact(a[1], b[1]);
+                            a[2] = Math.addExact(a[2], b[2]);
+                        });
+            }
+            totals.add(new MonthlyDeductionTotal(partition.month, (int) sums[0], Money.ofCents(sums[1]), Money.ofCents(sums[2])));
+        }
+        return totals;
+    }
+
+    /**
+     * Count, total, range and mean of one payroll component across every
+     * employee with payroll in the month.
+     */
+    public ComponentSummary summarize(YearMonth month, TrendMetric metric) {
+        if (metric.isDeduction()) {
+            throw new IllegalArgumentException(metric + " is a deduction; use deductionTotals");
+        }
+        MonthPartition partition = readyPartitions().get(month);
+        if (partition == null || partition.size() == 0) {
+            return new ComponentSummary(month, metric.getLabel(), 0, Money.ZERO, null, null, null);
+        }
+        long[] column = partition.column(metric);
+        long total = Arrays.stream(column).parallel().reduce(0, Math::addExact);
+        long minimum = Arrays.stream(column).parallel().min().getAsLong();
+        long maximum = Arrays.stream(column).parallel().max().getAsLong();
+        return new ComponentSummary(month, metric.getLabel(), column.length, Money.ofCents(total),
+                Money.ofCents(minimum), Money.ofCents(maximum), Money.ofCents(Math.round((double) total / column.length)));
+    }
+
+    public StoreStats getStats() {
+        NavigableMap<YearMonth, MonthPartition> snapshot = partitions;
+        long payrollRows = 0;
+        long deductionRows = 0;
+        for (MonthPartition partition : snapshot.values()) {
+            payrollRows += partition.size();
+            deductionRows += partition.deductionCount();
+        }
+        return new StoreStats(ready, snapshot.size(), payrollRows, deductionRows, employeeIds.size(),
+                deductionTypes.size(), approxBytes());
+    }
+
+    /**
+     * Partition arrays plus the shared dictionaries, which other caches use
+     * too; object headers and map overhead are estimates.
+     */
+    public long approxBytes() {
+        long bytes = employeeIds.approxBytes() + deductionTypes.approxBytes();
+        for (MonthPartition partition : partitions.values()) {
+            bytes += partition.approxBytes();
+        }
+        return bytes;
+    }
+
+    private NavigableMap<YearMonth, MonthPartition> readyPartitions() {
+        if (!enabled) {
+            throw new IllegalStateException("The columnar store is disabled");
+        }
+        if (!ready) {
+            throw new IllegalStateException("The columnar store has not finished loading");
+        }
+        return partitions;
+    }
+
+    private void addPayroll(Map<YearMonth, MonthPartition.Builder> builders, PayrollTransaction payroll) {
+        builders.computeIfAbsent(YearMonth.from(payroll.getPayPeriodEnd()), MonthPartition.Builder::new)
+                .addPayroll(employeeIds.id(payroll.getEmployeeId()), payroll);
+    }
+
+    private static LocalDateTime later(LocalDateTime latest, LocalDateTime loadDate) {
+        return loadDate != null && loadDate.isAfter(latest) ? loadDate : latest;
+    }
+
+    /**
+     * Net pay changes folded into counts and a histogram of drops, one
+     * instance per fork-join task, merged at the end.
+     */
+    private static final class DropHistogram {
+        final long width;
+        int[] buckets = new int[0];
+        int employees;
+        int increased;
+        int decreased;
+        long total;
+        long largestDrop;
+
+        DropHistogram(long width) {
+            this.width = width;
+        }
+
+        void add(long change) {
+            employees++;
+            total = Math.addExact(total, change);
+            if (change > 0) {
+                increased++;
+            } else if (change < 0) {
+                decreased++;
+                long drop = -change;
+                largestDrop = Math.max(largestDrop, drop);
+                int bucket = (int) Math.min((drop - 1) / width, Integer.MAX_VALUE - 1);
+                if (bucket >= buckets.length) {
+                    buckets = Arrays.copyOf(buckets, Math.max(bucket + 1, buckets.length * 2));
+                }
+                buckets[bucket]++;
+            }
+        }
+
+        void merge(DropHistogram other) {
+            employees += other.employees;
+            increased += other.increased;
+            decreased += other.decreased;
+            total = Math.addExact(total, other.total);
+            largestDrop = Math.max(largestDrop, other.largestDrop);
+            if (other.buckets.length > buckets.length) {
+                buckets = Arrays.copyOf(buckets, other.buckets.length);
+            }
+            for (int b = 0; b < other.buckets.length; b++) {
+                buckets[b] += other.buckets[b];
+            }
+        }
+    }
+}
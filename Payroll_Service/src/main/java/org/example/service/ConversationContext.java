@@ -0,0 +1,17 @@
+package org.example.service;
+
+import org.example.nlp.Intent;
+import org.example.nlp.PeriodResolution;
+
+import java.util.Set;
+
+/**
+ * What a conversation's last turn resolved to, and the rows it read, so a
+ * follow-up can fill in what it leaves out and reuse the rows.
+ *
+ * @param rows         the last turn's loaded rows, or null when they were dropped for size
+ * @param approxBytes  rough retained size, used as the cache weight
+ */
+record ConversationContext(String employeeId, Intent intent, Intent subject, Set<Intent> intents,
+                           PeriodResolution period, EmployeePeriodSnapshot rows, int approxBytes) {
+}
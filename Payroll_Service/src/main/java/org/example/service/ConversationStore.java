@@ -0,0 +1,107 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.nlp.Intent;
+import org.example.nlp.PeriodResolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Last-turn context per conversation id, bounded by total approximate bytes
+ * and evicted after a period of inactivity. A turn whose rows would push a
+ * conversation over its own byte cap keeps its intent and period but not the
+ * rows. Sizes are estimates, not measurements. Ingestion drops the rows of
+ * conversations about employees it touched, so a follow-up rereads them.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ConversationStore implements PayrollChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationStore.class);
+
+    // Rough retained sizes of the context itself and of each cached row
+    static final int CONTEXT_BYTES = 256;
+    static final int PAYROLL_ROW_BYTES = 480;
+    static final int DEDUCTION_ROW_BYTES = 240;
+
+    private final Cache<String, ConversationContext> contexts;
+    private final int maxBytesPerConversation;
+
+    @Autowired
+    public ConversationStore(MeterRegistry meterRegistry,
+                             @Value("${explanation.conversation.max-total-bytes:67108864}") long maxTotalBytes,
+                             @Value("${explanation.conversation.max-bytes:16384}") int maxBytesPerConversation,
+                             @Value("${explanation.conversation.ttl-minutes:15}") long ttlMinutes) {
+        this.maxBytesPerConversation = maxBytesPerConversation;
+        this.contexts = Caffeine.newBuilder()
+                .maximumWeight(maxTotalBytes)
+                .weigher((String id, ConversationContext context) -> context.approxBytes())
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, contexts, "conversations");
+        Gauge.builder("explanation.conversation.bytes", this, ConversationStore::getApproxBytes)
+                .description("Approximate bytes held by conversation contexts")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The conversation's last turn, or null when there is none for this
+     * employee (a conversation id reused for another employee starts over).
+     */
+    public ConversationContext get(String conversationId, String employeeId) {
+        ConversationContext context = contexts.getIfPresent(conversationId);
+        return context != null && context.employeeId().equals(employeeId) ? context : null;
+    }
+
+    public void put(String conversationId, String employeeId, Intent intent, Intent subject, Set<Intent> intents,
+                    PeriodResolution period, EmployeePeriodSnapshot snapshot) {
+        EmployeePeriodSnapshot rows = snapshot == null ? null : snapshot.retainLoaded();
+        int bytes = CONTEXT_BYTES;
+        if (rows != null) {
+            int rowBytes = rows.loadedPayrollRows() * PAYROLL_ROW_BYTES + rows.loadedDeductionRows() * DEDUCTION_ROW_BYTES;
+            if (bytes + rowBytes > maxBytesPerConversation) {
+                logger.debug("Conversation {} rows ({} bytes) exceed the per-conversation cap; keeping context only",
+                        conversationId, rowBytes);
+                rows = null;
+            } else {
+                bytes += rowBytes;
+            }
+        }
+        contexts.put(conversationId, new ConversationContext(employeeId, intent, subject, intents, period, rows, bytes));
+    }
+
+    @Override
+    public void payrollChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        contexts.asMap().forEach((id, context) -> {
+            if (context.rows() != null && monthsByEmployee.containsKey(context.employeeId())) {
+                contexts.asMap().replace(id, context, new ConversationContext(context.employeeId(), context.intent(),
+                        context.subject(), context.intents(), context.period(), null, CONTEXT_BYTES));
+            }
+        });
+    }
+
+    public long getConversationCount() {
+        return contexts.estimatedSize();
+    }
+
+    public long getApproxBytes() {
+        return contexts.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.model.PayChange;
+import org.example.util.DeductionChanges;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one row per employee. Deduction changes share a single column in
+ * the {@link DeductionChanges} encoding.
+ */
+class CsvPayChangeSink implements PayChangeSink {
+
+    private static final String HEADER = "employee_id,current_month,previous_month,net_pay_change,base_pay_change," +
+            "bonus_change,overtime_change,tax_change,total_deductions_change,deduction_changes\n";
+
+    private final Writer writer;
+    private boolean headerWritten;
+
+    CsvPayChangeSink(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void accept(String employeeId, PayChange change) throws IOException {
+        writeHeader();
+        writer.write(escape(employeeId));
+        writer.write(',');
+        writer.write(change.getCurrentMonth().toString());
+        writer.write(',');
+        writer.write(change.getPreviousMonth().toString());
+        writeAmount(change.getNetPayChange());
+        writeAmount(change.getBasePayChange());
+        writeAmount(change.getBonusChange());
+        writeAmount(change.getOvertimeChange());
+        writeAmount(change.getTaxChange());
+        writeAmount(change.getTotalDeductionsChange());
+        writer.write(',');
+
+        writer.write(escape(DeductionChanges.encode(change.getDeductionChanges())));
+        writer.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeHeader();
+        writer.flush();
+    }
+
+    private void writeHeader() throws IOException {
+        if (!headerWritten) {
+            writer.write(HEADER);
+            headerWritten = true;
+        }
+    }
+
+    private void writeAmount(Money amount) throws IOException {
+        writer.write(',');
+        if (amount != null) {
+            writer.write(amount.toString());
+        }
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,192 @@
+package org.example.service;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.EmployeeMonth;
+import org.example.model.Money;
+import org.example.model.PayrollTransaction;
+import org.example.repository.DeductionRepository;
+import org.example.repository.EmployeeMonthViewRepository;
+import org.example.repository.PayrollRepository;
+import org.example.repository.RefreshWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps employee_month_view in sync with payroll_transactions and
+ * deduction_breakdown. Each refresh picks up the payroll and deduction rows
+ * inserted or reloaded since the last one, as {@link SourceChangeFeed} reads
+ * them, and rebuilds the calendar years they fall in, since one month's
+ * change moves the year-to-date totals of every later month. Reads switch to
+ * the view only after the first refresh has caught it up. Ingestion rebuilds
+ * the years it writes at once; a row loaded any other way, including a
+ * backfill with an old load_date and a deduction-only load, is visible
+ * through the view after the next refresh, or after the next rescan when its
+ * insert commits out of id order.
+ */
+@Service
+@Order(0)
+public class EmployeeMonthViewService implements PayrollChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeMonthViewService.class);
+
+    private static final int REFRESH_CHUNK_SIZE = 500;
+
+    private final PayrollRepository payrollRepository;
+    private final DeductionRepository deductionRepository;
+    private final EmployeeMonthViewRepository monthView;
+    private final SourceChangeFeed changes;
+
+    @Autowired
+    public EmployeeMonthViewService(PayrollRepository payrollRepository, DeductionRepository deductionRepository,
+                                    EmployeeMonthViewRepository monthView, RefreshWatermarkRepository watermarkRepository,
+                                    @Value("${payroll.bulk.fetch-size:5000}") int fetchSize,
+                                    @Value("${payroll.read-model.rescan-interval-ms:3600000}") long rescanIntervalMs) {
+        this.payrollRepository = payrollRepository;
+        this.deductionRepository = deductionRepository;
+        this.monthView = monthView;
+        this.changes = new SourceChangeFeed("employee_month_view", payrollRepository, deductionRepository,
+                watermarkRepository, fetchSize, rescanIntervalMs);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${payroll.read-model.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (!monthView.isEnabled()) {
+            return;
+        }
+        try {
+            refresh();
+            monthView.markReady();
+        } catch (DataAccessException e) {
+            logger.warn("Employee month view refresh failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Rebuilds the years touched by the rows changed since the last refresh,
+     * {@value #REFRESH_CHUNK_SIZE} employees at a time.
+     *
+     * @return the number of employee-years rebuilt
+     */
+    public synchronized int refresh() {
+        long started = System.nanoTime();
+        SourceChangeFeed.Changes changed = changes.read(monthView::findLatestLoadDate);
+
+        int rebuilt = 0;
+        Map<String, Set<Integer>> pending = new HashMap<>();
+        for (Map.Entry<String, Set<YearMonth>> entry : changed.monthsByEmployee().entrySet()) {
+            if (pending.size() == REFRESH_CHUNK_SIZE) {
+                rebuilt += refreshEmployees(pending);
+                pending.clear();
+            }
+            Set<Integer> years = pending.computeIfAbsent(entry.getKey(), id -> new TreeSet<>());
+            for (YearMonth month : entry.getValue()) {
+                years.add(month.getYear());
+            }
+        }
+        rebuilt += refreshEmployees(pending);
+
+        changes.advance(changed);
+        if (rebuilt > 0) {
+            logger.info("Rebuilt {} employee-years of the month view in {} ms{}", rebuilt,
+                    (System.nanoTime() - started) / 1_000_000, changed.rescan() ? " (rescan)" : "");
+        }
+        return rebuilt;
+    }
+
+    @Override
+    public void payrollChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        if (!monthView.isEnabled()) {
+            return;
+        }
+        Map<String, Set<Integer>> years = new HashMap<>();
+        for (Map.Entry<String, ? extends Collection<YearMonth>> entry : monthsByEmployee.entrySet()) {
+            for (YearMonth month : entry.getValue()) {
+                years.computeIfAbsent(entry.getKey(), id -> new TreeSet<>()).add(month.getYear());
+            }
+        }
+        refreshEmployees(years);
+    }
+
+    /**
+     * Rebuilds the given calendar years of each employee from the source tables.
+     */
+    public synchronized int refreshEmployees(Map<String, ? extends Collection<Integer>> yearsByEmployee) {
+        if (yearsByEmployee.isEmpty()) {
+            return 0;
+        }
+        int firstYear = Integer.MAX_VALUE;
+        int lastYear = Integer.MIN_VALUE;
+        int employeeYears = 0;
+        for (Collection<Integer> years : yearsByEmployee.values()) {
+            for (int year : years) {
+                firstYear = Math.min(firstYear, year);
+                lastYear = Math.max(lastYear, year);
+                employeeYears++;
+            }
+        }
+
+        Map<String, Map<YearMonth, List<PayrollTransaction>>> payrollByEmployee = new HashMap<>();
+        payrollRepository.streamByEmployeeIdsAndPayPeriod(yearsByEmployee.keySet(),
+                YearMonth.of(firstYear, 1).atDay(1), YearMonth.of(lastYear, 12).atEndOfMonth(), payroll ->
+                        payrollByEmployee.computeIfAbsent(payroll.getEmployeeId(), id -> new TreeMap<>())
+                                .computeIfAbsent(YearMonth.from(payroll.getPayPeriodEnd()), m -> new ArrayList<>(1))
+                                .add(payroll));
+        Map<String, Map<YearMonth, List<DeductionBreakdown>>> deductionsByEmployee = new HashMap<>();
+        deductionRepository.streamByEmployeeIdsAndPayPeriod(yearsByEmployee.keySet(),
+                YearMonth.of(firstYear, 1).atDay(1), YearMonth.of(lastYear, 12).atEndOfMonth(), deduction ->
+                        deductionsByEmployee.computeIfAbsent(deduction.getEmployeeId(), id -> new HashMap<>())
+                                .computeIfAbsent(YearMonth.from(deduction.getPayPeriodEnd()), m -> new ArrayList<>())
+                                .add(deduction));
+
+        List<EmployeeMonth> rows = new ArrayList<>();
+        for (Map.Entry<String, ? extends Collection<Integer>> entry : yearsByEmployee.entrySet()) {
+            Map<YearMonth, List<PayrollTransaction>> payroll = payrollByEmployee.getOrDefault(entry.getKey(), Map.of());
+            Map<YearMonth, List<DeductionBreakdown>> deductions = deductionsByEmployee.getOrDefault(entry.getKey(), Map.of());
+            for (int year : entry.getValue()) {
+                buildYear(entry.getKey(), year, payroll, deductions, rows);
+            }
+        }
+        monthView.replaceYears(yearsByEmployee, rows);
+        return employeeYears;
+    }
+
+    private static void buildYear(String employeeId, int year, Map<YearMonth, List<PayrollTransaction>> payroll,
+                                  Map<YearMonth, List<DeductionBreakdown>> deductions, List<EmployeeMonth> rows) {
+        Money ytdGross = Money.ZERO;
+        Money ytdNet = Money.ZERO;
+        for (int m = 1; m <= 12; m++) {
+            YearMonth month = YearMonth.of(year, m);
+            List<PayrollTransaction> periods = payroll.getOrDefault(month, List.of());
+            List<DeductionBreakdown> monthDeductions = deductions.getOrDefault(month, List.of());
+            if (periods.isEmpty() && monthDeductions.isEmpty()) {
+                continue;
+            }
+            // Every pay period counts towards YTD; the month row is the latest one, as the month lookups pick
+            PayrollTransaction latest = null;
+            for (PayrollTransaction period : periods) {
+                ytdGross = ytdGross.plus(period.getGrossPay());
+                ytdNet = ytdNet.plus(period.getNetPay());
+                if (latest == null || period.getPayPeriodEnd().isAfter(latest.getPayPeriodEnd())) {
+                    latest = period;
+                }
+            }
+            rows.add(new EmployeeMonth(employeeId, month, latest, monthDeductions, ytdGross, ytdNet));
+        }
+    }
+}
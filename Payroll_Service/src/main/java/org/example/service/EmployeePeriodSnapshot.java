@@ -0,0 +1,268 @@
+package org.example.service;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.EmployeeMonth;
+import org.example.model.PayrollTransaction;
+import org.example.model.PayrollView;
+import org.example.repository.DeductionRepository;
+import org.example.repository.EmployeeMonthViewRepository;
+import org.example.repository.PayrollProjection;
+import org.example.repository.PayrollRepository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Payroll and deduction rows for one employee over a fixed set of months,
+ * scoped to a single question. Each table is read at most once, with one
+ * query covering every month, and only when a handler first asks for it.
+ * Snapshots built by {@link PayrollService#loadSnapshots} arrive preloaded.
+ * A snapshot for a follow-up question can carry over an earlier one, whose
+ * rows are reused for every month it already covered. When built over the
+ * employee-month read model, whichever table is asked for first loads both
+ * with one lookup. Questions that need only a few payroll columns can read
+ * a {@link PayrollProjection} instead, which is cut from the whole rows when
+ * those are already loaded. Months the {@link PayrollExistenceIndex} knows
+ * have no rows for the employee are not queried at all.
+ * Not thread-safe.
+ */
+public class EmployeePeriodSnapshot {
+
+    private final String employeeId;
+    private final Set<YearMonth> months;
+    private final PayrollRepository payrollRepository;
+    private final DeductionRepository deductionRepository;
+    private final EmployeePeriodSnapshot previous;
+    private final EmployeeMonthViewRepository monthView;
+    private final PayrollExistenceIndex existence;
+
+    private Map<YearMonth, PayrollTransaction> payrollByMonth;
+    private Map<YearMonth, List<DeductionBreakdown>> deductionsByMonth;
+    private Map<YearMonth, EmployeeMonth> viewRows;
+    private Map<PayrollProjection<?>, Map<YearMonth, ? extends PayrollView>> projections;
+
+    EmployeePeriodSnapshot(String employeeId, Set<YearMonth> months,
+                           PayrollRepository payrollRepository, DeductionRepository deductionRepository) {
+        this(employeeId, months, payrollRepository, deductionRepository, null);
+    }
+
+    EmployeePeriodSnapshot(String employeeId, Set<YearMonth> months,
+                           PayrollRepository payrollRepository, DeductionRepository deductionRepository,
+                           EmployeePeriodSnapshot previous) {
+        this(employeeId, months, payrollRepository, deductionRepository, previous, null, null);
+    }
+
+    EmployeePeriodSnapshot(String employeeId, Set<YearMonth> months,
+                           PayrollRepository payrollRepository, DeductionRepository deductionRepository,
+                           EmployeePeriodSnapshot previous, EmployeeMonthViewRepository monthView,
+                           PayrollExistenceIndex existence) {
+        this.employeeId = employeeId;
+        this.months = months;
+        this.payrollRepository = payrollRepository;
+        this.deductionRepository = deductionRepository;
+        this.previous = previous;
+        this.monthView = monthView;
+        this.existence = existence;
+    }
+
+    EmployeePeriodSnapshot(String employeeId, Set<YearMonth> months,
+                           Map<YearMonth, PayrollTransaction> payrollByMonth,
+                           Map<YearMonth, List<DeductionBreakdown>> deductionsByMonth) {
+        this(employeeId, months, (PayrollRepository) null, (DeductionRepository) null);
+        this.payrollByMonth = payrollByMonth;
+        this.deductionsByMonth = deductionsByMonth;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public Set<YearMonth> getMonths() {
+        return months;
+    }
+
+    public PayrollTransaction getPayroll(YearMonth month) {
+        checkCovered(month);
+        if (payrollByMonth == null) {
+            payrollByMonth = load(previous == null ? null : previous.payrollByMonth, false,
+                    monthView != null ? missing -> fromView(EmployeeMonth::getPayroll)
+                            : missing -> payrollRepository.findPayrollByEmployeeIdAndMonths(employeeId, missing));
+        }
+        return payrollByMonth.get(month);
+    }
+
+    /**
+     * The projection's columns of the month's payroll row. Read for every
+     * month of the snapshot on first use, unless the whole rows are loaded.
+     */
+    @SuppressWarnings("unchecked")
+    public <V extends PayrollView> V getPayroll(YearMonth month, PayrollProjection<V> projection) {
+        checkCovered(month);
+        if (payrollByMonth != null) {
+            return projection.from(payrollByMonth.get(month));
+        }
+        if (projections == null) {
+            projections = new HashMap<>(4);
+        }
+        Map<YearMonth, V> rows = (Map<YearMonth, V>) projections.get(projection);
+        if (rows == null) {
+            Map<YearMonth, V> carried = null;
+            if (previous != null && previous.payrollByMonth != null) {
+                carried = new HashMap<>();
+                for (Map.Entry<YearMonth, PayrollTransaction> entry : previous.payrollByMonth.entrySet()) {
+                    carried.put(entry.getKey(), projection.from(entry.getValue()));
+                }
+            }
+            rows = load(carried, false, monthView != null ? missing -> fromView(row -> projection.from(row.getPayroll()))
+                    : missing -> payrollRepository.findByEmployeeIdAndMonths(employeeId, missing, projection));
+            projections.put(projection, rows);
+        }
+        return rows.get(month);
+    }
+
+    /**
+     * Latest load_date across the payroll rows in this snapshot, or null when
+     * none of its months has been loaded yet.
+     */
+    public LocalDateTime getLatestLoadDate() {
+        return getLatestLoadDate(null);
+    }
+
+    /**
+     * Latest load_date, read through the projection unless the whole rows are
+     * already loaded or no projection is given.
+     */
+    public LocalDateTime getLatestLoadDate(PayrollProjection<?> projection) {
+        LocalDateTime latest = null;
+        for (YearMonth month : months) {
+            LocalDateTime loadDate;
+            if (projection == null || payrollByMonth != null) {
+                PayrollTransaction payroll = getPayroll(month);
+                loadDate = payroll == null ? null : payroll.getLoadDate();
+            } else {
+                PayrollView view = getPayroll(month, projection);
+                loadDate = view == null ? null : view.loadDate();
+            }
+            if (loadDate != null && (latest == null || loadDate.isAfter(latest))) {
+                latest = loadDate;
+            }
+        }
+        return latest;
+    }
+
+    public List<DeductionBreakdown> getDeductions(YearMonth month) {
+        checkCovered(month);
+        if (deductionsByMonth == null) {
+            deductionsByMonth = load(previous == null ? null : previous.deductionsByMonth, true,
+                    monthView != null ? missing -> fromView(EmployeeMonth::getDeductions)
+                            : missing -> deductionRepository.findByEmployeeIdAndMonths(employeeId, missing));
+        }
+        return deductionsByMonth.getOrDefault(month, Collections.emptyList());
+    }
+
+    /**
+     * True when deductions can be read without another query.
+     */
+    boolean hasDeductionsLoaded() {
+        return deductionsByMonth != null || viewRows != null;
+    }
+
+    /**
+     * Takes deduction rows read alongside another lookup as this snapshot's
+     * deductions, so that none are queried. They must cover every month of
+     * the snapshot.
+     */
+    void useDeductions(Map<YearMonth, List<DeductionBreakdown>> deductions) {
+        deductionsByMonth = deductions;
+    }
+
+    /**
+     * The rows this snapshot has read so far, without repositories or any
+     * earlier snapshot, for carrying into a follow-up. It is only meant to be
+     * passed as {@code previous}; a table that was never read stays unread.
+     */
+    EmployeePeriodSnapshot retainLoaded() {
+        EmployeePeriodSnapshot retained = new EmployeePeriodSnapshot(employeeId, months, null, null, null);
+        retained.payrollByMonth = payrollByMonth;
+        retained.deductionsByMonth = deductionsByMonth;
+        return retained;
+    }
+
+    int loadedPayrollRows() {
+        return payrollByMonth == null ? 0 : payrollByMonth.size();
+    }
+
+    int loadedDeductionRows() {
+        int rows = 0;
+        if (deductionsByMonth != null) {
+            for (List<DeductionBreakdown> deductions : deductionsByMonth.values()) {
+                rows += deductions.size();
+            }
+        }
+        return rows;
+    }
+
+    private <V> Map<YearMonth, V> load(Map<YearMonth, V> carried, boolean deductions,
+                                       Function<Set<YearMonth>, Map<YearMonth, V>> loader) {
+        Map<YearMonth, V> rows = new HashMap<>();
+        Set<YearMonth> missing = new LinkedHashSet<>();
+        for (YearMonth month : months) {
+            if (carried != null && previous.months.contains(month)) {
+                V value = carried.get(month);
+                if (value != null) {
+                    rows.put(month, value);
+                }
+            } else if (mayHaveRows(month, deductions)) {
+                missing.add(month);
+            }
+        }
+        if (!missing.isEmpty()) {
+            rows.putAll(loader.apply(missing));
+        }
+        return rows;
+    }
+
+    /**
+     * One table's rows from the read model, reading every month of the
+     * snapshot on first use so that the other table needs no second lookup.
+     */
+    private <V> Map<YearMonth, V> fromView(Function<EmployeeMonth, V> column) {
+        if (viewRows == null) {
+            Set<YearMonth> present = new LinkedHashSet<>();
+            for (YearMonth month : months) {
+                if (mayHaveRows(month, false) || mayHaveRows(month, true)) {
+                    present.add(month);
+                }
+            }
+            viewRows = present.isEmpty() ? Collections.emptyMap() : monthView.findByEmployeeIdAndMonths(employeeId, present);
+        }
+        Map<YearMonth, V> rows = new HashMap<>();
+        for (EmployeeMonth row : viewRows.values()) {
+            V value = column.apply(row);
+            if (value != null && !(value instanceof List<?> list && list.isEmpty())) {
+                rows.put(row.getMonth(), value);
+            }
+        }
+        return rows;
+    }
+
+    private boolean mayHaveRows(YearMonth month, boolean deductions) {
+        if (existence == null) {
+            return true;
+        }
+        return deductions ? existence.mayHaveDeductions(employeeId, month) : existence.mayHavePayroll(employeeId, month);
+    }
+
+    private void checkCovered(YearMonth month) {
+        if (!months.contains(month)) {
+            throw new IllegalArgumentException("Month " + month + " is not part of the snapshot for " + employeeId);
+        }
+    }
+}
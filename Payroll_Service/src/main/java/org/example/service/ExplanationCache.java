@@ -0,0 +1,87 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.model.ExplanationResponse;
+import org.example.nlp.Intent;
+import org.example.util.StringDictionary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicting cache of answers. The key carries the latest
+ * load_date of the payroll rows the answer was computed from, so a reload
+ * moves questions onto a new key and the stale answer simply ages out.
+ * Ingestion drops the answers of the employees it touched outright, which
+ * also covers deduction-only loads that leave load_date unchanged. Keys
+ * hold the employee's {@link StringDictionary#EMPLOYEE_IDS} id.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ExplanationCache implements PayrollChangeListener {
+
+    public record Key(int employee, Intent intent, YearMonth targetMonth, YearMonth comparisonMonth,
+                      LocalDateTime version) {
+    }
+
+    private final Cache<Key, ExplanationResponse> cache;
+
+    @Autowired
+    public ExplanationCache(MeterRegistry meterRegistry,
+                            @Value("${explanation.cache.max-size:50000}") long maxSize,
+                            @Value("${explanation.cache.ttl-minutes:30}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "explanations");
+    }
+
+    public ExplanationResponse get(Key key, Supplier<ExplanationResponse> loader) {
+        ExplanationResponse response = cache.getIfPresent(key);
+        if (response == null) {
+            response = loader.get();
+            cache.put(key, response);
+        }
+        return response;
+    }
+
+    public void invalidateEmployee(String employeeId) {
+        int employee = StringDictionary.EMPLOYEE_IDS.find(employeeId);
+        if (employee >= 0) {
+            cache.asMap().keySet().removeIf(key -> key.employee() == employee);
+        }
+    }
+
+    @Override
+    public void payrollChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        BitSet employees = new BitSet();
+        for (String employeeId : monthsByEmployee.keySet()) {
+            int employee = StringDictionary.EMPLOYEE_IDS.find(employeeId);
+            if (employee >= 0) {
+                employees.set(employee);
+            }
+        }
+        if (!employees.isEmpty()) {
+            cache.asMap().keySet().removeIf(key -> employees.get(key.employee()));
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
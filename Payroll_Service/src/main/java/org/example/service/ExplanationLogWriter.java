@@ -0,0 +1,196 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.model.ExplanationLog;
+import org.example.repository.ExplanationLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Takes explanation logs off the request path. Entries go into a bounded
+ * queue and a single background thread writes them with JDBC batch inserts,
+ * flushing when a batch fills up or the flush interval elapses.
+ */
+@Component
+public class ExplanationLogWriter {
+
+    public enum OverflowPolicy {
+        /** Wait for space; applies backpressure to the caller. */
+        BLOCK,
+        /** Evict the oldest queued entry to make room. */
+        DROP_OLDEST,
+        /** Keep one in every sample-rate overflowing entries, evicting the oldest for it. */
+        SAMPLE
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ExplanationLogWriter.class);
+
+    private final ExplanationLogRepository explanationLogRepository;
+    private final BlockingQueue<ExplanationLog> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    @Autowired
+    public ExplanationLogWriter(ExplanationLogRepository explanationLogRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${explanation.log.queue-capacity:10000}") int queueCapacity,
+                                @Value("${explanation.log.batch-size:200}") int batchSize,
+                                @Value("${explanation.log.flush-interval-ms:500}") long flushIntervalMillis,
+                                @Value("${explanation.log.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                                @Value("${explanation.log.sample-rate:10}") int sampleRate) {
+        this.explanationLogRepository = explanationLogRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+
+        Gauge.builder("explanation.log.queue.depth", queue, BlockingQueue::size)
+                .description("Explanation logs waiting to be written")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("explanation.log.dropped")
+                .description("Explanation logs discarded because the queue was full")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("explanation.log.written")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("explanation.log.failed")
+                .description("Explanation logs lost to failed batch inserts")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::runWriter, "explanation-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("Explanation log writer started (batchSize={}, flushIntervalMs={}, overflowPolicy={})",
+                batchSize, flushIntervalMillis, overflowPolicy);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        logger.info("Explanation log writer stopped ({} entries left unwritten)", queue.size());
+    }
+
+    public void submit(ExplanationLog explanationLog) {
+        if (queue.offer(explanationLog)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(explanationLog);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCounter.increment();
+                }
+                break;
+            case SAMPLE:
+                if (overflowCount.incrementAndGet() % sampleRate != 0) {
+                    droppedCounter.increment();
+                    break;
+                }
+                replaceOldest(explanationLog);
+                break;
+            default:
+                replaceOldest(explanationLog);
+                break;
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return (long) droppedCounter.count();
+    }
+
+    private void replaceOldest(ExplanationLog explanationLog) {
+        while (!queue.offer(explanationLog)) {
+            if (queue.poll() != null) {
+                droppedCounter.increment();
+            }
+        }
+    }
+
+    private void runWriter() {
+        List<ExplanationLog> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    ExplanationLog first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+
+                long remaining = deadline - System.nanoTime();
+                if (batch.size() < batchSize && remaining > 0) {
+                    ExplanationLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                        continue;
+                    }
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Shutdown requested; fall through to the final drain
+                break;
+            }
+        }
+
+        // Graceful shutdown: write whatever is still queued
+        do {
+            queue.drainTo(batch, batchSize - batch.size());
+            flush(batch);
+        } while (!queue.isEmpty());
+    }
+
+    private void flush(List<ExplanationLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            explanationLogRepository.saveExplanationLogs(batch);
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            logger.error("Failed to write {} explanation logs. Error: {}", batch.size(), e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+}
@@ -1,92 +1,474 @@
 package org.example.service;
 
 import org.example.model.*;
-import org.example.repository.PayrollRepository;
-import org.example.repository.ExplanationLogRepository;
+import org.example.nlp.Intent;
+import org.example.nlp.ParsedQuestion;
+import org.example.nlp.PeriodResolution;
+import org.example.nlp.QuestionParser;
+import org.example.nlp.SpellingCorrector;
+import org.example.nlp.TimePeriod;
+import org.example.repository.PayrollProjection;
+import org.example.util.StringDictionary;
+import org.example.util.TextTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.YearMonth;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
+import static org.example.service.ExplanationTemplates.*;
+
 @Service
 public class ExplanationService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExplanationService.class);
     private final PayrollService payrollService;
-    private final ExplanationLogRepository explanationLogRepository;
+    private final ExplanationLogWriter explanationLogWriter;
+    private final QuestionParser questionParser;
+    private final ExecutorService explanationExecutor;
+    private final ExplanationCache explanationCache;
+    private final ConversationStore conversationStore;
+    private final PayChangeSummaryService payChangeSummaryService;
     private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+    // Reasons the narrative names
+    private static final int NARRATIVE_REASONS = 3;
+    // Component changes of a dollar or less are rounding noise, not reasons
+    private static final Money REASON_THRESHOLD = Money.ofCents(100);
 
     @Autowired
-    public ExplanationService(PayrollService payrollService, ExplanationLogRepository explanationLogRepository) {
+    public ExplanationService(PayrollService payrollService, ExplanationLogWriter explanationLogWriter,
+                              QuestionParser questionParser, ExecutorService explanationExecutor,
+                              ExplanationCache explanationCache, ConversationStore conversationStore,
+                              PayChangeSummaryService payChangeSummaryService) {
         this.payrollService = payrollService;
-        this.explanationLogRepository = explanationLogRepository;
+        this.explanationLogWriter = explanationLogWriter;
+        this.questionParser = questionParser;
+        this.explanationExecutor = explanationExecutor;
+        this.explanationCache = explanationCache;
+        this.conversationStore = conversationStore;
+        this.payChangeSummaryService = payChangeSummaryService;
     }
 
     public ExplanationResponse generateExplanation(String employeeId, String question) {
-        YearMonth currentMonth = YearMonth.now();
-        YearMonth previousMonth = currentMonth.minusMonths(1);
+        return generateExplanation(employeeId, question, null);
+    }
+
+    /**
+     * Answers a question, treating it as a follow-up when {@code conversationId}
+     * names an earlier turn for the same employee: a question without a topic
+     * keeps the last one ("what about March?"), a question without a period
+     * keeps the last period ("and the tax?"), and rows the last turn read are
+     * reused rather than queried again.
+     */
+    public ExplanationResponse generateExplanation(String employeeId, String question, String conversationId) {
+        ConversationContext context = conversationId == null ? null : conversationStore.get(conversationId, employeeId);
+        ResolvedQuestion resolved = resolveQuestion(question, context);
+        EmployeePeriodSnapshot snapshot = null;
+        ExplanationResponse response;
+        if (resolved.intent() == Intent.TREND) {
+            response = answerTrend(employeeId, resolved);
+        } else {
+            // Both months are read together, one query per table, and shared by every handler
+            snapshot = payrollService.loadSnapshot(employeeId, context == null ? null : context.rows(),
+                    resolved.targetMonth(), resolved.comparisonMonth());
+            response = answer(snapshot, resolved);
+        }
+
+        if (conversationId != null) {
+            conversationStore.put(conversationId, employeeId, resolved.intent(), resolved.subject(), resolved.intents(),
+                    resolved.period(), snapshot);
+        }
+        return response;
+    }
+
+    /**
+     * Answers each question of a batch in its own slot of the result. A
+     * question that fails gets an error entry there; the rest are answered.
+     */
+    public List<ExplanationResponse> generateExplanations(List<QueryRequest> requests) {
+        List<ResolvedQuestion> resolvedQuestions = new ArrayList<>(requests.size());
+        ExplanationResponse[] failed = new ExplanationResponse[requests.size()];
+        Map<List<YearMonth>, Set<String>> employeesByMonths = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            QueryRequest request = requests.get(i);
+            ResolvedQuestion resolved;
+            try {
+                resolved = resolveQuestion(request.getQuestion(), null);
+            } catch (RuntimeException e) {
+                failed[i] = failedAnswer(request, e);
+                resolvedQuestions.add(null);
+                continue;
+            }
+            resolvedQuestions.add(resolved);
+            if (resolved.intent() == Intent.TREND) {
+                continue;
+            }
+            employeesByMonths.computeIfAbsent(resolved.months(), months -> new LinkedHashSet<>())
+                    .add(request.getEmployeeId());
+        }
+
+        // One IN-list query per table for each distinct month pair; a failed group fails only its questions
+        Map<List<YearMonth>, Map<String, EmployeePeriodSnapshot>> snapshotsByMonths = new HashMap<>();
+        Map<List<YearMonth>, RuntimeException> failedGroups = new HashMap<>();
+        for (Map.Entry<List<YearMonth>, Set<String>> group : employeesByMonths.entrySet()) {
+            try {
+                snapshotsByMonths.put(group.getKey(), payrollService.loadSnapshots(group.getValue(), group.getKey()));
+            } catch (RuntimeException e) {
+                failedGroups.put(group.getKey(), e);
+            }
+        }
+
+        List<Future<ExplanationResponse>> futures = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ResolvedQuestion resolved = resolvedQuestions.get(i);
+            String employeeId = requests.get(i).getEmployeeId();
+            if (resolved == null) {
+                futures.add(null);
+            } else if (resolved.intent() == Intent.TREND) {
+                futures.add(explanationExecutor.submit(() -> answerTrend(employeeId, resolved)));
+            } else if (failedGroups.containsKey(resolved.months())) {
+                failed[i] = failedAnswer(requests.get(i), failedGroups.get(resolved.months()));
+                futures.add(null);
+            } else {
+                EmployeePeriodSnapshot snapshot = snapshotsByMonths.get(resolved.months()).get(employeeId);
+                futures.add(explanationExecutor.submit(() -> answer(snapshot, resolved)));
+            }
+        }
+
+        List<ExplanationResponse> responses = new ArrayList<>(requests.size());
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Future<ExplanationResponse> future = futures.get(i);
+                if (future == null) {
+                    responses.add(failed[i]);
+                    continue;
+                }
+                try {
+                    responses.add(future.get());
+                } catch (ExecutionException e) {
+                    responses.add(failedAnswer(requests.get(i), e.getCause()));
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            });
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while answering batch", e);
+        }
+        return responses;
+    }
 
+    private static ExplanationResponse failedAnswer(QueryRequest request, Throwable cause) {
+        logger.warn("Failed to answer batch question for employee {}: {}", request.getEmployeeId(),
+                request.getQuestion(), cause);
+        ExplanationResponse response = new ExplanationResponse();
+        response.setExplanation(ANSWER_FAILED);
+        response.setReasons(List.of());
+        response.setLanguage("en-US");
+        // Messages of argument checks describe the question; anything else may describe internals
+        response.setError(cause instanceof IllegalArgumentException && cause.getMessage() != null
+                ? cause.getMessage()
+                : "Internal error");
+        return response;
+    }
+
+    private ResolvedQuestion resolveQuestion(String question, ConversationContext context) {
         // Parse question to determine intent and time period
-        Map<String, Object> questionContext = parseQuestion(question);
-        String intent = (String) questionContext.get("intent");
-        YearMonth targetMonth = (YearMonth) questionContext.getOrDefault("targetMonth", currentMonth);
-        YearMonth comparisonMonth = targetMonth.minusMonths(1);
+        ParsedQuestion parsedQuestion = questionParser.parse(question, YearMonth.now());
+        Intent intent = parsedQuestion.getPrimaryIntent();
+        Intent subject = parsedQuestion.getSecondaryIntent();
+        // A trend follows its subject rather than answering it separately; a trend a
+        // higher-priority intent outranks follows that intent's figure (see answer)
+        Set<Intent> intents = intent == Intent.TREND ? EnumSet.of(Intent.TREND) : parsedQuestion.getIntents();
+        PeriodResolution period = parsedQuestion.getPeriod();
+
+        // A follow-up inherits whatever it doesn't say from the previous turn
+        if (context != null) {
+            if (!parsedQuestion.hasIntent()) {
+                intent = context.intent();
+                subject = context.subject();
+                intents = context.intents();
+            }
+            if (!period.explicit()) {
+                period = context.period();
+            }
+        }
+        List<Correction> corrections = new ArrayList<>(parsedQuestion.getCorrections().size());
+        for (SpellingCorrector.Correction correction : parsedQuestion.getCorrections()) {
+            corrections.add(new Correction(correction.original(), correction.corrected()));
+        }
+
+        logger.info("Question intents: {}, target: {}, comparison: {}", intents, period.target(), period.comparison());
+        return new ResolvedQuestion(intent, subject, intents, period.targetMonth(), period.comparisonMonth(), period,
+                corrections);
+    }
+
+    private ExplanationResponse answer(EmployeePeriodSnapshot snapshot, ResolvedQuestion resolved) {
+        ExplanationResponse response;
+        String loggedIntent;
+        if (resolved.intents().size() == 1) {
+            response = cachedAnswer(snapshot, resolved.intent(), resolved);
+            loggedIntent = resolved.intent().name();
+        } else {
+            // Every handler reads the same snapshot, so the rows are fetched once for all of them
+            List<ExplanationResponse> parts = new ArrayList<>(resolved.intents().size());
+            StringJoiner intentNames = new StringJoiner("+");
+            for (Intent intent : resolved.intents()) {
+                // Trends have no month-pair handler; they follow the primary intent over the period
+                parts.add(intent == Intent.TREND
+                        ? trend(snapshot.getEmployeeId(), resolved, trendMetric(resolved.intent()))
+                        : cachedAnswer(snapshot, intent, resolved));
+                intentNames.add(intent.name());
+            }
+            response = composeResponse(parts);
+            loggedIntent = intentNames.toString();
+        }
+
+        // Log the explanation, cached or not, once per question
+        logExplanation(snapshot.getEmployeeId(), loggedIntent, resolved.targetMonth().format(MONTH_FORMATTER),
+                response.getExplanation(), "NLP", response.getLanguage());
+        return withCorrections(response, resolved.corrections());
+    }
+
+    /**
+     * Reports spelling corrections on a copy, since the response may be a
+     * shared cache entry and the same answer is reached with or without typos.
+     */
+    private ExplanationResponse withCorrections(ExplanationResponse response, List<Correction> corrections) {
+        if (corrections.isEmpty()) {
+            return response;
+        }
+        ExplanationResponse corrected = new ExplanationResponse();
+        corrected.setExplanation(response.getExplanation());
+        corrected.setPayPeriod(response.getPayPeriod());
+        corrected.setNetChange(response.getNetChange());
+        corrected.setReasons(response.getReasons());
+        corrected.setLanguage(response.getLanguage());
+        corrected.setCorrections(corrections);
+        return corrected;
+    }
+
+    private ExplanationResponse cachedAnswer(EmployeePeriodSnapshot snapshot, Intent intent, ResolvedQuestion resolved) {
+        // Several intents between them need most columns, so those questions read whole rows once
+        PayrollProjection<?> projection = resolved.intents().size() == 1 ? projectionFor(intent) : null;
+        LocalDateTime version = snapshot.getLatestLoadDate(projection);
+        // Only employees with payroll get a dictionary id; answers for unknown ids are cheap and not cached
+        int employee = version == null
+                ? StringDictionary.EMPLOYEE_IDS.find(snapshot.getEmployeeId())
+                : StringDictionary.EMPLOYEE_IDS.id(snapshot.getEmployeeId());
+        if (employee < 0) {
+            return computeAnswer(snapshot, intent, resolved.targetMonth(), resolved.comparisonMonth());
+        }
+        ExplanationCache.Key key = new ExplanationCache.Key(employee, intent,
+                resolved.targetMonth(), resolved.comparisonMonth(), version);
+        return explanationCache.get(key, () -> computeAnswer(snapshot, intent, resolved.targetMonth(), resolved.comparisonMonth()));
+    }
+
+    /**
+     * Joins the answers to a multi-intent question into one response. Parts may
+     * be shared cache entries, so they are read but never modified. The net
+     * change is the first (highest-priority) part's.
+     */
+    private ExplanationResponse composeResponse(List<ExplanationResponse> parts) {
+        StringBuilder explanation = TextTemplate.buffer();
+        List<PayChangeReason> reasons = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (ExplanationResponse part : parts) {
+            // Handlers without data all say the same thing; say it once
+            if (seen.add(part.getExplanation())) {
+                if (explanation.length() > 0) {
+                    explanation.append(' ');
+                }
+                explanation.append(part.getExplanation());
+            }
+            reasons.addAll(part.getReasons());
+        }
+
+        ExplanationResponse first = parts.get(0);
+        ExplanationResponse response = new ExplanationResponse();
+        response.setExplanation(explanation.toString());
+        response.setPayPeriod(first.getPayPeriod());
+        response.setNetChange(first.getNetChange());
+        response.setReasons(reasons);
+        response.setLanguage(first.getLanguage());
+        return response;
+    }
+
+    private ExplanationResponse answerTrend(String employeeId, ResolvedQuestion resolved) {
+        ExplanationResponse response = trend(employeeId, resolved, trendMetric(resolved.subject()));
+
+        logExplanation(employeeId, resolved.intent().name(), resolved.period().target().end().format(MONTH_FORMATTER),
+                response.getExplanation(), "NLP", response.getLanguage());
+        return withCorrections(response, resolved.corrections());
+    }
+
+    /**
+     * The metric month by month over the question's period, neither logged
+     * nor cached.
+     */
+    private ExplanationResponse trend(String employeeId, ResolvedQuestion resolved, TrendMetric metric) {
+        // A single-month question still trends over the month it is compared with
+        TimePeriod target = resolved.period().target();
+        YearMonth fromMonth = target.isSingleMonth() ? resolved.comparisonMonth() : target.start();
+        if (fromMonth.isAfter(target.end())) {
+            fromMonth = target.end();
+        }
+
+        // One ordered range query regardless of how many months the window spans
+        PayTrend trend = payrollService.analyzeTrend(employeeId, fromMonth, target.end(), metric);
+        return buildTrendResponse(trend, metric);
+    }
+
+    private TrendMetric trendMetric(Intent subject) {
+        switch (subject) {
+            case BONUS:
+                return TrendMetric.BONUS;
+            case TAX:
+                return TrendMetric.TAX;
+            case OVERTIME:
+                return TrendMetric.OVERTIME;
+            case DEDUCTIONS:
+            case NEW_DEDUCTIONS:
+                return TrendMetric.TOTAL_DEDUCTIONS;
+            case HEALTH_INSURANCE:
+                return TrendMetric.HEALTHCARE;
+            default:
+                return TrendMetric.NET_PAY;
+        }
+    }
+
+    private ExplanationResponse buildTrendResponse(PayTrend trend, TrendMetric metric) {
+        List<PayTrend.Point> points = trend.getPoints();
+        List<PayChangeReason> reasons = new ArrayList<>(Math.max(points.size() - 1, 0));
+        String explanation;
+        if (points.isEmpty()) {
+            explanation = TREND_NO_DATA.render(trend.getFromMonth(), trend.getToMonth());
+        } else if (points.size() == 1) {
+            PayTrend.Point only = points.get(0);
+            explanation = TREND_SINGLE.render(metric.getLabel(), only.getMonth(), only.getValue());
+        } else {
+            PayTrend.Point first = points.get(0);
+            PayTrend.Point last = points.get(points.size() - 1);
+            Money cumulative = trend.getCumulativeChange();
+
+            StringBuilder text = TREND_FROM.appendTo(TextTemplate.buffer(), metric.getLabel(), first.getValue(), first.getMonth());
+            TREND_TO.appendTo(text, last.getValue(), last.getMonth());
+            if (cumulative.signum() > 0) {
+                TREND_UP.appendTo(text, cumulative);
+            } else if (cumulative.signum() < 0) {
+                TREND_DOWN.appendTo(text, cumulative.abs());
+            } else {
+                text.append(TREND_FLAT);
+            }
+            if (trend.getMaximum().getValue().compareTo(trend.getMinimum().getValue()) != 0) {
+                TREND_HIGHEST.appendTo(text, trend.getMaximum().getMonth(), trend.getMaximum().getValue());
+                TREND_LOWEST.appendTo(text, trend.getMinimum().getMonth(), trend.getMinimum().getValue());
+            }
+            explanation = text.toString();
+
+            for (PayTrend.Point point : points) {
+                if (point.getDelta() != null && point.getDelta().signum() != 0) {
+                    reasons.add(PayChangeReason.change(metric.getReasonType(), point.getMonth().format(MONTH_FORMATTER),
+                            point.getDelta(), PayChangeReason.Direction.of(point.getDelta())));
+                }
+            }
+        }
+
+        ExplanationResponse response = new ExplanationResponse();
+        response.setExplanation(explanation);
+        response.setPayPeriod(trend.getToMonth().format(MONTH_FORMATTER));
+        response.setNetChange(trend.getCumulativeChange());
+        response.setReasons(reasons);
+        response.setLanguage("en-US");
+        return response;
+    }
 
-        logger.info("Question intent: {}, targetMonth: {}, comparisonMonth: {}", intent, targetMonth, comparisonMonth);
+    /**
+     * The payroll columns an intent's handler reads, or null when it needs
+     * whole rows.
+     */
+    private static PayrollProjection<?> projectionFor(Intent intent) {
+        switch (intent) {
+            case BONUS:
+                return PayrollProjection.COMPONENTS;
+            case TAX:
+                return PayrollProjection.TAX;
+            case NET_PAY:
+                return PayrollProjection.NET_PAY;
+            default:
+                return null;
+        }
+    }
 
+    private ExplanationResponse computeAnswer(EmployeePeriodSnapshot snapshot, Intent intent,
+                                              YearMonth targetMonth, YearMonth comparisonMonth) {
         // Handle different question intents
         ExplanationResponse response;
         switch (intent) {
-            case "PAY_DROP":
-                response = explainPayDrop(employeeId, targetMonth, comparisonMonth);
+            case PAY_DROP:
+                response = explainPayDrop(snapshot, targetMonth, comparisonMonth);
                 break;
-            case "DEDUCTIONS":
-                response = listDeductions(employeeId, targetMonth);
+            case DEDUCTIONS:
+                response = listDeductions(snapshot, targetMonth);
                 break;
-            case "BONUS":
-                response = checkBonus(employeeId, targetMonth);
+            case BONUS:
+                response = checkBonus(snapshot, targetMonth);
                 break;
-            case "TAX":
-                response = checkTaxWithheld(employeeId, targetMonth);
+            case TAX:
+                response = checkTaxWithheld(snapshot, targetMonth);
                 break;
-            case "OVERTIME":
-                response = explainOvertimeChange(employeeId, targetMonth, comparisonMonth);
+            case OVERTIME:
+                response = explainOvertimeChange(snapshot, targetMonth, comparisonMonth);
                 break;
-            case "NET_PAY":
-                response = getNetPay(employeeId, targetMonth);
+            case NET_PAY:
+                response = getNetPay(snapshot, targetMonth);
                 break;
-            case "NEW_DEDUCTIONS":
-                response = checkNewDeductions(employeeId, targetMonth, comparisonMonth);
+            case NEW_DEDUCTIONS:
+                response = checkNewDeductions(snapshot, targetMonth, comparisonMonth);
                 break;
-            case "HEALTH_INSURANCE":
-                response = explainHealthInsuranceChange(employeeId, targetMonth, comparisonMonth);
+            case HEALTH_INSURANCE:
+                response = explainHealthInsuranceChange(snapshot, targetMonth, comparisonMonth);
                 break;
             default:
-                PayrollRepository payrollRepository = payrollService.getPayrollRepository();
-                PayrollTransaction currentPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, targetMonth);
-                PayrollTransaction previousPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, comparisonMonth);
-
-                PayChange payChange = payrollService.analyzePayChangeBetweenMonths(employeeId, targetMonth, comparisonMonth);
+                PayChange payChange = payChange(snapshot, targetMonth, comparisonMonth);
                 if (payChange == null) {
-                    response = createNoDataResponse(targetMonth, currentPayroll, previousPayroll);
+                    response = createNoDataResponse(targetMonth, snapshot.getPayroll(targetMonth), snapshot.getPayroll(comparisonMonth));
                 } else {
                     response = buildExplanationResponse(payChange, targetMonth);
                 }
                 break;
         }
-
-        // Log the explanation
-        logExplanation(employeeId, intent, targetMonth.format(MONTH_FORMATTER), response.getExplanation(), "NLP", response.getLanguage());
         return response;
     }
 
+    /**
+     * Month-over-month change from pay_change_summary when one was built from
+     * the snapshot's payroll rows, which saves reading deductions. A stale or
+     * missing summary comes back with the deductions, so the live computation
+     * needs no further query. Other comparisons, and snapshots whose
+     * deductions are already in memory, are computed live.
+     */
+    private PayChange payChange(EmployeePeriodSnapshot snapshot, YearMonth currentMonth, YearMonth previousMonth) {
+        if (previousMonth.equals(currentMonth.minusMonths(1)) && !snapshot.hasDeductionsLoaded()) {
+            PayChange summarized = payChangeSummaryService.find(snapshot, currentMonth);
+            if (summarized != null) {
+                return summarized;
+            }
+        }
+        return payrollService.analyzePayChangeBetweenMonths(snapshot, currentMonth, previousMonth);
+    }
+
     private void logExplanation(String employeeId, String intent, String payPeriod, String explanationText, String generatedBy, String language) {
         ExplanationLog explanationLog = new ExplanationLog();
         explanationLog.setEmployeeId(employeeId);
@@ -97,83 +479,37 @@ public class ExplanationService {
         explanationLog.setLanguage(language);
         explanationLog.setTimestamp(LocalDateTime.now());
 
-        try {
-            explanationLogRepository.saveExplanationLog(explanationLog);
-            logger.info("Explanation logged successfully for employeeId: {}, payPeriod: {}", employeeId, payPeriod);
-        } catch (Exception e) {
-            logger.error("Failed to log explanation for employeeId: {}, payPeriod: {}. Error: {}", employeeId, payPeriod, e.getMessage());
-        }
-    }
-
-    private Map<String, Object> parseQuestion(String question) {
-        Map<String, Object> context = new HashMap<>();
-        String lowerQuestion = question.toLowerCase();
-        YearMonth targetMonth = YearMonth.now();
-
-        if (lowerQuestion.contains("last month")) {
-            targetMonth = YearMonth.now().minusMonths(1);
-        } else if (lowerQuestion.contains("march")) {
-            targetMonth = YearMonth.of(2025, 3);
-        } else if (lowerQuestion.contains("april")) {
-            targetMonth = YearMonth.of(2025, 4);
-        }
-
-        if (lowerQuestion.contains("pay drop") || lowerQuestion.contains("why did my pay")) {
-            context.put("intent", "PAY_DROP");
-        } else if (lowerQuestion.contains("deductions")) {
-            context.put("intent", "DEDUCTIONS");
-        } else if (lowerQuestion.contains("bonus")) {
-            context.put("intent", "BONUS");
-        } else if (lowerQuestion.contains("tax")) {
-            context.put("intent", "TAX");
-        } else if (lowerQuestion.contains("overtime")) {
-            context.put("intent", "OVERTIME");
-        } else if (lowerQuestion.contains("net pay")) {
-            context.put("intent", "NET_PAY");
-        } else if (lowerQuestion.contains("new deductions")) {
-            context.put("intent", "NEW_DEDUCTIONS");
-        } else if (lowerQuestion.contains("health insurance") || lowerQuestion.contains("healthcare")) {
-            context.put("intent", "HEALTH_INSURANCE");
-        } else {
-            context.put("intent", "GENERIC");
-        }
-
-        context.put("targetMonth", targetMonth);
-        return context;
+        explanationLogWriter.submit(explanationLog);
+        logger.debug("Explanation queued for logging for employeeId: {}, payPeriod: {}", employeeId, payPeriod);
     }
 
     private ExplanationResponse createNoDataResponse(YearMonth month, PayrollTransaction currentPayroll, PayrollTransaction previousPayroll) {
         ExplanationResponse response = new ExplanationResponse();
         String explanation;
         if (currentPayroll == null && previousPayroll == null) {
-            explanation = String.format("No payroll data found for %s or the previous month (%s).",
-                    month.format(MONTH_FORMATTER), month.minusMonths(1).format(MONTH_FORMATTER));
+            explanation = NO_DATA_BOTH.render(month, month.minusMonths(1));
         } else if (currentPayroll == null) {
-            explanation = String.format("No payroll data found for %s.", month.format(MONTH_FORMATTER));
+            explanation = NO_DATA_CURRENT.render(month);
         } else {
-            explanation = String.format("No payroll data found for the previous month (%s).",
-                    month.minusMonths(1).format(MONTH_FORMATTER));
+            explanation = NO_DATA_PREVIOUS.render(month.minusMonths(1));
         }
         response.setExplanation(explanation);
         response.setPayPeriod(month.format(MONTH_FORMATTER));
-        response.setNetChange(BigDecimal.ZERO);
+        response.setNetChange(Money.ZERO);
         response.setReasons(Collections.emptyList());
         response.setLanguage("en-US");
         return response;
     }
 
-    private ExplanationResponse explainPayDrop(String employeeId, YearMonth currentMonth, YearMonth previousMonth) {
-        PayChange payChange = payrollService.analyzePayChangeBetweenMonths(employeeId, currentMonth, previousMonth);
+    private ExplanationResponse explainPayDrop(EmployeePeriodSnapshot snapshot, YearMonth currentMonth, YearMonth previousMonth) {
+        PayChange payChange = payChange(snapshot, currentMonth, previousMonth);
         if (payChange == null) {
-            PayrollRepository payrollRepository = payrollService.getPayrollRepository();
-            PayrollTransaction currentPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, currentMonth);
-            PayrollTransaction previousPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, previousMonth);
-            return createNoDataResponse(currentMonth, currentPayroll, previousPayroll);
+            return createNoDataResponse(currentMonth, snapshot.getPayroll(currentMonth), snapshot.getPayroll(previousMonth));
         }
 
-        if (payChange.getNetPayChange().compareTo(BigDecimal.ZERO) >= 0) {
+        if (payChange.getNetPayChange().signum() >= 0) {
             ExplanationResponse response = new ExplanationResponse();
-            response.setExplanation("Your net pay did not drop in " + currentMonth.getMonth().toString().toLowerCase() + ".");
+            response.setExplanation(PAY_DID_NOT_DROP.render(currentMonth));
             response.setPayPeriod(currentMonth.format(MONTH_FORMATTER));
             response.setNetChange(payChange.getNetPayChange());
             response.setReasons(Collections.emptyList());
@@ -184,87 +520,77 @@ public class ExplanationService {
         return buildExplanationResponse(payChange, currentMonth);
     }
 
-    private ExplanationResponse listDeductions(String employeeId, YearMonth targetMonth) {
-        List<DeductionBreakdown> deductions = payrollService.getDeductionRepository()
-                .findByEmployeeIdAndMonth(employeeId, targetMonth);
+    private ExplanationResponse listDeductions(EmployeePeriodSnapshot snapshot, YearMonth targetMonth) {
+        List<DeductionBreakdown> deductions = snapshot.getDeductions(targetMonth);
         if (deductions.isEmpty()) {
             return createNoDataResponse(targetMonth, null, null);
         }
 
-        StringBuilder explanation = new StringBuilder("Your deductions for " + targetMonth.getMonth().toString().toLowerCase() + " are: ");
-        List<PayChangeReason> reasons = new ArrayList<>();
-        for (DeductionBreakdown deduction : deductions) {
-            reasons.add(new PayChangeReason("Deduction", capitalizeDeductionType(deduction.getDeductionType()),
-                    "$" + deduction.getAmount()));
-            explanation.append(deduction.getDeductionType()).append(" ($").append(deduction.getAmount()).append("), ");
-        }
+        StringBuilder explanation = DEDUCTIONS_FOR.appendTo(TextTemplate.buffer(), targetMonth);
+        List<PayChangeReason> reasons = new ArrayList<>(deductions.size());
+        appendDeductionList(explanation, deductions, reasons);
 
         ExplanationResponse response = new ExplanationResponse();
-        response.setExplanation(explanation.toString().replaceAll(", $", "."));
+        response.setExplanation(explanation.toString());
         response.setPayPeriod(targetMonth.format(MONTH_FORMATTER));
-        response.setNetChange(BigDecimal.ZERO);
+        response.setNetChange(Money.ZERO);
         response.setReasons(reasons);
         response.setLanguage("en-US");
         return response;
     }
 
-    private ExplanationResponse checkBonus(String employeeId, YearMonth targetMonth) {
-        PayrollTransaction payroll = payrollService.getPayrollRepository()
-                .findPayrollByEmployeeIdAndMonth(employeeId, targetMonth);
+    private ExplanationResponse checkBonus(EmployeePeriodSnapshot snapshot, YearMonth targetMonth) {
+        ComponentView payroll = snapshot.getPayroll(targetMonth, PayrollProjection.COMPONENTS);
         if (payroll == null) {
             return createNoDataResponse(targetMonth, null, null);
         }
 
-        String explanation = payroll.getBonus().compareTo(BigDecimal.ZERO) > 0
-                ? "You received a bonus of $" + payroll.getBonus() + " in " + targetMonth.getMonth().toString().toLowerCase() + "."
-                : "You did not receive a bonus in " + targetMonth.getMonth().toString().toLowerCase() + ".";
+        String explanation = payroll.bonus().signum() > 0
+                ? BONUS_RECEIVED.render(payroll.bonus(), targetMonth)
+                : BONUS_NONE.render(targetMonth);
 
         ExplanationResponse response = new ExplanationResponse();
         response.setExplanation(explanation);
         response.setPayPeriod(targetMonth.format(MONTH_FORMATTER));
-        response.setNetChange(payroll.getBonus());
-        response.setReasons(payroll.getBonus().compareTo(BigDecimal.ZERO) > 0
-                ? List.of(new PayChangeReason("Bonus", "Performance", "$" + payroll.getBonus()))
+        response.setNetChange(payroll.bonus());
+        response.setReasons(payroll.bonus().signum() > 0
+                ? List.of(PayChangeReason.amount("Bonus", "Performance", payroll.bonus()))
                 : Collections.emptyList());
         response.setLanguage("en-US");
         return response;
     }
 
-    private ExplanationResponse checkTaxWithheld(String employeeId, YearMonth targetMonth) {
-        PayrollTransaction payroll = payrollService.getPayrollRepository()
-                .findPayrollByEmployeeIdAndMonth(employeeId, targetMonth);
+    private ExplanationResponse checkTaxWithheld(EmployeePeriodSnapshot snapshot, YearMonth targetMonth) {
+        TaxView payroll = snapshot.getPayroll(targetMonth, PayrollProjection.TAX);
         if (payroll == null) {
             return createNoDataResponse(targetMonth, null, null);
         }
 
         ExplanationResponse response = new ExplanationResponse();
-        response.setExplanation("Your tax withheld for " + targetMonth.getMonth().toString().toLowerCase() + " was $" + payroll.getTaxWithheld() + ".");
+        response.setExplanation(TAX_WITHHELD.render(targetMonth, payroll.taxWithheld()));
         response.setPayPeriod(targetMonth.format(MONTH_FORMATTER));
-        response.setNetChange(payroll.getTaxWithheld());
-        response.setReasons(List.of(new PayChangeReason("Tax", "Withholding", "$" + payroll.getTaxWithheld())));
+        response.setNetChange(payroll.taxWithheld());
+        response.setReasons(List.of(PayChangeReason.amount("Tax", "Withholding", payroll.taxWithheld())));
         response.setLanguage("en-US");
         return response;
     }
 
-    private ExplanationResponse explainOvertimeChange(String employeeId, YearMonth currentMonth, YearMonth previousMonth) {
-        PayChange payChange = payrollService.analyzePayChangeBetweenMonths(employeeId, currentMonth, previousMonth);
+    private ExplanationResponse explainOvertimeChange(EmployeePeriodSnapshot snapshot, YearMonth currentMonth, YearMonth previousMonth) {
+        PayChange payChange = payChange(snapshot, currentMonth, previousMonth);
         if (payChange == null) {
-            PayrollRepository payrollRepository = payrollService.getPayrollRepository();
-            PayrollTransaction currentPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, currentMonth);
-            PayrollTransaction previousPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, previousMonth);
-            return createNoDataResponse(currentMonth, currentPayroll, previousPayroll);
+            return createNoDataResponse(currentMonth, snapshot.getPayroll(currentMonth), snapshot.getPayroll(previousMonth));
         }
 
         String explanation;
         List<PayChangeReason> reasons = new ArrayList<>();
-        if (payChange.getOvertimeChange().compareTo(BigDecimal.ZERO) > 0) {
-            explanation = "Your overtime pay increased by $" + payChange.getOvertimeChange() + " in " + currentMonth.getMonth().toString().toLowerCase() + ".";
-            reasons.add(new PayChangeReason("Overtime", "Hours", formatDelta(payChange.getOvertimeChange())));
-        } else if (payChange.getOvertimeChange().compareTo(BigDecimal.ZERO) < 0) {
-            explanation = "Your overtime pay decreased by $" + payChange.getOvertimeChange().abs() + " in " + currentMonth.getMonth().toString().toLowerCase() + ".";
-            reasons.add(new PayChangeReason("Overtime", "Hours", formatDelta(payChange.getOvertimeChange())));
+        if (payChange.getOvertimeChange().signum() > 0) {
+            explanation = OVERTIME_INCREASED.render(payChange.getOvertimeChange(), currentMonth);
+            reasons.add(changeReason("Overtime", "Hours", payChange.getOvertimeChange()));
+        } else if (payChange.getOvertimeChange().signum() < 0) {
+            explanation = OVERTIME_DECREASED.render(payChange.getOvertimeChange().abs(), currentMonth);
+            reasons.add(changeReason("Overtime", "Hours", payChange.getOvertimeChange()));
         } else {
-            explanation = "Your overtime pay did not change in " + currentMonth.getMonth().toString().toLowerCase() + ".";
+            explanation = OVERTIME_UNCHANGED.render(currentMonth);
         }
 
         ExplanationResponse response = new ExplanationResponse();
@@ -276,33 +602,27 @@ public class ExplanationService {
         return response;
     }
 
-    private ExplanationResponse getNetPay(String employeeId, YearMonth targetMonth) {
-        PayrollTransaction payroll = payrollService.getPayrollRepository()
-                .findPayrollByEmployeeIdAndMonth(employeeId, targetMonth);
+    private ExplanationResponse getNetPay(EmployeePeriodSnapshot snapshot, YearMonth targetMonth) {
+        NetPayView payroll = snapshot.getPayroll(targetMonth, PayrollProjection.NET_PAY);
         if (payroll == null) {
             return createNoDataResponse(targetMonth, null, null);
         }
 
         ExplanationResponse response = new ExplanationResponse();
-        response.setExplanation("Your net pay for " + targetMonth.getMonth().toString().toLowerCase() + " was $" + payroll.getNetPay() + ".");
+        response.setExplanation(NET_PAY.render(targetMonth, payroll.netPay()));
         response.setPayPeriod(targetMonth.format(MONTH_FORMATTER));
-        response.setNetChange(payroll.getNetPay());
-        response.setReasons(List.of(new PayChangeReason("NetPay", "Total", "$" + payroll.getNetPay())));
+        response.setNetChange(payroll.netPay());
+        response.setReasons(List.of(PayChangeReason.amount("NetPay", "Total", payroll.netPay())));
         response.setLanguage("en-US");
         return response;
     }
 
-    private ExplanationResponse checkNewDeductions(String employeeId, YearMonth currentMonth, YearMonth previousMonth) {
-        List<DeductionBreakdown> currentDeductions = payrollService.getDeductionRepository()
-                .findByEmployeeIdAndMonth(employeeId, currentMonth);
-        List<DeductionBreakdown> previousDeductions = payrollService.getDeductionRepository()
-                .findByEmployeeIdAndMonth(employeeId, previousMonth);
+    private ExplanationResponse checkNewDeductions(EmployeePeriodSnapshot snapshot, YearMonth currentMonth, YearMonth previousMonth) {
+        List<DeductionBreakdown> currentDeductions = snapshot.getDeductions(currentMonth);
+        List<DeductionBreakdown> previousDeductions = snapshot.getDeductions(previousMonth);
 
         if (currentDeductions.isEmpty() || previousDeductions.isEmpty()) {
-            PayrollRepository payrollRepository = payrollService.getPayrollRepository();
-            PayrollTransaction currentPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, currentMonth);
-            PayrollTransaction previousPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, previousMonth);
-            return createNoDataResponse(currentMonth, currentPayroll, previousPayroll);
+            return createNoDataResponse(currentMonth, snapshot.getPayroll(currentMonth), snapshot.getPayroll(previousMonth));
         }
 
         Set<String> previousTypes = previousDeductions.stream()
@@ -315,67 +635,54 @@ public class ExplanationService {
         String explanation;
         List<PayChangeReason> reasons = new ArrayList<>();
         if (newDeductions.isEmpty()) {
-            explanation = "There were no new deductions in " + currentMonth.getMonth().toString().toLowerCase() + ".";
+            explanation = NO_NEW_DEDUCTIONS.render(currentMonth);
         } else {
-            explanation = "New deductions in " + currentMonth.getMonth().toString().toLowerCase() + ": ";
-            for (DeductionBreakdown deduction : newDeductions) {
-                reasons.add(new PayChangeReason("Deduction", capitalizeDeductionType(deduction.getDeductionType()),
-                        "$" + deduction.getAmount()));
-                explanation += deduction.getDeductionType() + " ($" + deduction.getAmount() + "), ";
-            }
-            explanation = explanation.replaceAll(", $", ".");
+            StringBuilder text = NEW_DEDUCTIONS_IN.appendTo(TextTemplate.buffer(), currentMonth);
+            appendDeductionList(text, newDeductions, reasons);
+            explanation = text.toString();
         }
 
         ExplanationResponse response = new ExplanationResponse();
         response.setExplanation(explanation);
         response.setPayPeriod(currentMonth.format(MONTH_FORMATTER));
-        response.setNetChange(BigDecimal.ZERO);
+        response.setNetChange(Money.ZERO);
         response.setReasons(reasons);
         response.setLanguage("en-US");
         return response;
     }
 
-    private ExplanationResponse explainHealthInsuranceChange(String employeeId, YearMonth currentMonth, YearMonth previousMonth) {
-        List<DeductionBreakdown> currentDeductions = payrollService.getDeductionRepository()
-                .findByEmployeeIdAndMonth(employeeId, currentMonth);
-        List<DeductionBreakdown> previousDeductions = payrollService.getDeductionRepository()
-                .findByEmployeeIdAndMonth(employeeId, previousMonth);
+    private ExplanationResponse explainHealthInsuranceChange(EmployeePeriodSnapshot snapshot, YearMonth currentMonth, YearMonth previousMonth) {
+        List<DeductionBreakdown> currentDeductions = snapshot.getDeductions(currentMonth);
+        List<DeductionBreakdown> previousDeductions = snapshot.getDeductions(previousMonth);
 
         if (currentDeductions.isEmpty() || previousDeductions.isEmpty()) {
-            PayrollRepository payrollRepository = payrollService.getPayrollRepository();
-            PayrollTransaction currentPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, currentMonth);
-            PayrollTransaction previousPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, previousMonth);
-            return createNoDataResponse(currentMonth, currentPayroll, previousPayroll);
+            return createNoDataResponse(currentMonth, snapshot.getPayroll(currentMonth), snapshot.getPayroll(previousMonth));
         }
 
-        DeductionBreakdown currentHealth = currentDeductions.stream()
-                .filter(d -> d.getDeductionType().equalsIgnoreCase("healthcare"))
-                .findFirst().orElse(null);
-        DeductionBreakdown previousHealth = previousDeductions.stream()
-                .filter(d -> d.getDeductionType().equalsIgnoreCase("healthcare"))
-                .findFirst().orElse(null);
+        DeductionBreakdown currentHealth = findHealthcare(currentDeductions);
+        DeductionBreakdown previousHealth = findHealthcare(previousDeductions);
 
         String explanation;
         List<PayChangeReason> reasons = new ArrayList<>();
         if (currentHealth == null || previousHealth == null) {
-            explanation = "No healthcare deduction data available for comparison.";
+            explanation = HEALTHCARE_NO_DATA;
         } else {
-            BigDecimal change = currentHealth.getAmount().subtract(previousHealth.getAmount());
-            if (change.compareTo(BigDecimal.ZERO) > 0) {
-                explanation = "Your healthcare deduction increased by $" + change + " in " + currentMonth.getMonth().toString().toLowerCase() + ".";
-                reasons.add(new PayChangeReason("Deduction", "Healthcare", formatDelta(change)));
-            } else if (change.compareTo(BigDecimal.ZERO) < 0) {
-                explanation = "Your healthcare deduction decreased by $" + change.abs() + " in " + currentMonth.getMonth().toString().toLowerCase() + ".";
-                reasons.add(new PayChangeReason("Deduction", "Healthcare", formatDelta(change)));
+            Money change = currentHealth.getAmount().minus(previousHealth.getAmount());
+            if (change.signum() > 0) {
+                explanation = HEALTHCARE_INCREASED.render(change, currentMonth);
+                reasons.add(changeReason("Deduction", "Healthcare", change));
+            } else if (change.signum() < 0) {
+                explanation = HEALTHCARE_DECREASED.render(change.abs(), currentMonth);
+                reasons.add(changeReason("Deduction", "Healthcare", change));
             } else {
-                explanation = "Your healthcare deduction did not change in " + currentMonth.getMonth().toString().toLowerCase() + ".";
+                explanation = HEALTHCARE_UNCHANGED.render(currentMonth);
             }
         }
 
         ExplanationResponse response = new ExplanationResponse();
         response.setExplanation(explanation);
         response.setPayPeriod(currentMonth.format(MONTH_FORMATTER));
-        response.setNetChange(currentHealth != null ? currentHealth.getAmount() : BigDecimal.ZERO);
+        response.setNetChange(currentHealth != null ? currentHealth.getAmount() : Money.ZERO);
         response.setReasons(reasons);
         response.setLanguage("en-US");
         return response;
@@ -389,30 +696,28 @@ public class ExplanationService {
         response.setLanguage("en-US");
 
         List<PayChangeReason> reasons = new ArrayList<>();
-        if (payChange.getBasePayChange().abs().compareTo(new BigDecimal("1.00")) > 0) {
-            reasons.add(new PayChangeReason("Salary", "Base Pay", formatDelta(payChange.getBasePayChange())));
+        if (payChange.getBasePayChange().exceeds(REASON_THRESHOLD)) {
+            reasons.add(changeReason("Salary", "Base Pay", payChange.getBasePayChange()));
         }
-        if (payChange.getBonusChange().abs().compareTo(new BigDecimal("1.00")) > 0) {
-            reasons.add(new PayChangeReason("Bonus", "Performance", formatDelta(payChange.getBonusChange())));
+        if (payChange.getBonusChange().exceeds(REASON_THRESHOLD)) {
+            reasons.add(changeReason("Bonus", "Performance", payChange.getBonusChange()));
         }
-        if (payChange.getOvertimeChange().abs().compareTo(new BigDecimal("1.00")) > 0) {
-            reasons.add(new PayChangeReason("Overtime", "Hours", formatDelta(payChange.getOvertimeChange())));
+        if (payChange.getOvertimeChange().exceeds(REASON_THRESHOLD)) {
+            reasons.add(changeReason("Overtime", "Hours", payChange.getOvertimeChange()));
         }
-        if (payChange.getTaxChange().abs().compareTo(new BigDecimal("1.00")) > 0) {
-            reasons.add(new PayChangeReason("Tax", "Withholding", formatDelta(payChange.getTaxChange().negate())));
+        if (payChange.getTaxChange().exceeds(REASON_THRESHOLD)) {
+            // Withholding and deductions reduce net pay, so their effect has the opposite sign
+            reasons.add(PayChangeReason.change("Tax", "Withholding", payChange.getTaxChange().negate(),
+                    PayChangeReason.Direction.of(payChange.getTaxChange())));
         }
-        for (Map.Entry<String, BigDecimal> entry : payChange.getDeductionChanges().entrySet()) {
-            if (entry.getValue().abs().compareTo(new BigDecimal("1.00")) > 0) {
-                reasons.add(new PayChangeReason("Deduction", capitalizeDeductionType(entry.getKey()),
-                        formatDelta(entry.getValue().negate())));
+        for (Map.Entry<String, Money> entry : payChange.getDeductionChanges().entrySet()) {
+            if (entry.getValue().exceeds(REASON_THRESHOLD)) {
+                reasons.add(PayChangeReason.change("Deduction", capitalizeDeductionType(entry.getKey()),
+                        entry.getValue().negate(), PayChangeReason.Direction.of(entry.getValue())));
             }
         }
 
-        reasons.sort((r1, r2) -> {
-            BigDecimal val1 = new BigDecimal(r1.getDelta().replace("$", "").replace("+", ""));
-            BigDecimal val2 = new BigDecimal(r2.getDelta().replace("$", "").replace("+", ""));
-            return val2.abs().compareTo(val1.abs());
-        });
+        moveLargestToFront(reasons, NARRATIVE_REASONS);
 
         response.setReasons(reasons);
         String explanation = generateNarrativeExplanation(payChange, reasons, currentMonth);
@@ -421,9 +726,38 @@ public class ExplanationService {
         return response;
     }
 
-    private String formatDelta(BigDecimal amount) {
-        String prefix = amount.compareTo(BigDecimal.ZERO) >= 0 ? "+" : "";
-        return prefix + "$" + amount.abs().toString();
+    /**
+     * Moves the {@code count} reasons of largest magnitude to the front,
+     * largest first, and leaves the rest in the order they were found. A
+     * selection pass per named reason instead of sorting the whole list;
+     * equal magnitudes keep their found order.
+     */
+    static void moveLargestToFront(List<PayChangeReason> reasons, int count) {
+        int selected = Math.min(count, reasons.size());
+        for (int i = 0; i < selected; i++) {
+            int largest = i;
+            for (int j = i + 1; j < reasons.size(); j++) {
+                if (reasons.get(j).getMagnitude().compareTo(reasons.get(largest).getMagnitude()) > 0) {
+                    largest = j;
+                }
+            }
+            if (largest != i) {
+                reasons.add(i, reasons.remove(largest));
+            }
+        }
+    }
+
+    private PayChangeReason changeReason(String type, String label, Money change) {
+        return PayChangeReason.change(type, label, change, PayChangeReason.Direction.of(change));
+    }
+
+    private static DeductionBreakdown findHealthcare(List<DeductionBreakdown> deductions) {
+        for (DeductionBreakdown deduction : deductions) {
+            if (StringDictionary.DEDUCTION_TYPES.id(deduction.getDeductionType()) == StringDictionary.HEALTHCARE) {
+                return deduction;
+            }
+        }
+        return null;
     }
 
     private String capitalizeDeductionType(String type) {
@@ -432,70 +766,78 @@ public class ExplanationService {
     }
 
     private String generateNarrativeExplanation(PayChange payChange, List<PayChangeReason> reasons, YearMonth month) {
-        StringBuilder explanation = new StringBuilder();
-        String monthName = month.getMonth().toString();
-        monthName = monthName.charAt(0) + monthName.substring(1).toLowerCase();
-
-        if (payChange.getNetPayChange().compareTo(BigDecimal.ZERO) < 0) {
-            explanation.append("Your ").append(monthName)
-                    .append(" net pay decreased by $")
-                    .append(payChange.getNetPayChange().abs())
-                    .append(" due to ");
-        } else if (payChange.getNetPayChange().compareTo(BigDecimal.ZERO) > 0) {
-            explanation.append("Your ").append(monthName)
-                    .append(" net pay increased by $")
-                    .append(payChange.getNetPayChange().abs())
-                    .append(" due to ");
-        } else {
-            explanation.append("Your ").append(monthName)
-                    .append(" net pay remained the same despite some changes in ");
-        }
-
-        List<PayChangeReason> topReasons = reasons.stream().limit(3).collect(Collectors.toList());
-        if (topReasons.isEmpty()) {
-            explanation.append("changes in multiple small factors.");
-        } else if (topReasons.size() == 1) {
-            explanation.append(getLowerCaseLabel(topReasons.get(0))).append(".");
-        } else if (topReasons.size() == 2) {
-            explanation.append(getLowerCaseLabel(topReasons.get(0)))
-                    .append(" and ")
-                    .append(getLowerCaseLabel(topReasons.get(1)))
-                    .append(".");
+        StringBuilder explanation = TextTemplate.buffer();
+        int netPaySign = payChange.getNetPayChange().signum();
+        if (netPaySign < 0) {
+            NARRATIVE_DECREASED.appendTo(explanation, month, payChange.getNetPayChange().abs());
+        } else if (netPaySign > 0) {
+            NARRATIVE_INCREASED.appendTo(explanation, month, payChange.getNetPayChange().abs());
         } else {
-            explanation.append(getLowerCaseLabel(topReasons.get(0)))
-                    .append(", ")
-                    .append(getLowerCaseLabel(topReasons.get(1)))
-                    .append(", and ")
-                    .append(getLowerCaseLabel(topReasons.get(2)))
-                    .append(".");
-        }
-
-        return explanation.toString();
-    }
-
-    private String getLowerCaseLabel(PayChangeReason reason) {
-        String result = "changes in " + reason.getLabel().toLowerCase();
-        if (reason.getType().equals("Deduction") && reason.getDelta().startsWith("+")) {
-            result = "increased " + reason.getLabel().toLowerCase() + " deductions";
-        } else if (reason.getType().equals("Deduction") && reason.getDelta().startsWith("-")) {
-            result = "decreased " + reason.getLabel().toLowerCase() + " deductions";
-        } else if (reason.getType().equals("Bonus") && reason.getDelta().startsWith("-")) {
-            result = "no " + reason.getLabel().toLowerCase() + " bonus";
-        } else if (reason.getType().equals("Bonus") && reason.getDelta().startsWith("+")) {
-            result = "a new " + reason.getLabel().toLowerCase() + " bonus";
-        } else if (reason.getType().equals("Salary") && reason.getDelta().startsWith("+")) {
-            result = "increased base salary";
-        } else if (reason.getType().equals("Salary") && reason.getDelta().startsWith("-")) {
-            result = "decreased base salary";
-        } else if (reason.getType().equals("Overtime") && reason.getDelta().startsWith("+")) {
-            result = "additional overtime hours";
-        } else if (reason.getType().equals("Overtime") && reason.getDelta().startsWith("-")) {
-            result = "reduced overtime hours";
-        } else if (reason.getType().equals("Tax") && reason.getDelta().startsWith("+")) {
-            result = "increased tax withholdings";
-        } else if (reason.getType().equals("Tax") && reason.getDelta().startsWith("-")) {
-            result = "decreased tax withholdings";
-        }
-        return result;
+            NARRATIVE_UNCHANGED.appendTo(explanation, month);
+        }
+
+        int topCount = Math.min(NARRATIVE_REASONS, reasons.size());
+        if (topCount == 0) {
+            return explanation.append(NARRATIVE_SMALL_FACTORS).toString();
+        }
+        for (int i = 0; i < topCount; i++) {
+            if (i > 0) {
+                explanation.append(topCount == 2 ? " and " : i == topCount - 1 ? ", and " : ", ");
+            }
+            PayChangeReason reason = reasons.get(i);
+            reasonPhrase(reason).appendTo(explanation, reason.getLabel());
+        }
+        return explanation.append('.').toString();
+    }
+
+    private TextTemplate reasonPhrase(PayChangeReason reason) {
+        boolean increased = reason.getDirection() == PayChangeReason.Direction.INCREASE;
+        boolean decreased = reason.getDirection() == PayChangeReason.Direction.DECREASE;
+        switch (reason.getType()) {
+            case "Deduction":
+                if (increased) return REASON_DEDUCTION_INCREASED;
+                if (decreased) return REASON_DEDUCTION_DECREASED;
+                break;
+            case "Bonus":
+                if (increased) return REASON_BONUS_NEW;
+                if (decreased) return REASON_BONUS_NONE;
+                break;
+            case "Salary":
+                if (increased) return REASON_SALARY_INCREASED;
+                if (decreased) return REASON_SALARY_DECREASED;
+                break;
+            case "Overtime":
+                if (increased) return REASON_OVERTIME_INCREASED;
+                if (decreased) return REASON_OVERTIME_DECREASED;
+                break;
+            case "Tax":
+                if (increased) return REASON_TAX_INCREASED;
+                if (decreased) return REASON_TAX_DECREASED;
+                break;
+            default:
+                break;
+        }
+        return REASON_CHANGES_IN;
+    }
+
+    private void appendDeductionList(StringBuilder out, List<DeductionBreakdown> deductions, List<PayChangeReason> reasons) {
+        for (int i = 0; i < deductions.size(); i++) {
+            DeductionBreakdown deduction = deductions.get(i);
+            reasons.add(PayChangeReason.amount("Deduction", capitalizeDeductionType(deduction.getDeductionType()),
+                    deduction.getAmount()));
+            if (i > 0) {
+                out.append(", ");
+            }
+            DEDUCTION_ITEM.appendTo(out, deduction.getDeductionType(), deduction.getAmount());
+        }
+        out.append('.');
+    }
+
+    private record ResolvedQuestion(Intent intent, Intent subject, Set<Intent> intents,
+                                    YearMonth targetMonth, YearMonth comparisonMonth,
+                                    PeriodResolution period, List<Correction> corrections) {
+        List<YearMonth> months() {
+            return List.of(targetMonth, comparisonMonth);
+        }
     }
 }
\ No newline at end of file
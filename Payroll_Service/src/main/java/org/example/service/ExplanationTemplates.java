@@ -0,0 +1,74 @@
+package org.example.service;
+
+import org.example.util.TextTemplate;
+
+/**
+ * Every sentence ExplanationService produces, compiled once when the class loads.
+ */
+final class ExplanationTemplates {
+
+    // No data
+    static final TextTemplate NO_DATA_BOTH = TextTemplate.compile("No payroll data found for {0:period} or the previous month ({1:period}).");
+    static final TextTemplate NO_DATA_CURRENT = TextTemplate.compile("No payroll data found for {0:period}.");
+    static final TextTemplate NO_DATA_PREVIOUS = TextTemplate.compile("No payroll data found for the previous month ({0:period}).");
+
+    // PAY_DROP and GENERIC
+    static final TextTemplate PAY_DID_NOT_DROP = TextTemplate.compile("Your net pay did not drop in {0:month}.");
+    static final TextTemplate NARRATIVE_DECREASED = TextTemplate.compile("Your {0:Month} net pay decreased by {1:money} due to ");
+    static final TextTemplate NARRATIVE_INCREASED = TextTemplate.compile("Your {0:Month} net pay increased by {1:money} due to ");
+    static final TextTemplate NARRATIVE_UNCHANGED = TextTemplate.compile("Your {0:Month} net pay remained the same despite some changes in ");
+    static final String NARRATIVE_SMALL_FACTORS = "changes in multiple small factors.";
+
+    // Reason phrases used inside the narrative
+    static final TextTemplate REASON_CHANGES_IN = TextTemplate.compile("changes in {0:lower}");
+    static final TextTemplate REASON_DEDUCTION_INCREASED = TextTemplate.compile("increased {0:lower} deductions");
+    static final TextTemplate REASON_DEDUCTION_DECREASED = TextTemplate.compile("decreased {0:lower} deductions");
+    static final TextTemplate REASON_BONUS_NEW = TextTemplate.compile("a new {0:lower} bonus");
+    static final TextTemplate REASON_BONUS_NONE = TextTemplate.compile("no {0:lower} bonus");
+    static final TextTemplate REASON_SALARY_INCREASED = TextTemplate.compile("increased base salary");
+    static final TextTemplate REASON_SALARY_DECREASED = TextTemplate.compile("decreased base salary");
+    static final TextTemplate REASON_OVERTIME_INCREASED = TextTemplate.compile("additional overtime hours");
+    static final TextTemplate REASON_OVERTIME_DECREASED = TextTemplate.compile("reduced overtime hours");
+    static final TextTemplate REASON_TAX_INCREASED = TextTemplate.compile("increased tax withholdings");
+    static final TextTemplate REASON_TAX_DECREASED = TextTemplate.compile("decreased tax withholdings");
+
+    // DEDUCTIONS and NEW_DEDUCTIONS
+    static final TextTemplate DEDUCTIONS_FOR = TextTemplate.compile("Your deductions for {0:month} are: ");
+    static final TextTemplate NEW_DEDUCTIONS_IN = TextTemplate.compile("New deductions in {0:month}: ");
+    static final TextTemplate NO_NEW_DEDUCTIONS = TextTemplate.compile("There were no new deductions in {0:month}.");
+    static final TextTemplate DEDUCTION_ITEM = TextTemplate.compile("{0} ({1:money})");
+
+    // BONUS, TAX and NET_PAY
+    static final TextTemplate BONUS_RECEIVED = TextTemplate.compile("You received a bonus of {0:money} in {1:month}.");
+    static final TextTemplate BONUS_NONE = TextTemplate.compile("You did not receive a bonus in {0:month}.");
+    static final TextTemplate TAX_WITHHELD = TextTemplate.compile("Your tax withheld for {0:month} was {1:money}.");
+    static final TextTemplate NET_PAY = TextTemplate.compile("Your net pay for {0:month} was {1:money}.");
+
+    // OVERTIME
+    static final TextTemplate OVERTIME_INCREASED = TextTemplate.compile("Your overtime pay increased by {0:money} in {1:month}.");
+    static final TextTemplate OVERTIME_DECREASED = TextTemplate.compile("Your overtime pay decreased by {0:money} in {1:month}.");
+    static final TextTemplate OVERTIME_UNCHANGED = TextTemplate.compile("Your overtime pay did not change in {0:month}.");
+
+    // HEALTH_INSURANCE
+    static final String HEALTHCARE_NO_DATA = "No healthcare deduction data available for comparison.";
+    static final TextTemplate HEALTHCARE_INCREASED = TextTemplate.compile("Your healthcare deduction increased by {0:money} in {1:month}.");
+    static final TextTemplate HEALTHCARE_DECREASED = TextTemplate.compile("Your healthcare deduction decreased by {0:money} in {1:month}.");
+    static final TextTemplate HEALTHCARE_UNCHANGED = TextTemplate.compile("Your healthcare deduction did not change in {0:month}.");
+
+    // TREND
+    static final TextTemplate TREND_NO_DATA = TextTemplate.compile("No payroll data found between {0:period} and {1:period}.");
+    static final TextTemplate TREND_SINGLE = TextTemplate.compile("Your {0} for {1:period} was {2:money}, the only month with data in that range.");
+    static final TextTemplate TREND_FROM = TextTemplate.compile("Your {0} went from {1:money} in {2:period}");
+    static final TextTemplate TREND_TO = TextTemplate.compile(" to {0:money} in {1:period}");
+    static final TextTemplate TREND_UP = TextTemplate.compile(", up {0:money} overall.");
+    static final TextTemplate TREND_DOWN = TextTemplate.compile(", down {0:money} overall.");
+    static final String TREND_FLAT = ", with no overall change.";
+    static final TextTemplate TREND_HIGHEST = TextTemplate.compile(" It was highest in {0:period} ({1:money})");
+    static final TextTemplate TREND_LOWEST = TextTemplate.compile(" and lowest in {0:period} ({1:money}).");
+
+    // Batch questions that failed
+    static final String ANSWER_FAILED = "This question could not be answered. Please try again.";
+
+    private ExplanationTemplates() {
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.service;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.model.PayChange;
+
+import java.io.IOException;
+import java.io.Writer;
+
+class JsonLinesPayChangeSink implements PayChangeSink {
+
+    private final Writer writer;
+    private final ObjectWriter objectWriter;
+
+    JsonLinesPayChangeSink(Writer writer, ObjectMapper objectMapper) {
+        this.writer = writer;
+        this.objectWriter = objectMapper.writerFor(Line.class).without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Override
+    public void accept(String employeeId, PayChange change) throws IOException {
+        writer.write(objectWriter.writeValueAsString(new Line(employeeId, change)));
+        writer.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    record Line(String employeeId, @JsonUnwrapped PayChange change) {
+    }
+}
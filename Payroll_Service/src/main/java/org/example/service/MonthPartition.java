@@ -0,0 +1,220 @@
+package org.example.service;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.Money;
+import org.example.model.PayrollTransaction;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * One month of the {@link ColumnarPayrollStore}. Payroll columns hold the
+ * latest pay period of each employee with payroll in the month, as the
+ * single-month lookups pick, one {@code long} cents column per
+ * {@link TrendMetric}. Deduction columns hold every deduction row of the
+ * month. Both sets of rows are sorted by dictionary-encoded employee id, so
+ * an employee is found by binary search. Immutable once built.
+ */
+final class MonthPartition {
+
+    private static final TrendMetric[] METRICS = TrendMetric.values();
+
+    final YearMonth month;
+    final int[] employees;
+    // Indexed by TrendMetric ordinal; null for HEALTHCARE, which is read from the deduction columns
+    private final long[][] components;
+
+    final int[] deductionEmployees;
+    final int[] deductionTypes;
+    final long[] deductionAmounts;
+    final long[] employerMatches;
+
+    private MonthPartition(YearMonth month, int[] employees, long[][] components, int[] deductionEmployees,
+                           int[] deductionTypes, long[] deductionAmounts, long[] employerMatches) {
+        this.month = month;
+        this.employees = employees;
+        this.components = components;
+        this.deductionEmployees = deductionEmployees;
+        this.deductionTypes = deductionTypes;
+        this.deductionAmounts = deductionAmounts;
+        this.employerMatches = employerMatches;
+    }
+
+    int size() {
+        return employees.length;
+    }
+
+    int deductionCount() {
+        return deductionEmployees.length;
+    }
+
+    long[] column(TrendMetric metric) {
+        if (metric.isDeduction()) {
+            throw new IllegalArgumentException(metric + " is not a payroll column");
+        }
+        return components[metric.ordinal()];
+    }
+
+    /**
+     * Row of the employee's payroll, or a negative number when the employee
+     * has none this month.
+     */
+    int indexOf(int employee) {
+        return Arrays.binarySearch(employees, employee);
+    }
+
+    long approxBytes() {
+        long bytes = 16L + 4L * employees.length + 24L * deductionEmployees.length;
+        for (long[] column : components) {
+            if (column != null) {
+                bytes += 8L * column.length;
+            }
+        }
+        return bytes;
+    }
+
+    static final class Builder {
+
+        private final YearMonth month;
+        private int[] employees = new int[256];
+        private long[] periodEnds = new long[256];
+        private final long[][] components = new long[METRICS.length][];
+        private int size;
+
+        private int[] deductionEmployees = new int[256];
+        private int[] deductionTypes = new int[256];
+        private long[] deductionAmounts = new long[256];
+        private long[] employerMatches = new long[256];
+        private int deductionCount;
+
+        Builder(YearMonth month) {
+            this.month = month;
+            for (TrendMetric metric : METRICS) {
+                if (!metric.isDeduction()) {
+                    components[metric.ordinal()] = new long[256];
+                }
+            }
+        }
+
+        /**
+         * Adds a payroll row. Rows must arrive grouped by employee; of an
+         * employee's rows the one with the latest pay period end is kept.
+         */
+        void addPayroll(int employee, PayrollTransaction payroll) {
+            long periodEnd = payroll.getPayPeriodEnd().toEpochDay();
+            int row;
+            if (size > 0 && employees[size - 1] == employee) {
+                if (periodEnd <= periodEnds[size - 1]) {
+                    return;
+                }
+                row = size - 1;
+            } else {
+                if (size == employees.length) {
+                    growPayroll();
+                }
+                row = size++;
+            }
+            employees[row] = employee;
+            periodEnds[row] = periodEnd;
+            for (TrendMetric metric : METRICS) {
+                if (!metric.isDeduction()) {
+                    components[metric.ordinal()][row] = cents(metric.valueOf(payroll));
+                }
+            }
+        }
+
+        void addDeduction(int employee, int type, DeductionBreakdown deduction) {
+            if (deductionCount == deductionEmployees.length) {
+                growDeductions();
+            }
+            deductionEmployees[deductionCount] = employee;
+            deductionTypes[deductionCount] = type;
+            deductionAmounts[deductionCount] = cents(deduction.getAmount());
+            employerMatches[deductionCount] = cents(deduction.getEmployerMatch());
+            deductionCount++;
+        }
+
+        MonthPartition build() {
+            int[] order = sortedOrder(employees, size);
+            int[] sortedEmployees = new int[size];
+            long[][] sortedComponents = new long[METRICS.length][];
+            for (int c = 0; c < components.length; c++) {
+                if (components[c] != null) {
+                    sortedComponents[c] = new long[size];
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                int from = order == null ? i : order[i];
+                sortedEmployees[i] = employees[from];
+                for (int c = 0; c < components.length; c++) {
+                    if (components[c] != null) {
+                        sortedComponents[c][i] = components[c][from];
+                    }
+                }
+            }
+
+            int[] deductionOrder = sortedOrder(deductionEmployees, deductionCount);
+            int[] sortedDeductionEmployees = new int[deductionCount];
+            int[] sortedTypes = new int[deductionCount];
+            long[] sortedAmounts = new long[deductionCount];
+            long[] sortedMatches = new long[deductionCount];
+            for (int i = 0; i < deductionCount; i++) {
+                int from = deductionOrder == null ? i : deductionOrder[i];
+                sortedDeductionEmployees[i] = deductionEmployees[from];
+                sortedTypes[i] = deductionTypes[from];
+                sortedAmounts[i] = deductionAmounts[from];
+                sortedMatches[i] = employerMatches[from];
+            }
+            return new MonthPartition(month, sortedEmployees, sortedComponents,
+                    sortedDeductionEmployees, sortedTypes, sortedAmounts, sortedMatches);
+        }
+
+        private void growPayroll() {
+            int capacity = employees.length * 2;
+            employees = Arrays.copyOf(employees, capacity);
+            periodEnds = Arrays.copyOf(periodEnds, capacity);
+            for (int c = 0; c < components.length; c++) {
+                if (components[c] != null) {
+                    components[c] = Arrays.copyOf(components[c], capacity);
+                }
+            }
+        }
+
+        private void growDeductions() {
+            int capacity = deductionEmployees.length * 2;
+            deductionEmployees = Arrays.copyOf(deductionEmployees, capacity);
+            deductionTypes = Arrays.copyOf(deductionTypes, capacity);
+            deductionAmounts = Arrays.copyOf(deductionAmounts, capacity);
+            employerMatches = Arrays.copyOf(employerMatches, capacity);
+        }
+
+        /**
+         * Source row of each position once sorted by employee (stable), or
+         * null when the rows are already in order. Ids and positions are
+         * packed into one long so the sort stays primitive.
+         */
+        private static int[] sortedOrder(int[] ids, int count) {
+            boolean sorted = true;
+            for (int i = 1; i < count && sorted; i++) {
+                sorted = ids[i - 1] <= ids[i];
+            }
+            if (sorted) {
+                return null;
+            }
+            long[] packed = new long[count];
+            for (int i = 0; i < count; i++) {
+                packed[i] = ((long) ids[i] << 32) | i;
+            }
+            Arrays.sort(packed);
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = (int) packed[i];
+            }
+            return order;
+        }
+
+        private static long cents(Money amount) {
+            return amount == null ? 0 : amount.cents();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.model.PayChange;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Receives pay changes one employee at a time as a bulk run produces them,
+ * so the run never holds more than the change being written.
+ */
+public interface PayChangeSink {
+
+    void accept(String employeeId, PayChange change) throws IOException;
+
+    void flush() throws IOException;
+
+    static PayChangeSink csv(Writer writer) {
+        return new CsvPayChangeSink(writer);
+    }
+
+    /**
+     * One JSON object per line. The mapper's indentation setting is ignored so
+     * that each change stays on its own line.
+     */
+    static PayChangeSink jsonLines(Writer writer, ObjectMapper objectMapper) {
+        return new JsonLinesPayChangeSink(writer, objectMapper);
+    }
+}
@@ -0,0 +1,241 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.model.PayChange;
+import org.example.model.PayChangeSummary;
+import org.example.model.PayrollTransaction;
+import org.example.repository.PayChangeSummaryRepository;
+import org.example.repository.PayChangeSummaryRepository.SummaryLookup;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.example.repository.RefreshWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps pay_change_summary, one precomputed {@link PayChange} per employee
+ * per month against the month before, and serves pay-change answers from it.
+ * <p>
+ * A scheduled refresh picks up the payroll and deduction rows inserted or
+ * reloaded since the last run, as {@link SourceChangeFeed} reads them, and
+ * recomputes only the summaries they feed: the row's own month and the
+ * month after it. Each summary records the latest load_date of the two
+ * payroll rows it was computed from. A lookup is only trusted when that
+ * matches the rows the question's snapshot holds, which the answer cache
+ * has already read. The lookup reads the employee's deductions for the two
+ * months in the same round trip unless the summary is fresh, so a stale or
+ * missing summary costs no extra query when the change is computed live.
+ * Deduction rows carry no load_date, so a deduction-only load outside
+ * ingestion leaves the summaries it changes trusted until the next refresh
+ * rebuilds them.
+ */
+@Service
+@Order(0)
+public class PayChangeSummaryService implements PayrollChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayChangeSummaryService.class);
+
+    private static final int REFRESH_CHUNK_SIZE = 500;
+
+    private final PayrollService payrollService;
+    private final PayChangeSummaryRepository summaryRepository;
+    private final SourceChangeFeed changes;
+    private final boolean enabled;
+
+    private final Counter hits;
+    private final Counter stale;
+    private final Counter missing;
+
+    @Autowired
+    public PayChangeSummaryService(PayrollService payrollService, PayrollRepository payrollRepository,
+                                   DeductionRepository deductionRepository,
+                                   PayChangeSummaryRepository summaryRepository,
+                                   RefreshWatermarkRepository watermarkRepository, MeterRegistry meterRegistry,
+                                   @Value("${payroll.summary.enabled:true}") boolean enabled,
+                                   @Value("${payroll.bulk.fetch-size:5000}") int fetchSize,
+                                   @Value("${payroll.summary.rescan-interval-ms:3600000}") long rescanIntervalMs) {
+        this.payrollService = payrollService;
+        this.summaryRepository = summaryRepository;
+        this.changes = new SourceChangeFeed("pay_change_summary", payrollRepository, deductionRepository,
+                watermarkRepository, fetchSize, rescanIntervalMs);
+        this.enabled = enabled;
+        this.hits = meterRegistry.counter("payroll.pay-change-summary.lookups", "result", "hit");
+        this.stale = meterRegistry.counter("payroll.pay-change-summary.lookups", "result", "stale");
+        this.missing = meterRegistry.counter("payroll.pay-change-summary.lookups", "result", "missing");
+    }
+
+    /**
+     * The summarized change from the month before {@code month} to it, or null
+     * when there is none built from the snapshot's payroll rows and the
+     * caller should compute it live. When the snapshot covers only those two
+     * months, a null answer leaves their deductions loaded in it.
+     */
+    public PayChange find(EmployeePeriodSnapshot snapshot, YearMonth month) {
+        if (!enabled) {
+            return null;
+        }
+        LocalDateTime sourceLoadDate = sourceLoadDate(snapshot.getPayroll(month), snapshot.getPayroll(month.minusMonths(1)));
+        if (sourceLoadDate == null) {
+            return null;
+        }
+
+        PayChangeSummary summary;
+        try {
+            if (Set.of(month, month.minusMonths(1)).containsAll(snapshot.getMonths())) {
+                SummaryLookup lookup = summaryRepository.findByEmployeeIdAndMonthWithDeductions(snapshot.getEmployeeId(),
+                        month, sourceLoadDate);
+                summary = lookup.summary();
+                if (lookup.deductions() != null) {
+                    snapshot.useDeductions(lookup.deductions());
+                }
+            } else {
+                summary = summaryRepository.findByEmployeeIdAndMonth(snapshot.getEmployeeId(), month);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not read pay change summary for employeeId: {}, month: {}", snapshot.getEmployeeId(), month, e);
+            return null;
+        }
+        if (summary == null) {
+            missing.increment();
+            return null;
+        }
+        if (!sourceLoadDate.equals(summary.getSourceLoadDate())) {
+            stale.increment();
+            return null;
+        }
+        hits.increment();
+        return summary.getPayChange();
+    }
+
+    @Scheduled(initialDelayString = "${payroll.summary.refresh-interval-ms:60000}",
+            fixedDelayString = "${payroll.summary.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            logger.warn("Pay change summary refresh failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Recomputes the summaries fed by the rows changed since the last
+     * refresh, {@value #REFRESH_CHUNK_SIZE} employees at a time.
+     *
+     * @return the number of summaries written or removed
+     */
+    public synchronized int refresh() {
+        long started = System.nanoTime();
+        SourceChangeFeed.Changes changed = changes.read(summaryRepository::findLatestSourceLoadDate);
+
+        int updated = 0;
+        Map<String, Set<YearMonth>> pending = new HashMap<>();
+        for (Map.Entry<String, Set<YearMonth>> entry : changed.monthsByEmployee().entrySet()) {
+            if (pending.size() == REFRESH_CHUNK_SIZE) {
+                updated += refreshEmployees(pending);
+                pending.clear();
+            }
+            Set<YearMonth> months = pending.computeIfAbsent(entry.getKey(), id -> new TreeSet<>());
+            for (YearMonth month : entry.getValue()) {
+                months.add(month);
+                months.add(month.plusMonths(1));
+            }
+        }
+        updated += refreshEmployees(pending);
+
+        changes.advance(changed);
+        if (updated > 0) {
+            logger.info("Refreshed {} pay change summaries for {} employees in {} ms{}", updated,
+                    changed.monthsByEmployee().size(), (System.nanoTime() - started) / 1_000_000,
+                    changed.rescan() ? " (rescan)" : "");
+        }
+        return updated;
+    }
+
+    /**
+     * Recomputes the summaries an ingested batch feeds: each changed month and
+     * the month after it.
+     */
+    @Override
+    public void payrollChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Set<YearMonth>> affected = new HashMap<>();
+        for (Map.Entry<String, ? extends Collection<YearMonth>> entry : monthsByEmployee.entrySet()) {
+            Set<YearMonth> months = affected.computeIfAbsent(entry.getKey(), id -> new TreeSet<>());
+            for (YearMonth month : entry.getValue()) {
+                months.add(month);
+                months.add(month.plusMonths(1));
+            }
+        }
+        refreshEmployees(affected);
+    }
+
+    /**
+     * Recomputes the summaries of the given months for each employee, removing
+     * any whose month or the month before has no payroll.
+     */
+    public synchronized int refreshEmployees(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        if (monthsByEmployee.isEmpty()) {
+            return 0;
+        }
+        Set<YearMonth> months = new TreeSet<>();
+        for (Collection<YearMonth> employeeMonths : monthsByEmployee.values()) {
+            for (YearMonth month : employeeMonths) {
+                months.add(month);
+                months.add(month.minusMonths(1));
+            }
+        }
+        Map<String, EmployeePeriodSnapshot> snapshots = payrollService.loadSourceSnapshots(monthsByEmployee.keySet(), months);
+
+        List<PayChangeSummary> updated = new ArrayList<>();
+        List<PayChangeSummary> removed = new ArrayList<>();
+        for (Map.Entry<String, ? extends Collection<YearMonth>> entry : monthsByEmployee.entrySet()) {
+            EmployeePeriodSnapshot snapshot = snapshots.get(entry.getKey());
+            for (YearMonth month : entry.getValue()) {
+                PayChange payChange = payrollService.analyzePayChangeBetweenMonths(snapshot, month, month.minusMonths(1));
+                PayChangeSummary summary = new PayChangeSummary(entry.getKey(), month, payChange, null);
+                if (payChange == null) {
+                    removed.add(summary);
+                } else {
+                    summary.setSourceLoadDate(sourceLoadDate(snapshot.getPayroll(month), snapshot.getPayroll(month.minusMonths(1))));
+                    updated.add(summary);
+                }
+            }
+        }
+        if (!updated.isEmpty()) {
+            summaryRepository.saveAll(updated);
+        }
+        if (!removed.isEmpty()) {
+            summaryRepository.deleteAll(removed);
+        }
+        return updated.size() + removed.size();
+    }
+
+    private static LocalDateTime sourceLoadDate(PayrollTransaction current, PayrollTransaction previous) {
+        if (current == null || previous == null) {
+            return null;
+        }
+        return current.getLoadDate().isAfter(previous.getLoadDate()) ? current.getLoadDate() : previous.getLoadDate();
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.service;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Told which employees and months an ingestion run has just written, so
+ * that anything derived from those rows can refresh them without waiting
+ * for its next scheduled pass. Called on the ingesting thread after each
+ * committed batch; failures are logged and do not stop the load. Listeners
+ * that rebuild derived tables run first ({@code @Order(0)}), and those that
+ * only drop cached answers run after them, so nothing is re-cached from a
+ * table that is still stale.
+ */
+public interface PayrollChangeListener {
+
+    void payrollChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee);
+
+    default void deductionsChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        payrollChanged(monthsByEmployee);
+    }
+}
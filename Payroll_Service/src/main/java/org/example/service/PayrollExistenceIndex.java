@@ -0,0 +1,284 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.example.util.IntBitmap;
+import org.example.util.StringDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which employees have payroll and deduction rows in which months, as one
+ * pair of {@link IntBitmap}s per month over {@link StringDictionary#EMPLOYEE_IDS}
+ * ids. Snapshots consult it before querying, so questions about months
+ * with no rows yet (the open month, a new hire's first months) are answered
+ * without a database round trip.
+ * <p>
+ * The first refresh reads the employee and pay period of every row from
+ * the unique keys. Later refreshes add the rows of each table with an
+ * auto-increment id above the highest the previous refresh read, whatever
+ * their load_date, so backfills and deduction-only loads are seen; ingestion
+ * adds its rows as it writes them. A row inserted with an explicit id, or
+ * whose insert commits after a refresh has read a higher id, is only seen
+ * by the next full rescan, which runs every rescan interval. So a row loaded
+ * outside the ingestion endpoints is in the index after at most one
+ * refresh, or one rescan interval in those cases; a question in between can
+ * be told there is no data. Rows are only ever added, so a row deleted
+ * outside the service costs one query that finds nothing.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PayrollExistenceIndex implements PayrollChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollExistenceIndex.class);
+
+    private record MonthRows(IntBitmap payroll, IntBitmap deductions) {
+    }
+
+    public record Stats(boolean serving, int months, long payrollEntries, long deductionEntries, long approxBytes) {
+    }
+
+    private final PayrollRepository payrollRepository;
+    private final DeductionRepository deductionRepository;
+    private final boolean enabled;
+    private final int fetchSize;
+    private final long rescanIntervalNanos;
+
+    private final Map<YearMonth, MonthRows> months = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Highest payroll and deduction ids already in the index, and when every row was last read
+    private long payrollWatermark;
+    private long deductionWatermark;
+    private long lastRescan;
+
+    @Autowired
+    public PayrollExistenceIndex(PayrollRepository payrollRepository, DeductionRepository deductionRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payroll.existence-index.enabled:false}") boolean enabled,
+                                 @Value("${payroll.bulk.fetch-size:5000}") int fetchSize,
+                                 @Value("${payroll.existence-index.rescan-interval-ms:3600000}") long rescanIntervalMs) {
+        this.payrollRepository = payrollRepository;
+        this.deductionRepository = deductionRepository;
+        this.enabled = enabled;
+        this.fetchSize = fetchSize;
+        this.rescanIntervalNanos = rescanIntervalMs * 1_000_000;
+        Gauge.builder("payroll.existence-index.bytes", this, PayrollExistenceIndex::approxBytes)
+                .description("Approximate bytes held by the payroll existence index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * True once the first refresh has finished; until then every month may
+     * have rows.
+     */
+    public boolean isServing() {
+        return enabled && ready;
+    }
+
+    /**
+     * False only when the index is serving and has no payroll row for the
+     * employee in the month.
+     */
+    public boolean mayHavePayroll(String employeeId, YearMonth month) {
+        return mayHave(employeeId, month, false);
+    }
+
+    public boolean mayHaveDeductions(String employeeId, YearMonth month) {
+        return mayHave(employeeId, month, true);
+    }
+
+    /**
+     * The employees that may have payroll in at least one of the months.
+     */
+    public Collection<String> withPayroll(Collection<String> employeeIds, Collection<YearMonth> months) {
+        return filter(employeeIds, months, false);
+    }
+
+    public Collection<String> withDeductions(Collection<String> employeeIds, Collection<YearMonth> months) {
+        return filter(employeeIds, months, true);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${payroll.existence-index.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            logger.warn("Existence index refresh failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Adds every row on the first run and once per rescan interval, and the
+     * rows inserted since the previous run otherwise.
+     *
+     * @return the number of employee-months read
+     */
+    public synchronized int refresh() {
+        long started = System.nanoTime();
+        boolean rescan = !ready || started - lastRescan >= rescanIntervalNanos;
+        Map<YearMonth, BitSet> payroll = new HashMap<>();
+        Map<YearMonth, BitSet> deductions = new HashMap<>();
+        int[] read = {0};
+        // Read first, so rows inserted while this runs are above them and read by the next refresh
+        long payrollMax = payrollRepository.findMaxId();
+        long deductionMax = deductionRepository.findMaxId();
+        if (rescan) {
+            payrollRepository.streamEmployeePeriods(fetchSize, (employeeId, periodEnd) -> {
+                mark(payroll, employeeId, periodEnd);
+                read[0]++;
+            });
+            deductionRepository.streamEmployeePeriods(fetchSize, (employeeId, periodEnd) -> {
+                mark(deductions, employeeId, periodEnd);
+                read[0]++;
+            });
+        } else {
+            if (payrollMax > payrollWatermark) {
+                payrollRepository.streamEmployeePeriods(payrollWatermark, payrollMax, fetchSize, (employeeId, periodEnd) -> {
+                    mark(payroll, employeeId, periodEnd);
+                    read[0]++;
+                });
+            }
+            if (deductionMax > deductionWatermark) {
+                deductionRepository.streamEmployeePeriods(deductionWatermark, deductionMax, fetchSize, (employeeId, periodEnd) -> {
+                    mark(deductions, employeeId, periodEnd);
+                    read[0]++;
+                });
+            }
+        }
+        add(payroll, deductions);
+        boolean first = !ready;
+        // The maximum can fall when rows are deleted; ids are never handed out twice, so keep the higher one
+        payrollWatermark = Math.max(payrollWatermark, payrollMax);
+        deductionWatermark = Math.max(deductionWatermark, deductionMax);
+        if (rescan) {
+            lastRescan = started;
+        }
+        ready = true;
+        if (first || read[0] > 0) {
+            logger.info("Existence index {} read {} employee-months in {} ms; it covers {} months in ~{} bytes",
+                    rescan ? "rescan" : "refresh", read[0], (System.nanoTime() - started) / 1_000_000,
+                    months.size(), approxBytes());
+        }
+        return read[0];
+    }
+
+    @Override
+    public void payrollChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        if (enabled) {
+            add(bits(monthsByEmployee), Map.of());
+        }
+    }
+
+    @Override
+    public void deductionsChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        if (enabled) {
+            add(Map.of(), bits(monthsByEmployee));
+        }
+    }
+
+    public Stats getStats() {
+        long payrollEntries = 0;
+        long deductionEntries = 0;
+        for (MonthRows rows : months.values()) {
+            payrollEntries += rows.payroll().cardinality();
+            deductionEntries += rows.deductions().cardinality();
+        }
+        return new Stats(isServing(), months.size(), payrollEntries, deductionEntries, approxBytes());
+    }
+
+    /**
+     * The month bitmaps; the employee dictionary they index into is shared
+     * and reported by the stores that fill it.
+     */
+    public long approxBytes() {
+        long bytes = 0;
+        for (MonthRows rows : months.values()) {
+            bytes += 64 + rows.payroll().approxBytes() + rows.deductions().approxBytes();
+        }
+        return bytes;
+    }
+
+    private boolean mayHave(String employeeId, YearMonth month, boolean deductions) {
+        if (!isServing()) {
+            return true;
+        }
+        int employee = StringDictionary.EMPLOYEE_IDS.find(employeeId);
+        MonthRows rows = months.get(month);
+        return employee >= 0 && rows != null
+                && (deductions ? rows.deductions() : rows.payroll()).contains(employee);
+    }
+
+    private Collection<String> filter(Collection<String> employeeIds, Collection<YearMonth> months, boolean deductions) {
+        if (!isServing()) {
+            return employeeIds;
+        }
+        List<String> present = new ArrayList<>();
+        for (String employeeId : employeeIds) {
+            for (YearMonth month : months) {
+                if (mayHave(employeeId, month, deductions)) {
+                    present.add(employeeId);
+                    break;
+                }
+            }
+        }
+        return present;
+    }
+
+    // Serialized on the map rather than this, so ingestion is not held up by a running refresh
+    private void add(Map<YearMonth, BitSet> payroll, Map<YearMonth, BitSet> deductions) {
+        synchronized (months) {
+            addTo(payroll, deductions);
+        }
+    }
+
+    private void addTo(Map<YearMonth, BitSet> payroll, Map<YearMonth, BitSet> deductions) {
+        for (Map.Entry<YearMonth, BitSet> entry : payroll.entrySet()) {
+            MonthRows rows = months.getOrDefault(entry.getKey(), new MonthRows(IntBitmap.EMPTY, IntBitmap.EMPTY));
+            months.put(entry.getKey(), new MonthRows(rows.payroll().or(entry.getValue()), rows.deductions()));
+        }
+        for (Map.Entry<YearMonth, BitSet> entry : deductions.entrySet()) {
+            MonthRows rows = months.getOrDefault(entry.getKey(), new MonthRows(IntBitmap.EMPTY, IntBitmap.EMPTY));
+            months.put(entry.getKey(), new MonthRows(rows.payroll(), rows.deductions().or(entry.getValue())));
+        }
+    }
+
+    private static void mark(Map<YearMonth, BitSet> bits, String employeeId, LocalDate periodEnd) {
+        bits.computeIfAbsent(YearMonth.from(periodEnd), month -> new BitSet())
+                .set(StringDictionary.EMPLOYEE_IDS.id(employeeId));
+    }
+
+    private static Map<YearMonth, BitSet> bits(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        Map<YearMonth, BitSet> bits = new HashMap<>();
+        for (Map.Entry<String, ? extends Collection<YearMonth>> entry : monthsByEmployee.entrySet()) {
+            int employee = StringDictionary.EMPLOYEE_IDS.id(entry.getKey());
+            for (YearMonth month : entry.getValue()) {
+                bits.computeIfAbsent(month, m -> new BitSet()).set(employee);
+            }
+        }
+        return bits;
+    }
+}
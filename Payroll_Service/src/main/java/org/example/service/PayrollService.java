@@ -1,15 +1,20 @@
 package org.example.service;
 
 import org.example.model.DeductionBreakdown;
+import org.example.model.EmployeeMonth;
+import org.example.model.Money;
 import org.example.model.PayChange;
+import org.example.model.PayTrend;
 import org.example.model.PayrollTransaction;
 import org.example.model.Payslip;
 import org.example.repository.DeductionRepository;
+import org.example.repository.EmployeeMonthViewRepository;
 import org.example.repository.PayrollRepository;
+import org.example.util.IntObjectMap;
+import org.example.util.StringDictionary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.YearMonth;
 import java.util.*;
 
@@ -18,11 +23,19 @@ public class PayrollService {
 
     private final PayrollRepository payrollRepository;
     private final DeductionRepository deductionRepository;
+    private final EmployeeMonthViewRepository monthView;
+    private final YtdLedgerService ytdLedger;
+    private final PayrollExistenceIndex existence;
 
     @Autowired
-    public PayrollService(PayrollRepository payrollRepository, DeductionRepository deductionRepository) {
+    public PayrollService(PayrollRepository payrollRepository, DeductionRepository deductionRepository,
+                          EmployeeMonthViewRepository monthView, YtdLedgerService ytdLedger,
+                          PayrollExistenceIndex existence) {
         this.payrollRepository = payrollRepository;
         this.deductionRepository = deductionRepository;
+        this.monthView = monthView;
+        this.ytdLedger = ytdLedger;
+        this.existence = existence;
     }
 
     public PayrollRepository getPayrollRepository() {
@@ -37,48 +50,151 @@ public class PayrollService {
         return payrollRepository.findLatestPayrollByEmployeeId(employeeId);
     }
 
+    public EmployeePeriodSnapshot loadSnapshot(String employeeId, YearMonth... months) {
+        return loadSnapshot(employeeId, (EmployeePeriodSnapshot) null, months);
+    }
+
+    /**
+     * Like {@link #loadSnapshot(String, YearMonth...)}, but any month an earlier
+     * snapshot for the same employee covered is served from its rows.
+     */
+    public EmployeePeriodSnapshot loadSnapshot(String employeeId, EmployeePeriodSnapshot previous, YearMonth... months) {
+        if (previous != null && !previous.getEmployeeId().equals(employeeId)) {
+            previous = null;
+        }
+        return new EmployeePeriodSnapshot(employeeId, new LinkedHashSet<>(Arrays.asList(months)),
+                payrollRepository, deductionRepository, previous, monthView.isServing() ? monthView : null,
+                existence.isServing() ? existence : null);
+    }
+
+    public Map<String, EmployeePeriodSnapshot> loadSnapshots(Collection<String> employeeIds, Collection<YearMonth> months) {
+        Set<YearMonth> monthSet = new LinkedHashSet<>(months);
+        Map<String, Map<YearMonth, PayrollTransaction>> payrollByEmployee;
+        Map<String, Map<YearMonth, List<DeductionBreakdown>>> deductionsByEmployee;
+        // Employees the existence index knows have no rows in these months are left out of the queries
+        Collection<String> withPayroll = existence.withPayroll(employeeIds, monthSet);
+        Collection<String> withDeductions = existence.withDeductions(employeeIds, monthSet);
+        if (monthView.isServing()) {
+            // One read model query per chunk fills both tables
+            payrollByEmployee = new HashMap<>();
+            deductionsByEmployee = new HashMap<>();
+            Set<String> withRows = new LinkedHashSet<>(withPayroll);
+            withRows.addAll(withDeductions);
+            for (Map<YearMonth, EmployeeMonth> rows : monthView.findByEmployeeIdsAndMonths(withRows, monthSet).values()) {
+                for (EmployeeMonth row : rows.values()) {
+                    if (row.getPayroll() != null) {
+                        payrollByEmployee.computeIfAbsent(row.getEmployeeId(), id -> new HashMap<>())
+                                .put(row.getMonth(), row.getPayroll());
+                    }
+                    if (!row.getDeductions().isEmpty()) {
+                        deductionsByEmployee.computeIfAbsent(row.getEmployeeId(), id -> new HashMap<>())
+                                .put(row.getMonth(), row.getDeductions());
+                    }
+                }
+            }
+        } else {
+            payrollByEmployee = payrollRepository.findPayrollByEmployeeIdsAndMonths(withPayroll, monthSet);
+            deductionsByEmployee = deductionRepository.findByEmployeeIdsAndMonths(withDeductions, monthSet);
+        }
+
+        Map<String, EmployeePeriodSnapshot> snapshots = new HashMap<>();
+        for (String employeeId : employeeIds) {
+            snapshots.put(employeeId, new EmployeePeriodSnapshot(employeeId, monthSet,
+                    payrollByEmployee.getOrDefault(employeeId, Collections.emptyMap()),
+                    deductionsByEmployee.getOrDefault(employeeId, Collections.emptyMap())));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Like {@link #loadSnapshots}, but always read from payroll_transactions and
+     * deduction_breakdown, for rebuilding derived tables that must not lag
+     * behind the read model.
+     */
+    public Map<String, EmployeePeriodSnapshot> loadSourceSnapshots(Collection<String> employeeIds, Collection<YearMonth> months) {
+        TreeSet<YearMonth> monthSet = new TreeSet<>(months);
+        if (monthSet.isEmpty()) {
+            return new HashMap<>();
+        }
+        YearMonth first = monthSet.first();
+        YearMonth last = monthSet.last();
+
+        Map<String, Map<YearMonth, PayrollTransaction>> payrollByEmployee = new HashMap<>();
+        payrollRepository.streamByEmployeeIdsAndPayPeriod(employeeIds, first.atDay(1), last.atEndOfMonth(), payroll -> {
+            YearMonth month = YearMonth.from(payroll.getPayPeriodEnd());
+            if (monthSet.contains(month)) {
+                // Keep the latest pay period of the month, as the month lookups do
+                payrollByEmployee.computeIfAbsent(payroll.getEmployeeId(), id -> new HashMap<>())
+                        .merge(month, payroll, (kept, row) -> row.getPayPeriodEnd().isAfter(kept.getPayPeriodEnd()) ? row : kept);
+            }
+        });
+        Map<String, Map<YearMonth, List<DeductionBreakdown>>> deductionsByEmployee = new HashMap<>();
+        deductionRepository.streamByEmployeeIdsAndPayPeriod(employeeIds, first.atDay(1), last.atEndOfMonth(), deduction -> {
+            YearMonth month = YearMonth.from(deduction.getPayPeriodEnd());
+            if (monthSet.contains(month)) {
+                deductionsByEmployee.computeIfAbsent(deduction.getEmployeeId(), id -> new HashMap<>())
+                        .computeIfAbsent(month, m -> new ArrayList<>())
+                        .add(deduction);
+            }
+        });
+
+        Map<String, EmployeePeriodSnapshot> snapshots = new HashMap<>();
+        for (String employeeId : employeeIds) {
+            snapshots.put(employeeId, new EmployeePeriodSnapshot(employeeId, monthSet,
+                    payrollByEmployee.getOrDefault(employeeId, Collections.emptyMap()),
+                    deductionsByEmployee.getOrDefault(employeeId, Collections.emptyMap())));
+        }
+        return snapshots;
+    }
+
     public PayChange analyzePayChangeBetweenMonths(String employeeId, YearMonth currentMonth, YearMonth previousMonth) {
-        PayrollTransaction currentPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, currentMonth);
-        PayrollTransaction previousPayroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, previousMonth);
+        return analyzePayChangeBetweenMonths(loadSnapshot(employeeId, currentMonth, previousMonth), currentMonth, previousMonth);
+    }
+
+    public PayChange analyzePayChangeBetweenMonths(EmployeePeriodSnapshot snapshot, YearMonth currentMonth, YearMonth previousMonth) {
+        PayrollTransaction currentPayroll = snapshot.getPayroll(currentMonth);
+        PayrollTransaction previousPayroll = snapshot.getPayroll(previousMonth);
 
         if (currentPayroll == null || previousPayroll == null) {
             return null;
         }
 
+        return computePayChange(currentMonth, previousMonth, currentPayroll, previousPayroll,
+                snapshot.getDeductions(currentMonth), snapshot.getDeductions(previousMonth));
+    }
+
+    static PayChange computePayChange(YearMonth currentMonth, YearMonth previousMonth,
+                                      PayrollTransaction currentPayroll, PayrollTransaction previousPayroll,
+                                      List<DeductionBreakdown> currentDeductions, List<DeductionBreakdown> previousDeductions) {
         PayChange payChange = new PayChange(currentMonth, previousMonth);
 
         // Calculate changes in pay components
-        payChange.setNetPayChange(currentPayroll.getNetPay().subtract(previousPayroll.getNetPay()));
-        payChange.setBasePayChange(currentPayroll.getBaseSalary().subtract(previousPayroll.getBaseSalary()));
-        payChange.setBonusChange(currentPayroll.getBonus().subtract(previousPayroll.getBonus()));
-        payChange.setOvertimeChange(currentPayroll.getOvertime().subtract(previousPayroll.getOvertime()));
-        payChange.setTaxChange(currentPayroll.getTaxWithheld().subtract(previousPayroll.getTaxWithheld()));
-        payChange.setTotalDeductionsChange(currentPayroll.getTotalDeductions().subtract(previousPayroll.getTotalDeductions()));
+        payChange.setNetPayChange(currentPayroll.getNetPay().minus(previousPayroll.getNetPay()));
+        payChange.setBasePayChange(currentPayroll.getBaseSalary().minus(previousPayroll.getBaseSalary()));
+        payChange.setBonusChange(currentPayroll.getBonus().minus(previousPayroll.getBonus()));
+        payChange.setOvertimeChange(currentPayroll.getOvertime().minus(previousPayroll.getOvertime()));
+        payChange.setTaxChange(currentPayroll.getTaxWithheld().minus(previousPayroll.getTaxWithheld()));
+        payChange.setTotalDeductionsChange(currentPayroll.getTotalDeductions().minus(previousPayroll.getTotalDeductions()));
 
         // Analyze deduction changes
-        List<DeductionBreakdown> currentDeductions = deductionRepository.findByEmployeeIdAndMonth(employeeId, currentMonth);
-        List<DeductionBreakdown> previousDeductions = deductionRepository.findByEmployeeIdAndMonth(employeeId, previousMonth);
-
-        Map<String, BigDecimal> currentDeductionMap = mapDeductionsByType(currentDeductions);
-        Map<String, BigDecimal> previousDeductionMap = mapDeductionsByType(previousDeductions);
+        IntObjectMap<DeductionBreakdown> currentDeductionMap = mapDeductionsByType(currentDeductions);
+        IntObjectMap<DeductionBreakdown> previousDeductionMap = mapDeductionsByType(previousDeductions);
 
-        // Calculate changes for each deduction type
-        Map<String, BigDecimal> deductionChanges = new HashMap<>();
-
-        // Merge all deduction types
-        Set<String> allDeductionTypes = new HashSet<>();
-        allDeductionTypes.addAll(currentDeductionMap.keySet());
-        allDeductionTypes.addAll(previousDeductionMap.keySet());
-
-        for (String deductionType : allDeductionTypes) {
-            BigDecimal currentAmount = currentDeductionMap.getOrDefault(deductionType, BigDecimal.ZERO);
-            BigDecimal previousAmount = previousDeductionMap.getOrDefault(deductionType, BigDecimal.ZERO);
-            BigDecimal change = currentAmount.subtract(previousAmount);
-
-            if (change.compareTo(BigDecimal.ZERO) != 0) {
-                deductionChanges.put(deductionType, change);
+        // Calculate changes for each deduction type, then for types only the previous month had,
+        // keyed by the type as the latest row spells it
+        Map<String, Money> deductionChanges = new HashMap<>();
+        currentDeductionMap.forEach((deduction, type) -> {
+            DeductionBreakdown previous = previousDeductionMap.get(type);
+            Money change = deduction.getAmount().minus(previous == null ? Money.ZERO : previous.getAmount());
+            if (!change.isZero()) {
+                deductionChanges.put(deduction.getDeductionType(), change);
             }
-        }
+        });
+        previousDeductionMap.forEach((deduction, type) -> {
+            if (!currentDeductionMap.containsKey(type) && !deduction.getAmount().isZero()) {
+                deductionChanges.put(deduction.getDeductionType(), deduction.getAmount().negate());
+            }
+        });
 
         // Set the entire map of deduction changes at once
         payChange.setDeductionChanges(deductionChanges);
@@ -86,18 +202,70 @@ public class PayrollService {
         return payChange;
     }
 
-    public Payslip generatePayslip(String employeeId, YearMonth yearMonth) {
-        // Fetch payroll transaction for the specified month
-        PayrollTransaction payroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, yearMonth);
-        if (payroll == null) {
-            return null;
+    /**
+     * Follows one metric month by month across [fromMonth, toMonth] with a single
+     * ordered range query. Months with several rows use the latest pay period,
+     * as the single-month lookups do; months without data are skipped.
+     */
+    public PayTrend analyzeTrend(String employeeId, YearMonth fromMonth, YearMonth toMonth, TrendMetric metric) {
+        PayTrend trend = new PayTrend(employeeId, metric.getLabel(), fromMonth, toMonth);
+
+        if (metric.isDeduction()) {
+            // First healthcare row of each month, matching explainHealthInsuranceChange
+            YearMonth[] lastMonth = new YearMonth[1];
+            deductionRepository.streamByEmployeeIdAndMonthRange(employeeId, fromMonth, toMonth, deduction -> {
+                YearMonth month = YearMonth.from(deduction.getPayPeriodEnd());
+                if (!month.equals(lastMonth[0]) && StringDictionary.DEDUCTION_TYPES.id(deduction.getDeductionType()) == StringDictionary.HEALTHCARE) {
+                    lastMonth[0] = month;
+                    addTrendPoint(trend, month, deduction.getAmount());
+                }
+            });
+            return trend;
+        }
+
+        // Rows arrive oldest first, so a month's row is only final once the next month starts
+        PayrollTransaction[] pending = new PayrollTransaction[1];
+        payrollRepository.streamByEmployeeIdAndMonthRange(employeeId, fromMonth, toMonth, payroll -> {
+            if (pending[0] != null && !YearMonth.from(pending[0].getPayPeriodEnd()).equals(YearMonth.from(payroll.getPayPeriodEnd()))) {
+                addTrendPoint(trend, YearMonth.from(pending[0].getPayPeriodEnd()), metric.valueOf(pending[0]));
+            }
+            pending[0] = payroll;
+        });
+        if (pending[0] != null) {
+            addTrendPoint(trend, YearMonth.from(pending[0].getPayPeriodEnd()), metric.valueOf(pending[0]));
         }
+        return trend;
+    }
 
-        // Fetch deductions for the specified month
-        List<DeductionBreakdown> deductions = deductionRepository.findByEmployeeIdAndMonth(employeeId, yearMonth);
+    public Payslip generatePayslip(String employeeId, YearMonth yearMonth) {
+        PayrollTransaction payroll;
+        List<DeductionBreakdown> deductions;
+        Money[] ytdEarnings;
+        if (monthView.isServing()) {
+            // The read model row holds the payroll, its deductions and the YTD totals
+            EmployeeMonth row = monthView.findByEmployeeIdAndMonth(employeeId, yearMonth);
+            if (row == null || row.getPayroll() == null) {
+                return null;
+            }
+            payroll = row.getPayroll();
+            deductions = row.getDeductions();
+            ytdEarnings = new Money[] { row.getYearToDateGrossPay(), row.getYearToDateNetPay() };
+        } else {
+            // Fetch payroll transaction for the specified month
+            payroll = payrollRepository.findPayrollByEmployeeIdAndMonth(employeeId, yearMonth);
+            if (payroll == null) {
+                return null;
+            }
 
-        // Calculate YTD earnings
-        BigDecimal[] ytdEarnings = payrollRepository.getYearToDateEarnings(employeeId, yearMonth.getYear(), yearMonth);
+            // Fetch deductions for the specified month
+            deductions = deductionRepository.findByEmployeeIdAndMonth(employeeId, yearMonth);
+
+            // YTD earnings from the ledger, summed from the year's rows when it has not caught up
+            ytdEarnings = ytdLedger.find(payroll);
+            if (ytdEarnings == null) {
+                ytdEarnings = payrollRepository.getYearToDateEarnings(employeeId, yearMonth.getYear(), yearMonth);
+            }
+        }
 
         // Create payslip
         Payslip payslip = new Payslip();
@@ -119,10 +287,28 @@ public class PayrollService {
         return payslip;
     }
 
-    private Map<String, BigDecimal> mapDeductionsByType(List<DeductionBreakdown> deductions) {
-        Map<String, BigDecimal> deductionMap = new HashMap<>();
+    private void addTrendPoint(PayTrend trend, YearMonth month, Money value) {
+        List<PayTrend.Point> points = trend.getPoints();
+        Money delta = null;
+        if (!points.isEmpty()) {
+            delta = value.minus(points.get(points.size() - 1).getValue());
+            trend.setCumulativeChange(trend.getCumulativeChange().plus(delta));
+        }
+        PayTrend.Point point = new PayTrend.Point(month, value, delta);
+        points.add(point);
+
+        if (trend.getMinimum() == null || value.compareTo(trend.getMinimum().getValue()) < 0) {
+            trend.setMinimum(point);
+        }
+        if (trend.getMaximum() == null || value.compareTo(trend.getMaximum().getValue()) > 0) {
+            trend.setMaximum(point);
+        }
+    }
+
+    private static IntObjectMap<DeductionBreakdown> mapDeductionsByType(List<DeductionBreakdown> deductions) {
+        IntObjectMap<DeductionBreakdown> deductionMap = new IntObjectMap<>(deductions.size());
         for (DeductionBreakdown deduction : deductions) {
-            deductionMap.put(deduction.getDeductionType(), deduction.getAmount());
+            deductionMap.put(StringDictionary.DEDUCTION_TYPES.id(deduction.getDeductionType()), deduction);
         }
         return deductionMap;
     }
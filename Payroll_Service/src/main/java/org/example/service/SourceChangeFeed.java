@@ -0,0 +1,165 @@
+package org.example.service;
+
+import org.example.model.RefreshWatermark;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.example.repository.RefreshWatermarkRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * The employee-months whose payroll or deduction rows a derived table's
+ * scheduled refresh has not read yet.
+ * <p>
+ * A row is read when its auto-increment id is above the highest the last
+ * read saw, whatever its load_date, so backfills of old months and
+ * deduction-only loads are seen; a payroll row is also read when its
+ * load_date is later than any read before, which catches rows corrected in
+ * place. An insert that commits after a read has passed a higher id is
+ * read by the next rescan, which once per rescan interval re-reads every id
+ * handed out since just before the previous rescan. Only an insert that
+ * stays uncommitted for longer than a refresh interval across a rescan, or
+ * one given an explicit id below those read, is never seen.
+ * <p>
+ * Not thread-safe; each refresh owns its feed and calls {@link #read} and
+ * {@link #advance} under its own lock.
+ */
+final class SourceChangeFeed {
+
+    static final LocalDateTime BEFORE_ANY_LOAD = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * What a read found, and the position to {@link #advance} to once the
+     * caller has written everything derived from it.
+     */
+    record Changes(Map<String, Set<YearMonth>> monthsByEmployee, RefreshWatermark next, boolean rescan) {
+
+        boolean isEmpty() {
+            return monthsByEmployee.isEmpty();
+        }
+    }
+
+    private final String name;
+    private final PayrollRepository payrollRepository;
+    private final DeductionRepository deductionRepository;
+    private final RefreshWatermarkRepository watermarks;
+    private final int fetchSize;
+    private final long rescanIntervalNanos;
+
+    // Null until the first read or start; the next read goes on from it
+    private RefreshWatermark position;
+    // Where the next rescan reads from: the position just before the previous one
+    private RefreshWatermark rescanFrom;
+    private long lastRescan;
+
+    /**
+     * @param deductionRepository null when the derived table is built from payroll alone
+     * @param watermarks          null to keep the position in memory only
+     */
+    SourceChangeFeed(String name, PayrollRepository payrollRepository, DeductionRepository deductionRepository,
+                     RefreshWatermarkRepository watermarks, int fetchSize, long rescanIntervalMs) {
+        this.name = name;
+        this.payrollRepository = payrollRepository;
+        this.deductionRepository = deductionRepository;
+        this.watermarks = watermarks;
+        this.fetchSize = fetchSize;
+        this.rescanIntervalNanos = rescanIntervalMs * 1_000_000;
+    }
+
+    boolean isStarted() {
+        return position != null;
+    }
+
+    /**
+     * The highest ids of both tables, with no load_date read yet. Read them
+     * before loading every row, then {@link #start} from them with the
+     * latest load_date loaded.
+     */
+    RefreshWatermark maxIds() {
+        return new RefreshWatermark(name, payrollRepository.findMaxId(),
+                deductionRepository == null ? 0 : deductionRepository.findMaxId(), BEFORE_ANY_LOAD);
+    }
+
+    /**
+     * Goes on from a position the caller has already read everything up to.
+     */
+    void start(RefreshWatermark watermark) {
+        position = watermark;
+        rescanFrom = watermark;
+        lastRescan = System.nanoTime();
+    }
+
+    /**
+     * The employee-months changed since the last position. On the first read
+     * the position is the saved one; without one, {@code derivedThrough}
+     * gives the latest load_date the derived table already holds, and rows
+     * loaded before it are taken as read. When it is null too, every row is
+     * read.
+     */
+    Changes read(Supplier<LocalDateTime> derivedThrough) {
+        long started = System.nanoTime();
+        // Read first, so rows inserted while this runs are above them and read next time
+        RefreshWatermark max = maxIds();
+        if (position == null) {
+            RefreshWatermark saved = watermarks == null ? null : watermarks.findByName(name);
+            if (saved == null) {
+                LocalDateTime through = derivedThrough.get();
+                // With nothing derived, the load_date read covers every payroll row and the id read every deduction
+                saved = through == null
+                        ? new RefreshWatermark(name, max.getPayrollId(), 0, BEFORE_ANY_LOAD)
+                        : new RefreshWatermark(name, max.getPayrollId(), max.getDeductionId(), through);
+            }
+            start(saved);
+        }
+        boolean rescan = started - lastRescan >= rescanIntervalNanos;
+        RefreshWatermark from = rescan ? rescanFrom : position;
+
+        Map<String, Set<YearMonth>> monthsByEmployee = new HashMap<>();
+        LocalDateTime[] latest = {position.getLoadDate()};
+        if (max.getPayrollId() > from.getPayrollId()) {
+            payrollRepository.streamEmployeePeriods(from.getPayrollId(), max.getPayrollId(), fetchSize,
+                    (employeeId, periodEnd) -> add(monthsByEmployee, employeeId, periodEnd));
+        }
+        if (deductionRepository != null && max.getDeductionId() > from.getDeductionId()) {
+            deductionRepository.streamEmployeePeriods(from.getDeductionId(), max.getDeductionId(), fetchSize,
+                    (employeeId, periodEnd) -> add(monthsByEmployee, employeeId, periodEnd));
+        }
+        payrollRepository.streamLoadedSince(position.getLoadDate(), fetchSize, payroll -> {
+            add(monthsByEmployee, payroll.getEmployeeId(), payroll.getPayPeriodEnd());
+            if (payroll.getLoadDate().isAfter(latest[0])) {
+                latest[0] = payroll.getLoadDate();
+            }
+        });
+
+        // The maximum can fall when rows are deleted; ids are never handed out twice, so keep the higher one
+        RefreshWatermark next = new RefreshWatermark(name, Math.max(position.getPayrollId(), max.getPayrollId()),
+                Math.max(position.getDeductionId(), max.getDeductionId()), latest[0]);
+        return new Changes(monthsByEmployee, next, rescan);
+    }
+
+    /**
+     * Moves past what {@code changes} read and saves the new position. A
+     * failed refresh skips this, so its changes are read again.
+     */
+    void advance(Changes changes) {
+        if (changes.rescan()) {
+            rescanFrom = position;
+            lastRescan = System.nanoTime();
+        }
+        position = changes.next();
+        if (watermarks != null) {
+            watermarks.save(position);
+        }
+    }
+
+    private static void add(Map<String, Set<YearMonth>> monthsByEmployee, String employeeId, LocalDate periodEnd) {
+        monthsByEmployee.computeIfAbsent(employeeId, id -> new TreeSet<>()).add(YearMonth.from(periodEnd));
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.model.PayrollTransaction;
+
+import java.util.function.Function;
+
+/**
+ * Values a trend can follow. Most come straight off the payroll row;
+ * HEALTHCARE is read from the deduction breakdown instead.
+ */
+public enum TrendMetric {
+    NET_PAY("NetPay", "net pay", PayrollTransaction::getNetPay),
+    GROSS_PAY("GrossPay", "gross pay", PayrollTransaction::getGrossPay),
+    BASE_SALARY("Salary", "base salary", PayrollTransaction::getBaseSalary),
+    BONUS("Bonus", "bonus", PayrollTransaction::getBonus),
+    OVERTIME("Overtime", "overtime pay", PayrollTransaction::getOvertime),
+    TAX("Tax", "tax withheld", PayrollTransaction::getTaxWithheld),
+    TOTAL_DEDUCTIONS("Deduction", "total deductions", PayrollTransaction::getTotalDeductions),
+    HEALTHCARE("Deduction", "healthcare deduction", null);
+
+    private final String reasonType;
+    private final String label;
+    private final Function<PayrollTransaction, Money> payrollValue;
+
+    TrendMetric(String reasonType, String label, Function<PayrollTransaction, Money> payrollValue) {
+        this.reasonType = reasonType;
+        this.label = label;
+        this.payrollValue = payrollValue;
+    }
+
+    public String getReasonType() {
+        return reasonType;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isDeduction() {
+        return payrollValue == null;
+    }
+
+    Money valueOf(PayrollTransaction payroll) {
+        return payrollValue.apply(payroll);
+    }
+}
@@ -0,0 +1,206 @@
+package org.example.service;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.PayChange;
+import org.example.model.PayrollTransaction;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Computes {@link PayChange} for every employee with payroll in both months,
+ * for review at month close. Payroll and deduction rows for the two months are
+ * read as two cursors ordered by employee_id and merge-joined in one pass:
+ * payroll rows are pushed through a row callback while the deduction cursor is
+ * pulled forward to the same employee. Only one employee's rows are held at a
+ * time and each change goes straight to the sink, so heap use stays flat
+ * however large the workforce is.
+ * <p>
+ * Both cursors order employee ids by their bytes, which is their code point
+ * order, and the join compares them the same way. An id arriving out of that
+ * order fails the run rather than silently dropping the employee's deductions.
+ */
+@Service
+public class WorkforcePayChangeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkforcePayChangeService.class);
+
+    private final PayrollRepository payrollRepository;
+    private final DeductionRepository deductionRepository;
+    private final int fetchSize;
+
+    @Autowired
+    public WorkforcePayChangeService(PayrollRepository payrollRepository, DeductionRepository deductionRepository,
+                                     @Value("${payroll.bulk.fetch-size:5000}") int fetchSize) {
+        this.payrollRepository = payrollRepository;
+        this.deductionRepository = deductionRepository;
+        this.fetchSize = fetchSize;
+    }
+
+    public Summary analyzePayChanges(YearMonth currentMonth, YearMonth previousMonth, PayChangeSink sink) throws IOException {
+        long started = System.nanoTime();
+        List<YearMonth> months = List.of(currentMonth, previousMonth);
+
+        MergeJoin join;
+        try (Stream<DeductionBreakdown> deductions = deductionRepository.streamByMonthsOrderedByEmployee(months, fetchSize)) {
+            join = new MergeJoin(currentMonth, previousMonth, deductions.iterator(), sink);
+            payrollRepository.streamByMonthsOrderedByEmployee(months, fetchSize, join::accept);
+            join.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        sink.flush();
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        Summary summary = new Summary(join.employees, join.changes, join.payrollRows, join.deductionRows, elapsedMillis);
+        logger.info("Computed {} pay changes {} vs {} for {} employees from {} payroll and {} deduction rows in {} ms ({} employees/s)",
+                summary.changes(), currentMonth, previousMonth, summary.employees(), summary.payrollRows(),
+                summary.deductionRows(), elapsedMillis, elapsedMillis == 0 ? summary.employees() : summary.employees() * 1000 / elapsedMillis);
+        return summary;
+    }
+
+    /**
+     * Employees seen with payroll in either month, changes written (employees
+     * with payroll in both), and rows read from each table.
+     */
+    public record Summary(long employees, long changes, long payrollRows, long deductionRows, long elapsedMillis) {
+    }
+
+    private static final class MergeJoin {
+        private final YearMonth currentMonth;
+        private final YearMonth previousMonth;
+        private final Iterator<DeductionBreakdown> deductions;
+        private final PayChangeSink sink;
+
+        // Rows of the employee being read; reused for every employee
+        private String employeeId;
+        private PayrollTransaction currentPayroll;
+        private PayrollTransaction previousPayroll;
+        private final List<DeductionBreakdown> currentDeductions = new ArrayList<>();
+        private final List<DeductionBreakdown> previousDeductions = new ArrayList<>();
+        private DeductionBreakdown nextDeduction;
+        private String lastEmployeeId;
+        private String lastDeductionId;
+
+        private long employees;
+        private long changes;
+        private long payrollRows;
+        private long deductionRows;
+
+        MergeJoin(YearMonth currentMonth, YearMonth previousMonth, Iterator<DeductionBreakdown> deductions, PayChangeSink sink) {
+            this.currentMonth = currentMonth;
+            this.previousMonth = previousMonth;
+            this.deductions = deductions;
+            this.sink = sink;
+        }
+
+        void accept(PayrollTransaction payroll) {
+            payrollRows++;
+            if (!payroll.getEmployeeId().equals(employeeId)) {
+                if (lastEmployeeId != null && compareIds(payroll.getEmployeeId(), lastEmployeeId) <= 0) {
+                    throw outOfOrder("payroll", payroll.getEmployeeId(), lastEmployeeId);
+                }
+                flush();
+                employeeId = payroll.getEmployeeId();
+                lastEmployeeId = employeeId;
+            }
+            // Newest pay period first, so the first row of a month is the one the single-employee lookup picks
+            YearMonth month = YearMonth.from(payroll.getPayPeriodEnd());
+            if (currentPayroll == null && month.equals(currentMonth)) {
+                currentPayroll = payroll;
+            } else if (previousPayroll == null && month.equals(previousMonth)) {
+                previousPayroll = payroll;
+            }
+        }
+
+        void flush() {
+            if (employeeId == null) {
+                return;
+            }
+            employees++;
+            if (currentPayroll != null && previousPayroll != null) {
+                readDeductions(employeeId);
+                PayChange change = PayrollService.computePayChange(currentMonth, previousMonth, currentPayroll, previousPayroll,
+                        currentDeductions, previousDeductions);
+                try {
+                    sink.accept(employeeId, change);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                changes++;
+            }
+            employeeId = null;
+            currentPayroll = null;
+            previousPayroll = null;
+        }
+
+        /**
+         * Advances the deduction cursor past {@code id}, keeping its rows and
+         * skipping those of employees without payroll in both months.
+         */
+        private void readDeductions(String id) {
+            currentDeductions.clear();
+            previousDeductions.clear();
+            while (nextDeduction != null || deductions.hasNext()) {
+                if (nextDeduction == null) {
+                    nextDeduction = deductions.next();
+                    deductionRows++;
+                    if (lastDeductionId != null && compareIds(nextDeduction.getEmployeeId(), lastDeductionId) < 0) {
+                        throw outOfOrder("deduction", nextDeduction.getEmployeeId(), lastDeductionId);
+                    }
+                    lastDeductionId = nextDeduction.getEmployeeId();
+                }
+                int order = compareIds(nextDeduction.getEmployeeId(), id);
+                if (order > 0) {
+                    return;
+                }
+                if (order == 0) {
+                    YearMonth month = YearMonth.from(nextDeduction.getPayPeriodEnd());
+                    if (month.equals(currentMonth)) {
+                        currentDeductions.add(nextDeduction);
+                    } else if (month.equals(previousMonth)) {
+                        previousDeductions.add(nextDeduction);
+                    }
+                }
+                nextDeduction = null;
+            }
+        }
+
+        private static IllegalStateException outOfOrder(String cursor, String id, String previousId) {
+            return new IllegalStateException("The " + cursor + " cursor returned employee " + id + " after " + previousId
+                    + "; both cursors must be ordered by the bytes of employee_id");
+        }
+    }
+
+    /**
+     * Compares ids by code point, the order of their UTF-8 bytes.
+     * {@link String#compareTo} compares UTF-16 units, which order characters
+     * above U+FFFF before U+E000 to U+FFFF.
+     */
+    static int compareIds(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.codePointAt(i);
+            int y = b.codePointAt(j);
+            if (x != y) {
+                return Integer.compare(x, y);
+            }
+            i += Character.charCount(x);
+            j += Character.charCount(y);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
@@ -0,0 +1,352 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.model.Money;
+import org.example.model.PayrollTransaction;
+import org.example.model.YtdLedgerEntry;
+import org.example.repository.PayrollRepository;
+import org.example.repository.RefreshWatermarkRepository;
+import org.example.repository.YtdLedgerRepository;
+import org.example.repository.YtdLedgerRepository.LedgerLookup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Keeps ytd_ledger, the running year-to-date totals behind every payslip,
+ * so a payslip reads them with one primary-key lookup instead of summing
+ * the year's payroll rows.
+ * <p>
+ * A scheduled refresh picks up payroll rows inserted or reloaded since the
+ * last run, as {@link SourceChangeFeed} reads them. For each employee and
+ * year it restarts the running totals at the earliest changed month, from
+ * the entry of the month before, and rewrites the rest of that year. An
+ * entry records how many rows it sums and their latest load_date, and is
+ * only trusted while both still match the employee's rows from January
+ * through its month, counted with it in one round trip, so a backfilled or
+ * reloaded earlier month sends the payslip to the sum until the ledger
+ * catches up. A nightly
+ * reconciliation recomputes the current and previous years from the raw
+ * rows, which also catches rows deleted outright, and rebuilds any employee
+ * whose entries disagree.
+ */
+@Service
+@Order(0)
+public class YtdLedgerService implements PayrollChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(YtdLedgerService.class);
+
+    private static final int REFRESH_CHUNK_SIZE = 500;
+
+    private final PayrollRepository payrollRepository;
+    private final YtdLedgerRepository ledgerRepository;
+    private final SourceChangeFeed changes;
+    private final boolean enabled;
+    private final int fetchSize;
+
+    private final Counter hits;
+    private final Counter stale;
+    private final Counter missing;
+    private final Counter mismatches;
+
+    @Autowired
+    public YtdLedgerService(PayrollRepository payrollRepository, YtdLedgerRepository ledgerRepository,
+                            RefreshWatermarkRepository watermarkRepository, MeterRegistry meterRegistry,
+                            @Value("${payroll.ytd-ledger.enabled:true}") boolean enabled,
+                            @Value("${payroll.bulk.fetch-size:5000}") int fetchSize,
+                            @Value("${payroll.ytd-ledger.rescan-interval-ms:3600000}") long rescanIntervalMs) {
+        this.payrollRepository = payrollRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.changes = new SourceChangeFeed("ytd_ledger", payrollRepository, null, watermarkRepository,
+                fetchSize, rescanIntervalMs);
+        this.enabled = enabled;
+        this.fetchSize = fetchSize;
+        this.hits = meterRegistry.counter("payroll.ytd-ledger.lookups", "result", "hit");
+        this.stale = meterRegistry.counter("payroll.ytd-ledger.lookups", "result", "stale");
+        this.missing = meterRegistry.counter("payroll.ytd-ledger.lookups", "result", "missing");
+        this.mismatches = meterRegistry.counter("payroll.ytd-ledger.reconciliation.mismatches");
+    }
+
+    /**
+     * Year-to-date gross and net pay through the month of {@code payroll}, or
+     * null when the ledger has no entry built from the employee's current
+     * rows for the year and the caller should sum the year itself.
+     */
+    public Money[] find(PayrollTransaction payroll) {
+        if (!enabled) {
+            return null;
+        }
+        LedgerLookup lookup;
+        try {
+            lookup = ledgerRepository.findByEmployeeIdAndMonthWithSource(payroll.getEmployeeId(),
+                    YearMonth.from(payroll.getPayPeriodEnd()));
+        } catch (DataAccessException e) {
+            logger.warn("Could not read YTD ledger for employeeId: {}, payPeriodEnd: {}",
+                    payroll.getEmployeeId(), payroll.getPayPeriodEnd(), e);
+            return null;
+        }
+        YtdLedgerEntry entry = lookup.entry();
+        if (entry == null) {
+            missing.increment();
+            return null;
+        }
+        if (!lookup.isFresh()) {
+            stale.increment();
+            return null;
+        }
+        hits.increment();
+        return new Money[] { entry.getYearToDateGrossPay(), entry.getYearToDateNetPay() };
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${payroll.ytd-ledger.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            logger.warn("YTD ledger refresh failed; retrying on the next run", e);
+        }
+    }
+
+    @Scheduled(cron = "${payroll.ytd-ledger.reconcile-cron:0 30 2 * * *}")
+    public void scheduledReconcile() {
+        if (!enabled) {
+            return;
+        }
+        int year = Year.now().getValue();
+        try {
+            reconcile(year - 1);
+            reconcile(year);
+        } catch (DataAccessException e) {
+            logger.warn("YTD ledger reconciliation failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Brings the ledger up to date with the payroll rows changed since the
+     * last refresh, {@value #REFRESH_CHUNK_SIZE} employees at a time.
+     *
+     * @return the number of ledger entries written
+     */
+    public synchronized int refresh() {
+        long started = System.nanoTime();
+        SourceChangeFeed.Changes changed = changes.read(ledgerRepository::findLatestSourceLoadDate);
+
+        int written = 0;
+        Map<String, Set<YearMonth>> pending = new HashMap<>();
+        for (Map.Entry<String, Set<YearMonth>> entry : changed.monthsByEmployee().entrySet()) {
+            if (pending.size() == REFRESH_CHUNK_SIZE) {
+                written += refreshEmployees(pending);
+                pending.clear();
+            }
+            pending.put(entry.getKey(), entry.getValue());
+        }
+        written += refreshEmployees(pending);
+
+        changes.advance(changed);
+        if (written > 0) {
+            logger.info("Wrote {} YTD ledger entries for {} employees in {} ms{}", written,
+                    changed.monthsByEmployee().size(), (System.nanoTime() - started) / 1_000_000,
+                    changed.rescan() ? " (rescan)" : "");
+        }
+        return written;
+    }
+
+    @Override
+    public void payrollChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+        if (enabled) {
+            refreshEmployees(monthsByEmployee);
+        }
+    }
+
+    /**
+     * Deductions do not enter the year-to-date totals.
+     */
+    @Override
+    public void deductionsChanged(Map<String, ? extends Collection<YearMonth>> monthsByEmployee) {
+    }
+
+    /**
+     * Rebuilds each employee's running totals from the earliest changed month
+     * of each year through its December, continuing from the ledger entry
+     * before that month.
+     *
+     * @return the number of ledger entries written
+     */
+    public synchronized int refreshEmployees(Map<String, ? extends Collection<YearMonth>> changedMonths) {
+        if (changedMonths.isEmpty()) {
+            return 0;
+        }
+        Map<String, Map<Integer, YearMonth>> fromMonths = new HashMap<>();
+        YearMonth earliest = null;
+        YearMonth latestFrom = null;
+        for (Map.Entry<String, ? extends Collection<YearMonth>> entry : changedMonths.entrySet()) {
+            Map<Integer, YearMonth> byYear = fromMonths.computeIfAbsent(entry.getKey(), id -> new TreeMap<>());
+            for (YearMonth month : entry.getValue()) {
+                byYear.merge(month.getYear(), month, (a, b) -> a.isBefore(b) ? a : b);
+            }
+            for (YearMonth from : byYear.values()) {
+                earliest = earliest == null || from.isBefore(earliest) ? from : earliest;
+                latestFrom = latestFrom == null || from.isAfter(latestFrom) ? from : latestFrom;
+            }
+        }
+
+        Map<String, List<YtdLedgerEntry>> bases = ledgerRepository.findByEmployeeIdsAndMonthRange(fromMonths.keySet(),
+                YearMonth.of(earliest.getYear(), 1), latestFrom.minusMonths(1));
+        Map<String, TreeMap<YearMonth, List<PayrollTransaction>>> payrollByEmployee = new HashMap<>();
+        payrollRepository.streamByEmployeeIdsAndPayPeriod(fromMonths.keySet(), earliest.atDay(1),
+                YearMonth.of(latestFrom.getYear(), 12).atEndOfMonth(), payroll -> {
+                    YearMonth month = YearMonth.from(payroll.getPayPeriodEnd());
+                    YearMonth from = fromMonths.get(payroll.getEmployeeId()).get(month.getYear());
+                    if (from != null && !month.isBefore(from)) {
+                        payrollByEmployee.computeIfAbsent(payroll.getEmployeeId(), id -> new TreeMap<>())
+                                .computeIfAbsent(month, m -> new ArrayList<>(1))
+                                .add(payroll);
+                    }
+                });
+
+        List<YtdLedgerEntry> entries = new ArrayList<>();
+        Map<String, List<YearMonth>> replaced = new HashMap<>();
+        for (Map.Entry<String, Map<Integer, YearMonth>> employee : fromMonths.entrySet()) {
+            TreeMap<YearMonth, List<PayrollTransaction>> payroll = payrollByEmployee.getOrDefault(employee.getKey(), new TreeMap<>());
+            for (YearMonth from : employee.getValue().values()) {
+                YtdLedgerEntry base = entryBefore(bases.get(employee.getKey()), from);
+                entries.addAll(runningTotals(employee.getKey(), base,
+                        payroll.subMap(from, true, YearMonth.of(from.getYear(), 12), true)));
+                replaced.computeIfAbsent(employee.getKey(), id -> new ArrayList<>()).add(from);
+            }
+        }
+        ledgerRepository.replaceFrom(replaced, entries);
+        return entries.size();
+    }
+
+    /**
+     * Recomputes every employee's ledger for the year from the raw payroll
+     * rows, {@value #REFRESH_CHUNK_SIZE} employees at a time, and rebuilds the
+     * year for any employee whose entries differ.
+     */
+    public synchronized Reconciliation reconcile(int year) {
+        long started = System.nanoTime();
+        List<YearMonth> months = new ArrayList<>(12);
+        for (int month = 1; month <= 12; month++) {
+            months.add(YearMonth.of(year, month));
+        }
+        Map<String, SortedMap<YearMonth, List<PayrollTransaction>>> pending = new HashMap<>();
+        Map<String, List<YearMonth>> mismatched = new HashMap<>();
+        int[] employees = {0};
+
+        payrollRepository.streamByMonthsOrderedByEmployee(months, fetchSize, payroll -> {
+            if (!pending.containsKey(payroll.getEmployeeId()) && pending.size() == REFRESH_CHUNK_SIZE) {
+                employees[0] += compare(year, pending, mismatched);
+                pending.clear();
+            }
+            pending.computeIfAbsent(payroll.getEmployeeId(), id -> new TreeMap<>())
+                    .computeIfAbsent(YearMonth.from(payroll.getPayPeriodEnd()), m -> new ArrayList<>(1))
+                    .add(payroll);
+        });
+        employees[0] += compare(year, pending, mismatched);
+
+        if (!mismatched.isEmpty()) {
+            mismatches.increment(mismatched.size());
+            logger.warn("YTD ledger disagreed with payroll for {} of {} employees in {}; rebuilding them",
+                    mismatched.size(), employees[0], year);
+            refreshEmployees(mismatched);
+        }
+        logger.info("Reconciled YTD ledger for {} employees in {} in {} ms",
+                employees[0], year, (System.nanoTime() - started) / 1_000_000);
+        return new Reconciliation(year, employees[0], mismatched.size());
+    }
+
+    private int compare(int year, Map<String, SortedMap<YearMonth, List<PayrollTransaction>>> payrollByEmployee,
+                        Map<String, List<YearMonth>> mismatched) {
+        if (payrollByEmployee.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<YtdLedgerEntry>> ledger = ledgerRepository.findByEmployeeIdsAndMonthRange(payrollByEmployee.keySet(),
+                YearMonth.of(year, 1), YearMonth.of(year, 12));
+        for (Map.Entry<String, SortedMap<YearMonth, List<PayrollTransaction>>> employee : payrollByEmployee.entrySet()) {
+            List<YtdLedgerEntry> expected = runningTotals(employee.getKey(), null, employee.getValue());
+            if (!sameTotals(expected, ledger.getOrDefault(employee.getKey(), List.of()))) {
+                mismatched.put(employee.getKey(), List.of(YearMonth.of(year, 1)));
+            }
+        }
+        return payrollByEmployee.size();
+    }
+
+    /**
+     * One entry per month, each month's pay periods added to the totals
+     * carried from {@code base}, or from zero when it is null.
+     */
+    static List<YtdLedgerEntry> runningTotals(String employeeId, YtdLedgerEntry base,
+                                              SortedMap<YearMonth, List<PayrollTransaction>> periodsByMonth) {
+        Money gross = base == null ? Money.ZERO : base.getYearToDateGrossPay();
+        Money net = base == null ? Money.ZERO : base.getYearToDateNetPay();
+        LocalDateTime loaded = base == null ? null : base.getSourceLoadDate();
+        int rows = base == null ? 0 : base.getSourceRows();
+        List<YtdLedgerEntry> entries = new ArrayList<>(periodsByMonth.size());
+        for (Map.Entry<YearMonth, List<PayrollTransaction>> month : periodsByMonth.entrySet()) {
+            for (PayrollTransaction period : month.getValue()) {
+                gross = gross.plus(period.getGrossPay());
+                net = net.plus(period.getNetPay());
+                rows++;
+                if (loaded == null || period.getLoadDate().isAfter(loaded)) {
+                    loaded = period.getLoadDate();
+                }
+            }
+            entries.add(new YtdLedgerEntry(employeeId, month.getKey(), gross, net, loaded, rows));
+        }
+        return entries;
+    }
+
+    private static YtdLedgerEntry entryBefore(List<YtdLedgerEntry> entries, YearMonth month) {
+        YtdLedgerEntry before = null;
+        if (entries != null) {
+            for (YtdLedgerEntry entry : entries) {
+                if (entry.getMonth().getYear() == month.getYear() && entry.getMonth().isBefore(month)) {
+                    before = entry;
+                }
+            }
+        }
+        return before;
+    }
+
+    private static boolean sameTotals(List<YtdLedgerEntry> expected, List<YtdLedgerEntry> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            YtdLedgerEntry want = expected.get(i);
+            YtdLedgerEntry have = actual.get(i);
+            if (!want.getMonth().equals(have.getMonth())
+                    || want.getYearToDateGrossPay().compareTo(have.getYearToDateGrossPay()) != 0
+                    || want.getYearToDateNetPay().compareTo(have.getYearToDateNetPay()) != 0
+                    || want.getSourceRows() != have.getSourceRows()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public record Reconciliation(int year, int employees, int mismatched) {
+    }
+}
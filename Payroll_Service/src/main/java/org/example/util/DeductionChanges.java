@@ -0,0 +1,57 @@
+package org.example.util;
+
+import org.example.model.Money;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact text form of per-type deduction deltas: {@code type=amount} pairs
+ * sorted by type and joined by semicolons, e.g.
+ * {@code 401k=300.00;healthcare=-12.50}. A '%', ';' or '=' inside a type is
+ * percent-escaped so that any type survives the round trip.
+ */
+public final class DeductionChanges {
+
+    private DeductionChanges() {
+    }
+
+    public static String encode(Map<String, Money> changes) {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<String, Money> entry : new TreeMap<>(changes).entrySet()) {
+            if (encoded.length() > 0) {
+                encoded.append(';');
+            }
+            String type = entry.getKey();
+            for (int i = 0; i < type.length(); i++) {
+                char c = type.charAt(i);
+                switch (c) {
+                    case '%' -> encoded.append("%25");
+                    case ';' -> encoded.append("%3B");
+                    case '=' -> encoded.append("%3D");
+                    default -> encoded.append(c);
+                }
+            }
+            encoded.append('=');
+            entry.getValue().appendTo(encoded);
+        }
+        return encoded.toString();
+    }
+
+    public static Map<String, Money> decode(String encoded) {
+        Map<String, Money> changes = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return changes;
+        }
+        for (String pair : encoded.split(";")) {
+            int separator = pair.lastIndexOf('=');
+            String type = pair.substring(0, separator);
+            if (type.indexOf('%') >= 0) {
+                type = type.replace("%3B", ";").replace("%3D", "=").replace("%25", "%");
+            }
+            changes.put(StringDictionary.DEDUCTION_TYPES.canonical(type), Money.parse(pair.substring(separator + 1)));
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.util;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.Money;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact text form of a month's deduction rows: one
+ * {@code type|amount|employerMatch|category|payPeriodEnd} record per row,
+ * records joined by semicolons in their original order. Null fields are
+ * left empty, and a '%', ';' or '|' inside a type or category is
+ * percent-escaped.
+ */
+public final class DeductionRows {
+
+    private DeductionRows() {
+    }
+
+    public static String encode(List<DeductionBreakdown> deductions) {
+        StringBuilder encoded = new StringBuilder(deductions.size() * 48);
+        for (DeductionBreakdown deduction : deductions) {
+            if (encoded.length() > 0) {
+                encoded.append(';');
+            }
+            appendEscaped(encoded, deduction.getDeductionType());
+            encoded.append('|');
+            appendAmount(encoded, deduction.getAmount());
+            encoded.append('|');
+            appendAmount(encoded, deduction.getEmployerMatch());
+            encoded.append('|');
+            appendEscaped(encoded, deduction.getCategory());
+            encoded.append('|');
+            if (deduction.getPayPeriodEnd() != null) {
+                encoded.append(deduction.getPayPeriodEnd());
+            }
+        }
+        return encoded.toString();
+    }
+
+    public static List<DeductionBreakdown> decode(String employeeId, String encoded) {
+        List<DeductionBreakdown> deductions = new ArrayList<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return deductions;
+        }
+        for (String record : encoded.split(";")) {
+            String[] fields = record.split("\\|", -1);
+            DeductionBreakdown deduction = new DeductionBreakdown();
+            deduction.setEmployeeId(employeeId);
+            deduction.setDeductionType(StringDictionary.DEDUCTION_TYPES.canonical(unescape(fields[0])));
+            deduction.setAmount(fields[1].isEmpty() ? null : Money.parse(fields[1]));
+            deduction.setEmployerMatch(fields[2].isEmpty() ? null : Money.parse(fields[2]));
+            deduction.setCategory(unescape(fields[3]));
+            deduction.setPayPeriodEnd(fields[4].isEmpty() ? null : LocalDate.parse(fields[4]));
+            deductions.add(deduction);
+        }
+        return deductions;
+    }
+
+    private static void appendAmount(StringBuilder out, Money amount) {
+        if (amount != null) {
+            amount.appendTo(out);
+        }
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '%' -> out.append("%25");
+                case ';' -> out.append("%3B");
+                case '|' -> out.append("%7C");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (value.indexOf('%') < 0) {
+            return value;
+        }
+        return value.replace("%3B", ";").replace("%7C", "|").replace("%25", "%");
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Immutable compressed set of non-negative ints, such as
+ * {@link StringDictionary} ids, laid out like a Roaring bitmap: values are
+ * split by their high 16 bits into chunks, and a chunk is a sorted char
+ * array while it holds at most {@value #ARRAY_LIMIT} values and a
+ * 65536-bit bitmap once denser. A sparse set costs about two bytes per
+ * value and a dense one about a bit. {@link #or} returns a new set that
+ * shares the chunks it leaves alone.
+ */
+public final class IntBitmap {
+
+    public static final IntBitmap EMPTY = new IntBitmap(new char[0], new Object[0], 0);
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int CHUNK_WORDS = 1024;
+    private static final int LAST_KEY = Integer.MAX_VALUE >>> 16;
+
+    private final char[] keys;
+    // char[] or long[CHUNK_WORDS], parallel to keys
+    private final Object[] chunks;
+    private final long cardinality;
+
+    private IntBitmap(char[] keys, Object[] chunks, long cardinality) {
+        this.keys = keys;
+        this.chunks = chunks;
+        this.cardinality = cardinality;
+    }
+
+    public static IntBitmap of(BitSet values) {
+        return EMPTY.or(values);
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (i < 0) {
+            return false;
+        }
+        char low = (char) value;
+        return chunks[i] instanceof long[] words
+                ? (words[low >>> 6] & 1L << low) != 0
+                : Arrays.binarySearch((char[]) chunks[i], low) >= 0;
+    }
+
+    public long cardinality() {
+        return cardinality;
+    }
+
+    public long approxBytes() {
+        long bytes = 48L + 2L * keys.length + 4L * chunks.length;
+        for (Object chunk : chunks) {
+            bytes += 16 + (chunk instanceof long[] words ? 8L * words.length : 2L * ((char[]) chunk).length);
+        }
+        return bytes;
+    }
+
+    /**
+     * This set plus the set bits of {@code values}.
+     */
+    public IntBitmap or(BitSet values) {
+        if (values.isEmpty()) {
+            return this;
+        }
+        int[] valueKeys = chunkKeys(values);
+        char[] mergedKeys = new char[keys.length + valueKeys.length];
+        Object[] mergedChunks = new Object[mergedKeys.length];
+        long total = 0;
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < valueKeys.length) {
+            int key;
+            Object chunk;
+            if (j == valueKeys.length || (i < keys.length && keys[i] < valueKeys[j])) {
+                key = keys[i];
+                chunk = chunks[i++];
+            } else {
+                key = valueKeys[j++];
+                long[] words = words(values, key);
+                if (i < keys.length && keys[i] == key) {
+                    orInto(words, chunks[i++]);
+                }
+                chunk = compact(words);
+            }
+            mergedKeys[n] = (char) key;
+            mergedChunks[n++] = chunk;
+            total += size(chunk);
+        }
+        return new IntBitmap(Arrays.copyOf(mergedKeys, n), Arrays.copyOf(mergedChunks, n), total);
+    }
+
+    private static int[] chunkKeys(BitSet values) {
+        int[] keys = new int[8];
+        int n = 0;
+        int bit = values.nextSetBit(0);
+        while (bit >= 0) {
+            int key = bit >>> 16;
+            if (n == keys.length) {
+                keys = Arrays.copyOf(keys, n * 2);
+            }
+            keys[n++] = key;
+            if (key == LAST_KEY) {
+                break;
+            }
+            bit = values.nextSetBit((key + 1) << 16);
+        }
+        return Arrays.copyOf(keys, n);
+    }
+
+    private static long[] words(BitSet values, int key) {
+        int from = key << 16;
+        int to = key == LAST_KEY ? Integer.MAX_VALUE : from + 65536;
+        return Arrays.copyOf(values.get(from, to).toLongArray(), CHUNK_WORDS);
+    }
+
+    private static void orInto(long[] words, Object chunk) {
+        if (chunk instanceof long[] existing) {
+            for (int w = 0; w < CHUNK_WORDS; w++) {
+                words[w] |= existing[w];
+            }
+        } else {
+            for (char low : (char[]) chunk) {
+                words[low >>> 6] |= 1L << low;
+            }
+        }
+    }
+
+    private static Object compact(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        if (count > ARRAY_LIMIT) {
+            return words;
+        }
+        char[] values = new char[count];
+        int n = 0;
+        for (int w = 0; w < CHUNK_WORDS; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                values[n++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return values;
+    }
+
+    private static int size(Object chunk) {
+        if (chunk instanceof char[] values) {
+            return values.length;
+        }
+        int count = 0;
+        for (long word : (long[]) chunk) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
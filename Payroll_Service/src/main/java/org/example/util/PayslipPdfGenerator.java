@@ -8,6 +8,7 @@ import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import org.example.model.DeductionBreakdown;
+import org.example.model.Money;
 import org.example.model.Payslip;
 
 import java.io.ByteArrayOutputStream;
@@ -136,7 +137,7 @@ public class PayslipPdfGenerator {
         return baos.toByteArray();
     }
 
-    private static String formatAmount(BigDecimal amount) {
-        return String.format("%.2f", amount != null ? amount : BigDecimal.ZERO);
+    private static String formatAmount(Money amount) {
+        return String.format("%.2f", amount != null ? amount.toBigDecimal() : BigDecimal.ZERO);
     }
 }
\ No newline at end of file
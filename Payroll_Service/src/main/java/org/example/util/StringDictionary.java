@@ -0,0 +1,132 @@
+package org.example.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Process-wide interning of repeated strings to dense int ids, 0, 1, 2...
+ * in first-seen order. Row mappers store the canonical instance, so every
+ * row of an employee shares one employee id String, and in-memory
+ * structures key on the int instead of the String.
+ * <p>
+ * A dictionary may normalize values before assigning ids, so that spellings
+ * differing only in case share one id. The normalized form is only used for
+ * matching: {@link #canonical} returns the value as spelled, and
+ * {@link #name} the first spelling seen for the id.
+ * <p>
+ * Lookups are lock-free; only adding a new value takes the lock. Ids are
+ * never reused or removed, so the dictionary grows with the number of
+ * distinct values read from the tables, which is bounded by the data
+ * rather than by requests: callers should {@link #find} values that come
+ * straight from user input.
+ */
+public final class StringDictionary {
+
+    public static final StringDictionary EMPLOYEE_IDS = new StringDictionary(UnaryOperator.identity());
+
+    /**
+     * Deduction types, matched trimmed and lower-cased, so {@code "Healthcare "}
+     * and {@code "healthcare"} are one type.
+     */
+    public static final StringDictionary DEDUCTION_TYPES = new StringDictionary(
+            type -> type.strip().toLowerCase(Locale.ROOT));
+
+    public static final int HEALTHCARE = DEDUCTION_TYPES.id("healthcare");
+
+    private final UnaryOperator<String> normalizer;
+    // Normalized values and the raw spellings seen for them
+    private final ConcurrentHashMap<String, Spelling> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private volatile int size;
+    private long keyChars;
+
+    public StringDictionary(UnaryOperator<String> normalizer) {
+        this.normalizer = normalizer;
+    }
+
+    /**
+     * The value's id, adding it when it has not been seen.
+     */
+    public int id(String value) {
+        Spelling spelling = ids.get(value);
+        return (spelling != null ? spelling : add(value)).id();
+    }
+
+    /**
+     * The value's id, or -1 when it has never been seen. Never adds.
+     */
+    public int find(String value) {
+        Spelling spelling = ids.get(value);
+        if (spelling == null) {
+            spelling = ids.get(normalizer.apply(value));
+        }
+        return spelling == null ? -1 : spelling.id();
+    }
+
+    /**
+     * The shared instance equal to the value, spelled as given, or null for
+     * null. Adds the value when it has not been seen.
+     */
+    public String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        Spelling spelling = ids.get(value);
+        return (spelling != null ? spelling : add(value)).value();
+    }
+
+    /**
+     * The first spelling seen for the id.
+     */
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown id " + id);
+        }
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Map entries, spellings, Strings and their byte arrays, assuming
+     * compact Latin-1 strings; an estimate.
+     */
+    public synchronized long approxBytes() {
+        return 16L + 4L * names.length + 120L * ids.size() + keyChars;
+    }
+
+    private synchronized Spelling add(String value) {
+        String normalized = normalizer.apply(value);
+        Spelling match = ids.get(normalized);
+        if (match == null) {
+            int id = size;
+            if (id == names.length) {
+                names = Arrays.copyOf(names, id * 2);
+            }
+            // The name is in place before the id can be read from the map
+            names[id] = value;
+            size = id + 1;
+            match = new Spelling(normalized, id);
+            ids.put(normalized, match);
+            keyChars += normalized.length();
+        }
+        if (normalized.equals(value)) {
+            return match;
+        }
+        Spelling spelling = ids.get(value);
+        if (spelling == null) {
+            spelling = new Spelling(value, match.id());
+            ids.put(value, spelling);
+            keyChars += value.length();
+        }
+        return spelling;
+    }
+
+    // One spelling as stored, and the id of its normalized value
+    private record Spelling(String value, int id) {
+    }
+}
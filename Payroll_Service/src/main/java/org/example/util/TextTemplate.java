@@ -0,0 +1,174 @@
+package org.example.util;
+
+import org.example.model.Money;
+
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sentence template compiled once into literal and argument segments.
+ * Placeholders are written {@code {index}} or {@code {index:format}} where
+ * format is one of {@code money}, {@code month}, {@code Month}, {@code period}
+ * or {@code lower}. Rendering appends straight into a caller-supplied or
+ * per-thread builder, so no intermediate strings are created.
+ */
+public final class TextTemplate {
+
+    private enum Format {
+        PLAIN, MONEY, MONTH, MONTH_TITLE, PERIOD, LOWER
+    }
+
+    private static final String[] MONTH_NAMES = new String[12];
+    private static final String[] MONTH_TITLES = new String[12];
+
+    static {
+        for (Month month : Month.values()) {
+            String lower = month.name().toLowerCase();
+            MONTH_NAMES[month.ordinal()] = lower;
+            MONTH_TITLES[month.ordinal()] = Character.toUpperCase(lower.charAt(0)) + lower.substring(1);
+        }
+    }
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String[] literals;
+    private final int[] argIndexes;
+    private final Format[] formats;
+
+    private TextTemplate(String[] literals, int[] argIndexes, Format[] formats) {
+        this.literals = literals;
+        this.argIndexes = argIndexes;
+        this.formats = formats;
+    }
+
+    public static TextTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> argIndexes = new ArrayList<>();
+        List<Format> formats = new ArrayList<>();
+
+        int literalStart = 0;
+        int open = pattern.indexOf('{');
+        while (open >= 0) {
+            int close = pattern.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template: " + pattern);
+            }
+            literals.add(pattern.substring(literalStart, open));
+            String placeholder = pattern.substring(open + 1, close);
+            int colon = placeholder.indexOf(':');
+            String index = colon < 0 ? placeholder : placeholder.substring(0, colon);
+            argIndexes.add(Integer.parseInt(index.trim()));
+            formats.add(colon < 0 ? Format.PLAIN : parseFormat(placeholder.substring(colon + 1), pattern));
+            literalStart = close + 1;
+            open = pattern.indexOf('{', literalStart);
+        }
+        literals.add(pattern.substring(literalStart));
+
+        int[] indexes = new int[argIndexes.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = argIndexes.get(i);
+            if (indexes[i] < 0 || indexes[i] > 2) {
+                throw new IllegalArgumentException("Placeholder index must be 0-2 in template: " + pattern);
+            }
+        }
+        return new TextTemplate(literals.toArray(new String[0]), indexes, formats.toArray(new Format[0]));
+    }
+
+    /**
+     * Returns this thread's scratch builder, emptied. The contents are only
+     * valid until the next call on the same thread.
+     */
+    public static StringBuilder buffer() {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    public String render(Object arg0) {
+        return appendTo(buffer(), arg0, null, null).toString();
+    }
+
+    public String render(Object arg0, Object arg1) {
+        return appendTo(buffer(), arg0, arg1, null).toString();
+    }
+
+    public String render(Object arg0, Object arg1, Object arg2) {
+        return appendTo(buffer(), arg0, arg1, arg2).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder out, Object arg0) {
+        return appendTo(out, arg0, null, null);
+    }
+
+    public StringBuilder appendTo(StringBuilder out, Object arg0, Object arg1) {
+        return appendTo(out, arg0, arg1, null);
+    }
+
+    public StringBuilder appendTo(StringBuilder out, Object arg0, Object arg1, Object arg2) {
+        for (int i = 0; i < argIndexes.length; i++) {
+            out.append(literals[i]);
+            int index = argIndexes[i];
+            appendArg(out, index == 0 ? arg0 : index == 1 ? arg1 : arg2, formats[i]);
+        }
+        return out.append(literals[argIndexes.length]);
+    }
+
+    public static String monthName(YearMonth month) {
+        return MONTH_NAMES[month.getMonthValue() - 1];
+    }
+
+    public static String monthTitle(YearMonth month) {
+        return MONTH_TITLES[month.getMonthValue() - 1];
+    }
+
+    private static void appendArg(StringBuilder out, Object arg, Format format) {
+        switch (format) {
+            case MONEY:
+                ((Money) arg).appendTo(out.append('$'));
+                break;
+            case MONTH:
+                out.append(MONTH_NAMES[monthIndex(arg)]);
+                break;
+            case MONTH_TITLE:
+                out.append(MONTH_TITLES[monthIndex(arg)]);
+                break;
+            case PERIOD:
+                YearMonth period = (YearMonth) arg;
+                int monthValue = period.getMonthValue();
+                out.append(period.getYear()).append(monthValue < 10 ? "-0" : "-").append(monthValue);
+                break;
+            case LOWER:
+                CharSequence text = (CharSequence) arg;
+                for (int i = 0; i < text.length(); i++) {
+                    out.append(Character.toLowerCase(text.charAt(i)));
+                }
+                break;
+            default:
+                out.append(arg);
+                break;
+        }
+    }
+
+    private static int monthIndex(Object arg) {
+        return arg instanceof Month ? ((Month) arg).ordinal() : ((YearMonth) arg).getMonthValue() - 1;
+    }
+
+    private static Format parseFormat(String name, String pattern) {
+        switch (name.trim()) {
+            case "money":
+                return Format.MONEY;
+            case "month":
+                return Format.MONTH;
+            case "Month":
+                return Format.MONTH_TITLE;
+            case "period":
+                return Format.PERIOD;
+            case "lower":
+                return Format.LOWER;
+            default:
+                throw new IllegalArgumentException("Unknown format '" + name + "' in template: " + pattern);
+        }
+    }
+}
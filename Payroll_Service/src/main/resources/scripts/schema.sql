@@ -41,6 +41,68 @@ CREATE TABLE IF NOT EXISTS explanation_logs (
     timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+
+-- Create pay_change_summary table (one row per employee per month, deltas against the month before)
+CREATE TABLE IF NOT EXISTS pay_change_summary (
+    employee_id VARCHAR(50) NOT NULL,
+    pay_month DATE NOT NULL,
+    net_pay_change DECIMAL(10,2) NOT NULL,
+    base_pay_change DECIMAL(10,2) NOT NULL,
+    bonus_change DECIMAL(10,2) NOT NULL,
+    overtime_change DECIMAL(10,2) NOT NULL,
+    tax_change DECIMAL(10,2) NOT NULL,
+    total_deductions_change DECIMAL(10,2) NOT NULL,
+    deduction_changes VARCHAR(2000),
+    source_load_date TIMESTAMP NOT NULL,
+    refreshed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (employee_id, pay_month)
+);
+
+
+-- Create employee_month_view table (read model: a month's payroll row, its deductions and year-to-date totals)
+CREATE TABLE IF NOT EXISTS employee_month_view (
+    employee_id VARCHAR(50) NOT NULL,
+    pay_month DATE NOT NULL,
+    pay_period_start DATE,
+    pay_period_end DATE,
+    gross_pay DECIMAL(10,2),
+    net_pay DECIMAL(10,2),
+    base_salary DECIMAL(10,2),
+    bonus DECIMAL(10,2),
+    overtime DECIMAL(10,2),
+    tax_withheld DECIMAL(10,2),
+    total_deductions DECIMAL(10,2),
+    currency VARCHAR(10),
+    load_date TIMESTAMP NULL,
+    deductions VARCHAR(4000),
+    ytd_gross_pay DECIMAL(12,2) NOT NULL,
+    ytd_net_pay DECIMAL(12,2) NOT NULL,
+    refreshed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (employee_id, pay_month)
+);
+
+-- Create ytd_ledger table (running year-to-date totals per employee per month with payroll)
+CREATE TABLE IF NOT EXISTS ytd_ledger (
+    employee_id VARCHAR(50) NOT NULL,
+    pay_month DATE NOT NULL,
+    ytd_gross_pay DECIMAL(12,2) NOT NULL,
+    ytd_net_pay DECIMAL(12,2) NOT NULL,
+    source_load_date TIMESTAMP NOT NULL,
+    source_rows INT NOT NULL DEFAULT 0,
+    refreshed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (employee_id, pay_month)
+);
+
+-- Create refresh_watermark table (the highest source ids and load_date each derived table's refresh has read)
+CREATE TABLE IF NOT EXISTS refresh_watermark (
+    name VARCHAR(50) NOT NULL,
+    payroll_id BIGINT NOT NULL,
+    deduction_id BIGINT NOT NULL,
+    load_date TIMESTAMP NOT NULL,
+    refreshed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (name)
+);
+
 DELIMITER //
 
 DROP PROCEDURE IF EXISTS manage_indexes //
@@ -50,12 +112,48 @@ BEGIN
     -- Declare handler for SQL errors (1091 = index doesn't exist)
     DECLARE CONTINUE HANDLER FOR 1091 BEGIN END;
 
-    -- Handle payroll_transactions.employee_id index
+    -- The unique keys ingestion upserts on are created first, so that a failure (1062 = duplicate
+    -- entry) stops the procedure before any existing index is dropped. Rows loaded before a key
+    -- existed can repeat it; the last one loaded is kept, as an upsert would have done.
+
+    -- Create payroll_transactions (employee_id, pay_period_end) unique key
+    IF NOT EXISTS (SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+            AND table_name = 'payroll_transactions' AND index_name = 'uq_payroll_employee_period') THEN
+        DELETE older FROM payroll_transactions older
+        JOIN payroll_transactions newer ON newer.employee_id = older.employee_id
+            AND newer.pay_period_end = older.pay_period_end
+            AND (COALESCE(newer.load_date, '1970-01-01 00:00:01') > COALESCE(older.load_date, '1970-01-01 00:00:01')
+                OR (COALESCE(newer.load_date, '1970-01-01 00:00:01') = COALESCE(older.load_date, '1970-01-01 00:00:01')
+                    AND newer.id > older.id));
+        CREATE UNIQUE INDEX uq_payroll_employee_period ON payroll_transactions(employee_id, pay_period_end);
+    END IF;
+
+    -- Create deduction_breakdown (employee_id, pay_period_end, deduction_type) unique key; deductions
+    -- carry no load_date, so the last row inserted is kept
+    IF NOT EXISTS (SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+            AND table_name = 'deduction_breakdown' AND index_name = 'uq_deduction_employee_period_type') THEN
+        DELETE older FROM deduction_breakdown older
+        JOIN deduction_breakdown newer ON newer.employee_id = older.employee_id
+            AND newer.pay_period_end = older.pay_period_end
+            AND newer.deduction_type = older.deduction_type
+            AND newer.id > older.id;
+        CREATE UNIQUE INDEX uq_deduction_employee_period_type ON deduction_breakdown(employee_id, pay_period_end, deduction_type);
+    END IF;
+
+    -- Drop payroll_transactions.employee_id index (a prefix of idx_payroll_employee_period)
     BEGIN
         DECLARE CONTINUE HANDLER FOR 1091 BEGIN END;
         DROP INDEX idx_payroll_employee_id ON payroll_transactions;
     END;
-    CREATE INDEX idx_payroll_employee_id ON payroll_transactions(employee_id);
+
+    -- Handle payroll_transactions (employee_id, pay_period_end) index; month lookups and
+    -- ORDER BY pay_period_end DESC LIMIT 1 read it as a range; YTD sums and the net pay and
+    -- tax projections are covered by it
+    BEGIN
+        DECLARE CONTINUE HANDLER FOR 1091 BEGIN END;
+        DROP INDEX idx_payroll_employee_period ON payroll_transactions;
+    END;
+    CREATE INDEX idx_payroll_employee_period ON payroll_transactions(employee_id, pay_period_end, gross_pay, net_pay, tax_withheld, load_date);
 
     -- Handle payroll_transactions.pay_period_end index
     BEGIN
@@ -64,12 +162,24 @@ BEGIN
     END;
     CREATE INDEX idx_payroll_pay_period_end ON payroll_transactions(pay_period_end);
 
-    -- Handle deduction_breakdown.employee_id index
+    -- Handle payroll_transactions.load_date index
+    BEGIN
+        DECLARE CONTINUE HANDLER FOR 1091 BEGIN END;
+        DROP INDEX idx_payroll_load_date ON payroll_transactions;
+    END;
+    CREATE INDEX idx_payroll_load_date ON payroll_transactions(load_date);
+
+    -- Drop deduction_breakdown.employee_id index (a prefix of idx_deduction_employee_period)
     BEGIN
         DECLARE CONTINUE HANDLER FOR 1091 BEGIN END;
         DROP INDEX idx_deduction_employee_id ON deduction_breakdown;
     END;
-    CREATE INDEX idx_deduction_employee_id ON deduction_breakdown(employee_id);
+
+    -- Drop deduction_breakdown (employee_id, pay_period_end) index (a prefix of uq_deduction_employee_period_type)
+    BEGIN
+        DECLARE CONTINUE HANDLER FOR 1091 BEGIN END;
+        DROP INDEX idx_deduction_employee_period ON deduction_breakdown;
+    END;
 
     -- Handle deduction_breakdown.pay_period_end index
     BEGIN
@@ -77,6 +187,34 @@ BEGIN
         DROP INDEX idx_deduction_pay_period ON deduction_breakdown;
     END;
     CREATE INDEX idx_deduction_pay_period ON deduction_breakdown(pay_period_end);
+
+    -- Handle pay_change_summary.source_load_date index (refresh watermark)
+    BEGIN
+        DECLARE CONTINUE HANDLER FOR 1091 BEGIN END;
+        DROP INDEX idx_pay_change_summary_load_date ON pay_change_summary;
+    END;
+    CREATE INDEX idx_pay_change_summary_load_date ON pay_change_summary(source_load_date);
+
+    -- Handle employee_month_view.load_date index (refresh watermark)
+    BEGIN
+        DECLARE CONTINUE HANDLER FOR 1091 BEGIN END;
+        DROP INDEX idx_employee_month_view_load_date ON employee_month_view;
+    END;
+    CREATE INDEX idx_employee_month_view_load_date ON employee_month_view(load_date);
+
+    -- Handle ytd_ledger.source_load_date index (refresh watermark)
+    BEGIN
+        DECLARE CONTINUE HANDLER FOR 1091 BEGIN END;
+        DROP INDEX idx_ytd_ledger_load_date ON ytd_ledger;
+    END;
+    CREATE INDEX idx_ytd_ledger_load_date ON ytd_ledger(source_load_date);
+
+    -- Add ytd_ledger.source_rows to ledgers created before it; their entries read as stale,
+    -- so payslips sum the year, until the refresh or the nightly reconciliation rewrites them
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns WHERE table_schema = DATABASE()
+            AND table_name = 'ytd_ledger' AND column_name = 'source_rows') THEN
+        ALTER TABLE ytd_ledger ADD COLUMN source_rows INT NOT NULL DEFAULT 0;
+    END IF;
 END //
 
 DELIMITER ;
@@ -0,0 +1,91 @@
+package org.example.ingest;
+
+import org.example.ingest.RecordReader.RawRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvRecordReaderTest {
+
+    private static final List<String> COLUMNS = List.of("employee_id", "amount", "category");
+    private static final Set<String> REQUIRED = Set.of("employee_id", "amount");
+
+    @Test
+    void mapsHeaderColumnsInAnyOrderAndCase() throws IOException {
+        CsvRecordReader reader = reader(" Amount ,ignored,EMPLOYEE_ID\r\n12.50,x,emp1\r\n");
+
+        RawRecord record = reader.next();
+        assertEquals(2, record.line());
+        assertArrayEquals(new String[]{"emp1", "12.50", null}, record.fields());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedFieldsHoldCommasQuotesAndLineBreaks() throws IOException {
+        CsvRecordReader reader = reader("employee_id,amount,category\n\"emp,1\",1,\"say \"\"hi\"\"\nthere\"\nemp2,2,\n");
+
+        assertArrayEquals(new String[]{"emp,1", "1", "say \"hi\"\nthere"}, reader.next().fields());
+        RawRecord next = reader.next();
+        assertEquals(4, next.line(), "the line break inside quotes counts");
+        assertArrayEquals(new String[]{"emp2", "2", ""}, next.fields());
+    }
+
+    @Test
+    void skipsBlankLines() throws IOException {
+        CsvRecordReader reader = reader("employee_id,amount\n\n\nemp1,1\n");
+
+        RawRecord record = reader.next();
+        assertEquals(4, record.line());
+        assertEquals("emp1", record.fields()[0]);
+    }
+
+    @Test
+    void rejectsAHeaderMissingARequiredColumn() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> reader("employee_id,category\nemp1,x\n"));
+        assertEquals("CSV header has no amount column", error.getMessage());
+    }
+
+    @Test
+    void rejectsInputWithoutAHeader() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> reader(""));
+        assertEquals("CSV input has no header row", error.getMessage());
+    }
+
+    @Test
+    void textAfterAClosingQuoteRejectsOnlyThatRecord() throws IOException {
+        CsvRecordReader reader = reader("employee_id,amount\n\"emp1\"x,1\nemp2,2\n");
+
+        RawRecord malformed = reader.next();
+        assertEquals(2, malformed.line());
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, malformed::fields);
+        assertEquals("unexpected character after closing quote", error.getMessage());
+
+        RawRecord next = reader.next();
+        assertEquals(3, next.line());
+        assertArrayEquals(new String[]{"emp2", "2", null}, next.fields());
+    }
+
+    @Test
+    void unterminatedQuoteRejectsTheLastRecord() throws IOException {
+        CsvRecordReader reader = reader("employee_id,amount\nemp1,\"1\n");
+
+        RawRecord malformed = reader.next();
+        assertEquals(2, malformed.line());
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, malformed::fields);
+        assertEquals("unterminated quoted field", error.getMessage());
+        assertNull(reader.next());
+    }
+
+    private static CsvRecordReader reader(String csv) throws IOException {
+        return new CsvRecordReader(new StringReader(csv), COLUMNS, REQUIRED);
+    }
+}
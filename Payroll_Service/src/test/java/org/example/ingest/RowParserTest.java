@@ -0,0 +1,117 @@
+package org.example.ingest;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.Money;
+import org.example.model.PayrollTransaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RowParserTest {
+
+    private static final LocalDateTime LOAD_DATE = LocalDateTime.of(2025, 5, 2, 10, 0);
+
+    private final PayrollRowParser payrollParser = new PayrollRowParser();
+    private final DeductionRowParser deductionParser = new DeductionRowParser();
+
+    @Test
+    void parsesAPayrollRowWithDefaults() {
+        PayrollTransaction payroll = payrollParser.parse(payroll(), LOAD_DATE);
+
+        assertEquals("emp1", payroll.getEmployeeId());
+        assertEquals(LocalDate.of(2025, 4, 30), payroll.getPayPeriodEnd());
+        assertEquals(Money.ofCents(345_000), payroll.getNetPay());
+        assertEquals(Money.ZERO, payroll.getBonus());
+        assertEquals("USD", payroll.getCurrency());
+        assertEquals(LOAD_DATE, payroll.getLoadDate());
+    }
+
+    @Test
+    void acceptsANegativeNetPayOnly() {
+        String[] fields = payroll();
+        fields[4] = "-12.00";
+        assertEquals(Money.ofCents(-1200), payrollParser.parse(fields, LOAD_DATE).getNetPay());
+
+        fields[3] = "-12.00";
+        assertRejected(payrollParser, fields, "gross_pay is negative: -12.00");
+    }
+
+    @Test
+    void rejectsMissingRequiredFields() {
+        String[] fields = payroll();
+        fields[0] = "  ";
+        assertRejected(payrollParser, fields, "employee_id is required");
+
+        fields = payroll();
+        fields[8] = null;
+        assertRejected(payrollParser, fields, "tax_withheld is required");
+    }
+
+    @Test
+    void rejectsValuesTooLongForTheirColumn() {
+        String[] fields = payroll();
+        fields[0] = "e".repeat(51);
+        assertRejected(payrollParser, fields, "employee_id is longer than 50 characters");
+
+        fields = payroll();
+        fields[10] = "US DOLLARS!";
+        assertRejected(payrollParser, fields, "currency is longer than 10 characters");
+    }
+
+    @Test
+    void rejectsDatesThatAreNotIsoOrOutOfOrder() {
+        String[] fields = payroll();
+        fields[2] = "04/30/2025";
+        assertRejected(payrollParser, fields, "pay_period_end is not an ISO date: 04/30/2025");
+
+        fields = payroll();
+        fields[1] = "2025-05-01";
+        assertRejected(payrollParser, fields, "pay_period_start is after pay_period_end");
+    }
+
+    @Test
+    void rejectsAmountsTheColumnCannotHold() {
+        String[] fields = payroll();
+        fields[3] = "12,50";
+        assertRejected(payrollParser, fields, "gross_pay is not a number: 12,50");
+
+        fields[3] = "12.505";
+        assertRejected(payrollParser, fields, "gross_pay is not a whole number of cents: 12.505");
+
+        fields[3] = "100000000.00";
+        assertRejected(payrollParser, fields, "gross_pay is out of range: 100000000.00");
+
+        fields[3] = "99999999.99";
+        assertEquals(Money.ofCents(9_999_999_999L), payrollParser.parse(fields, LOAD_DATE).getGrossPay());
+    }
+
+    @Test
+    void parsesADeductionRowAndRejectsAMissingType() {
+        String[] fields = {"emp1", "2025-04-30", "Dental", "40.00", "", "health"};
+        DeductionBreakdown deduction = deductionParser.parse(fields, LOAD_DATE);
+        assertEquals(Money.ofCents(4000), deduction.getAmount());
+        assertEquals(Money.ZERO, deduction.getEmployerMatch());
+
+        fields[2] = "";
+        assertRejected(deductionParser, fields, "deduction_type is required");
+
+        fields[2] = "Dental";
+        fields[4] = "-1";
+        assertRejected(deductionParser, fields, "employer_match is negative: -1");
+    }
+
+    private static String[] payroll() {
+        return new String[]{"emp1", "2025-04-01", "2025-04-30", "5000.00", "3450.00", "5000.00", null, "",
+                "965.00", "585.00", null};
+    }
+
+    private static void assertRejected(RowParser<?> parser, String[] fields, String reason) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> parser.parse(fields.clone(), LOAD_DATE));
+        assertEquals(reason, error.getMessage());
+    }
+}
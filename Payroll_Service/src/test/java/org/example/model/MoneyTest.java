@@ -0,0 +1,95 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void parsesPlainDecimals() {
+        assertEquals(520_000, Money.parse("5200").cents());
+        assertEquals(30_000, Money.parse("300.00").cents());
+        assertEquals(1250, Money.parse("12.5").cents());
+        assertEquals(50, Money.parse(".5").cents());
+        assertEquals(500, Money.parse("5.").cents());
+        assertSame(Money.ZERO, Money.parse("0.00"));
+    }
+
+    @Test
+    void parsesTheSign() {
+        assertEquals(-1250, Money.parse("-12.50").cents());
+        assertEquals(1250, Money.parse("+12.50").cents());
+        assertEquals(-5, Money.parse("-0.05").cents());
+        assertSame(Money.ZERO, Money.parse("-0"));
+    }
+
+    @Test
+    void rejectsFractionsOfACentInsteadOfRounding() {
+        assertEquals(123, Money.parse("1.2300").cents(), "trailing zeros are not a fraction of a cent");
+        assertThrows(ArithmeticException.class, () -> Money.parse("1.234"));
+        assertThrows(ArithmeticException.class, () -> Money.parse("0.005"));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1.005")));
+    }
+
+    @Test
+    void fallsBackToBigDecimalForOtherForms() {
+        assertEquals(100_000, Money.parse("1e3").cents());
+        assertEquals(1_234_567_890_123_456_700L, Money.parse("12345678901234567").cents());
+        assertEquals(Long.MAX_VALUE, Money.parse("92233720368547758.07").cents());
+        assertThrows(ArithmeticException.class, () -> Money.parse("92233720368547758.08"));
+        assertThrows(ArithmeticException.class, () -> Money.parse("1e30"));
+    }
+
+    @Test
+    void rejectsTextThatIsNotANumber() {
+        for (String text : new String[]{"", "-", "+", ".", "1,000", "12.5x", " 1", "--1"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(text), text);
+        }
+    }
+
+    @Test
+    void appendsTwoDecimalPlacesWithTheSign() {
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals("0.05", Money.ofCents(5).toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+        assertEquals("-1.05", Money.ofCents(-105).toString());
+        assertEquals("5200.00", Money.ofCents(520_000).toString());
+        assertEquals("-92233720368547758.08", Money.ofCents(Long.MIN_VALUE).toString());
+        assertEquals("net -12.50", Money.ofCents(-1250).appendTo(new StringBuilder("net ")).toString());
+    }
+
+    @Test
+    void roundTripsThroughTextAndBigDecimal() {
+        for (long cents : new long[]{0, 1, -1, 99, -100, 123_456_789, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            Money money = Money.ofCents(cents);
+            assertEquals(money, Money.parse(money.toString()));
+            assertEquals(money, Money.of(money.toBigDecimal()));
+        }
+        assertNull(Money.of(null));
+    }
+
+    @Test
+    void arithmeticThrowsInsteadOfOverflowing() {
+        Money max = Money.ofCents(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).minus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).negate());
+        assertSame(max, max.plus(Money.ZERO));
+    }
+
+    @Test
+    void exceedsComparesMagnitude() {
+        Money threshold = Money.ofCents(100);
+        assertTrue(Money.ofCents(101).exceeds(threshold));
+        assertTrue(Money.ofCents(-101).exceeds(threshold));
+        assertFalse(Money.ofCents(-100).exceeds(threshold));
+    }
+}
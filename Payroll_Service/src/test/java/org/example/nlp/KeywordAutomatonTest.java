@@ -0,0 +1,70 @@
+package org.example.nlp;
+
+import org.example.nlp.KeywordAutomaton.Match;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeywordAutomatonTest {
+
+    private static final KeywordAutomaton<String> AUTOMATON = KeywordAutomaton.<String>builder()
+            .add("pay", "PAY")
+            .add("net pay", "NET")
+            .add("deductions", "DED")
+            .add("new deductions", "NEW")
+            .add("tax", "TAX")
+            .build();
+
+    @Test
+    void reportsEveryOccurrenceWithItsPositionOrderedByEnd() {
+        List<Match<String>> matches = AUTOMATON.scan("my tax and my pay");
+
+        assertEquals(List.of(new Match<>("TAX", "tax", 3, 6), new Match<>("PAY", "pay", 14, 17)), matches);
+    }
+
+    @Test
+    void reportsOverlappingAndNestedKeywords() {
+        List<Match<String>> matches = AUTOMATON.scan("new deductions on net pay");
+
+        assertEquals(List.of(
+                new Match<>("NEW", "new deductions", 0, 14),
+                new Match<>("DED", "deductions", 4, 14),
+                new Match<>("NET", "net pay", 18, 25),
+                new Match<>("PAY", "pay", 22, 25)), matches);
+    }
+
+    @Test
+    void matchesCaseInsensitively() {
+        assertEquals(List.of(new Match<>("NET", "net pay", 0, 7), new Match<>("PAY", "pay", 4, 7)),
+                AUTOMATON.scan("NET Pay"));
+    }
+
+    @Test
+    void followsFailureLinksAfterAPartialMatch() {
+        // "ne" starts "net pay" and "new deductions"; the scan must recover into "new deductions"
+        assertEquals(List.of(new Match<>("NEW", "new deductions", 2, 16), new Match<>("DED", "deductions", 6, 16)),
+                AUTOMATON.scan("nenew deductions"));
+    }
+
+    @Test
+    void charactersOutsideTheKeywordsResetTheMatch() {
+        assertTrue(AUTOMATON.scan("net-pay").stream().noneMatch(match -> match.value().equals("NET")));
+        assertTrue(AUTOMATON.scan("taéx").isEmpty());
+    }
+
+    @Test
+    void emptyAndNullTextHaveNoMatches() {
+        assertTrue(AUTOMATON.scan("").isEmpty());
+        assertTrue(AUTOMATON.scan(null).isEmpty());
+    }
+
+    @Test
+    void rejectsEmptyAndNonAsciiKeywords() {
+        assertThrows(IllegalArgumentException.class, () -> KeywordAutomaton.<String>builder().add("", "X"));
+        assertThrows(IllegalArgumentException.class, () -> KeywordAutomaton.<String>builder().add("café", "X"));
+    }
+}
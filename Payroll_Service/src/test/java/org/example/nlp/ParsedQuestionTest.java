@@ -0,0 +1,89 @@
+package org.example.nlp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParsedQuestionTest {
+
+    private static final YearMonth NOW = YearMonth.of(2025, 6);
+
+    private final QuestionParser parser = new QuestionParser(new TemporalParser(), question -> null,
+            new SimpleMeterRegistry(), 100);
+
+    @Test
+    void listsEveryIntentNamedInPriorityOrder() {
+        ParsedQuestion parsed = parser.parse("what were my tax and bonus this month", NOW);
+
+        assertEquals(List.of(Intent.BONUS, Intent.TAX), List.copyOf(parsed.getIntents()));
+        assertEquals(Intent.BONUS, parsed.getPrimaryIntent());
+    }
+
+    @Test
+    void keywordInsideALongerMatchIsNotCountedSeparately() {
+        assertEquals(Set.of(Intent.NEW_DEDUCTIONS), parser.parse("any new deductions", NOW).getIntents());
+    }
+
+    @Test
+    void questionWithoutKeywordsIsGeneric() {
+        ParsedQuestion parsed = parser.parse("what happened", NOW);
+
+        assertEquals(Set.of(Intent.GENERIC), parsed.getIntents());
+        assertFalse(parsed.hasIntent());
+    }
+
+    @Test
+    void keywordMatchWinsOverTheClassifier() {
+        QuestionParser classifying = parserClassifyingAs(Intent.NET_PAY);
+
+        assertEquals(Set.of(Intent.PAY_DROP), classifying.parse("why did my pay drop", NOW).getIntents());
+    }
+
+    @Test
+    void classifierPlacesQuestionsWithoutKeywords() {
+        ParsedQuestion parsed = parserClassifyingAs(Intent.NET_PAY).parse("how much did i take home", NOW);
+
+        assertEquals(Set.of(Intent.NET_PAY), parsed.getIntents());
+        assertTrue(parsed.hasIntent());
+    }
+
+    @Test
+    void classifiedGenericIsNotAnIntent() {
+        ParsedQuestion parsed = parserClassifyingAs(Intent.GENERIC).parse("and for march", NOW);
+
+        assertEquals(Set.of(Intent.GENERIC), parsed.getIntents());
+        assertFalse(parsed.hasIntent());
+    }
+
+    @Test
+    void correctlySpelledWordsAreNotCorrected() {
+        ParsedQuestion parsed = parser.parse("what is my healthcare deduction", NOW);
+
+        assertEquals(Set.of(Intent.HEALTH_INSURANCE), parsed.getIntents());
+        assertEquals(List.of(), parsed.getCorrections());
+    }
+
+    @Test
+    void trendFollowsTheNextIntentNamed() {
+        ParsedQuestion parsed = parser.parse("how has my overtime changed", NOW);
+
+        assertEquals(Intent.TREND, parsed.getPrimaryIntent());
+        assertEquals(Intent.OVERTIME, parsed.getSecondaryIntent());
+    }
+
+    @Test
+    void trendWithoutASubjectHasAGenericSecondaryIntent() {
+        assertEquals(Intent.GENERIC, parser.parse("show me the trend", NOW).getSecondaryIntent());
+    }
+
+    private static QuestionParser parserClassifyingAs(Intent intent) {
+        return new QuestionParser(new TemporalParser(), question -> intent, new SimpleMeterRegistry(), 100);
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.nlp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class QuestionNormalizerTest {
+
+    private final QuestionNormalizer normalizer = QuestionNormalizer.forIntents();
+
+    @Test
+    void foldsCaseAndSeparatorsAndDropsStopwordsAndApostrophes() {
+        assertEquals("why my net pay low", normalizer.canonicalize("Why is my net-pay low??"));
+        assertEquals("why didnt my pay go up in q1 2025", normalizer.canonicalize("  why didn't my pay go up in Q1, 2025"));
+        assertEquals("", normalizer.canonicalize("please, tell me"));
+        assertEquals("", normalizer.canonicalize(null));
+    }
+
+    @Test
+    void keepsStopwordsThatAreKeywordWords() {
+        // "the" is in "over the last" and "to" in "month to month"
+        assertEquals("over the last 3 months", normalizer.canonicalize("over the last 3 months"));
+    }
+
+    @Test
+    void hashesEqualExactlyWhenCanonicalFormsAre() {
+        assertEquals(normalizer.canonicalHash("Why is my net-pay low??"), normalizer.canonicalHash("why my net pay low"));
+        assertNotEquals(normalizer.canonicalHash("3 months ago"), normalizer.canonicalHash("4 months ago"));
+        assertNotEquals(normalizer.canonicalHash("03 months ago"), normalizer.canonicalHash("3 months ago"));
+        assertNotEquals(normalizer.canonicalHash("netpay"), normalizer.canonicalHash("net pay"));
+    }
+}
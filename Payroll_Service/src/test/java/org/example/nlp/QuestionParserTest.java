@@ -0,0 +1,63 @@
+package org.example.nlp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class QuestionParserTest {
+
+    private static final YearMonth NOW = YearMonth.of(2025, 6);
+
+    @Test
+    void parsesTheSameOnAColdAndAWarmCache() {
+        List<List<String>> phrasings = List.of(
+                List.of("net pay for march", "net-pay for march", "Net Pay, for March?"),
+                List.of("pay drop", "pay  drop", "PAY\tdrop!"),
+                List.of("can you tell me my new deductions", "my new   deductions"),
+                List.of("why didn't my pay go up", "why didnt my pay go up"));
+        for (List<String> group : phrasings) {
+            for (String warm : group) {
+                for (String question : group) {
+                    ParsedQuestion cold = newParser().parse(question, NOW);
+                    QuestionParser warmed = newParser();
+                    warmed.parse(warm, NOW);
+                    assertSameParse(cold, warmed.parse(question, NOW), question + " after " + warm);
+                }
+            }
+        }
+    }
+
+    @Test
+    void separatorsInsideAKeywordDoNotHideIt() {
+        QuestionParser parser = newParser();
+
+        assertEquals(Set.of(Intent.NET_PAY), parser.parse("net-pay for march", NOW).getIntents());
+        assertEquals(Set.of(Intent.PAY_DROP), parser.parse("pay  drop", NOW).getIntents());
+    }
+
+    @Test
+    void cachesByCanonicalFormAndMonth() {
+        QuestionParser parser = newParser();
+
+        ParsedQuestion first = parser.parse("Why did my pay drop?", NOW);
+        assertSame(first, parser.parse("why did my pay drop", NOW));
+        assertNotEquals(first.getPeriod(), parser.parse("why did my pay drop", NOW.plusMonths(1)).getPeriod());
+    }
+
+    private static void assertSameParse(ParsedQuestion expected, ParsedQuestion actual, String message) {
+        assertEquals(expected.getIntents(), actual.getIntents(), message);
+        assertEquals(expected.getPeriod(), actual.getPeriod(), message);
+        assertEquals(expected.getCorrections(), actual.getCorrections(), message);
+    }
+
+    private static QuestionParser newParser() {
+        return new QuestionParser(new TemporalParser(), question -> null, new SimpleMeterRegistry(), 100);
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.nlp;
+
+import org.example.nlp.SpellingCorrector.Correction;
+import org.example.nlp.SpellingCorrector.Result;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpellingCorrectorTest {
+
+    private static final KeywordAutomaton<String> KEYWORDS = KeywordAutomaton.<String>builder()
+            .add("deductions", "DEDUCTIONS")
+            .add("pay drop", "PAY_DROP")
+            .add("trend", "TREND")
+            .add("compare my", "TREND")
+            .add("bonus", "BONUS")
+            .add("health insurance", "HEALTH_INSURANCE")
+            .add("healthcare", "HEALTH_INSURANCE")
+            .build();
+
+    private final SpellingCorrector corrector = new SpellingCorrector(
+            List.of("deductions", "pay", "drop", "trend", "compare", "my", "bonus", "health", "insurance", "healthcare"),
+            List.of("wealth", "bones"), KEYWORDS);
+
+    @Test
+    void correctsAMisspelledKeyword() {
+        Result result = corrector.correct("show my dedcutions please");
+
+        assertEquals("show my deductions please", result.text());
+        assertEquals(List.of(new Correction("dedcutions", "deductions", 8)), result.corrections());
+    }
+
+    @Test
+    void keepsWordsThatCompleteAKeywordTogether() {
+        Result result = corrector.correct("my helth insurence");
+
+        assertEquals("my health insurance", result.text());
+        assertEquals(List.of(new Correction("helth", "health", 3), new Correction("insurence", "insurance", 9)),
+                result.corrections());
+    }
+
+    @Test
+    void dropsACorrectionThatCompletesNoKeyword() {
+        Result result = corrector.correct("my helth plan and my bonsu");
+
+        assertEquals("my helth plan and my bonus", result.text());
+        assertEquals(List.of(new Correction("bonsu", "bonus", 21)), result.corrections());
+    }
+
+    @Test
+    void leavesInflectionsOfVocabularyWordsAlone() {
+        for (String word : List.of("deduction", "drops", "dropping", "dropped", "trends", "trending", "pays",
+                "compared", "comparing", "bonuses")) {
+            assertNull(corrector.lookup(word), word);
+        }
+        String question = "what is my healthcare deduction, and compared my drops";
+        assertSame(question, corrector.correct(question).text());
+    }
+
+    @Test
+    void leavesKnownWordsAlone() {
+        Result result = corrector.correct("wealth and bones");
+
+        assertEquals("wealth and bones", result.text());
+        assertTrue(result.corrections().isEmpty());
+    }
+
+    @Test
+    void leavesShortAndDistantTokensAlone() {
+        assertNull(corrector.lookup("tx"));
+        assertNull(corrector.lookup("bxnxs"), "two edits is too many for a five-letter token");
+        assertNull(corrector.lookup("completely"));
+    }
+
+    @Test
+    void countsATranspositionAsOneEdit() {
+        assertEquals("trend", corrector.lookup("tredn"));
+    }
+
+    @Test
+    void nullTextHasNoCorrections() {
+        Result result = corrector.correct(null);
+
+        assertNull(result.text());
+        assertTrue(result.corrections().isEmpty());
+    }
+}
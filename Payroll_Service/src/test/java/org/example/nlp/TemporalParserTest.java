@@ -0,0 +1,83 @@
+package org.example.nlp;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemporalParserTest {
+
+    private static final YearMonth NOW = YearMonth.of(2025, 6);
+
+    private final TemporalParser parser = new TemporalParser();
+
+    @Test
+    void defaultsToTheCurrentAndPreviousMonth() {
+        PeriodResolution resolution = parser.parse("why did my pay drop", NOW);
+
+        assertFalse(resolution.explicit());
+        assertPeriods(resolution, "2025-06", "2025-06", "2025-05", "2025-05");
+    }
+
+    @Test
+    void bareMonthIsItsLatestOccurrenceUpToNow() {
+        assertPeriods(parser.parse("what about march", NOW), "2025-03", "2025-03", "2025-02", "2025-02");
+        assertPeriods(parser.parse("in september", NOW), "2024-09", "2024-09", "2024-08", "2024-08");
+    }
+
+    @Test
+    void monthWithYear() {
+        assertPeriods(parser.parse("my sept 2024 payslip", NOW), "2024-09", "2024-09", "2024-08", "2024-08");
+        assertPeriods(parser.parse("march of 2023", NOW), "2023-03", "2023-03", "2023-02", "2023-02");
+    }
+
+    @Test
+    void relativeMonths() {
+        assertPeriods(parser.parse("last month", NOW), "2025-05", "2025-05", "2025-04", "2025-04");
+        assertPeriods(parser.parse("3 months ago", NOW), "2025-03", "2025-03", "2025-02", "2025-02");
+        assertPeriods(parser.parse("over the past six months", NOW), "2025-01", "2025-06", "2024-07", "2024-12");
+    }
+
+    @Test
+    void quartersAndYears() {
+        assertPeriods(parser.parse("q1 2025", NOW), "2025-01", "2025-03", "2024-10", "2024-12");
+        assertPeriods(parser.parse("the 2nd quarter", NOW), "2025-04", "2025-06", "2025-01", "2025-03");
+        assertPeriods(parser.parse("this year", NOW), "2025-01", "2025-06", "2024-01", "2024-06");
+        assertPeriods(parser.parse("in 2024", NOW), "2024-01", "2024-12", "2023-01", "2023-12");
+    }
+
+    @Test
+    void rangesCompareWithTheirFirstMonth() {
+        assertPeriods(parser.parse("between january and march", NOW), "2025-01", "2025-03", "2025-01", "2025-01");
+        assertPeriods(parser.parse("since february", NOW), "2025-02", "2025-06", "2025-02", "2025-02");
+    }
+
+    @Test
+    void explicitComparison() {
+        assertPeriods(parser.parse("march compared to last year", NOW), "2025-03", "2025-03", "2024-01", "2024-12");
+    }
+
+    @Test
+    void mayIsAMonthOnlyWhereOneIsExpected() {
+        assertPeriods(parser.parse("what happened in may", NOW), "2025-05", "2025-05", "2025-04", "2025-04");
+        assertFalse(parser.parse("may i see my pay", NOW).explicit());
+    }
+
+    @Test
+    void readsPeriodsPastTheInitialTokenBuffer() {
+        PeriodResolution resolution = parser.parse("and ".repeat(100) + "in march", NOW);
+
+        assertTrue(resolution.explicit());
+        assertPeriods(resolution, "2025-03", "2025-03", "2025-02", "2025-02");
+    }
+
+    private static void assertPeriods(PeriodResolution resolution, String targetStart, String targetEnd,
+                                      String comparisonStart, String comparisonEnd) {
+        assertEquals(new TimePeriod(YearMonth.parse(targetStart), YearMonth.parse(targetEnd)), resolution.target());
+        assertEquals(new TimePeriod(YearMonth.parse(comparisonStart), YearMonth.parse(comparisonEnd)),
+                resolution.comparison());
+    }
+}
@@ -0,0 +1,405 @@
+package org.example.repository;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.EmployeeMonth;
+import org.example.model.Money;
+import org.example.model.PayChange;
+import org.example.model.PayChangeSummary;
+import org.example.model.YtdLedgerEntry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every repository query against H2 in MySQL mode, over the tables and
+ * indexes of scripts/schema.sql, and fails when the plan of a SELECT, UPDATE
+ * or DELETE reads a table without an index. H2's plans are a stand-in for
+ * MySQL's EXPLAIN: an index condition here is range or ref access there, and
+ * a tableScan is a full scan.
+ */
+class RepositoryQueryPlanTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2025, 3);
+    private static final YearMonth APRIL = YearMonth.of(2025, 4);
+    private static final List<String> EMPLOYEES = List.of("emp0001", "emp0002", "emp0150");
+
+    private static JdbcDataSource database;
+    private static final List<String[]> plans = Collections.synchronizedList(new ArrayList<>());
+
+    private PayrollRepository payrollRepository;
+    private DeductionRepository deductionRepository;
+    private PayrollRepository viewPayrollRepository;
+    private DeductionRepository viewDeductionRepository;
+    private EmployeeMonthViewRepository monthView;
+    private PayChangeSummaryRepository summaryRepository;
+    private YtdLedgerRepository ledgerRepository;
+
+    @BeforeAll
+    static void createDatabase() throws Exception {
+        database = new JdbcDataSource();
+        database.setURL("jdbc:h2:mem:query_plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = database.getConnection(); Statement statement = connection.createStatement()) {
+            for (String ddl : schemaStatements()) {
+                statement.execute(ddl);
+            }
+            seed(statement);
+            statement.execute("ANALYZE SAMPLE_SIZE 0");
+        }
+    }
+
+    @BeforeEach
+    void createRepositories() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new ExplainingDataSource());
+        EmployeeMonthViewRepository disabledView = new EmployeeMonthViewRepository(jdbcTemplate, false);
+        monthView = new EmployeeMonthViewRepository(jdbcTemplate, true);
+        monthView.markReady();
+        payrollRepository = new PayrollRepository(jdbcTemplate, disabledView);
+        deductionRepository = new DeductionRepository(jdbcTemplate, disabledView);
+        viewPayrollRepository = new PayrollRepository(jdbcTemplate, monthView);
+        viewDeductionRepository = new DeductionRepository(jdbcTemplate, monthView);
+        summaryRepository = new PayChangeSummaryRepository(jdbcTemplate);
+        ledgerRepository = new YtdLedgerRepository(jdbcTemplate);
+        plans.clear();
+    }
+
+    @Test
+    void payrollMonthLookupsUseEmployeePeriodIndex() {
+        // Whole rows need a lookup either way, so the unique key is as good as the covering index
+        payrollRepository.findByEmployeeIdAndPayPeriod("emp0001", MARCH.atDay(1), APRIL.atEndOfMonth());
+        payrollRepository.findPayrollByEmployeeIdAndMonth("emp0001", MARCH);
+        payrollRepository.findPayrollByEmployeeIdAndMonths("emp0001", List.of(MARCH, APRIL));
+        payrollRepository.findPayrollByEmployeeIdAndMonths("emp0001", List.of(MARCH, MARCH.minusYears(1)));
+        payrollRepository.findPayrollByEmployeeIdsAndMonths(EMPLOYEES, List.of(MARCH, APRIL));
+        payrollRepository.findByEmployeeIdAndMonths("emp0001", List.of(MARCH), PayrollProjection.COMPONENTS);
+        payrollRepository.streamByEmployeeIdAndMonthRange("emp0001", MARCH, APRIL, payroll -> { });
+        payrollRepository.streamByEmployeeIdsAndPayPeriod(EMPLOYEES, MARCH.atDay(1), APRIL.atEndOfMonth(), payroll -> { });
+
+        assertIndexed("uq_payroll_employee_period", "idx_payroll_employee_period");
+    }
+
+    @Test
+    void latestPayrollUsesEmployeePeriodIndex() {
+        // MySQL reads the employee's entries backwards and stops at the first; H2 only shows the range
+        payrollRepository.findLatestPayrollByEmployeeId("emp0001");
+
+        assertIndexed("uq_payroll_employee_period", "idx_payroll_employee_period");
+    }
+
+    @Test
+    void netPayAndTaxProjectionsUseCoveringIndex() {
+        payrollRepository.findByEmployeeIdAndMonths("emp0001", List.of(MARCH, APRIL), PayrollProjection.NET_PAY);
+        payrollRepository.findByEmployeeIdAndMonths("emp0001", List.of(MARCH, APRIL), PayrollProjection.TAX);
+
+        assertIndexed("idx_payroll_employee_period");
+    }
+
+    @Test
+    void yearToDateSumIsCoveredByEmployeePeriodIndex() {
+        payrollRepository.getYearToDateEarnings("emp0001", 2025, APRIL);
+
+        assertIndexed("idx_payroll_employee_period");
+    }
+
+    @Test
+    void bulkPayrollReadsUsePeriodAndLoadDateIndexes() {
+        payrollRepository.streamByMonthsOrderedByEmployee(List.of(MARCH, APRIL), 100, payroll -> { });
+        assertIndexed("idx_payroll_pay_period_end");
+
+        plans.clear();
+        payrollRepository.streamLoadedSince(LocalDateTime.of(2025, 6, 1, 0, 0), 100, payroll -> { });
+        assertIndexed("idx_payroll_load_date");
+    }
+
+    @Test
+    void employeePeriodScansReadOnlyTheUniqueKeys() {
+        // Every row is read, so the best case is a scan of a narrow index instead of the table
+        payrollRepository.streamEmployeePeriods(100, (employeeId, periodEnd) -> { });
+        assertIndexed("uq_payroll_employee_period", "idx_payroll_employee_period");
+
+        plans.clear();
+        deductionRepository.streamEmployeePeriods(100, (employeeId, periodEnd) -> { });
+        assertIndexed("uq_deduction_employee_period_type");
+
+    }
+
+    @Test
+    void insertedSinceReadsArePrimaryKeyRanges() {
+        payrollRepository.streamEmployeePeriods(10, 20, 100, (employeeId, periodEnd) -> { });
+        deductionRepository.streamEmployeePeriods(10, 20, 100, (employeeId, periodEnd) -> { });
+        assertIndexed("primary_key");
+
+        // Read from the end of the primary key
+        plans.clear();
+        payrollRepository.findMaxId();
+        deductionRepository.findMaxId();
+        assertIndexed("direct lookup");
+    }
+
+    @Test
+    void deductionLookupsUseEmployeePeriodIndex() {
+        deductionRepository.findByEmployeeIdAndPayPeriod("emp0001", MARCH.atEndOfMonth());
+        deductionRepository.findByEmployeeIdAndMonth("emp0001", MARCH);
+        deductionRepository.findByEmployeeIdAndMonths("emp0001", List.of(MARCH, APRIL));
+        deductionRepository.findByEmployeeIdsAndMonths(EMPLOYEES, List.of(MARCH, APRIL));
+        deductionRepository.streamByEmployeeIdAndMonthRange("emp0001", MARCH, APRIL, deduction -> { });
+        deductionRepository.streamByEmployeeIdsAndPayPeriod(EMPLOYEES, MARCH.atDay(1), APRIL.atEndOfMonth(), deduction -> { });
+
+        assertIndexed("uq_deduction_employee_period_type");
+    }
+
+    @Test
+    void bulkDeductionReadUsesPeriodIndex() {
+        try (Stream<DeductionBreakdown> deductions = deductionRepository.streamByMonthsOrderedByEmployee(List.of(MARCH, APRIL), 100)) {
+            deductions.forEach(deduction -> { });
+        }
+
+        assertIndexed("idx_deduction_pay_period");
+    }
+
+    @Test
+    void monthViewReadsUsePrimaryKey() {
+        viewPayrollRepository.findPayrollByEmployeeIdAndMonth("emp0001", MARCH);
+        viewPayrollRepository.findPayrollByEmployeeIdAndMonths("emp0001", List.of(MARCH, APRIL));
+        viewPayrollRepository.findPayrollByEmployeeIdsAndMonths(EMPLOYEES, List.of(MARCH, APRIL));
+        viewPayrollRepository.findByEmployeeIdAndMonths("emp0001", List.of(MARCH, APRIL), PayrollProjection.TAX);
+        viewPayrollRepository.findLatestPayrollByEmployeeId("emp0001");
+        viewPayrollRepository.getYearToDateEarnings("emp0001", 2025, APRIL);
+        viewDeductionRepository.findByEmployeeIdAndMonth("emp0001", MARCH);
+        viewDeductionRepository.findByEmployeeIdAndMonths("emp0001", List.of(MARCH, APRIL));
+        viewDeductionRepository.findByEmployeeIdsAndMonths(EMPLOYEES, List.of(MARCH, APRIL));
+
+        assertIndexed("primary_key");
+    }
+
+    @Test
+    void monthViewRefreshUsesPrimaryKeyAndLoadDateIndex() {
+        EmployeeMonth row = monthView.findByEmployeeIdAndMonth("emp0001", MARCH);
+        plans.clear();
+        monthView.replaceYears(Map.of("emp0001", Set.of(2025)), List.of(row));
+        assertIndexed("primary_key");
+
+        plans.clear();
+        monthView.findLatestLoadDate();
+        assertIndexed("idx_employee_month_view_load_date");
+    }
+
+    @Test
+    void payChangeSummaryUsesPrimaryKeyAndLoadDateIndex() {
+        summaryRepository.findByEmployeeIdAndMonth("emp0001", APRIL);
+        PayChangeSummary summary = new PayChangeSummary("emp0001", APRIL, new PayChange(APRIL, MARCH), LocalDateTime.now());
+        summaryRepository.deleteAll(List.of(summary));
+        assertIndexed("primary_key");
+
+        plans.clear();
+        summaryRepository.findLatestSourceLoadDate();
+        assertIndexed("idx_pay_change_summary_load_date");
+    }
+
+    @Test
+    void summaryLookupReadsDeductionsInTheSameQueryOnlyWhenStale() {
+        LocalDateTime sourceLoadDate = LocalDateTime.of(2025, 1, 1, 0, 39);
+
+        PayChangeSummaryRepository.SummaryLookup fresh =
+                summaryRepository.findByEmployeeIdAndMonthWithDeductions("emp0001", APRIL, sourceLoadDate);
+        assertEquals(sourceLoadDate, fresh.summary().getSourceLoadDate());
+        assertNull(fresh.deductions());
+
+        PayChangeSummaryRepository.SummaryLookup stale =
+                summaryRepository.findByEmployeeIdAndMonthWithDeductions("emp0001", APRIL, sourceLoadDate.plusDays(1));
+        assertEquals(sourceLoadDate, stale.summary().getSourceLoadDate());
+        assertEquals(Set.of(MARCH, APRIL), stale.deductions().keySet());
+        assertEquals(3, stale.deductions().get(MARCH).size());
+
+        PayChangeSummaryRepository.SummaryLookup missing =
+                summaryRepository.findByEmployeeIdAndMonthWithDeductions("emp0001", YearMonth.of(2026, 2), sourceLoadDate);
+        assertNull(missing.summary());
+        assertTrue(missing.deductions().isEmpty());
+
+        assertEquals(3, plans.size(), "one query per lookup");
+        assertIndexed("primary_key");
+        for (String[] plan : plans) {
+            assertTrue(plan[1].toLowerCase().contains("uq_deduction_employee_period_type"), plan[1]);
+        }
+    }
+
+    @Test
+    void ytdLedgerUsesPrimaryKeyAndLoadDateIndex() {
+        assertTrue(ledgerRepository.findByEmployeeIdAndMonthWithSource("emp0001", APRIL).isFresh());
+        ledgerRepository.findByEmployeeIdsAndMonthRange(EMPLOYEES, YearMonth.of(2025, 1), APRIL);
+        YtdLedgerEntry entry = new YtdLedgerEntry("emp0001", APRIL, Money.ofCents(1000), Money.ofCents(100), LocalDateTime.now(), 4);
+        ledgerRepository.replaceFrom(Map.of("emp0001", List.of(APRIL)), List.of(entry));
+        assertIndexed("primary_key");
+
+        plans.clear();
+        ledgerRepository.findLatestSourceLoadDate();
+        assertIndexed("idx_ytd_ledger_load_date");
+    }
+
+    @Test
+    void refreshWatermarkUsesPrimaryKey() {
+        new RefreshWatermarkRepository(new JdbcTemplate(new ExplainingDataSource())).findByName("pay_change_summary");
+        assertIndexed("primary_key");
+    }
+
+    private static void assertIndexed(String... indexes) {
+        assertFalse(plans.isEmpty(), "no queries were explained");
+        for (String[] plan : plans) {
+            String text = plan[1].toLowerCase();
+            assertFalse(text.contains("tablescan"), () -> "Full scan for " + plan[0] + "\n" + plan[1]);
+            assertTrue(Arrays.stream(indexes).anyMatch(text::contains),
+                    () -> "Expected " + String.join(" or ", indexes) + " for " + plan[0] + "\n" + plan[1]);
+        }
+    }
+
+    /**
+     * The CREATE TABLE statements of scripts/schema.sql and the CREATE INDEX
+     * statements from its manage_indexes procedure, which H2 can't run.
+     */
+    private static List<String> schemaStatements() throws IOException {
+        String script = new ClassPathResource("scripts/schema.sql").getContentAsString(StandardCharsets.UTF_8)
+                .replace("\r\n", "\n");
+        int procedure = script.indexOf("DELIMITER");
+        List<String> statements = new ArrayList<>();
+        for (String statement : script.substring(0, procedure).split(";")) {
+            String ddl = statement.replaceAll("(?m)^\\s*--.*$", "").trim();
+            if (ddl.startsWith("CREATE TABLE")) {
+                statements.add(ddl);
+            }
+        }
+        for (String line : script.substring(procedure).split("\n")) {
+            if (line.trim().matches("CREATE (UNIQUE )?INDEX .*")) {
+                statements.add(line.trim().replaceAll(";$", ""));
+            }
+        }
+        return statements;
+    }
+
+    private static void seed(Statement statement) throws SQLException {
+        statement.execute("INSERT INTO payroll_transactions (employee_id, pay_period_start, pay_period_end, gross_pay, " +
+                "net_pay, base_salary, tax_withheld, total_deductions, load_date) " +
+                "SELECT CONCAT('emp', LPAD(e.\"X\", 4, '0')), DATEADD(MONTH, m.\"X\", DATE '2024-01-01'), " +
+                "DATEADD(DAY, -1, DATEADD(MONTH, m.\"X\" + 1, DATE '2024-01-01')), 5000, 3800, 5000, 900, 300, " +
+                "DATEADD(MINUTE, e.\"X\" * 24 + m.\"X\", TIMESTAMP '2025-01-01 00:00:00') " +
+                "FROM SYSTEM_RANGE(1, 200) e, SYSTEM_RANGE(0, 23) m");
+        statement.execute("INSERT INTO deduction_breakdown (employee_id, pay_period_end, deduction_type, amount, category) " +
+                "SELECT employee_id, pay_period_end, CONCAT('type', t.\"X\"), 100, 'pre-tax' " +
+                "FROM payroll_transactions, SYSTEM_RANGE(1, 3) t");
+        statement.execute("INSERT INTO employee_month_view (employee_id, pay_month, pay_period_start, pay_period_end, " +
+                "gross_pay, net_pay, base_salary, tax_withheld, total_deductions, load_date, deductions, ytd_gross_pay, ytd_net_pay) " +
+                "SELECT employee_id, pay_period_start, pay_period_start, pay_period_end, gross_pay, net_pay, base_salary, " +
+                "tax_withheld, total_deductions, load_date, '', gross_pay * MONTH(pay_period_end), net_pay * MONTH(pay_period_end) " +
+                "FROM payroll_transactions");
+        statement.execute("INSERT INTO pay_change_summary (employee_id, pay_month, net_pay_change, base_pay_change, " +
+                "bonus_change, overtime_change, tax_change, total_deductions_change, deduction_changes, source_load_date) " +
+                "SELECT employee_id, pay_period_start, 0, 0, 0, 0, 0, 0, '', load_date FROM payroll_transactions");
+        statement.execute("INSERT INTO ytd_ledger (employee_id, pay_month, ytd_gross_pay, ytd_net_pay, source_load_date, " +
+                "source_rows) SELECT employee_id, pay_month, ytd_gross_pay, ytd_net_pay, load_date, MONTH(pay_month) " +
+                "FROM employee_month_view");
+    }
+
+    /**
+     * Hands out connections whose statements, when executed, first record the
+     * EXPLAIN of the same SQL with the same parameters.
+     */
+    private static class ExplainingDataSource extends DelegatingDataSource {
+
+        ExplainingDataSource() {
+            super(database);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return proxy(Connection.class, (target, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (method.getName().equals("prepareStatement")) {
+                    return explaining(connection, (PreparedStatement) result, (String) args[0]);
+                }
+                if (method.getName().equals("createStatement")) {
+                    return explaining(connection, (Statement) result);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement explaining(Connection connection, PreparedStatement statement, String sql) {
+            List<Object[]> parameters = new ArrayList<>();
+            return proxy(PreparedStatement.class, (target, method, args) -> {
+                if (method.getDeclaringClass() == PreparedStatement.class && method.getName().startsWith("set")) {
+                    parameters.add(new Object[]{method, args});
+                } else if (method.getName().startsWith("execute") || method.getName().equals("addBatch")) {
+                    explain(connection, sql, parameters);
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static Statement explaining(Connection connection, Statement statement) {
+            return proxy(Statement.class, (target, method, args) -> {
+                if (method.getName().startsWith("execute") && args != null && args[0] instanceof String sql) {
+                    explain(connection, sql, List.of());
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static void explain(Connection connection, String sql, List<Object[]> parameters) throws Throwable {
+            String verb = sql.trim().split("\\s+")[0].toUpperCase();
+            if (!Set.of("SELECT", "UPDATE", "DELETE").contains(verb)) {
+                return;
+            }
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (Object[] parameter : parameters) {
+                    invoke(explain, (Method) parameter[0], (Object[]) parameter[1]);
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    plan.next();
+                    plans.add(new String[]{sql, plan.getString(1)});
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(RepositoryQueryPlanTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.DeductionBreakdown;
+import org.example.model.Money;
+import org.example.model.PayrollTransaction;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColumnarPayrollStoreTest {
+
+    private static final LocalDateTime LOADED = LocalDateTime.of(2025, 5, 2, 9, 0);
+
+    // Each table's rows in auto-increment id order; a row's id is its position plus one
+    private final List<PayrollTransaction> payroll = new ArrayList<>();
+    private final List<DeductionBreakdown> deductions = new ArrayList<>();
+
+    @Test
+    void backfilledMonthsAndDeductionOnlyLoadsAreRebuilt() {
+        addPayroll("columnar-emp1", YearMonth.of(2025, 4), LOADED);
+        ColumnarPayrollStore store = store();
+        assertEquals(1, store.refresh());
+
+        // Loaded outside ingestion: a year-old month with its original load_date, and a deduction alone
+        addPayroll("columnar-emp1", YearMonth.of(2024, 4), LOADED.minusYears(1));
+        addDeduction("columnar-emp1", YearMonth.of(2025, 4));
+
+        assertEquals(2, store.refresh());
+        ColumnarPayrollStore.StoreStats stats = store.getStats();
+        assertEquals(2, stats.months());
+        assertEquals(2, stats.payrollRows());
+        assertEquals(1, stats.deductionRows());
+        assertEquals(0, store.refresh());
+    }
+
+    private ColumnarPayrollStore store() {
+        PayrollRepository payrollRepository = new PayrollRepository(null, null) {
+            @Override
+            public void streamEmployeePeriods(long afterId, long throughId, int fetchSize,
+                                              BiConsumer<String, LocalDate> consumer) {
+                for (int i = (int) afterId; i < throughId; i++) {
+                    consumer.accept(payroll.get(i).getEmployeeId(), payroll.get(i).getPayPeriodEnd());
+                }
+            }
+
+            @Override
+            public long findMaxId() {
+                return payroll.size();
+            }
+
+            @Override
+            public void streamLoadedSince(LocalDateTime since, int fetchSize, Consumer<PayrollTransaction> consumer) {
+                payroll.stream().filter(row -> row.getLoadDate().isAfter(since)).forEach(consumer);
+            }
+
+            @Override
+            public void streamByMonthsOrderedByEmployee(Collection<YearMonth> months, int fetchSize,
+                                                        Consumer<PayrollTransaction> consumer) {
+                payroll.stream().filter(row -> months.contains(YearMonth.from(row.getPayPeriodEnd()))).forEach(consumer);
+            }
+        };
+        DeductionRepository deductionRepository = new DeductionRepository(null, null) {
+            @Override
+            public void streamEmployeePeriods(long afterId, long throughId, int fetchSize,
+                                              BiConsumer<String, LocalDate> consumer) {
+                for (int i = (int) afterId; i < throughId; i++) {
+                    consumer.accept(deductions.get(i).getEmployeeId(), deductions.get(i).getPayPeriodEnd());
+                }
+            }
+
+            @Override
+            public long findMaxId() {
+                return deductions.size();
+            }
+
+            @Override
+            public Stream<DeductionBreakdown> streamByMonthsOrderedByEmployee(Collection<YearMonth> months, int fetchSize) {
+                return deductions.stream().filter(row -> months.contains(YearMonth.from(row.getPayPeriodEnd())));
+            }
+        };
+        return new ColumnarPayrollStore(payrollRepository, deductionRepository, new SimpleMeterRegistry(),
+                true, 100, 3_600_000);
+    }
+
+    private void addPayroll(String employeeId, YearMonth month, LocalDateTime loadDate) {
+        PayrollTransaction row = new PayrollTransaction();
+        row.setEmployeeId(employeeId);
+        row.setPayPeriodStart(month.atDay(1));
+        row.setPayPeriodEnd(month.atEndOfMonth());
+        row.setGrossPay(Money.ofCents(400_000));
+        row.setNetPay(Money.ofCents(300_000));
+        row.setBaseSalary(Money.ofCents(400_000));
+        row.setBonus(Money.ZERO);
+        row.setOvertime(Money.ZERO);
+        row.setTaxWithheld(Money.ofCents(80_000));
+        row.setTotalDeductions(Money.ofCents(20_000));
+        row.setLoadDate(loadDate);
+        payroll.add(row);
+    }
+
+    private void addDeduction(String employeeId, YearMonth month) {
+        DeductionBreakdown row = new DeductionBreakdown();
+        row.setEmployeeId(employeeId);
+        row.setPayPeriodEnd(month.atEndOfMonth());
+        row.setDeductionType("Dental");
+        row.setAmount(Money.ofCents(2_000));
+        row.setEmployerMatch(Money.ZERO);
+        deductions.add(row);
+    }
+}
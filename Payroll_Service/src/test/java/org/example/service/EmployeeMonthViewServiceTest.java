@@ -0,0 +1,128 @@
+package org.example.service;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.EmployeeMonth;
+import org.example.model.PayrollTransaction;
+import org.example.repository.DeductionRepository;
+import org.example.repository.EmployeeMonthViewRepository;
+import org.example.repository.PayrollRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeMonthViewServiceTest {
+
+    private static final LocalDateTime LOADED = LocalDateTime.of(2025, 5, 2, 9, 0);
+
+    // Each table's rows in auto-increment id order; a row's id is its position plus one
+    private final List<PayrollTransaction> payroll = new ArrayList<>();
+    private final List<DeductionBreakdown> deductions = new ArrayList<>();
+    private final Map<String, Set<Integer>> rebuilt = new HashMap<>();
+
+    @Test
+    void backfillsAndDeductionOnlyLoadsRebuildTheirYears() {
+        addPayroll("view-emp1", YearMonth.of(2025, 4), LOADED);
+        EmployeeMonthViewService service = service();
+        service.refresh();
+        rebuilt.clear();
+
+        // Loaded outside ingestion: a year-old month with its original load_date, and deductions alone
+        addPayroll("view-emp1", YearMonth.of(2024, 3), LOADED.minusYears(1));
+        addDeduction("view-emp2", YearMonth.of(2025, 4));
+
+        assertEquals(2, service.refresh());
+        assertEquals(Map.of("view-emp1", Set.of(2024), "view-emp2", Set.of(2025)), rebuilt);
+
+        rebuilt.clear();
+        assertEquals(0, service.refresh());
+        assertTrue(rebuilt.isEmpty());
+    }
+
+    private EmployeeMonthViewService service() {
+        PayrollRepository payrollRepository = new PayrollRepository(null, null) {
+            @Override
+            public void streamEmployeePeriods(long afterId, long throughId, int fetchSize,
+                                              BiConsumer<String, LocalDate> consumer) {
+                for (int i = (int) afterId; i < throughId; i++) {
+                    consumer.accept(payroll.get(i).getEmployeeId(), payroll.get(i).getPayPeriodEnd());
+                }
+            }
+
+            @Override
+            public long findMaxId() {
+                return payroll.size();
+            }
+
+            @Override
+            public void streamLoadedSince(LocalDateTime since, int fetchSize, Consumer<PayrollTransaction> consumer) {
+                payroll.stream().filter(row -> row.getLoadDate().isAfter(since)).forEach(consumer);
+            }
+
+            @Override
+            public void streamByEmployeeIdsAndPayPeriod(Collection<String> employeeIds, LocalDate startDate,
+                                                        LocalDate endDate, Consumer<PayrollTransaction> consumer) {
+            }
+        };
+        DeductionRepository deductionRepository = new DeductionRepository(null, null) {
+            @Override
+            public void streamEmployeePeriods(long afterId, long throughId, int fetchSize,
+                                              BiConsumer<String, LocalDate> consumer) {
+                for (int i = (int) afterId; i < throughId; i++) {
+                    consumer.accept(deductions.get(i).getEmployeeId(), deductions.get(i).getPayPeriodEnd());
+                }
+            }
+
+            @Override
+            public long findMaxId() {
+                return deductions.size();
+            }
+
+            @Override
+            public void streamByEmployeeIdsAndPayPeriod(Collection<String> employeeIds, LocalDate startDate,
+                                                        LocalDate endDate, Consumer<DeductionBreakdown> consumer) {
+            }
+        };
+        EmployeeMonthViewRepository monthView = new EmployeeMonthViewRepository(null, true) {
+            @Override
+            public LocalDateTime findLatestLoadDate() {
+                return null;
+            }
+
+            @Override
+            public void replaceYears(Map<String, ? extends Collection<Integer>> yearsByEmployee, List<EmployeeMonth> rows) {
+                yearsByEmployee.forEach((employeeId, years) ->
+                        rebuilt.computeIfAbsent(employeeId, id -> new TreeSet<>()).addAll(years));
+            }
+        };
+        return new EmployeeMonthViewService(payrollRepository, deductionRepository, monthView, null, 100, 3_600_000);
+    }
+
+    private void addPayroll(String employeeId, YearMonth month, LocalDateTime loadDate) {
+        PayrollTransaction row = new PayrollTransaction();
+        row.setEmployeeId(employeeId);
+        row.setPayPeriodEnd(month.atEndOfMonth());
+        row.setLoadDate(loadDate);
+        payroll.add(row);
+    }
+
+    private void addDeduction(String employeeId, YearMonth month) {
+        DeductionBreakdown row = new DeductionBreakdown();
+        row.setEmployeeId(employeeId);
+        row.setPayPeriodEnd(month.atEndOfMonth());
+        deductions.add(row);
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.DeductionBreakdown;
+import org.example.model.ExplanationResponse;
+import org.example.model.Money;
+import org.example.model.PayChangeReason;
+import org.example.model.PayrollTransaction;
+import org.example.model.QueryRequest;
+import org.example.nlp.QuestionParser;
+import org.example.nlp.TemporalParser;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExplanationServiceTest {
+
+    private static final String BROKEN = "emp-broken";
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Every employee has payroll in every month, net pay falling by $100 a month; BROKEN's reads time out
+    private final PayrollRepository payrollRepository = new PayrollRepository(null, null) {
+        @Override
+        public Map<YearMonth, PayrollTransaction> findPayrollByEmployeeIdAndMonths(String employeeId,
+                                                                                   Collection<YearMonth> months) {
+            Map<YearMonth, PayrollTransaction> rows = new HashMap<>();
+            for (YearMonth month : months) {
+                rows.put(month, payroll(employeeId, month));
+            }
+            return rows;
+        }
+
+        @Override
+        public void streamByEmployeeIdAndMonthRange(String employeeId, YearMonth fromMonth, YearMonth toMonth,
+                                                    Consumer<PayrollTransaction> consumer) {
+            for (YearMonth month = fromMonth; !month.isAfter(toMonth); month = month.plusMonths(1)) {
+                consumer.accept(payroll(employeeId, month));
+            }
+        }
+    };
+
+    private final DeductionRepository deductionRepository = new DeductionRepository(null, null) {
+        @Override
+        public Map<YearMonth, List<DeductionBreakdown>> findByEmployeeIdAndMonths(String employeeId,
+                                                                                  Collection<YearMonth> months) {
+            return Map.of();
+        }
+    };
+
+    private final ExplanationService service = new ExplanationService(
+            new PayrollService(payrollRepository, deductionRepository, null, null, null) {
+                @Override
+                public EmployeePeriodSnapshot loadSnapshot(String employeeId, EmployeePeriodSnapshot previous,
+                                                           YearMonth... months) {
+                    return snapshot(employeeId, Arrays.asList(months));
+                }
+
+                @Override
+                public Map<String, EmployeePeriodSnapshot> loadSnapshots(Collection<String> employeeIds,
+                                                                         Collection<YearMonth> months) {
+                    Map<String, EmployeePeriodSnapshot> snapshots = new LinkedHashMap<>();
+                    for (String employeeId : employeeIds) {
+                        snapshots.put(employeeId, snapshot(employeeId, months));
+                    }
+                    return snapshots;
+                }
+            },
+            new ExplanationLogWriter(null, meterRegistry, 1000, 100, 500, ExplanationLogWriter.OverflowPolicy.DROP_OLDEST, 1),
+            new QuestionParser(new TemporalParser(), question -> null, meterRegistry, 100),
+            executor,
+            new ExplanationCache(meterRegistry, 100, 30),
+            new ConversationStore(meterRegistry, 1 << 20, 16384, 15),
+            new PayChangeSummaryService(null, null, null, null, null, meterRegistry, false, 100, 3_600_000));
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void aFailedBatchQuestionGetsAnErrorInItsOwnSlot() {
+        List<ExplanationResponse> responses = service.generateExplanations(List.of(
+                request("emp-batch1", "why did my pay drop"),
+                request(BROKEN, "why did my pay drop"),
+                request("emp-batch2", "why did my pay drop")));
+
+        assertEquals(3, responses.size());
+        assertEquals("Internal error", responses.get(1).getError());
+        assertEquals(ExplanationTemplates.ANSWER_FAILED, responses.get(1).getExplanation());
+        for (int i : new int[] {0, 2}) {
+            assertNull(responses.get(i).getError());
+            assertEquals(Money.ofCents(-10_000), responses.get(i).getNetChange());
+        }
+    }
+
+    @Test
+    void aTrendOutrankedByPayDropFollowsNetPayOverThePeriod() {
+        // PAY_DROP outranks TREND, so both are answered: the drop against the months before, then the trend
+        ExplanationResponse response = service.generateExplanation("emp-trend", "why did my pay go down over the last 3 months");
+
+        assertTrue(response.getExplanation().contains("Your net pay went from"), response.getExplanation());
+        // The drop's base pay reason once, then the trend's month-over-month net pay changes
+        assertEquals(List.of("Salary", "NetPay", "NetPay"),
+                response.getReasons().stream().map(PayChangeReason::getType).toList());
+        assertEquals(Money.ofCents(-30_000), response.getNetChange());
+    }
+
+    private EmployeePeriodSnapshot snapshot(String employeeId, Collection<YearMonth> months) {
+        return new EmployeePeriodSnapshot(employeeId, new LinkedHashSet<>(months), payrollRepository, deductionRepository);
+    }
+
+    private static PayrollTransaction payroll(String employeeId, YearMonth month) {
+        if (employeeId.equals(BROKEN)) {
+            throw new QueryTimeoutException("Timed out reading " + employeeId);
+        }
+        long net = 5_000_000 - 10_000L * ChronoUnit.MONTHS.between(YearMonth.of(2000, 1), month);
+        PayrollTransaction payroll = new PayrollTransaction();
+        payroll.setEmployeeId(employeeId);
+        payroll.setPayPeriodStart(month.atDay(1));
+        payroll.setPayPeriodEnd(month.atEndOfMonth());
+        payroll.setLoadDate(LocalDateTime.of(2025, 1, 1, 0, 0));
+        payroll.setNetPay(Money.ofCents(net));
+        payroll.setGrossPay(Money.ofCents(net + 150_000));
+        payroll.setBaseSalary(Money.ofCents(net + 100_000));
+        payroll.setBonus(Money.ZERO);
+        payroll.setOvertime(Money.ZERO);
+        payroll.setTaxWithheld(Money.ofCents(50_000));
+        payroll.setTotalDeductions(Money.ZERO);
+        return payroll;
+    }
+
+    private static QueryRequest request(String employeeId, String question) {
+        QueryRequest request = new QueryRequest();
+        request.setEmployeeId(employeeId);
+        request.setQuestion(question);
+        return request;
+    }
+}
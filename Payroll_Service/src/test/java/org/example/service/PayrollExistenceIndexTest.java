@@ -0,0 +1,163 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayrollExistenceIndexTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2025, 3);
+    private static final YearMonth APRIL = YearMonth.of(2025, 4);
+    private static final long HOUR_MS = 3_600_000;
+
+    // The employee and pay period of each row, by auto-increment id
+    private record Row(long id, String employeeId, LocalDate periodEnd) {
+    }
+
+    private final List<Row> payroll = new ArrayList<>();
+    private final List<Row> deductions = new ArrayList<>();
+
+    @Test
+    void everyMonthMayHaveRowsUntilTheFirstRefresh() {
+        PayrollExistenceIndex index = index(HOUR_MS);
+
+        assertFalse(index.isServing());
+        assertTrue(index.mayHavePayroll("exists-nobody", APRIL));
+
+        index.refresh();
+
+        assertTrue(index.isServing());
+        assertFalse(index.mayHavePayroll("exists-nobody", APRIL));
+    }
+
+    @Test
+    void firstRefreshReadsEveryRow() {
+        insert(payroll, "exists-emp1", MARCH);
+        insert(deductions, "exists-emp1", MARCH);
+        PayrollExistenceIndex index = index(HOUR_MS);
+
+        assertEquals(2, index.refresh());
+
+        assertTrue(index.mayHavePayroll("exists-emp1", MARCH));
+        assertTrue(index.mayHaveDeductions("exists-emp1", MARCH));
+        assertFalse(index.mayHavePayroll("exists-emp1", APRIL));
+        assertFalse(index.mayHaveDeductions("exists-emp1", APRIL));
+    }
+
+    @Test
+    void laterRefreshesReadOnlyNewIds() {
+        insert(payroll, "exists-emp2", MARCH);
+        PayrollExistenceIndex index = index(HOUR_MS);
+        index.refresh();
+
+        // A backfill of an older month, whatever its load_date, and a deduction-only load
+        insert(payroll, "exists-emp2", YearMonth.of(2024, 1));
+        insert(deductions, "exists-emp3", APRIL);
+
+        assertEquals(2, index.refresh());
+        assertTrue(index.mayHavePayroll("exists-emp2", YearMonth.of(2024, 1)));
+        assertTrue(index.mayHaveDeductions("exists-emp3", APRIL));
+        assertEquals(0, index.refresh());
+    }
+
+    @Test
+    void rowsCommittedBelowTheWatermarkWaitForTheRescan() {
+        insert(payroll, "exists-emp4", MARCH);
+        insert(payroll, "exists-emp4", APRIL);
+        Row late = payroll.remove(0);
+        PayrollExistenceIndex hourly = index(HOUR_MS);
+        PayrollExistenceIndex always = index(0);
+        hourly.refresh();
+        always.refresh();
+
+        // The insert with the lower id commits after both refreshes read the higher one
+        payroll.add(late);
+        hourly.refresh();
+        always.refresh();
+
+        assertFalse(hourly.mayHavePayroll("exists-emp4", MARCH));
+        assertTrue(always.mayHavePayroll("exists-emp4", MARCH));
+    }
+
+    @Test
+    void ingestedRowsAreAddedWithoutARefresh() {
+        PayrollExistenceIndex index = index(HOUR_MS);
+        index.refresh();
+
+        index.payrollChanged(Map.of("exists-emp5", List.of(APRIL)));
+        index.deductionsChanged(Map.of("exists-emp5", List.of(MARCH)));
+
+        assertTrue(index.mayHavePayroll("exists-emp5", APRIL));
+        assertFalse(index.mayHavePayroll("exists-emp5", MARCH));
+        assertTrue(index.mayHaveDeductions("exists-emp5", MARCH));
+        assertEquals(List.of("exists-emp5"),
+                index.withPayroll(List.of("exists-emp5", "exists-emp6"), List.of(MARCH, APRIL)));
+    }
+
+    private PayrollExistenceIndex index(long rescanIntervalMs) {
+        PayrollRepository payrollRepository = new PayrollRepository(null, null) {
+            @Override
+            public void streamEmployeePeriods(int fetchSize, BiConsumer<String, LocalDate> consumer) {
+                stream(payroll, 0, Long.MAX_VALUE, consumer);
+            }
+
+            @Override
+            public void streamEmployeePeriods(long afterId, long throughId, int fetchSize,
+                                              BiConsumer<String, LocalDate> consumer) {
+                stream(payroll, afterId, throughId, consumer);
+            }
+
+            @Override
+            public long findMaxId() {
+                return maxId(payroll);
+            }
+        };
+        DeductionRepository deductionRepository = new DeductionRepository(null, null) {
+            @Override
+            public void streamEmployeePeriods(int fetchSize, BiConsumer<String, LocalDate> consumer) {
+                stream(deductions, 0, Long.MAX_VALUE, consumer);
+            }
+
+            @Override
+            public void streamEmployeePeriods(long afterId, long throughId, int fetchSize,
+                                              BiConsumer<String, LocalDate> consumer) {
+                stream(deductions, afterId, throughId, consumer);
+            }
+
+            @Override
+            public long findMaxId() {
+                return maxId(deductions);
+            }
+        };
+        return new PayrollExistenceIndex(payrollRepository, deductionRepository, new SimpleMeterRegistry(),
+                true, 100, rescanIntervalMs);
+    }
+
+    private static void insert(List<Row> table, String employeeId, YearMonth month) {
+        table.add(new Row(maxId(table) + 1, employeeId, month.atEndOfMonth()));
+    }
+
+    private static long maxId(List<Row> table) {
+        return table.stream().mapToLong(Row::id).max().orElse(0);
+    }
+
+    private static void stream(List<Row> table, long afterId, long throughId, BiConsumer<String, LocalDate> consumer) {
+        for (Row row : table) {
+            if (row.id() > afterId && row.id() <= throughId) {
+                consumer.accept(row.employeeId(), row.periodEnd());
+            }
+        }
+    }
+}
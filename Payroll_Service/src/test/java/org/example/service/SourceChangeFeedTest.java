@@ -0,0 +1,209 @@
+package org.example.service;
+
+import org.example.model.PayrollTransaction;
+import org.example.model.RefreshWatermark;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.example.repository.RefreshWatermarkRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceChangeFeedTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2025, 3);
+    private static final YearMonth APRIL = YearMonth.of(2025, 4);
+    private static final LocalDateTime LOADED = LocalDateTime.of(2025, 5, 2, 9, 0);
+    private static final long HOUR_MS = 3_600_000;
+
+    // One row of either table by auto-increment id; deduction rows have no load_date
+    private static final class Row {
+        final long id;
+        final String employeeId;
+        final LocalDate periodEnd;
+        LocalDateTime loadDate;
+
+        Row(long id, String employeeId, LocalDate periodEnd, LocalDateTime loadDate) {
+            this.id = id;
+            this.employeeId = employeeId;
+            this.periodEnd = periodEnd;
+            this.loadDate = loadDate;
+        }
+    }
+
+    private final List<Row> payroll = new ArrayList<>();
+    private final List<Row> deductions = new ArrayList<>();
+    private final Map<String, RefreshWatermark> saved = new HashMap<>();
+
+    @Test
+    void withNothingDerivedTheFirstReadCoversEveryRow() {
+        insert(payroll, "emp1", MARCH, LOADED);
+        insert(deductions, "emp2", APRIL, null);
+        SourceChangeFeed feed = feed(HOUR_MS);
+
+        SourceChangeFeed.Changes changes = feed.read(() -> null);
+
+        assertEquals(Map.of("emp1", Set.of(MARCH), "emp2", Set.of(APRIL)), changes.monthsByEmployee());
+        feed.advance(changes);
+        assertTrue(feed.read(() -> null).isEmpty());
+    }
+
+    @Test
+    void backfillsAndDeductionOnlyLoadsAreReadWhateverTheirLoadDate() {
+        insert(payroll, "emp1", APRIL, LOADED);
+        SourceChangeFeed feed = feed(HOUR_MS);
+        feed.advance(feed.read(() -> null));
+
+        insert(payroll, "emp1", YearMonth.of(2024, 1), LOADED.minusYears(1));
+        insert(payroll, "emp2", APRIL, LOADED);
+        insert(deductions, "emp3", MARCH, null);
+        SourceChangeFeed.Changes changes = feed.read(() -> null);
+
+        assertEquals(Map.of("emp1", Set.of(YearMonth.of(2024, 1)), "emp2", Set.of(APRIL), "emp3", Set.of(MARCH)),
+                changes.monthsByEmployee());
+    }
+
+    @Test
+    void rowsReloadedInPlaceAreReadByLoadDate() {
+        insert(payroll, "emp1", MARCH, LOADED);
+        SourceChangeFeed feed = feed(HOUR_MS);
+        feed.advance(feed.read(() -> null));
+
+        payroll.get(0).loadDate = LOADED.plusDays(1);
+
+        assertEquals(Map.of("emp1", Set.of(MARCH)), feed.read(() -> null).monthsByEmployee());
+    }
+
+    @Test
+    void insertsCommittedBelowTheReadIdsWaitForTheRescan() {
+        SourceChangeFeed hourly = feed(HOUR_MS);
+        SourceChangeFeed always = feed(0);
+        hourly.advance(hourly.read(() -> null));
+        always.advance(always.read(() -> null));
+        insert(payroll, "emp1", MARCH, LOADED);
+        insert(payroll, "emp2", MARCH, LOADED);
+        Row late = payroll.remove(0);
+        hourly.advance(hourly.read(() -> null));
+        always.advance(always.read(() -> null));
+
+        // The insert with the lower id commits after both feeds read the higher one
+        payroll.add(late);
+
+        assertTrue(hourly.read(() -> null).isEmpty());
+        assertEquals(Map.of("emp1", Set.of(MARCH), "emp2", Set.of(MARCH)),
+                always.read(() -> null).monthsByEmployee());
+    }
+
+    @Test
+    void aReadThatIsNotAdvancedPastIsReadAgain() {
+        SourceChangeFeed feed = feed(HOUR_MS);
+        feed.advance(feed.read(() -> null));
+        insert(payroll, "emp1", MARCH, LOADED);
+
+        feed.read(() -> null);
+
+        assertEquals(Map.of("emp1", Set.of(MARCH)), feed.read(() -> null).monthsByEmployee());
+    }
+
+    @Test
+    void aNewFeedResumesFromTheSavedPosition() {
+        insert(payroll, "emp1", MARCH, LOADED);
+        SourceChangeFeed feed = feed(HOUR_MS);
+        feed.advance(feed.read(() -> null));
+
+        // Backfilled while the service was down
+        insert(payroll, "emp2", MARCH, LOADED.minusMonths(1));
+        SourceChangeFeed restarted = feed(HOUR_MS);
+
+        assertEquals(Map.of("emp2", Set.of(MARCH)), restarted.read(() -> LOADED).monthsByEmployee());
+    }
+
+    @Test
+    void withoutASavedPositionRowsTheTableAlreadyHoldsAreTakenAsRead() {
+        insert(payroll, "emp1", MARCH, LOADED);
+        insert(deductions, "emp1", MARCH, null);
+        SourceChangeFeed feed = feed(HOUR_MS);
+
+        assertTrue(feed.read(() -> LOADED).isEmpty());
+    }
+
+    private SourceChangeFeed feed(long rescanIntervalMs) {
+        PayrollRepository payrollRepository = new PayrollRepository(null, null) {
+            @Override
+            public void streamEmployeePeriods(long afterId, long throughId, int fetchSize,
+                                              BiConsumer<String, LocalDate> consumer) {
+                stream(payroll, afterId, throughId, consumer);
+            }
+
+            @Override
+            public long findMaxId() {
+                return maxId(payroll);
+            }
+
+            @Override
+            public void streamLoadedSince(LocalDateTime since, int fetchSize, Consumer<PayrollTransaction> consumer) {
+                for (Row row : payroll) {
+                    if (row.loadDate.isAfter(since)) {
+                        PayrollTransaction transaction = new PayrollTransaction();
+                        transaction.setEmployeeId(row.employeeId);
+                        transaction.setPayPeriodEnd(row.periodEnd);
+                        transaction.setLoadDate(row.loadDate);
+                        consumer.accept(transaction);
+                    }
+                }
+            }
+        };
+        DeductionRepository deductionRepository = new DeductionRepository(null, null) {
+            @Override
+            public void streamEmployeePeriods(long afterId, long throughId, int fetchSize,
+                                              BiConsumer<String, LocalDate> consumer) {
+                stream(deductions, afterId, throughId, consumer);
+            }
+
+            @Override
+            public long findMaxId() {
+                return maxId(deductions);
+            }
+        };
+        RefreshWatermarkRepository watermarks = new RefreshWatermarkRepository(null) {
+            @Override
+            public RefreshWatermark findByName(String name) {
+                return saved.get(name);
+            }
+
+            @Override
+            public void save(RefreshWatermark watermark) {
+                saved.put(watermark.getName(), watermark);
+            }
+        };
+        return new SourceChangeFeed("test", payrollRepository, deductionRepository, watermarks, 100, rescanIntervalMs);
+    }
+
+    private static void insert(List<Row> table, String employeeId, YearMonth month, LocalDateTime loadDate) {
+        table.add(new Row(maxId(table) + 1, employeeId, month.atEndOfMonth(), loadDate));
+    }
+
+    private static long maxId(List<Row> table) {
+        return table.stream().mapToLong(row -> row.id).max().orElse(0);
+    }
+
+    private static void stream(List<Row> table, long afterId, long throughId, BiConsumer<String, LocalDate> consumer) {
+        for (Row row : table) {
+            if (row.id > afterId && row.id <= throughId) {
+                consumer.accept(row.employeeId, row.periodEnd);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.service;
+
+import org.example.model.DeductionBreakdown;
+import org.example.model.Money;
+import org.example.model.PayChange;
+import org.example.model.PayrollTransaction;
+import org.example.repository.DeductionRepository;
+import org.example.repository.PayrollRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkforcePayChangeServiceTest {
+
+    private static final YearMonth APRIL = YearMonth.of(2025, 4);
+    private static final YearMonth MARCH = YearMonth.of(2025, 3);
+
+    @Test
+    void joinsIdsInCodePointOrder() throws IOException {
+        // The order MySQL returns for ORDER BY on the id bytes; a ci collation puts emp_1 last
+        List<String> ids = List.of("Emp2", "emp1", "emp_1", "ﬁemp", "😀emp");
+        List<PayrollTransaction> payroll = new ArrayList<>();
+        List<DeductionBreakdown> deductions = new ArrayList<>();
+        for (String id : ids) {
+            payroll.add(payroll(id, APRIL, 900));
+            payroll.add(payroll(id, MARCH, 1000));
+            deductions.add(deduction(id, APRIL, "Dental", 60));
+            deductions.add(deduction(id, MARCH, "DENTAL", 40));
+        }
+
+        Map<String, PayChange> changes = analyze(payroll, deductions);
+
+        assertEquals(ids, List.copyOf(changes.keySet()));
+        for (PayChange change : changes.values()) {
+            // One type, spelled as the current month's row spells it
+            assertEquals(Map.of("Dental", Money.ofCents(2000)), change.getDeductionChanges());
+        }
+    }
+
+    @Test
+    void payrollIdOutOfOrderFailsTheRun() {
+        List<PayrollTransaction> payroll = List.of(payroll("emp_1", APRIL, 900), payroll("emp1", APRIL, 900));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> analyze(payroll, List.of()));
+        assertTrue(error.getMessage().contains("payroll cursor returned employee emp1 after emp_1"), error.getMessage());
+    }
+
+    @Test
+    void deductionIdOutOfOrderFailsTheRun() {
+        List<PayrollTransaction> payroll = List.of(payroll("emp_2", APRIL, 900), payroll("emp_2", MARCH, 1000));
+        List<DeductionBreakdown> deductions = List.of(deduction("emp_1", APRIL, "dental", 60),
+                deduction("emp1", APRIL, "dental", 60), deduction("emp_2", APRIL, "dental", 60));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> analyze(payroll, deductions));
+        assertTrue(error.getMessage().contains("deduction cursor returned employee emp1 after emp_1"), error.getMessage());
+    }
+
+    @Test
+    void comparesIdsByCodePoint() {
+        assertTrue(WorkforcePayChangeService.compareIds("emp1", "emp_1") < 0);
+        assertTrue(WorkforcePayChangeService.compareIds("Emp1", "emp1") < 0);
+        assertTrue(WorkforcePayChangeService.compareIds("emp", "emp1") < 0);
+        assertEquals(0, WorkforcePayChangeService.compareIds("emp1", "emp1"));
+        // String.compareTo puts the surrogate pair first
+        assertTrue("😀".compareTo("ﬁ") < 0);
+        assertTrue(WorkforcePayChangeService.compareIds("😀", "ﬁ") > 0);
+    }
+
+    private static Map<String, PayChange> analyze(List<PayrollTransaction> payroll, List<DeductionBreakdown> deductions)
+            throws IOException {
+        Map<String, PayChange> changes = new LinkedHashMap<>();
+        PayChangeSink sink = new PayChangeSink() {
+            @Override
+            public void accept(String employeeId, PayChange change) {
+                changes.put(employeeId, change);
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+        PayrollRepository payrollRepository = new PayrollRepository(null, null) {
+            @Override
+            public void streamByMonthsOrderedByEmployee(Collection<YearMonth> months, int fetchSize,
+                                                        Consumer<PayrollTransaction> consumer) {
+                payroll.forEach(consumer);
+            }
+        };
+        DeductionRepository deductionRepository = new DeductionRepository(null, null) {
+            @Override
+            public Stream<DeductionBreakdown> streamByMonthsOrderedByEmployee(Collection<YearMonth> months, int fetchSize) {
+                return deductions.stream();
+            }
+        };
+        new WorkforcePayChangeService(payrollRepository, deductionRepository, 100).analyzePayChanges(APRIL, MARCH, sink);
+        return changes;
+    }
+
+    private static PayrollTransaction payroll(String employeeId, YearMonth month, long net) {
+        PayrollTransaction payroll = new PayrollTransaction();
+        payroll.setEmployeeId(employeeId);
+        payroll.setPayPeriodStart(month.atDay(1));
+        payroll.setPayPeriodEnd(month.atEndOfMonth());
+        for (Consumer<Money> setter : List.<Consumer<Money>>of(payroll::setGrossPay, payroll::setNetPay,
+                payroll::setBaseSalary, payroll::setBonus, payroll::setOvertime, payroll::setTaxWithheld,
+                payroll::setTotalDeductions)) {
+            setter.accept(Money.ofCents(net * 100));
+        }
+        return payroll;
+    }
+
+    private static DeductionBreakdown deduction(String employeeId, YearMonth month, String type, long amount) {
+        DeductionBreakdown deduction = new DeductionBreakdown();
+        deduction.setEmployeeId(employeeId);
+        deduction.setPayPeriodEnd(month.atEndOfMonth());
+        deduction.setDeductionType(type);
+        deduction.setAmount(Money.ofCents(amount * 100));
+        return deduction;
+    }
+}
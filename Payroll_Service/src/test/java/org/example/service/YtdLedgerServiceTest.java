@@ -0,0 +1,148 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.Money;
+import org.example.model.PayrollTransaction;
+import org.example.model.YtdLedgerEntry;
+import org.example.repository.PayrollRepository;
+import org.example.repository.YtdLedgerRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class YtdLedgerServiceTest {
+
+    private static final String EMPLOYEE = "ytd-emp1";
+    private static final LocalDateTime LOADED = LocalDateTime.of(2025, 4, 2, 9, 0);
+
+    // payroll_transactions in auto-increment id order; a row's id is its position plus one
+    private final List<PayrollTransaction> payroll = new ArrayList<>();
+    private final TreeMap<YearMonth, YtdLedgerEntry> ledger = new TreeMap<>();
+
+    @Test
+    void aBackfilledEarlierMonthIsSummedUntilTheRefreshRewritesTheYear() {
+        addPayroll(YearMonth.of(2025, 1), LOADED);
+        PayrollTransaction march = addPayroll(YearMonth.of(2025, 3), LOADED);
+        YtdLedgerService service = service();
+        service.refresh();
+        assertArrayEquals(new Money[]{Money.ofCents(200_000), Money.ofCents(160_000)}, service.find(march));
+
+        // February loaded late, with a load_date older than the rows already in the ledger
+        addPayroll(YearMonth.of(2025, 2), LOADED.minusDays(30));
+        assertNull(service.find(march));
+
+        service.refresh();
+        assertArrayEquals(new Money[]{Money.ofCents(300_000), Money.ofCents(240_000)}, service.find(march));
+    }
+
+    @Test
+    void aReloadedEarlierMonthIsSummedUntilTheRefreshRewritesTheYear() {
+        PayrollTransaction january = addPayroll(YearMonth.of(2025, 1), LOADED);
+        PayrollTransaction march = addPayroll(YearMonth.of(2025, 3), LOADED);
+        YtdLedgerService service = service();
+        service.refresh();
+
+        january.setGrossPay(Money.ofCents(150_000));
+        january.setLoadDate(LOADED.plusDays(1));
+        assertNull(service.find(march));
+
+        service.refresh();
+        assertArrayEquals(new Money[]{Money.ofCents(250_000), Money.ofCents(160_000)}, service.find(march));
+    }
+
+    private YtdLedgerService service() {
+        PayrollRepository payrollRepository = new PayrollRepository(null, null) {
+            @Override
+            public void streamEmployeePeriods(long afterId, long throughId, int fetchSize,
+                                              BiConsumer<String, LocalDate> consumer) {
+                for (int i = (int) afterId; i < throughId; i++) {
+                    consumer.accept(payroll.get(i).getEmployeeId(), payroll.get(i).getPayPeriodEnd());
+                }
+            }
+
+            @Override
+            public long findMaxId() {
+                return payroll.size();
+            }
+
+            @Override
+            public void streamLoadedSince(LocalDateTime since, int fetchSize, Consumer<PayrollTransaction> consumer) {
+                payroll.stream().filter(row -> row.getLoadDate().isAfter(since)).forEach(consumer);
+            }
+
+            @Override
+            public void streamByEmployeeIdsAndPayPeriod(Collection<String> employeeIds, LocalDate startDate,
+                                                        LocalDate endDate, Consumer<PayrollTransaction> consumer) {
+                payroll.stream()
+                        .filter(row -> !row.getPayPeriodEnd().isBefore(startDate) && !row.getPayPeriodEnd().isAfter(endDate))
+                        .sorted((a, b) -> a.getPayPeriodEnd().compareTo(b.getPayPeriodEnd()))
+                        .forEach(consumer);
+            }
+        };
+        YtdLedgerRepository ledgerRepository = new YtdLedgerRepository(null) {
+            @Override
+            public LedgerLookup findByEmployeeIdAndMonthWithSource(String employeeId, YearMonth month) {
+                int rows = 0;
+                LocalDateTime latest = null;
+                for (PayrollTransaction row : payroll) {
+                    YearMonth rowMonth = YearMonth.from(row.getPayPeriodEnd());
+                    if (rowMonth.getYear() == month.getYear() && !rowMonth.isAfter(month)) {
+                        rows++;
+                        latest = latest == null || row.getLoadDate().isAfter(latest) ? row.getLoadDate() : latest;
+                    }
+                }
+                return new LedgerLookup(ledger.get(month), rows, latest);
+            }
+
+            @Override
+            public Map<String, List<YtdLedgerEntry>> findByEmployeeIdsAndMonthRange(Collection<String> employeeIds,
+                                                                                   YearMonth fromMonth, YearMonth toMonth) {
+                Map<String, List<YtdLedgerEntry>> entries = new HashMap<>();
+                if (!fromMonth.isAfter(toMonth)) {
+                    entries.put(EMPLOYEE, new ArrayList<>(ledger.subMap(fromMonth, true, toMonth, true).values()));
+                }
+                return entries;
+            }
+
+            @Override
+            public LocalDateTime findLatestSourceLoadDate() {
+                return null;
+            }
+
+            @Override
+            public void replaceFrom(Map<String, ? extends Collection<YearMonth>> fromMonthsByEmployee,
+                                    List<YtdLedgerEntry> entries) {
+                for (YearMonth from : fromMonthsByEmployee.get(EMPLOYEE)) {
+                    ledger.subMap(from, true, YearMonth.of(from.getYear(), 12), true).clear();
+                }
+                entries.forEach(entry -> ledger.put(entry.getMonth(), entry));
+            }
+        };
+        return new YtdLedgerService(payrollRepository, ledgerRepository, null, new SimpleMeterRegistry(),
+                true, 100, 3_600_000);
+    }
+
+    private PayrollTransaction addPayroll(YearMonth month, LocalDateTime loadDate) {
+        PayrollTransaction row = new PayrollTransaction();
+        row.setEmployeeId(EMPLOYEE);
+        row.setPayPeriodEnd(month.atEndOfMonth());
+        row.setGrossPay(Money.ofCents(100_000));
+        row.setNetPay(Money.ofCents(80_000));
+        row.setLoadDate(loadDate);
+        payroll.add(row);
+        return row;
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntBitmapTest {
+
+    @Test
+    void emptyContainsNothing() {
+        assertEquals(0, IntBitmap.EMPTY.cardinality());
+        assertFalse(IntBitmap.EMPTY.contains(0));
+        assertSame(IntBitmap.EMPTY, IntBitmap.of(new BitSet()));
+    }
+
+    @Test
+    void containsExactlyTheSetBits() {
+        IntBitmap bitmap = IntBitmap.of(bits(0, 5, 65_535, 65_536, 10_000_000));
+
+        assertEquals(5, bitmap.cardinality());
+        for (int value : new int[] {0, 5, 65_535, 65_536, 10_000_000}) {
+            assertTrue(bitmap.contains(value), "contains " + value);
+        }
+        for (int value : new int[] {1, 4, 6, 65_537, 131_072, 9_999_999, Integer.MAX_VALUE}) {
+            assertFalse(bitmap.contains(value), "does not contain " + value);
+        }
+        assertFalse(bitmap.contains(-1));
+        assertFalse(bitmap.contains(Integer.MIN_VALUE));
+    }
+
+    @Test
+    void orAddsToACopyAndLeavesTheOriginal() {
+        IntBitmap original = IntBitmap.of(bits(1, 70_000));
+
+        IntBitmap merged = original.or(bits(2, 70_000, 200_000));
+
+        assertEquals(4, merged.cardinality(), "70,000 is counted once");
+        assertTrue(merged.contains(1) && merged.contains(2) && merged.contains(70_000) && merged.contains(200_000));
+        assertEquals(2, original.cardinality());
+        assertFalse(original.contains(2));
+        assertSame(original, original.or(new BitSet()));
+    }
+
+    @Test
+    void denseChunksStayExactAcrossTheArrayLimit() {
+        // Every other value of one chunk, then the odd ones, crossing from a sorted array to a bitmap
+        BitSet evens = new BitSet();
+        BitSet odds = new BitSet();
+        for (int value = 0; value < 65_536; value++) {
+            (value % 2 == 0 ? evens : odds).set(value);
+        }
+
+        IntBitmap half = IntBitmap.of(evens);
+        IntBitmap full = half.or(odds);
+
+        assertEquals(32_768, half.cardinality());
+        assertTrue(half.contains(65_534));
+        assertFalse(half.contains(65_535));
+        assertEquals(65_536, full.cardinality());
+        assertTrue(full.contains(65_535));
+        assertFalse(full.contains(65_536));
+        // A full chunk is a 64 Kbit bitmap, far smaller than two bytes per value
+        assertTrue(full.approxBytes() < 10_000, "approxBytes " + full.approxBytes());
+    }
+
+    @Test
+    void sparseValuesCostAboutTwoBytesEach() {
+        BitSet values = new BitSet();
+        for (int value = 0; value < 2_000; value++) {
+            values.set(1_000_000 + value * 7);
+        }
+
+        IntBitmap bitmap = IntBitmap.of(values);
+
+        assertEquals(2_000, bitmap.cardinality());
+        assertTrue(bitmap.approxBytes() < 5_000, "approxBytes " + bitmap.approxBytes());
+    }
+
+    private static BitSet bits(int... values) {
+        BitSet bits = new BitSet();
+        for (int value : values) {
+            bits.set(value);
+        }
+        return bits;
+    }
+}
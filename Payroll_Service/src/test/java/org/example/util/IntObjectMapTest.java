@@ -0,0 +1,83 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntObjectMapTest {
+
+    @Test
+    void putsAndGets() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.put(3, "three"));
+        assertNull(map.put(0, "zero"));
+
+        assertEquals("three", map.get(3));
+        assertEquals("zero", map.get(0));
+        assertNull(map.get(1));
+        assertEquals("none", map.getOrDefault(1, "none"));
+        assertTrue(map.containsKey(0));
+        assertFalse(map.containsKey(1));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void putReplacesAndReturnsThePreviousValue() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(7, "seven");
+
+        assertEquals("seven", map.put(7, "SEVEN"));
+        assertEquals("SEVEN", map.get(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void nullValuesAreStoredUnderTheirKey() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(2, null);
+
+        assertTrue(map.containsKey(2));
+        assertEquals("default", map.getOrDefault(3, "default"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void negativeKeysAreAbsentAndCannotBePut() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "one");
+
+        assertFalse(map.containsKey(-1));
+        assertNull(map.get(-1));
+        assertEquals("none", map.getOrDefault(-1, "none"));
+        assertThrows(IllegalArgumentException.class, () -> map.put(-1, "minus one"));
+    }
+
+    @Test
+    void growsAndVisitsEveryMapping() {
+        // Keys far apart and close together, so some share a probe run
+        IntObjectMap<Integer> map = new IntObjectMap<>(2);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = i % 2 == 0 ? i : i * 65_536;
+            map.put(key, i);
+            expected.put(key, i);
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach((value, key) -> assertNull(visited.put(key, value), "key " + key + " visited twice"));
+        assertEquals(expected, visited);
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringDictionaryTest {
+
+    private final StringDictionary types = new StringDictionary(type -> type.strip().toLowerCase(Locale.ROOT));
+
+    @Test
+    void assignsDenseIdsInFirstSeenOrder() {
+        StringDictionary ids = new StringDictionary(UnaryOperator.identity());
+
+        assertEquals(0, ids.id("emp1"));
+        assertEquals(1, ids.id("emp2"));
+        assertEquals(0, ids.id(new String("emp1")));
+        assertEquals(2, ids.size());
+        assertEquals("emp2", ids.name(1));
+    }
+
+    @Test
+    void spellingsDifferingInCaseOrPaddingShareAnId() {
+        int id = types.id("Dental");
+
+        assertEquals(id, types.id("dental"));
+        assertEquals(id, types.id(" DENTAL "));
+        assertEquals(1, types.size());
+    }
+
+    @Test
+    void keepsTheSpellingOfEveryValue() {
+        types.id("Dental");
+
+        assertEquals("Dental", types.canonical("Dental"));
+        assertEquals("DENTAL", types.canonical("DENTAL"));
+        assertEquals("dental", types.canonical("dental"));
+        assertEquals("Dental", types.name(types.id("dental")), "the name is the first spelling seen");
+    }
+
+    @Test
+    void canonicalReturnsOneSharedInstancePerSpelling() {
+        String first = types.canonical(new String("401(k) Plan"));
+
+        assertSame(first, types.canonical(new String("401(k) Plan")));
+        assertEquals(types.id("401(k) plan"), types.id(first));
+        assertNull(types.canonical(null));
+    }
+
+    @Test
+    void findMatchesUnseenSpellingsWithoutAddingThem() {
+        int id = types.id("Vision");
+
+        assertEquals(id, types.find(" vision"));
+        assertEquals(-1, types.find("dental"));
+        assertEquals(1, types.size());
+    }
+
+    @Test
+    void rejectsUnknownIds() {
+        types.id("Vision");
+
+        assertThrows(IllegalArgumentException.class, () -> types.name(1));
+        assertThrows(IllegalArgumentException.class, () -> types.name(-1));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, types.id("Type " + i));
+        }
+
+        assertEquals(1000, types.size());
+        assertEquals("Type 999", types.name(999));
+        assertEquals(999, types.find("TYPE 999"));
+        assertTrue(types.approxBytes() > 1000 * 8);
+    }
+}